@@ -22,8 +22,15 @@
 
 package org.jboss.as.clustering;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.security.AccessController;
+import java.security.PrivilegedAction;
+import java.util.concurrent.atomic.AtomicReferenceArray;
 
+import org.jboss.marshalling.ByteInput;
+import org.jboss.marshalling.ByteOutput;
 import org.jboss.marshalling.ClassResolver;
 import org.jboss.marshalling.Marshaller;
 import org.jboss.marshalling.MarshallerFactory;
@@ -31,11 +38,26 @@ import org.jboss.marshalling.MarshallingConfiguration;
 import org.jboss.marshalling.Unmarshaller;
 
 /**
+ * Creates marshallers and unmarshallers for a given configuration.
+ * <p/>
+ * {@link #marshal(Object)} and {@link #unmarshal(byte[])} reuse marshallers, unmarshallers and their buffers across
+ * invocations. These are kept in a small number of stripes, selected by the calling thread, so that they are released
+ * together with this context rather than pinned to the threads which used them. Marshallers and unmarshallers are only
+ * returned to the pool once a stream was finished successfully, since {@link Marshaller#finish()} and
+ * {@link Unmarshaller#finish()} discard their instance caches.
+ *
  * @author Paul Ferraro
  */
 public class MarshallingContext {
+    // Upper bound on the buffer capacity retained between invocations
+    private static final int MAX_RETAINED_BUFFER_SIZE = 128 * 1024;
+    private static final int INITIAL_BUFFER_SIZE = 512;
+    private static final int MAX_STRIPES = 4;
+
     private final MarshallerFactory factory;
     private final MarshallingConfiguration configuration;
+    private final Pool<PooledMarshaller> marshallers = new Pool<PooledMarshaller>();
+    private final Pool<PooledUnmarshaller> unmarshallers = new Pool<PooledUnmarshaller>();
 
     public MarshallingContext(MarshallerFactory factory, MarshallingConfiguration configuration) {
         this.factory = factory;
@@ -55,4 +77,183 @@ public class MarshallingContext {
         final ClassResolver resolver = configuration.getClassResolver();
         return (resolver instanceof ClassLoaderProvider) ? ((ClassLoaderProvider) resolver).getClassLoader() : null;
     }
+
+    /**
+     * Marshals the specified object using a pooled marshaller.
+     * @param object the object to marshal
+     * @return the marshalled object
+     * @throws IOException if the object could not be marshalled
+     */
+    public byte[] marshal(Object object) throws IOException {
+        PooledMarshaller pooled = this.marshallers.take();
+        if (pooled == null) {
+            pooled = new PooledMarshaller(this.createMarshaller());
+        }
+        boolean reusable = false;
+        try {
+            Marshaller marshaller = pooled.marshaller;
+            OutputBuffer buffer = pooled.buffer;
+            buffer.reset();
+            marshaller.start(buffer);
+            // Workaround for AS7-2496
+            ClassLoader currentLoader = null;
+            ClassLoader contextLoader = this.getContextClassLoader();
+            if (contextLoader != null) {
+                currentLoader = getCurrentThreadContextClassLoader();
+                setCurrentThreadContextClassLoader(contextLoader);
+            }
+            try {
+                marshaller.writeObject(object);
+            } finally {
+                if (contextLoader != null) {
+                    setCurrentThreadContextClassLoader(currentLoader);
+                }
+            }
+            marshaller.finish();
+            byte[] bytes = buffer.toByteArray();
+            reusable = buffer.capacity() <= MAX_RETAINED_BUFFER_SIZE;
+            return bytes;
+        } finally {
+            if (!reusable || !this.marshallers.offer(pooled)) {
+                pooled.marshaller.close();
+            }
+        }
+    }
+
+    /**
+     * Unmarshals an object from the specified bytes using a pooled unmarshaller.
+     * @param bytes a marshalled object, as returned by {@link #marshal(Object)}
+     * @return the unmarshalled object
+     * @throws IOException if the object could not be unmarshalled
+     * @throws ClassNotFoundException if the class of a marshalled object could not be resolved
+     */
+    public Object unmarshal(byte[] bytes) throws IOException, ClassNotFoundException {
+        PooledUnmarshaller pooled = this.unmarshallers.take();
+        if (pooled == null) {
+            pooled = new PooledUnmarshaller(this.createUnmarshaller());
+        }
+        boolean reusable = false;
+        try {
+            Unmarshaller unmarshaller = pooled.unmarshaller;
+            InputBuffer buffer = pooled.buffer;
+            buffer.reset(bytes);
+            unmarshaller.start(buffer);
+            // Workaround for AS7-2496
+            ClassLoader currentLoader = null;
+            ClassLoader contextLoader = this.getContextClassLoader();
+            if (contextLoader != null) {
+                currentLoader = getCurrentThreadContextClassLoader();
+                setCurrentThreadContextClassLoader(contextLoader);
+            }
+            Object object = null;
+            try {
+                object = unmarshaller.readObject();
+            } finally {
+                if (contextLoader != null) {
+                    setCurrentThreadContextClassLoader(currentLoader);
+                }
+            }
+            unmarshaller.finish();
+            // Don't hold on to the bytes
+            buffer.reset(null);
+            reusable = true;
+            return object;
+        } finally {
+            if (!reusable || !this.unmarshallers.offer(pooled)) {
+                pooled.unmarshaller.close();
+            }
+        }
+    }
+
+    private static ClassLoader getCurrentThreadContextClassLoader() {
+        PrivilegedAction<ClassLoader> action = new PrivilegedAction<ClassLoader>() {
+            @Override
+            public ClassLoader run() {
+                return Thread.currentThread().getContextClassLoader();
+            }
+        };
+        return AccessController.doPrivileged(action);
+    }
+
+    private static void setCurrentThreadContextClassLoader(final ClassLoader loader) {
+        PrivilegedAction<Void> action = new PrivilegedAction<Void>() {
+            @Override
+            public Void run() {
+                Thread.currentThread().setContextClassLoader(loader);
+                return null;
+            }
+        };
+        AccessController.doPrivileged(action);
+    }
+
+    private static class PooledMarshaller {
+        final Marshaller marshaller;
+        final OutputBuffer buffer = new OutputBuffer();
+
+        PooledMarshaller(Marshaller marshaller) {
+            this.marshaller = marshaller;
+        }
+    }
+
+    private static class PooledUnmarshaller {
+        final Unmarshaller unmarshaller;
+        final InputBuffer buffer = new InputBuffer();
+
+        PooledUnmarshaller(Unmarshaller unmarshaller) {
+            this.unmarshaller = unmarshaller;
+        }
+    }
+
+    /**
+     * A growable byte buffer which can be written to by a marshaller directly.
+     */
+    private static class OutputBuffer extends ByteArrayOutputStream implements ByteOutput {
+        OutputBuffer() {
+            super(INITIAL_BUFFER_SIZE);
+        }
+
+        int capacity() {
+            return this.buf.length;
+        }
+    }
+
+    /**
+     * A byte array input which can be read by an unmarshaller directly, and reset to another array.
+     */
+    private static class InputBuffer extends ByteArrayInputStream implements ByteInput {
+        private static final byte[] EMPTY = new byte[0];
+
+        InputBuffer() {
+            super(EMPTY);
+        }
+
+        void reset(byte[] bytes) {
+            this.buf = (bytes != null) ? bytes : EMPTY;
+            this.pos = 0;
+            this.mark = 0;
+            this.count = this.buf.length;
+        }
+    }
+
+    /**
+     * Holds idle instances in one slot per stripe; the calling thread determines the stripe.
+     */
+    private static class Pool<T> {
+        private static final int STRIPES = Integer.highestOneBit(Math.max(1, Math.min(Runtime.getRuntime().availableProcessors(), MAX_STRIPES)));
+
+        private final AtomicReferenceArray<T> slots = new AtomicReferenceArray<T>(STRIPES);
+
+        T take() {
+            int index = index();
+            return (this.slots.get(index) != null) ? this.slots.getAndSet(index, null) : null;
+        }
+
+        boolean offer(T value) {
+            return this.slots.compareAndSet(index(), null, value);
+        }
+
+        private static int index() {
+            return (int) Thread.currentThread().getId() & (STRIPES - 1);
+        }
+    }
 }
@@ -0,0 +1,80 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2012, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.jboss.as.clustering;
+
+import java.io.IOException;
+import java.util.IdentityHashMap;
+import java.util.Map;
+
+import org.jboss.marshalling.ClassTable;
+import org.jboss.marshalling.Marshaller;
+import org.jboss.marshalling.Unmarshaller;
+
+/**
+ * A class table which pre-registers a fixed list of classes, so that these are written as a single byte instead of their
+ * class descriptor. All nodes must register the same classes in the same order.
+ * Install via {@link org.jboss.marshalling.MarshallingConfiguration#setClassTable(ClassTable)}.
+ */
+public class SimpleClassTable implements ClassTable {
+    private static final int MAX_CLASSES = 256;
+
+    private final Class<?>[] classes;
+    private final Map<Class<?>, Writer> writers = new IdentityHashMap<Class<?>, Writer>();
+
+    public SimpleClassTable(Class<?>... classes) {
+        if (classes.length > MAX_CLASSES) {
+            throw new IllegalArgumentException(String.format("%s supports at most %d classes", this.getClass().getName(), MAX_CLASSES));
+        }
+        this.classes = classes.clone();
+        for (int i = 0; i < classes.length; i++) {
+            this.writers.put(classes[i], new ByteWriter((byte) i));
+        }
+    }
+
+    @Override
+    public Writer getClassWriter(Class<?> clazz) throws IOException {
+        return this.writers.get(clazz);
+    }
+
+    @Override
+    public Class<?> readClass(Unmarshaller unmarshaller) throws IOException, ClassNotFoundException {
+        int index = unmarshaller.readUnsignedByte();
+        if (index >= this.classes.length) {
+            throw new ClassNotFoundException(String.format("ClassTable %s cannot find a class for class index %d", this.getClass().getName(), index));
+        }
+        return this.classes[index];
+    }
+
+    private static final class ByteWriter implements Writer {
+        private final byte index;
+
+        ByteWriter(byte index) {
+            this.index = index;
+        }
+
+        @Override
+        public void writeClass(Marshaller marshaller, Class<?> clazz) throws IOException {
+            marshaller.writeByte(this.index);
+        }
+    }
+}
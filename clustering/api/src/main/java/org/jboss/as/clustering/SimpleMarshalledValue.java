@@ -22,19 +22,11 @@
 
 package org.jboss.as.clustering;
 
-import java.io.ByteArrayInputStream;
-import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.ObjectInputStream;
 import java.io.ObjectOutputStream;
-import java.security.AccessController;
-import java.security.PrivilegedAction;
 import java.util.Arrays;
 
-import org.jboss.marshalling.Marshaller;
-import org.jboss.marshalling.Marshalling;
-import org.jboss.marshalling.Unmarshaller;
-
 /**
  * A non-hashable marshalled value, that is lazily serialized, but only deserialized on demand.
  * @author Paul Ferraro
@@ -51,37 +43,33 @@ public class SimpleMarshalledValue<T> implements MarshalledValue<T, MarshallingC
         this.object = object;
     }
 
+    /**
+     * Creates a marshalled value from the serialized form of an object, as returned by {@link #getBytes()}.
+     * The object is deserialized on demand via {@link #get(MarshallingContext)}.
+     * @param bytes the serialized form of an object
+     * @return a marshalled value
+     */
+    public static <T> SimpleMarshalledValue<T> fromBytes(byte[] bytes) {
+        SimpleMarshalledValue<T> value = new SimpleMarshalledValue<T>(null, null);
+        value.bytes = bytes;
+        return value;
+    }
+
     T peek() {
         return this.object;
     }
 
-    byte[] getBytes() throws IOException {
+    /**
+     * Returns the serialized form of the underlying object.
+     * Unless this value has yet to be deserialized, the object is marshalled anew on every invocation.
+     * @return the serialized object, or null if the object is null
+     * @throws IOException if the object could not be marshalled
+     */
+    public byte[] getBytes() throws IOException {
         byte[] bytes = this.bytes;
         if (bytes != null) return bytes;
         if (this.object == null) return null;
-        ByteArrayOutputStream output = new ByteArrayOutputStream();
-        Marshaller marshaller = this.context.createMarshaller();
-        try {
-            marshaller.start(Marshalling.createByteOutput(output));
-            // Workaround for AS7-2496
-            ClassLoader currentLoader = null;
-            ClassLoader contextLoader = context.getContextClassLoader();
-            if (contextLoader != null) {
-                currentLoader = getCurrentThreadContextClassLoader();
-                setCurrentThreadContextClassLoader(contextLoader);
-            }
-            try {
-                marshaller.writeObject(this.object);
-            } finally {
-                if (contextLoader != null) {
-                    setCurrentThreadContextClassLoader(currentLoader);
-                }
-            }
-            marshaller.finish();
-            return output.toByteArray();
-        } finally {
-            marshaller.close();
-        }
+        return this.context.marshal(this.object);
     }
 
     /**
@@ -94,28 +82,8 @@ public class SimpleMarshalledValue<T> implements MarshalledValue<T, MarshallingC
         if (this.object == null) {
             this.context = context;
             if (this.bytes != null) {
-                Unmarshaller unmarshaller = context.createUnmarshaller();
-                try {
-                    unmarshaller.start(Marshalling.createByteInput(new ByteArrayInputStream(this.bytes)));
-                    // Workaround for AS7-2496
-                    ClassLoader currentLoader = null;
-                    ClassLoader contextLoader = context.getContextClassLoader();
-                    if (contextLoader != null) {
-                        currentLoader = getCurrentThreadContextClassLoader();
-                        setCurrentThreadContextClassLoader(contextLoader);
-                    }
-                    try {
-                        this.object = (T) unmarshaller.readObject();
-                    } finally {
-                        if (contextLoader != null) {
-                            setCurrentThreadContextClassLoader(currentLoader);
-                        }
-                    }
-                    unmarshaller.finish();
-                    this.bytes = null; // Free up memory
-                } finally {
-                    unmarshaller.close();
-                }
+                this.object = (T) context.unmarshal(this.bytes);
+                this.bytes = null; // Free up memory
             }
         }
         return this.object;
@@ -162,7 +130,7 @@ public class SimpleMarshalledValue<T> implements MarshalledValue<T, MarshallingC
         byte[] bytes = null;
         if (size > 0) {
             bytes = new byte[size];
-            in.read(bytes);
+            in.readFully(bytes);
         }
         this.bytes = bytes;
     }
@@ -177,25 +145,4 @@ public class SimpleMarshalledValue<T> implements MarshalledValue<T, MarshallingC
             out.writeInt(0);
         }
     }
-
-    static ClassLoader getCurrentThreadContextClassLoader() {
-        PrivilegedAction<ClassLoader> action = new PrivilegedAction<ClassLoader>() {
-            @Override
-            public ClassLoader run() {
-                return Thread.currentThread().getContextClassLoader();
-            }
-        };
-        return AccessController.doPrivileged(action);
-    }
-
-    static void setCurrentThreadContextClassLoader(final ClassLoader loader) {
-        PrivilegedAction<Void> action = new PrivilegedAction<Void>() {
-            @Override
-            public Void run() {
-                Thread.currentThread().setContextClassLoader(loader);
-                return null;
-            }
-        };
-        AccessController.doPrivileged(action);
-    }
 }
@@ -0,0 +1,81 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2012, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.jboss.as.clustering;
+
+import java.io.IOException;
+import java.io.InvalidObjectException;
+import java.util.IdentityHashMap;
+import java.util.Map;
+
+import org.jboss.marshalling.Marshaller;
+import org.jboss.marshalling.ObjectTable;
+import org.jboss.marshalling.Unmarshaller;
+
+/**
+ * An object table which pre-registers a fixed list of well-known instances, e.g. immutable singletons, so that these are
+ * written as a single byte and resolved to the same instance when read. All nodes must register the same instances in the
+ * same order. Install via {@link org.jboss.marshalling.MarshallingConfiguration#setObjectTable(ObjectTable)}.
+ */
+public class SimpleObjectTable implements ObjectTable {
+    private static final int MAX_OBJECTS = 256;
+
+    private final Object[] objects;
+    private final Map<Object, Writer> writers = new IdentityHashMap<Object, Writer>();
+
+    public SimpleObjectTable(Object... objects) {
+        if (objects.length > MAX_OBJECTS) {
+            throw new IllegalArgumentException(String.format("%s supports at most %d objects", this.getClass().getName(), MAX_OBJECTS));
+        }
+        this.objects = objects.clone();
+        for (int i = 0; i < objects.length; i++) {
+            this.writers.put(objects[i], new ByteWriter((byte) i));
+        }
+    }
+
+    @Override
+    public Writer getObjectWriter(Object object) throws IOException {
+        return this.writers.get(object);
+    }
+
+    @Override
+    public Object readObject(Unmarshaller unmarshaller) throws IOException, ClassNotFoundException {
+        int index = unmarshaller.readUnsignedByte();
+        if (index >= this.objects.length) {
+            throw new InvalidObjectException(String.format("ObjectTable %s cannot find an object for object index %d", this.getClass().getName(), index));
+        }
+        return this.objects[index];
+    }
+
+    private static final class ByteWriter implements Writer {
+        private final byte index;
+
+        ByteWriter(byte index) {
+            this.index = index;
+        }
+
+        @Override
+        public void writeObject(Marshaller marshaller, Object object) throws IOException {
+            marshaller.writeByte(this.index);
+        }
+    }
+}
@@ -0,0 +1,99 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2012, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.jboss.as.clustering;
+
+import static org.junit.Assert.*;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.UUID;
+
+import org.jboss.marshalling.Marshalling;
+import org.jboss.marshalling.MarshallingConfiguration;
+import org.junit.Test;
+
+/**
+ * Unit tests for the pooled marshalling of {@link MarshallingContext}.
+ */
+public class MarshallingContextTestCase {
+
+    @Test
+    public void reuse() throws Exception {
+        MarshallingContext context = createContext(new MarshallingConfiguration());
+        for (int i = 0; i < 100; i++) {
+            List<Object> list = new ArrayList<Object>();
+            list.add(UUID.randomUUID());
+            list.add(Integer.valueOf(i));
+            byte[] bytes = context.marshal(list);
+            assertEquals(list, context.unmarshal(bytes));
+        }
+    }
+
+    @Test
+    public void nested() throws Exception {
+        MarshallingContext context = createContext(new MarshallingConfiguration());
+        UUID uuid = UUID.randomUUID();
+        // Marshalling the outer value marshals the inner value while the outer marshaller is in use
+        SimpleMarshalledValue<SimpleMarshalledValue<UUID>> value = new SimpleMarshalledValue<SimpleMarshalledValue<UUID>>(new SimpleMarshalledValue<UUID>(uuid, context), context);
+
+        SimpleMarshalledValue<SimpleMarshalledValue<UUID>> copy = SimpleMarshalledValue.fromBytes(value.getBytes());
+
+        assertEquals(uuid, copy.get(context).get(context));
+    }
+
+    @Test
+    public void failure() throws Exception {
+        MarshallingContext context = createContext(new MarshallingConfiguration());
+        try {
+            context.marshal(new Object());
+            fail("Object is not serializable");
+        } catch (IOException e) {
+            // Expected
+        }
+        // A failed marshaller must not be reused
+        UUID uuid = UUID.randomUUID();
+        assertEquals(uuid, context.unmarshal(context.marshal(uuid)));
+    }
+
+    @Test
+    public void tables() throws Exception {
+        MarshallingContext context = createContext(new MarshallingConfiguration());
+        MarshallingConfiguration configuration = new MarshallingConfiguration();
+        configuration.setClassTable(new SimpleClassTable(UUID.class));
+        configuration.setObjectTable(new SimpleObjectTable(Collections.EMPTY_LIST));
+        MarshallingContext registeredContext = createContext(configuration);
+
+        UUID uuid = UUID.randomUUID();
+        byte[] bytes = registeredContext.marshal(uuid);
+        assertTrue(bytes.length < context.marshal(uuid).length);
+        assertEquals(uuid, registeredContext.unmarshal(bytes));
+
+        assertSame(Collections.EMPTY_LIST, registeredContext.unmarshal(registeredContext.marshal(Collections.EMPTY_LIST)));
+    }
+
+    private static MarshallingContext createContext(MarshallingConfiguration configuration) {
+        return new MarshallingContext(Marshalling.getMarshallerFactory("river", Marshalling.class.getClassLoader()), configuration);
+    }
+}
@@ -0,0 +1,120 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2012, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.jboss.as.clustering.web.infinispan;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.jboss.as.clustering.SimpleMarshalledValue;
+import org.jboss.as.clustering.web.OutgoingSessionGranularitySessionData;
+import org.jboss.as.clustering.web.SessionAttributeMarshaller;
+import org.jboss.as.clustering.web.SessionReplicationStatistics;
+import org.jboss.metadata.web.jboss.ReplicationGranularity;
+
+/**
+ * Handles session attribute load/store operations for {@link ReplicationGranularity#SESSION} distributed session managers,
+ * replicating only the binary difference to the previously replicated attribute map.
+ * <p/>
+ * The complete marshalled attribute map is stored as the base, tagged with the session version. Subsequent stores only
+ * replace the {@link SessionAttributesDelta} against that base - since the atomic map replicates only modified entries, the
+ * base itself is not sent again. Once the delta grows beyond half the size of the complete attribute map, the base is
+ * replaced instead.
+ */
+public class DeltaSessionAttributeStorage implements SessionAttributeStorage<OutgoingSessionGranularitySessionData>, SessionReplicationStatistics {
+    private final SessionAttributeMarshaller marshaller;
+
+    private final AtomicLong fullReplicationCount = new AtomicLong();
+    private final AtomicLong deltaReplicationCount = new AtomicLong();
+    private final AtomicLong marshalledBytes = new AtomicLong();
+    private final AtomicLong replicatedBytes = new AtomicLong();
+
+    public DeltaSessionAttributeStorage(SessionAttributeMarshaller marshaller) {
+        this.marshaller = marshaller;
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * @see org.jboss.as.clustering.web.infinispan.SessionAttributeStorage#store(java.util.Map, org.jboss.as.clustering.web.OutgoingDistributableSessionData)
+     */
+    @Override
+    public void store(Map<Object, Object> map, OutgoingSessionGranularitySessionData sessionData) throws IOException {
+        Map<String, Object> attributes = sessionData.getSessionAttributes();
+        if (attributes == null) return;
+
+        byte[] bytes = ((SimpleMarshalledValue<?>) this.marshaller.marshal(attributes)).getBytes();
+        this.marshalledBytes.addAndGet(bytes.length);
+
+        MarshalledSessionAttributes base = SessionMapEntry.MARSHALLED_ATTRIBUTES.get(map);
+        if (base != null) {
+            SessionAttributesDelta delta = SessionAttributesDelta.create(base, bytes, bytes.length / 2);
+            if (delta != null) {
+                SessionMapEntry.ATTRIBUTES_DELTA.put(map, delta);
+                this.deltaReplicationCount.incrementAndGet();
+                this.replicatedBytes.addAndGet(delta.size());
+                return;
+            }
+        }
+
+        SessionMapEntry.MARSHALLED_ATTRIBUTES.put(map, new MarshalledSessionAttributes(sessionData.getVersion(), bytes));
+        SessionMapEntry.ATTRIBUTES_DELTA.remove(map);
+        this.fullReplicationCount.incrementAndGet();
+        this.replicatedBytes.addAndGet(bytes.length);
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * @see org.jboss.as.clustering.web.infinispan.SessionAttributeStorage#load(java.util.Map)
+     */
+    @SuppressWarnings("unchecked")
+    @Override
+    public Map<String, Object> load(Map<Object, Object> map) throws IOException, ClassNotFoundException {
+        MarshalledSessionAttributes base = SessionMapEntry.MARSHALLED_ATTRIBUTES.get(map);
+        if (base == null) return null;
+
+        SessionAttributesDelta delta = SessionMapEntry.ATTRIBUTES_DELTA.get(map);
+        byte[] bytes = (delta != null) ? delta.apply(base) : base.getBytes();
+        return (Map<String, Object>) this.marshaller.unmarshal(SimpleMarshalledValue.fromBytes(bytes));
+    }
+
+    @Override
+    public long getFullReplicationCount() {
+        return this.fullReplicationCount.get();
+    }
+
+    @Override
+    public long getDeltaReplicationCount() {
+        return this.deltaReplicationCount.get();
+    }
+
+    @Override
+    public long getMarshalledBytes() {
+        return this.marshalledBytes.get();
+    }
+
+    @Override
+    public long getReplicatedBytes() {
+        return this.replicatedBytes.get();
+    }
+}
@@ -51,7 +51,9 @@ import org.jboss.as.clustering.web.DistributableSessionMetadata;
 import org.jboss.as.clustering.web.IncomingDistributableSessionData;
 import org.jboss.as.clustering.web.LocalDistributableSessionManager;
 import org.jboss.as.clustering.web.OutgoingDistributableSessionData;
+import org.jboss.as.clustering.web.SessionMetadataVisitor;
 import org.jboss.as.clustering.web.SessionOwnershipSupport;
+import org.jboss.as.clustering.web.SessionReplicationStatistics;
 import org.jboss.as.clustering.web.impl.IncomingDistributableSessionDataImpl;
 
 import static org.jboss.as.clustering.web.infinispan.InfinispanWebLogger.ROOT_LOGGER;
@@ -335,6 +337,24 @@ public class DistributedCacheManager<T extends OutgoingDistributableSessionData>
         return result;
     }
 
+    /**
+     * {@inheritDoc}
+     *
+     * @see org.jboss.as.clustering.web.DistributedCacheManager#visitSessions(org.jboss.as.clustering.web.SessionMetadataVisitor)
+     */
+    @Override
+    public void visitSessions(SessionMetadataVisitor visitor) {
+        // Read all local entries at once, instead of looking up each session separately
+        for (Map.Entry<String, Map<Object, Object>> entry: this.cache.entrySet()) {
+            Map<Object, Object> map = entry.getValue();
+            if (map == null) continue;
+
+            Long timestamp = SessionMapEntry.TIMESTAMP.get(map);
+            DistributableSessionMetadata metadata = SessionMapEntry.METADATA.get(map);
+            visitor.visit(entry.getKey(), null, (timestamp != null) ? timestamp.longValue() : -1, metadata);
+        }
+    }
+
     /**
      * {@inheritDoc}
      *
@@ -426,6 +446,16 @@ public class DistributedCacheManager<T extends OutgoingDistributableSessionData>
         return this.manager.getJvmRoute();
     }
 
+    /**
+     * {@inheritDoc}
+     *
+     * @see org.jboss.as.clustering.web.DistributedCacheManager#getReplicationStatistics()
+     */
+    @Override
+    public SessionReplicationStatistics getReplicationStatistics() {
+        return (this.attributeStorage instanceof SessionReplicationStatistics) ? (SessionReplicationStatistics) this.attributeStorage : null;
+    }
+
     @CacheEntryRemoved
     public void removed(CacheEntryRemovedEvent<String, Map<Object, Object>> event) {
         if (event.isPre() || event.isOriginLocal()) return;
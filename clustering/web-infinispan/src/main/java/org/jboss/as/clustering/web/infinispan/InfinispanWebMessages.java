@@ -22,6 +22,8 @@
 
 package org.jboss.as.clustering.web.infinispan;
 
+import java.io.InvalidObjectException;
+
 import org.jboss.logging.Cause;
 import org.jboss.logging.Message;
 import org.jboss.logging.MessageBundle;
@@ -108,4 +110,24 @@ interface InfinispanWebMessages {
      */
     @Message(id = 10336, value = "Unknown replication granularity: %s")
     IllegalArgumentException unknownReplicationGranularity(ReplicationGranularity value);
+
+    /**
+     * Creates an exception indicating a session attribute delta was computed against a different version of the marshalled
+     * session attributes than the one it is being applied to.
+     *
+     * @param deltaBaseVersion the version against which the delta was computed.
+     * @param baseVersion      the version of the marshalled session attributes.
+     *
+     * @return an {@link InvalidObjectException} for the error.
+     */
+    @Message(id = 10337, value = "Session attribute delta is based on version %d, but the replicated session attributes are of version %d")
+    InvalidObjectException incompatibleAttributesDelta(int deltaBaseVersion, int baseVersion);
+
+    /**
+     * Creates an exception indicating a session attribute delta could not be applied.
+     *
+     * @return an {@link InvalidObjectException} for the error.
+     */
+    @Message(id = 10338, value = "Session attribute delta is corrupt")
+    InvalidObjectException corruptAttributesDelta();
 }
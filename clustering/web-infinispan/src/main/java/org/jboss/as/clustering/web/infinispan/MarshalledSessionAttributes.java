@@ -0,0 +1,56 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2012, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.jboss.as.clustering.web.infinispan;
+
+import java.io.Serializable;
+
+/**
+ * The marshalled attribute map of a session, as last replicated in full, tagged with the session version at that time.
+ * Serves as the base against which {@link SessionAttributesDelta}s are computed.
+ */
+public class MarshalledSessionAttributes implements Serializable {
+    private static final long serialVersionUID = 2658104434209541728L;
+
+    private final int version;
+    private final byte[] bytes;
+
+    public MarshalledSessionAttributes(int version, byte[] bytes) {
+        this.version = version;
+        this.bytes = bytes;
+    }
+
+    /**
+     * Returns the version of the session whose attributes were marshalled.
+     * @return a session version
+     */
+    public int getVersion() {
+        return this.version;
+    }
+
+    /**
+     * Returns the marshalled attribute map.
+     * @return the marshalled attribute map
+     */
+    public byte[] getBytes() {
+        return this.bytes;
+    }
+}
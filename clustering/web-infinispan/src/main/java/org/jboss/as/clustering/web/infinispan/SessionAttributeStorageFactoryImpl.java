@@ -34,6 +34,20 @@ import static org.jboss.as.clustering.web.infinispan.InfinispanWebMessages.MESSA
  * @author Paul Ferraro
  */
 public class SessionAttributeStorageFactoryImpl implements SessionAttributeStorageFactory {
+    /**
+     * System property which enables delta replication for {@link ReplicationGranularity#SESSION} granularity.
+     */
+    public static final String DELTA_REPLICATION = "jboss.web.clustered.session.replication.delta";
+
+    private final boolean deltaReplication;
+
+    public SessionAttributeStorageFactoryImpl() {
+        this(Boolean.getBoolean(DELTA_REPLICATION));
+    }
+
+    public SessionAttributeStorageFactoryImpl(boolean deltaReplication) {
+        this.deltaReplication = deltaReplication;
+    }
 
     /**
      * {@inheritDoc}
@@ -45,6 +59,9 @@ public class SessionAttributeStorageFactoryImpl implements SessionAttributeStora
     public <T extends OutgoingDistributableSessionData> SessionAttributeStorage<T> createStorage(ReplicationGranularity granularity, SessionAttributeMarshaller marshaller) {
         switch ((granularity != null) ? granularity : ReplicationGranularity.SESSION) {
             case SESSION: {
+                if (this.deltaReplication) {
+                    return (SessionAttributeStorage<T>) new DeltaSessionAttributeStorage(marshaller);
+                }
                 return (SessionAttributeStorage<T>) new CoarseSessionAttributeStorage(marshaller);
             }
             case ATTRIBUTE: {
@@ -0,0 +1,305 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2012, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.jboss.as.clustering.web.infinispan;
+
+import static org.jboss.as.clustering.web.infinispan.InfinispanWebMessages.MESSAGES;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.Serializable;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.zip.CRC32;
+
+/**
+ * A binary delta which transforms a {@link MarshalledSessionAttributes} of a given version into a newer marshalled attribute
+ * map. The delta is encoded as a sequence of instructions which either copy a range of the base or insert literal bytes.
+ * <p/>
+ * Common leading and trailing bytes are copied as a whole; the remainder is matched block-wise against the base using a
+ * rolling hash, so that unchanged regions which have merely moved are copied as well. The length and checksum of the
+ * target are recorded, so that applying the delta to the wrong base is detected.
+ */
+public class SessionAttributesDelta implements Serializable {
+    private static final long serialVersionUID = -3093164716598765132L;
+
+    private static final int BLOCK_SIZE = 32;
+    private static final int HASH_MULTIPLIER = 31;
+    private static final int HASH_POWER = power(HASH_MULTIPLIER, BLOCK_SIZE - 1);
+
+    private static final byte COPY = 0;
+    private static final byte INSERT = 1;
+
+    private final int baseVersion;
+    private final int length;
+    private final int checksum;
+    private final byte[] patch;
+
+    private SessionAttributesDelta(int baseVersion, int length, int checksum, byte[] patch) {
+        this.baseVersion = baseVersion;
+        this.length = length;
+        this.checksum = checksum;
+        this.patch = patch;
+    }
+
+    /**
+     * Computes the delta which transforms the specified base into the specified target.
+     *
+     * @param base the marshalled attributes the receiver already has
+     * @param target the newly marshalled attributes
+     * @param limit the maximum size of the encoded delta
+     * @return the delta, or null if its encoded size would exceed <code>limit</code> bytes
+     */
+    public static SessionAttributesDelta create(MarshalledSessionAttributes base, byte[] target, int limit) {
+        byte[] source = base.getBytes();
+        int max = Math.min(source.length, target.length);
+        int prefix = 0;
+        while ((prefix < max) && (source[prefix] == target[prefix])) {
+            prefix += 1;
+        }
+        int suffix = 0;
+        while ((suffix < max - prefix) && (source[source.length - suffix - 1] == target[target.length - suffix - 1])) {
+            suffix += 1;
+        }
+
+        PatchWriter writer = new PatchWriter();
+        writer.copy(0, prefix);
+        if (!diff(source, prefix, source.length - suffix, target, prefix, target.length - suffix, writer, limit)) {
+            return null;
+        }
+        writer.copy(source.length - suffix, suffix);
+
+        return (writer.size() <= limit) ? new SessionAttributesDelta(base.getVersion(), target.length, checksum(target), writer.toByteArray()) : null;
+    }
+
+    /**
+     * Returns the version of the marshalled attributes against which this delta was computed.
+     * @return a session version
+     */
+    public int getBaseVersion() {
+        return this.baseVersion;
+    }
+
+    /**
+     * Returns the size of the encoded delta.
+     * @return a number of bytes
+     */
+    public int size() {
+        return this.patch.length;
+    }
+
+    /**
+     * Applies this delta to the specified base.
+     *
+     * @param base the marshalled attributes against which this delta was computed
+     * @return the marshalled attributes at the time this delta was computed
+     * @throws IOException if the base is not the one against which this delta was computed, or the delta is corrupt
+     */
+    public byte[] apply(MarshalledSessionAttributes base) throws IOException {
+        if (base.getVersion() != this.baseVersion) {
+            throw MESSAGES.incompatibleAttributesDelta(this.baseVersion, base.getVersion());
+        }
+        byte[] source = base.getBytes();
+        byte[] result = new byte[this.length];
+        int position = 0;
+        try {
+            PatchReader reader = new PatchReader(this.patch);
+            while (reader.hasNext()) {
+                byte instruction = reader.readByte();
+                if (instruction == COPY) {
+                    int offset = reader.readInt();
+                    int length = reader.readInt();
+                    System.arraycopy(source, offset, result, position, length);
+                    position += length;
+                } else if (instruction == INSERT) {
+                    int length = reader.readInt();
+                    reader.read(result, position, length);
+                    position += length;
+                } else {
+                    throw MESSAGES.corruptAttributesDelta();
+                }
+            }
+        } catch (IndexOutOfBoundsException e) {
+            throw MESSAGES.corruptAttributesDelta();
+        }
+        if ((position != this.length) || (checksum(result) != this.checksum)) {
+            throw MESSAGES.corruptAttributesDelta();
+        }
+        return result;
+    }
+
+    /**
+     * Encodes the instructions which transform <code>source[sourceStart, sourceEnd)</code> into
+     * <code>target[targetStart, targetEnd)</code>.
+     *
+     * @return false, if the encoding exceeded the limit
+     */
+    private static boolean diff(byte[] source, int sourceStart, int sourceEnd, byte[] target, int targetStart, int targetEnd, PatchWriter writer, int limit) {
+        if ((sourceEnd - sourceStart < BLOCK_SIZE) || (targetEnd - targetStart < BLOCK_SIZE)) {
+            writer.insert(target, targetStart, targetEnd - targetStart);
+            return writer.size() <= limit;
+        }
+
+        Map<Integer, Integer> blocks = new HashMap<Integer, Integer>();
+        for (int offset = sourceStart; offset + BLOCK_SIZE <= sourceEnd; offset += BLOCK_SIZE) {
+            Integer hash = Integer.valueOf(hash(source, offset));
+            if (!blocks.containsKey(hash)) {
+                blocks.put(hash, Integer.valueOf(offset));
+            }
+        }
+
+        int literal = targetStart;
+        int position = targetStart;
+        int hash = hash(target, position);
+        while (position + BLOCK_SIZE <= targetEnd) {
+            Integer candidate = blocks.get(Integer.valueOf(hash));
+            if ((candidate != null) && matches(source, candidate.intValue(), target, position)) {
+                // Extend the match in both directions
+                int start = position;
+                int offset = candidate.intValue();
+                while ((start > literal) && (offset > 0) && (source[offset - 1] == target[start - 1])) {
+                    start -= 1;
+                    offset -= 1;
+                }
+                int end = position + BLOCK_SIZE;
+                int sourceOffset = candidate.intValue() + BLOCK_SIZE;
+                while ((end < targetEnd) && (sourceOffset < source.length) && (source[sourceOffset] == target[end])) {
+                    end += 1;
+                    sourceOffset += 1;
+                }
+                writer.insert(target, literal, start - literal);
+                writer.copy(offset, end - start);
+                literal = end;
+                position = end;
+                if (position + BLOCK_SIZE <= targetEnd) {
+                    hash = hash(target, position);
+                }
+            } else {
+                if (position + BLOCK_SIZE < targetEnd) {
+                    hash = (hash - (target[position] & 0xFF) * HASH_POWER) * HASH_MULTIPLIER + (target[position + BLOCK_SIZE] & 0xFF);
+                }
+                position += 1;
+            }
+            if (writer.size() + (position - literal) > limit) {
+                return false;
+            }
+        }
+        writer.insert(target, literal, targetEnd - literal);
+        return writer.size() <= limit;
+    }
+
+    private static boolean matches(byte[] source, int sourceOffset, byte[] target, int targetOffset) {
+        for (int i = 0; i < BLOCK_SIZE; ++i) {
+            if (source[sourceOffset + i] != target[targetOffset + i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static int hash(byte[] bytes, int offset) {
+        int hash = 0;
+        for (int i = 0; i < BLOCK_SIZE; ++i) {
+            hash = hash * HASH_MULTIPLIER + (bytes[offset + i] & 0xFF);
+        }
+        return hash;
+    }
+
+    private static int power(int base, int exponent) {
+        int result = 1;
+        for (int i = 0; i < exponent; ++i) {
+            result *= base;
+        }
+        return result;
+    }
+
+    private static int checksum(byte[] bytes) {
+        CRC32 crc = new CRC32();
+        crc.update(bytes, 0, bytes.length);
+        return (int) crc.getValue();
+    }
+
+    private static class PatchWriter extends ByteArrayOutputStream {
+        PatchWriter() {
+            super(64);
+        }
+
+        void copy(int offset, int length) {
+            if (length > 0) {
+                this.write(COPY);
+                this.writeInt(offset);
+                this.writeInt(length);
+            }
+        }
+
+        void insert(byte[] bytes, int offset, int length) {
+            if (length > 0) {
+                this.write(INSERT);
+                this.writeInt(length);
+                this.write(bytes, offset, length);
+            }
+        }
+
+        // Variable length encoding, 7 bits per byte
+        private void writeInt(int value) {
+            int remaining = value;
+            while ((remaining & ~0x7F) != 0) {
+                this.write((remaining & 0x7F) | 0x80);
+                remaining >>>= 7;
+            }
+            this.write(remaining);
+        }
+    }
+
+    private static class PatchReader {
+        private final byte[] patch;
+        private int position = 0;
+
+        PatchReader(byte[] patch) {
+            this.patch = patch;
+        }
+
+        boolean hasNext() {
+            return this.position < this.patch.length;
+        }
+
+        byte readByte() {
+            return this.patch[this.position++];
+        }
+
+        int readInt() {
+            int value = 0;
+            int shift = 0;
+            byte current = this.readByte();
+            while ((current & 0x80) != 0) {
+                value |= (current & 0x7F) << shift;
+                shift += 7;
+                current = this.readByte();
+            }
+            return value | (current << shift);
+        }
+
+        void read(byte[] target, int offset, int length) {
+            System.arraycopy(this.patch, this.position, target, offset, length);
+            this.position += length;
+        }
+    }
+}
@@ -0,0 +1,118 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2012, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.jboss.as.clustering.web.infinispan;
+
+import static org.junit.Assert.*;
+import static org.mockito.Mockito.*;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import org.jboss.as.clustering.SimpleMarshalledValue;
+import org.jboss.as.clustering.web.OutgoingSessionGranularitySessionData;
+import org.jboss.as.clustering.web.SessionAttributeMarshaller;
+import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+
+public class DeltaSessionAttributeStorageTest {
+    private final SessionAttributeMarshaller marshaller = mock(SessionAttributeMarshaller.class);
+    private final DeltaSessionAttributeStorage storage = new DeltaSessionAttributeStorage(this.marshaller);
+
+    @Test
+    public void storeNull() throws Exception {
+        @SuppressWarnings("unchecked")
+        Map<Object, Object> map = mock(Map.class);
+        OutgoingSessionGranularitySessionData data = mock(OutgoingSessionGranularitySessionData.class);
+
+        when(data.getSessionAttributes()).thenReturn(null);
+
+        this.storage.store(map, data);
+
+        verifyZeroInteractions(map);
+    }
+
+    @Test
+    public void storeAndLoad() throws Exception {
+        Map<Object, Object> map = new HashMap<Object, Object>();
+        byte[] bytes = new byte[8192];
+        new Random(0).nextBytes(bytes);
+
+        // Initial store replicates the complete state
+        this.store(map, 1, bytes);
+
+        MarshalledSessionAttributes base = SessionMapEntry.MARSHALLED_ATTRIBUTES.get(map);
+        assertNotNull(base);
+        assertEquals(1, base.getVersion());
+        assertNull(SessionMapEntry.ATTRIBUTES_DELTA.get(map));
+        assertArrayEquals(bytes, this.load(map));
+
+        // Small change replicates a delta
+        byte[] modified = bytes.clone();
+        modified[4000] ^= 1;
+        this.store(map, 2, modified);
+
+        assertSame(base, SessionMapEntry.MARSHALLED_ATTRIBUTES.get(map));
+        SessionAttributesDelta delta = SessionMapEntry.ATTRIBUTES_DELTA.get(map);
+        assertNotNull(delta);
+        assertEquals(1, delta.getBaseVersion());
+        assertArrayEquals(modified, this.load(map));
+
+        // Complete change replaces the base
+        byte[] replaced = new byte[8192];
+        new Random(1).nextBytes(replaced);
+        this.store(map, 3, replaced);
+
+        assertEquals(3, SessionMapEntry.MARSHALLED_ATTRIBUTES.<MarshalledSessionAttributes>get(map).getVersion());
+        assertNull(SessionMapEntry.ATTRIBUTES_DELTA.get(map));
+        assertArrayEquals(replaced, this.load(map));
+
+        assertEquals(2, this.storage.getFullReplicationCount());
+        assertEquals(1, this.storage.getDeltaReplicationCount());
+        assertEquals(3 * 8192, this.storage.getMarshalledBytes());
+        assertEquals(2 * 8192 + delta.size(), this.storage.getReplicatedBytes());
+    }
+
+    private void store(Map<Object, Object> map, int version, byte[] bytes) throws Exception {
+        OutgoingSessionGranularitySessionData data = mock(OutgoingSessionGranularitySessionData.class);
+        Map<String, Object> attributes = Collections.emptyMap();
+
+        when(data.getSessionAttributes()).thenReturn(attributes);
+        when(data.getVersion()).thenReturn(version);
+        when(this.marshaller.marshal(attributes)).thenReturn(SimpleMarshalledValue.fromBytes(bytes));
+
+        this.storage.store(map, data);
+    }
+
+    private byte[] load(Map<Object, Object> map) throws Exception {
+        Map<String, Object> attributes = Collections.emptyMap();
+        ArgumentCaptor<Object> captor = ArgumentCaptor.forClass(Object.class);
+
+        reset(this.marshaller);
+        when(this.marshaller.unmarshal(captor.capture())).thenReturn(attributes);
+
+        assertSame(attributes, this.storage.load(map));
+
+        return ((SimpleMarshalledValue<?>) captor.getValue()).getBytes();
+    }
+}
@@ -52,6 +52,7 @@ import org.jboss.as.clustering.web.DistributableSessionMetadata;
 import org.jboss.as.clustering.web.IncomingDistributableSessionData;
 import org.jboss.as.clustering.web.LocalDistributableSessionManager;
 import org.jboss.as.clustering.web.OutgoingDistributableSessionData;
+import org.jboss.as.clustering.web.SessionMetadataVisitor;
 import org.jboss.as.clustering.web.SessionOwnershipSupport;
 import org.junit.After;
 import org.junit.Before;
@@ -425,6 +426,27 @@ public class DistributedCacheManagerTest {
         assertNull(result.get(sessionId));
     }
 
+    @SuppressWarnings("unchecked")
+    @Test
+    public void visitSessions() {
+        String sessionId = "abc";
+        SessionMetadataVisitor visitor = mock(SessionMetadataVisitor.class);
+
+        Map<Object, Object> map = mock(Map.class);
+        Long timestamp = Long.valueOf(System.currentTimeMillis());
+        DistributableSessionMetadata metadata = new DistributableSessionMetadata();
+
+        when(this.cache.entrySet()).thenReturn(Collections.singletonMap(sessionId, map).entrySet());
+        when(map.get(Byte.valueOf((byte) SessionMapEntry.TIMESTAMP.ordinal()))).thenReturn(timestamp);
+        when(map.get(Byte.valueOf((byte) SessionMapEntry.METADATA.ordinal()))).thenReturn(metadata);
+
+        this.manager.visitSessions(visitor);
+
+        verify(visitor).visit(sessionId, null, timestamp.longValue(), metadata);
+        verifyNoMoreInteractions(visitor);
+        verify(this.cache, never()).get(sessionId);
+    }
+
     @Test
     public void setForceSynchronous() {
         this.setForceSynchronous(true);
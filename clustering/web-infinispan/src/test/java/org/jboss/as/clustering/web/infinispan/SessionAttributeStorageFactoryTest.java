@@ -38,6 +38,15 @@ public class SessionAttributeStorageFactoryTest {
         this.test(ReplicationGranularity.SESSION, CoarseSessionAttributeStorage.class);
     }
 
+    @Test
+    public void testSessionDelta() {
+        SessionAttributeStorageFactory factory = new SessionAttributeStorageFactoryImpl(true);
+
+        SessionAttributeStorage<?> storage = factory.createStorage(ReplicationGranularity.SESSION, mock(SessionAttributeMarshaller.class));
+
+        assertTrue(storage.getClass().getName(), storage instanceof DeltaSessionAttributeStorage);
+    }
+
     @Test
     public void testAttribute() {
         this.test(ReplicationGranularity.ATTRIBUTE, FineSessionAttributeStorage.class);
@@ -51,7 +60,7 @@ public class SessionAttributeStorageFactoryTest {
     private void test(ReplicationGranularity granularity, Class<? extends SessionAttributeStorage<?>> expectedClass) {
         SessionAttributeMarshaller marshaller = mock(SessionAttributeMarshaller.class);
 
-        SessionAttributeStorageFactory factory = new SessionAttributeStorageFactoryImpl();
+        SessionAttributeStorageFactory factory = new SessionAttributeStorageFactoryImpl(false);
 
         try {
             SessionAttributeStorage<?> storage = factory.createStorage(granularity, marshaller);
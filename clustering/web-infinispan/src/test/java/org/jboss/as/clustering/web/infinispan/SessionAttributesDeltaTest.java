@@ -0,0 +1,137 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2012, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.jboss.as.clustering.web.infinispan;
+
+import static org.junit.Assert.*;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Random;
+
+import org.junit.Test;
+
+public class SessionAttributesDeltaTest {
+    private final Random random = new Random(0);
+
+    @Test
+    public void identical() throws IOException {
+        byte[] bytes = this.randomBytes(4096);
+        MarshalledSessionAttributes base = new MarshalledSessionAttributes(1, bytes);
+
+        SessionAttributesDelta delta = SessionAttributesDelta.create(base, bytes.clone(), bytes.length);
+
+        assertNotNull(delta);
+        assertEquals(1, delta.getBaseVersion());
+        assertTrue(delta.size() < 16);
+        assertArrayEquals(bytes, delta.apply(base));
+    }
+
+    @Test
+    public void modified() throws IOException {
+        byte[] bytes = this.randomBytes(200 * 1024);
+        MarshalledSessionAttributes base = new MarshalledSessionAttributes(1, bytes);
+
+        // Change a few bytes in several places, and grow the middle
+        byte[] target = new byte[bytes.length + 100];
+        System.arraycopy(bytes, 0, target, 0, 1000);
+        System.arraycopy(this.randomBytes(100), 0, target, 1000, 100);
+        System.arraycopy(bytes, 1000, target, 1100, bytes.length - 1000);
+        target[50000] ^= 1;
+        target[150000] ^= 1;
+
+        SessionAttributesDelta delta = SessionAttributesDelta.create(base, target, target.length / 2);
+
+        assertNotNull(delta);
+        assertTrue(String.valueOf(delta.size()), delta.size() < 1024);
+        assertArrayEquals(target, delta.apply(base));
+    }
+
+    @Test
+    public void moved() throws IOException {
+        byte[] bytes = this.randomBytes(8192);
+        MarshalledSessionAttributes base = new MarshalledSessionAttributes(1, bytes);
+
+        // Swap both halves
+        byte[] target = new byte[bytes.length];
+        System.arraycopy(bytes, 4096, target, 0, 4096);
+        System.arraycopy(bytes, 0, target, 4096, 4096);
+
+        SessionAttributesDelta delta = SessionAttributesDelta.create(base, target, target.length / 2);
+
+        assertNotNull(delta);
+        assertTrue(String.valueOf(delta.size()), delta.size() < 64);
+        assertArrayEquals(target, delta.apply(base));
+    }
+
+    @Test
+    public void shrunk() throws IOException {
+        byte[] bytes = this.randomBytes(8192);
+        MarshalledSessionAttributes base = new MarshalledSessionAttributes(1, bytes);
+        byte[] target = Arrays.copyOfRange(bytes, 100, 5000);
+
+        SessionAttributesDelta delta = SessionAttributesDelta.create(base, target, target.length / 2);
+
+        assertNotNull(delta);
+        assertArrayEquals(target, delta.apply(base));
+    }
+
+    @Test
+    public void limit() {
+        MarshalledSessionAttributes base = new MarshalledSessionAttributes(1, this.randomBytes(8192));
+
+        assertNull(SessionAttributesDelta.create(base, this.randomBytes(8192), 4096));
+    }
+
+    @Test
+    public void incompatibleBase() {
+        byte[] bytes = this.randomBytes(1024);
+        byte[] target = bytes.clone();
+        target[10] ^= 1;
+
+        SessionAttributesDelta delta = SessionAttributesDelta.create(new MarshalledSessionAttributes(1, bytes), target, target.length);
+
+        assertNotNull(delta);
+
+        IOException exception = null;
+        try {
+            delta.apply(new MarshalledSessionAttributes(2, bytes));
+        } catch (IOException e) {
+            exception = e;
+        }
+        assertNotNull(exception);
+
+        // Same version, but different content
+        exception = null;
+        try {
+            delta.apply(new MarshalledSessionAttributes(1, this.randomBytes(1024)));
+        } catch (IOException e) {
+            exception = e;
+        }
+        assertNotNull(exception);
+    }
+
+    private byte[] randomBytes(int length) {
+        byte[] bytes = new byte[length];
+        this.random.nextBytes(bytes);
+        return bytes;
+    }
+}
@@ -54,6 +54,14 @@ public class SessionMapEntryTest {
                     this.test(entry, new Object(), null);
                     break;
                 }
+                case MARSHALLED_ATTRIBUTES: {
+                    this.test(entry, new MarshalledSessionAttributes(1, new byte[0]), new Object());
+                    break;
+                }
+                case ATTRIBUTES_DELTA: {
+                    this.test(entry, SessionAttributesDelta.create(new MarshalledSessionAttributes(1, new byte[0]), new byte[0], 0), new Object());
+                    break;
+                }
             }
         }
     }
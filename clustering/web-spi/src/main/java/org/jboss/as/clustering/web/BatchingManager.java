@@ -33,5 +33,10 @@ public interface BatchingManager {
 
     void setBatchRollbackOnly() throws Exception;
 
-    void endBatch();
+    /**
+     * Commits the current batch, or rolls it back if it was marked rollback only.
+     *
+     * @return true, if the batch was committed; false, if it was rolled back
+     */
+    boolean endBatch();
 }
@@ -116,6 +116,14 @@ public interface DistributedCacheManager<T extends OutgoingDistributableSessionD
      */
     Map<String, String> getSessionIds();
 
+    /**
+     * Passes the timestamp and metadata of every session in the underlying cache to the specified visitor. Unlike
+     * {@link #getSessionIds()} followed by {@link #getSessionData(String, String, boolean)} per session, the sessions are
+     * read in bulk instead of being looked up one at a time.
+     * @param visitor receives the metadata of each session
+     */
+    void visitSessions(SessionMetadataVisitor visitor);
+
     /**
      * Gets whether the underlying cache supports passivation.
      */
@@ -146,4 +154,10 @@ public interface DistributedCacheManager<T extends OutgoingDistributableSessionD
      * @return the jvm route of a node
      */
     String locate(String sessionId);
+
+    /**
+     * Returns statistics about the session attribute state replicated by this distributed cache manager.
+     * @return the replication statistics, or null if the configured replication mode does not track them.
+     */
+    SessionReplicationStatistics getReplicationStatistics();
 }
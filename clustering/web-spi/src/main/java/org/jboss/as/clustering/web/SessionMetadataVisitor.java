@@ -0,0 +1,38 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2012, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.jboss.as.clustering.web;
+package org.jboss.as.clustering.web;
+
+/**
+ * Receives the metadata of the sessions stored in a distributed cache, one session at a time.
+ * @see DistributedCacheManager#visitSessions(SessionMetadataVisitor)
+ */
+public interface SessionMetadataVisitor {
+    /**
+     * Visits a single session.
+     * @param realId the session's id, excluding any jvmRoute
+     * @param dataOwner identifier of node where the session is active, or <code>null</code> if unknown
+     * @param timestamp the time the session was last accessed, or -1 if unavailable
+     * @param metadata the session metadata, or <code>null</code> if unavailable
+     */
+    void visit(String realId, String dataOwner, long timestamp, DistributableSessionMetadata metadata);
+}
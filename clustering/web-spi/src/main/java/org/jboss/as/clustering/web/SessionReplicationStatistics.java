@@ -0,0 +1,52 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2012, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.jboss.as.clustering.web;
+
+/**
+ * Statistics about the session attribute state replicated by a {@link DistributedCacheManager}.
+ */
+public interface SessionReplicationStatistics {
+    /**
+     * Returns the number of times the complete attribute state of a session was replicated.
+     * @return a number of replications
+     */
+    long getFullReplicationCount();
+
+    /**
+     * Returns the number of times only the difference to the previously replicated attribute state of a session was replicated.
+     * @return a number of replications
+     */
+    long getDeltaReplicationCount();
+
+    /**
+     * Returns the total size of the marshalled session attribute state, i.e. the number of bytes that would have been
+     * replicated if the complete state had been replicated every time.
+     * @return a number of bytes
+     */
+    long getMarshalledBytes();
+
+    /**
+     * Returns the total number of bytes of session attribute state actually replicated.
+     * @return a number of bytes
+     */
+    long getReplicatedBytes();
+}
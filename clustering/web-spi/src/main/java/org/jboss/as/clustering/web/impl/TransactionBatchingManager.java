@@ -69,18 +69,20 @@ public class TransactionBatchingManager implements BatchingManager {
      * {@inheritDoc}
      */
     @Override
-    public void endBatch() {
+    public boolean endBatch() {
         try {
             if (this.tm.getTransaction().getStatus() != Status.STATUS_MARKED_ROLLBACK) {
                 this.tm.commit();
-            } else {
-                ROOT_LOGGER.debug("endBatch(): rolling back batch");
-
-                this.tm.rollback();
+                return true;
             }
+            ROOT_LOGGER.debug("endBatch(): rolling back batch");
+
+            this.tm.rollback();
+            return false;
         } catch (RollbackException e) {
             // Do nothing here since cache may rollback automatically.
             ROOT_LOGGER.rollingBackTransaction(e, "endBatch()");
+            return false;
         } catch (RuntimeException e) {
             throw e;
         } catch (Exception e) {
@@ -24,6 +24,7 @@ package org.jboss.as.clustering.web.impl;
 import static org.mockito.Mockito.*;
 import static org.junit.Assert.*;
 
+import javax.transaction.RollbackException;
 import javax.transaction.Status;
 import javax.transaction.Transaction;
 import javax.transaction.TransactionManager;
@@ -92,7 +93,7 @@ public class TransactionBatchingManagerTest {
         when(this.tm.getTransaction()).thenReturn(transaction);
         when(transaction.getStatus()).thenReturn(status);
 
-        this.bm.endBatch();
+        assertTrue(this.bm.endBatch());
 
         verify(this.tm).commit();
 
@@ -105,8 +106,19 @@ public class TransactionBatchingManagerTest {
         when(this.tm.getTransaction()).thenReturn(transaction);
         when(transaction.getStatus()).thenReturn(status);
 
-        this.bm.endBatch();
+        assertFalse(this.bm.endBatch());
 
         verify(this.tm).rollback();
     }
+
+    @Test
+    public void endBatchRolledBackOnCommit() throws Exception {
+        Transaction transaction = mock(Transaction.class);
+
+        when(this.tm.getTransaction()).thenReturn(transaction);
+        when(transaction.getStatus()).thenReturn(Status.STATUS_ACTIVE);
+        doThrow(new RollbackException()).when(this.tm).commit();
+
+        assertFalse(this.bm.endBatch());
+    }
 }
@@ -81,6 +81,8 @@ abstract class AbstractOperationContext implements OperationContext {
     boolean cancelled;
     /** Currently executing step */
     Step activeStep;
+    /** Committed configuration change whose write we must wait for once the locks are released */
+    private ConfigurationPersister.DeferredPersistenceResource deferredPersistence;
 
     enum ContextFlag {
         ROLLBACK_ON_FAIL,
@@ -340,6 +342,9 @@ abstract class AbstractOperationContext implements OperationContext {
                 persistenceResource.rollback();
             } else {
                 persistenceResource.commit();
+                if (persistenceResource instanceof ConfigurationPersister.DeferredPersistenceResource) {
+                    deferredPersistence = (ConfigurationPersister.DeferredPersistenceResource) persistenceResource;
+                }
             }
         }
     }
@@ -703,6 +708,11 @@ abstract class AbstractOperationContext implements OperationContext {
                     // We're returning from the outermost completeStep()
                     // Null out the current stage to disallow further access to the context
                     currentStage = null;
+                    // All locks are released; don't report success before the configuration change is on disk
+                    if (deferredPersistence != null) {
+                        deferredPersistence.awaitPersisted();
+                        deferredPersistence = null;
+                    }
                 }
             }
         }
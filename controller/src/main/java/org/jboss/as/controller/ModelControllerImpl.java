@@ -383,10 +383,20 @@ class ModelControllerImpl implements ModelController {
         };
     }
 
+    /**
+     * Resolves the root resource handed to operation contexts to the model it currently delegates to.
+     *
+     * @param resource the root resource of an operation context
+     * @return the currently published model if {@code resource} is the root resource, {@code resource} otherwise
+     */
+    Resource getPublishedModel(final Resource resource) {
+        return resource == model ? model.getDelegate() : resource;
+    }
+
     ConfigurationPersister.PersistenceResource writeModel(final Resource resource, Set<PathAddress> affectedAddresses) throws ConfigurationPersistenceException {
         final ModelNode newModel = Resource.Tools.readModel(resource);  // Get the model representation
         final ConfigurationPersister.PersistenceResource delegate = persister.store(newModel, affectedAddresses);
-        return new ConfigurationPersister.PersistenceResource() {
+        return new ConfigurationPersister.DeferredPersistenceResource() {
 
             @Override
             public void commit() {
@@ -398,6 +408,13 @@ class ModelControllerImpl implements ModelController {
             public void rollback() {
                 delegate.rollback();
             }
+
+            @Override
+            public void awaitPersisted() {
+                if (delegate instanceof ConfigurationPersister.DeferredPersistenceResource) {
+                    ((ConfigurationPersister.DeferredPersistenceResource) delegate).awaitPersisted();
+                }
+            }
         };
     }
 
@@ -469,7 +486,8 @@ class ModelControllerImpl implements ModelController {
 
     /**
      * The root resource, maintains a read-only reference to the current model. All write operations have to performed
-     * after acquiring the write lock on a clone of the underlying model.
+     * after acquiring the write lock on a {@link org.jboss.as.controller.registry.CopyOnWriteResource copy-on-write view}
+     * of the underlying model.
      */
     private class RootResource implements Resource {
 
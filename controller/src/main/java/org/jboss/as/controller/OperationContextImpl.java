@@ -48,6 +48,7 @@ import org.jboss.as.controller.client.OperationMessageHandler;
 import org.jboss.as.controller.descriptions.ModelDescriptionConstants;
 import org.jboss.as.controller.persistence.ConfigurationPersistenceException;
 import org.jboss.as.controller.persistence.ConfigurationPersister;
+import org.jboss.as.controller.registry.CopyOnWriteResource;
 import org.jboss.as.controller.registry.DelegatingImmutableManagementResourceRegistration;
 import org.jboss.as.controller.registry.ImmutableManagementResourceRegistration;
 import org.jboss.as.controller.registry.ManagementResourceRegistration;
@@ -160,7 +161,7 @@ final class OperationContextImpl extends AbstractOperationContext {
 
     @Override
     ConfigurationPersister.PersistenceResource createPersistenceResource() throws ConfigurationPersistenceException {
-        return modelController.writeModel(model, affectsModel.keySet());
+        return modelController.writeModel(((CopyOnWriteResource) model).getDelegate(), affectsModel.keySet());
     }
 
     @Override
@@ -409,10 +410,11 @@ final class OperationContextImpl extends AbstractOperationContext {
         authorizeModelUpdate();
         if (!isModelAffected()) {
             takeWriteLock();
-            model = model.clone();
+            copyModelOnWrite();
         }
         affectsModel.put(address, NULL);
-        Resource model = this.model;
+        final CopyOnWriteResource writableModel = (CopyOnWriteResource) this.model;
+        Resource model = writableModel.getRootForUpdate();
         final Iterator<PathElement> i = address.iterator();
         while (i.hasNext()) {
             final PathElement element = i.next();
@@ -429,12 +431,13 @@ final class OperationContextImpl extends AbstractOperationContext {
                     }
                     final Resource newModel = Resource.Factory.create();
                     model.registerChild(element, newModel);
+                    writableModel.adopt(newModel);
                     model = newModel;
                 } else {
-                    model = requireChild(model, element, address);
+                    model = requireChildForUpdate(writableModel, model, element, address);
                 }
             } else {
-                model = requireChild(model, element, address);
+                model = requireChildForUpdate(writableModel, model, element, address);
             }
         }
         if(model == null) {
@@ -493,17 +496,19 @@ final class OperationContextImpl extends AbstractOperationContext {
         authorizeModelUpdate();
         if (!isModelAffected()) {
             takeWriteLock();
-            model = model.clone();
+            copyModelOnWrite();
         }
         affectsModel.put(address, NULL);
-        Resource resource = this.model;
+        final CopyOnWriteResource writableModel = (CopyOnWriteResource) this.model;
+        Resource resource = writableModel.getRootForUpdate();
         for (PathElement element : address) {
             if (element.isMultiTarget()) {
                 throw MESSAGES.cannotWriteTo("*");
             }
-            resource = requireChild(resource, element, address);
+            resource = requireChildForUpdate(writableModel, resource, element, address);
         }
-        return resource;
+        // the caller may modify the resource at any depth
+        return writableModel.copySubtree(resource);
     }
 
     @Override
@@ -533,10 +538,11 @@ final class OperationContextImpl extends AbstractOperationContext {
         authorizeModelUpdate();
         if (!isModelAffected()) {
             takeWriteLock();
-            model = model.clone();
+            copyModelOnWrite();
         }
         affectsModel.put(absoluteAddress, NULL);
-        Resource model = this.model;
+        final CopyOnWriteResource writableModel = (CopyOnWriteResource) this.model;
+        Resource model = writableModel.getRootForUpdate();
         final Iterator<PathElement> i = absoluteAddress.iterator();
         while (i.hasNext()) {
             final PathElement element = i.next();
@@ -554,10 +560,11 @@ final class OperationContextImpl extends AbstractOperationContext {
                         throw MESSAGES.noChildType(key);
                     }
                     model.registerChild(element, toAdd);
+                    writableModel.adopt(toAdd);
                     model = toAdd;
                 }
             } else {
-                model = model.getChild(element);
+                model = writableModel.getChildForUpdate(model, element);
                 if (model == null) {
                     PathAddress ancestor = PathAddress.EMPTY_ADDRESS;
                     for (PathElement pe : absoluteAddress) {
@@ -585,10 +592,11 @@ final class OperationContextImpl extends AbstractOperationContext {
         authorizeModelUpdate();
         if (!isModelAffected()) {
             takeWriteLock();
-            model = model.clone();
+            copyModelOnWrite();
         }
         affectsModel.put(address, NULL);
-        Resource model = this.model;
+        final CopyOnWriteResource writableModel = (CopyOnWriteResource) this.model;
+        Resource model = writableModel.getRootForUpdate();
         final Iterator<PathElement> i = address.iterator();
         while (i.hasNext()) {
             final PathElement element = i.next();
@@ -598,7 +606,7 @@ final class OperationContextImpl extends AbstractOperationContext {
             if (! i.hasNext()) {
                 model = model.removeChild(element);
             } else {
-                model = requireChild(model, element, address);
+                model = requireChildForUpdate(writableModel, model, element, address);
             }
         }
         return model;
@@ -673,15 +681,36 @@ final class OperationContextImpl extends AbstractOperationContext {
         if (resource.hasChild(childPath)) {
             return resource.requireChild(childPath);
         } else {
-            PathAddress missing = PathAddress.EMPTY_ADDRESS;
-            for (PathElement search : fullAddress) {
-                missing = missing.append(search);
-                if (search.equals(childPath)) {
-                    break;
-                }
+            throw managementResourceNotFound(childPath, fullAddress);
+        }
+    }
+
+    private static Resource requireChildForUpdate(final CopyOnWriteResource writableModel, final Resource resource,
+                                                  final PathElement childPath, final PathAddress fullAddress) {
+        final Resource child = writableModel.getChildForUpdate(resource, childPath);
+        if (child == null) {
+            throw managementResourceNotFound(childPath, fullAddress);
+        }
+        return child;
+    }
+
+    private static OperationFailedRuntimeException managementResourceNotFound(final PathElement childPath, final PathAddress fullAddress) {
+        PathAddress missing = PathAddress.EMPTY_ADDRESS;
+        for (PathElement search : fullAddress) {
+            missing = missing.append(search);
+            if (search.equals(childPath)) {
+                break;
             }
-            throw ControllerMessages.MESSAGES.managementResourceNotFound(missing);
         }
+        return ControllerMessages.MESSAGES.managementResourceNotFound(missing);
+    }
+
+    /**
+     * Replaces the read-only model with a copy-on-write view of it, so that only the resources which are actually
+     * written to get copied. Must be called holding the write lock.
+     */
+    private void copyModelOnWrite() {
+        model = new CopyOnWriteResource(modelController.getPublishedModel(model));
     }
 
     @Override
@@ -87,6 +87,19 @@ public abstract class AbstractConfigurationPersister implements ExtensibleConfig
     /** {@inheritDoc} */
     @Override
     public void marshallAsXml(final ModelNode model, final OutputStream output) throws ConfigurationPersistenceException {
+        marshallAsXml(model, output, null);
+    }
+
+    /**
+     * Marshals the given configuration model to XML, replaying unchanged subsystems from a fragment cache.
+     *
+     * @param model  the model to persist
+     * @param output the stream
+     * @param update the fragment cache update to marshal the subsystems through, or {@code null} to marshal
+     *               every subsystem
+     * @throws ConfigurationPersistenceException
+     */
+    void marshallAsXml(final ModelNode model, final OutputStream output, final SubsystemFragmentCache.Update update) throws ConfigurationPersistenceException {
         final XMLMapper mapper = XMLMapper.Factory.create();
         try {
             XMLStreamWriter streamWriter = null;
@@ -101,9 +114,11 @@ public abstract class AbstractConfigurationPersister implements ExtensibleConfig
 
                     @Override
                     public XMLElementWriter<SubsystemMarshallingContext> getSubsystemWriter(String extensionName) {
+                        final XMLElementWriter<SubsystemMarshallingContext> writer;
                         synchronized (subsystemWriters) {
-                            return subsystemWriters.get(extensionName);
+                            writer = subsystemWriters.get(extensionName);
                         }
+                        return update == null ? writer : update.wrap(extensionName, writer);
                     }
 
                     @Override
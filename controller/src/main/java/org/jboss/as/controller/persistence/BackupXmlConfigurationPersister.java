@@ -51,7 +51,21 @@ public class BackupXmlConfigurationPersister extends XmlConfigurationPersister {
      * @param rootDeparser the root model deparser
      */
     public BackupXmlConfigurationPersister(final ConfigurationFile file, final QName rootElement, final XMLElementReader<List<ModelNode>> rootParser, final XMLElementWriter<ModelMarshallingContext> rootDeparser) {
-        super(file.getBootFile(), rootElement, rootParser, rootDeparser);
+        this(file, rootElement, rootParser, rootDeparser, false);
+    }
+
+    /**
+     * Construct a new instance.
+     *
+     * @param file the configuration base file
+     * @param rootElement the root element of the configuration file
+     * @param rootParser the root model parser
+     * @param rootDeparser the root model deparser
+     * @param incremental {@code true} to persist incrementally, see
+     *        {@link XmlConfigurationPersister#XmlConfigurationPersister(java.io.File, QName, XMLElementReader, XMLElementWriter, boolean)}
+     */
+    public BackupXmlConfigurationPersister(final ConfigurationFile file, final QName rootElement, final XMLElementReader<List<ModelNode>> rootParser, final XMLElementWriter<ModelMarshallingContext> rootDeparser, final boolean incremental) {
+        super(file.getBootFile(), rootElement, rootParser, rootDeparser, incremental);
         this.configurationFile = file;
     }
 
@@ -77,7 +91,12 @@ public class BackupXmlConfigurationPersister extends XmlConfigurationPersister {
                 }
             };
         }
-        return new ConfigurationFilePersistenceResource(model, configurationFile, this);
+        return super.store(model, affectedAddresses);
+    }
+
+    @Override
+    FilePersistenceResource createPersistenceResource(final ModelNode model, final SubsystemFragmentCache.Update update) throws ConfigurationPersistenceException {
+        return new ConfigurationFilePersistenceResource(model, configurationFile, this, update);
     }
 
     @Override
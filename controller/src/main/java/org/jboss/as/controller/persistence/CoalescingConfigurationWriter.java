@@ -0,0 +1,158 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2012, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.jboss.as.controller.persistence;
+
+import static org.jboss.as.controller.ControllerLogger.MGMT_OP_LOGGER;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Flushes stored configuration models to permanent storage on a background thread.
+ * <p/>
+ * Committing a {@link #defer(ConfigurationPersister.PersistenceResource, SubsystemFragmentCache.Update) deferred}
+ * resource only hands the marshalled model to the writer thread, which is cheap enough to happen while the
+ * controller lock is held. If more models are committed while a write is in progress, only the newest of them
+ * is written once it completes, since it contains all of the earlier changes; callers waiting in
+ * {@link ConfigurationPersister.DeferredPersistenceResource#awaitPersisted()} for a superseded model are
+ * released when the newer one has been written.
+ */
+final class CoalescingConfigurationWriter {
+
+    private static final long IDLE_TIMEOUT = TimeUnit.SECONDS.toMillis(60);
+
+    private final String name;
+
+    // all guarded by this
+    private ConfigurationPersister.PersistenceResource pending;
+    private long submitted;
+    private long written;
+    private Thread thread;
+
+    CoalescingConfigurationWriter(final String name) {
+        this.name = name;
+    }
+
+    /**
+     * Wraps a resource so that committing it schedules the write on the writer thread.
+     *
+     * @param resource the resource which writes the marshalled model
+     * @param update the fragment cache update used to marshal the model, may be {@code null}
+     * @return the deferred resource
+     */
+    ConfigurationPersister.DeferredPersistenceResource defer(final ConfigurationPersister.PersistenceResource resource, final SubsystemFragmentCache.Update update) {
+        return new ConfigurationPersister.DeferredPersistenceResource() {
+            private long version;
+
+            @Override
+            public void commit() {
+                if (update != null) {
+                    update.commit();
+                }
+                version = submit(resource);
+            }
+
+            @Override
+            public void rollback() {
+                resource.rollback();
+            }
+
+            @Override
+            public void awaitPersisted() {
+                if (version > 0) {
+                    await(version);
+                }
+            }
+        };
+    }
+
+    synchronized long submit(final ConfigurationPersister.PersistenceResource resource) {
+        if (pending != null) {
+            // superseded by a model which contains its changes
+            pending.rollback();
+        }
+        pending = resource;
+        submitted++;
+        if (thread == null) {
+            thread = new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    writeLoop();
+                }
+            }, "Configuration persister for " + name);
+            thread.setDaemon(true);
+            thread.start();
+        } else {
+            notifyAll();
+        }
+        return submitted;
+    }
+
+    void await(final long version) {
+        boolean interrupted = false;
+        synchronized (this) {
+            while (written < version) {
+                try {
+                    wait();
+                } catch (InterruptedException e) {
+                    // the change has been committed, so its response must not be returned before it is on disk
+                    interrupted = true;
+                }
+            }
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void writeLoop() {
+        for (;;) {
+            final ConfigurationPersister.PersistenceResource resource;
+            final long version;
+            synchronized (this) {
+                if (pending == null) {
+                    try {
+                        wait(IDLE_TIMEOUT);
+                    } catch (InterruptedException e) {
+                        // ignore, there is no one to cancel the writer thread
+                    }
+                    if (pending == null) {
+                        thread = null;
+                        return;
+                    }
+                }
+                resource = pending;
+                version = submitted;
+                pending = null;
+            }
+            try {
+                resource.commit();
+            } catch (Throwable t) {
+                MGMT_OP_LOGGER.failedToStoreConfiguration(t, name);
+            } finally {
+                synchronized (this) {
+                    written = version;
+                    notifyAll();
+                }
+            }
+        }
+    }
+}
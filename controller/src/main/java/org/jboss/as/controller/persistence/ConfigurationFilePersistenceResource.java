@@ -37,8 +37,9 @@ public class ConfigurationFilePersistenceResource extends FilePersistenceResourc
     private final ConfigurationFile configurationFile;
 
     ConfigurationFilePersistenceResource(final ModelNode model, final ConfigurationFile configurationFile,
-                                         final AbstractConfigurationPersister persister) throws ConfigurationPersistenceException {
-        super(model, configurationFile.getMainFile(), persister);
+                                         final AbstractConfigurationPersister persister,
+                                         final SubsystemFragmentCache.Update update) throws ConfigurationPersistenceException {
+        super(model, configurationFile.getMainFile(), persister, update);
         this.configurationFile = configurationFile;
     }
 
@@ -54,6 +54,19 @@ public interface ConfigurationPersister {
         void rollback();
     }
 
+    /**
+     * A {@link PersistenceResource} whose {@link #commit()} only schedules the flush to permanent storage,
+     * allowing the caller to release its locks before waiting for the write to complete.
+     */
+    interface DeferredPersistenceResource extends PersistenceResource {
+
+        /**
+         * Wait until the model stored by a previous {@link #commit()} has been flushed to permanent storage.
+         * Returns immediately if the resource was never committed.
+         */
+        void awaitPersisted();
+    }
+
     /**
      * Persist the given configuration model.
      *
@@ -45,14 +45,15 @@ public class FilePersistenceResource implements ConfigurationPersister.Persisten
     private final File fileName;
     private final AbstractConfigurationPersister persister;
 
-    FilePersistenceResource(final ModelNode model, final File fileName, final AbstractConfigurationPersister persister) throws ConfigurationPersistenceException {
+    FilePersistenceResource(final ModelNode model, final File fileName, final AbstractConfigurationPersister persister,
+                            final SubsystemFragmentCache.Update update) throws ConfigurationPersistenceException {
         this.fileName = fileName;
         this.persister = persister;
         marshalled = new ExposedByteArrayOutputStream(1024 * 8);
         try {
             try {
                 BufferedOutputStream output = new BufferedOutputStream(marshalled);
-                persister.marshallAsXml(model, output);
+                persister.marshallAsXml(model, output, update);
                 output.close();
                 marshalled.close();
             } finally {
@@ -0,0 +1,455 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2012, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.jboss.as.controller.persistence;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import javax.xml.namespace.NamespaceContext;
+import javax.xml.stream.XMLStreamException;
+
+import org.jboss.staxmapper.XMLExtendedStreamWriter;
+
+/**
+ * An {@link XMLExtendedStreamWriter} which passes every call through to a delegate and remembers the
+ * calls which produce output or change the namespace state, so they can later be replayed into another
+ * writer positioned at the same place in a document.
+ */
+final class RecordingXMLStreamWriter implements XMLExtendedStreamWriter {
+
+    /**
+     * A single recorded call.
+     */
+    abstract static class Event {
+        abstract void replay(XMLExtendedStreamWriter writer) throws XMLStreamException;
+    }
+
+    private final XMLExtendedStreamWriter delegate;
+    private final List<Event> events = new ArrayList<Event>();
+
+    RecordingXMLStreamWriter(final XMLExtendedStreamWriter delegate) {
+        this.delegate = delegate;
+    }
+
+    /**
+     * Gets the calls recorded so far.
+     *
+     * @return the recorded calls, in order
+     */
+    List<Event> getEvents() {
+        return Collections.unmodifiableList(new ArrayList<Event>(events));
+    }
+
+    /**
+     * Replays the given calls into a writer.
+     *
+     * @param events the calls, as returned by {@link #getEvents()}
+     * @param writer the writer to replay into
+     */
+    static void replay(final List<Event> events, final XMLExtendedStreamWriter writer) throws XMLStreamException {
+        for (Event event : events) {
+            event.replay(writer);
+        }
+    }
+
+    @Override
+    public void writeStartElement(final String localName) throws XMLStreamException {
+        delegate.writeStartElement(localName);
+        events.add(new Event() {
+            void replay(final XMLExtendedStreamWriter writer) throws XMLStreamException {
+                writer.writeStartElement(localName);
+            }
+        });
+    }
+
+    @Override
+    public void writeStartElement(final String namespaceURI, final String localName) throws XMLStreamException {
+        delegate.writeStartElement(namespaceURI, localName);
+        events.add(new Event() {
+            void replay(final XMLExtendedStreamWriter writer) throws XMLStreamException {
+                writer.writeStartElement(namespaceURI, localName);
+            }
+        });
+    }
+
+    @Override
+    public void writeStartElement(final String prefix, final String localName, final String namespaceURI) throws XMLStreamException {
+        delegate.writeStartElement(prefix, localName, namespaceURI);
+        events.add(new Event() {
+            void replay(final XMLExtendedStreamWriter writer) throws XMLStreamException {
+                writer.writeStartElement(prefix, localName, namespaceURI);
+            }
+        });
+    }
+
+    @Override
+    public void writeEmptyElement(final String namespaceURI, final String localName) throws XMLStreamException {
+        delegate.writeEmptyElement(namespaceURI, localName);
+        events.add(new Event() {
+            void replay(final XMLExtendedStreamWriter writer) throws XMLStreamException {
+                writer.writeEmptyElement(namespaceURI, localName);
+            }
+        });
+    }
+
+    @Override
+    public void writeEmptyElement(final String prefix, final String localName, final String namespaceURI) throws XMLStreamException {
+        delegate.writeEmptyElement(prefix, localName, namespaceURI);
+        events.add(new Event() {
+            void replay(final XMLExtendedStreamWriter writer) throws XMLStreamException {
+                writer.writeEmptyElement(prefix, localName, namespaceURI);
+            }
+        });
+    }
+
+    @Override
+    public void writeEmptyElement(final String localName) throws XMLStreamException {
+        delegate.writeEmptyElement(localName);
+        events.add(new Event() {
+            void replay(final XMLExtendedStreamWriter writer) throws XMLStreamException {
+                writer.writeEmptyElement(localName);
+            }
+        });
+    }
+
+    @Override
+    public void writeEndElement() throws XMLStreamException {
+        delegate.writeEndElement();
+        events.add(new Event() {
+            void replay(final XMLExtendedStreamWriter writer) throws XMLStreamException {
+                writer.writeEndElement();
+            }
+        });
+    }
+
+    @Override
+    public void writeEndDocument() throws XMLStreamException {
+        delegate.writeEndDocument();
+        events.add(new Event() {
+            void replay(final XMLExtendedStreamWriter writer) throws XMLStreamException {
+                writer.writeEndDocument();
+            }
+        });
+    }
+
+    @Override
+    public void close() throws XMLStreamException {
+        delegate.close();
+    }
+
+    @Override
+    public void flush() throws XMLStreamException {
+        delegate.flush();
+    }
+
+    @Override
+    public void writeAttribute(final String localName, final String value) throws XMLStreamException {
+        delegate.writeAttribute(localName, value);
+        events.add(new Event() {
+            void replay(final XMLExtendedStreamWriter writer) throws XMLStreamException {
+                writer.writeAttribute(localName, value);
+            }
+        });
+    }
+
+    @Override
+    public void writeAttribute(final String prefix, final String namespaceURI, final String localName, final String value) throws XMLStreamException {
+        delegate.writeAttribute(prefix, namespaceURI, localName, value);
+        events.add(new Event() {
+            void replay(final XMLExtendedStreamWriter writer) throws XMLStreamException {
+                writer.writeAttribute(prefix, namespaceURI, localName, value);
+            }
+        });
+    }
+
+    @Override
+    public void writeAttribute(final String namespaceURI, final String localName, final String value) throws XMLStreamException {
+        delegate.writeAttribute(namespaceURI, localName, value);
+        events.add(new Event() {
+            void replay(final XMLExtendedStreamWriter writer) throws XMLStreamException {
+                writer.writeAttribute(namespaceURI, localName, value);
+            }
+        });
+    }
+
+    @Override
+    public void writeAttribute(final String localName, final String[] values) throws XMLStreamException {
+        delegate.writeAttribute(localName, values);
+        final String[] copy = values.clone();
+        events.add(new Event() {
+            void replay(final XMLExtendedStreamWriter writer) throws XMLStreamException {
+                writer.writeAttribute(localName, copy);
+            }
+        });
+    }
+
+    @Override
+    public void writeAttribute(final String prefix, final String namespaceURI, final String localName, final String[] values) throws XMLStreamException {
+        delegate.writeAttribute(prefix, namespaceURI, localName, values);
+        final String[] copy = values.clone();
+        events.add(new Event() {
+            void replay(final XMLExtendedStreamWriter writer) throws XMLStreamException {
+                writer.writeAttribute(prefix, namespaceURI, localName, copy);
+            }
+        });
+    }
+
+    @Override
+    public void writeAttribute(final String namespaceURI, final String localName, final String[] values) throws XMLStreamException {
+        delegate.writeAttribute(namespaceURI, localName, values);
+        final String[] copy = values.clone();
+        events.add(new Event() {
+            void replay(final XMLExtendedStreamWriter writer) throws XMLStreamException {
+                writer.writeAttribute(namespaceURI, localName, copy);
+            }
+        });
+    }
+
+    @Override
+    public void writeAttribute(final String localName, final Iterable<String> values) throws XMLStreamException {
+        final List<String> copy = copy(values);
+        delegate.writeAttribute(localName, copy);
+        events.add(new Event() {
+            void replay(final XMLExtendedStreamWriter writer) throws XMLStreamException {
+                writer.writeAttribute(localName, copy);
+            }
+        });
+    }
+
+    @Override
+    public void writeAttribute(final String prefix, final String namespaceURI, final String localName, final Iterable<String> values) throws XMLStreamException {
+        final List<String> copy = copy(values);
+        delegate.writeAttribute(prefix, namespaceURI, localName, copy);
+        events.add(new Event() {
+            void replay(final XMLExtendedStreamWriter writer) throws XMLStreamException {
+                writer.writeAttribute(prefix, namespaceURI, localName, copy);
+            }
+        });
+    }
+
+    @Override
+    public void writeAttribute(final String namespaceURI, final String localName, final Iterable<String> values) throws XMLStreamException {
+        final List<String> copy = copy(values);
+        delegate.writeAttribute(namespaceURI, localName, copy);
+        events.add(new Event() {
+            void replay(final XMLExtendedStreamWriter writer) throws XMLStreamException {
+                writer.writeAttribute(namespaceURI, localName, copy);
+            }
+        });
+    }
+
+    @Override
+    public void writeNamespace(final String prefix, final String namespaceURI) throws XMLStreamException {
+        delegate.writeNamespace(prefix, namespaceURI);
+        events.add(new Event() {
+            void replay(final XMLExtendedStreamWriter writer) throws XMLStreamException {
+                writer.writeNamespace(prefix, namespaceURI);
+            }
+        });
+    }
+
+    @Override
+    public void writeDefaultNamespace(final String namespaceURI) throws XMLStreamException {
+        delegate.writeDefaultNamespace(namespaceURI);
+        events.add(new Event() {
+            void replay(final XMLExtendedStreamWriter writer) throws XMLStreamException {
+                writer.writeDefaultNamespace(namespaceURI);
+            }
+        });
+    }
+
+    @Override
+    public void writeComment(final String data) throws XMLStreamException {
+        delegate.writeComment(data);
+        events.add(new Event() {
+            void replay(final XMLExtendedStreamWriter writer) throws XMLStreamException {
+                writer.writeComment(data);
+            }
+        });
+    }
+
+    @Override
+    public void writeProcessingInstruction(final String target) throws XMLStreamException {
+        delegate.writeProcessingInstruction(target);
+        events.add(new Event() {
+            void replay(final XMLExtendedStreamWriter writer) throws XMLStreamException {
+                writer.writeProcessingInstruction(target);
+            }
+        });
+    }
+
+    @Override
+    public void writeProcessingInstruction(final String target, final String data) throws XMLStreamException {
+        delegate.writeProcessingInstruction(target, data);
+        events.add(new Event() {
+            void replay(final XMLExtendedStreamWriter writer) throws XMLStreamException {
+                writer.writeProcessingInstruction(target, data);
+            }
+        });
+    }
+
+    @Override
+    public void writeCData(final String data) throws XMLStreamException {
+        delegate.writeCData(data);
+        events.add(new Event() {
+            void replay(final XMLExtendedStreamWriter writer) throws XMLStreamException {
+                writer.writeCData(data);
+            }
+        });
+    }
+
+    @Override
+    public void writeDTD(final String dtd) throws XMLStreamException {
+        delegate.writeDTD(dtd);
+        events.add(new Event() {
+            void replay(final XMLExtendedStreamWriter writer) throws XMLStreamException {
+                writer.writeDTD(dtd);
+            }
+        });
+    }
+
+    @Override
+    public void writeEntityRef(final String name) throws XMLStreamException {
+        delegate.writeEntityRef(name);
+        events.add(new Event() {
+            void replay(final XMLExtendedStreamWriter writer) throws XMLStreamException {
+                writer.writeEntityRef(name);
+            }
+        });
+    }
+
+    @Override
+    public void writeStartDocument() throws XMLStreamException {
+        delegate.writeStartDocument();
+        events.add(new Event() {
+            void replay(final XMLExtendedStreamWriter writer) throws XMLStreamException {
+                writer.writeStartDocument();
+            }
+        });
+    }
+
+    @Override
+    public void writeStartDocument(final String version) throws XMLStreamException {
+        delegate.writeStartDocument(version);
+        events.add(new Event() {
+            void replay(final XMLExtendedStreamWriter writer) throws XMLStreamException {
+                writer.writeStartDocument(version);
+            }
+        });
+    }
+
+    @Override
+    public void writeStartDocument(final String encoding, final String version) throws XMLStreamException {
+        delegate.writeStartDocument(encoding, version);
+        events.add(new Event() {
+            void replay(final XMLExtendedStreamWriter writer) throws XMLStreamException {
+                writer.writeStartDocument(encoding, version);
+            }
+        });
+    }
+
+    @Override
+    public void writeCharacters(final String text) throws XMLStreamException {
+        delegate.writeCharacters(text);
+        events.add(new Event() {
+            void replay(final XMLExtendedStreamWriter writer) throws XMLStreamException {
+                writer.writeCharacters(text);
+            }
+        });
+    }
+
+    @Override
+    public void writeCharacters(final char[] text, final int start, final int len) throws XMLStreamException {
+        delegate.writeCharacters(text, start, len);
+        final char[] copy = new char[len];
+        System.arraycopy(text, start, copy, 0, len);
+        events.add(new Event() {
+            void replay(final XMLExtendedStreamWriter writer) throws XMLStreamException {
+                writer.writeCharacters(copy, 0, copy.length);
+            }
+        });
+    }
+
+    @Override
+    public String getPrefix(final String uri) throws XMLStreamException {
+        return delegate.getPrefix(uri);
+    }
+
+    @Override
+    public void setPrefix(final String prefix, final String uri) throws XMLStreamException {
+        delegate.setPrefix(prefix, uri);
+        events.add(new Event() {
+            void replay(final XMLExtendedStreamWriter writer) throws XMLStreamException {
+                writer.setPrefix(prefix, uri);
+            }
+        });
+    }
+
+    @Override
+    public void setDefaultNamespace(final String uri) throws XMLStreamException {
+        delegate.setDefaultNamespace(uri);
+        events.add(new Event() {
+            void replay(final XMLExtendedStreamWriter writer) throws XMLStreamException {
+                writer.setDefaultNamespace(uri);
+            }
+        });
+    }
+
+    @Override
+    public void setNamespaceContext(final NamespaceContext context) throws XMLStreamException {
+        delegate.setNamespaceContext(context);
+        events.add(new Event() {
+            void replay(final XMLExtendedStreamWriter writer) throws XMLStreamException {
+                writer.setNamespaceContext(context);
+            }
+        });
+    }
+
+    @Override
+    public NamespaceContext getNamespaceContext() {
+        return delegate.getNamespaceContext();
+    }
+
+    @Override
+    public Object getProperty(final String name) throws IllegalArgumentException {
+        return delegate.getProperty(name);
+    }
+
+    @Override
+    public void setUnspecifiedElementNamespace(final String namespace) {
+        delegate.setUnspecifiedElementNamespace(namespace);
+        events.add(new Event() {
+            void replay(final XMLExtendedStreamWriter writer) {
+                writer.setUnspecifiedElementNamespace(namespace);
+            }
+        });
+    }
+
+    private static List<String> copy(final Iterable<String> values) {
+        final List<String> copy = new ArrayList<String>();
+        for (String value : values) {
+            copy.add(value);
+        }
+        return copy;
+    }
+}
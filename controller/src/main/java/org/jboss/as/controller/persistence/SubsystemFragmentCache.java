@@ -0,0 +1,176 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2012, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.jboss.as.controller.persistence;
+
+import static org.jboss.as.controller.descriptions.ModelDescriptionConstants.PROFILE;
+import static org.jboss.as.controller.descriptions.ModelDescriptionConstants.SUBSYSTEM;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import javax.xml.stream.XMLStreamException;
+
+import org.jboss.as.controller.PathAddress;
+import org.jboss.as.controller.PathElement;
+import org.jboss.staxmapper.XMLElementWriter;
+import org.jboss.staxmapper.XMLExtendedStreamWriter;
+
+/**
+ * Remembers the XML each subsystem writer produced for the last persisted model, so that subsystems which
+ * were not touched by an operation can be replayed instead of being marshalled again.
+ * <p/>
+ * A subsystem is considered changed if any of the addresses affected by the operation lies within it.
+ * Fragments are keyed by subsystem name and by the position of the subsystem among the subsystems of the
+ * same name in the document, since a domain configuration contains the same subsystem once per profile.
+ * Adding or removing a whole profile changes those positions, so it discards all fragments.
+ * <p/>
+ * Fragments recorded while marshalling are only published once the {@link Update} is
+ * {@link Update#commit() committed}, so a rolled back operation never leaves its XML behind.
+ */
+final class SubsystemFragmentCache {
+
+    private final Map<String, Fragment> fragments = new HashMap<String, Fragment>();
+
+    /**
+     * Starts marshalling a model which differs from the last committed one at the given addresses.
+     *
+     * @param affectedAddresses the addresses modified by the operation, or {@code null} if unknown
+     * @return the update to use for the marshalling
+     */
+    Update beginUpdate(final Set<PathAddress> affectedAddresses) {
+        if (affectedAddresses == null) {
+            return new Update(true, new HashSet<String>());
+        }
+        boolean reset = false;
+        final Set<String> dirty = new HashSet<String>();
+        for (PathAddress address : affectedAddresses) {
+            String subsystem = null;
+            for (PathElement element : address) {
+                if (SUBSYSTEM.equals(element.getKey())) {
+                    subsystem = element.getValue();
+                    break;
+                }
+            }
+            if (subsystem != null) {
+                dirty.add(subsystem);
+            } else if (address.size() > 0 && PROFILE.equals(address.getElement(0).getKey())) {
+                reset = true;
+            }
+        }
+        return new Update(reset, dirty);
+    }
+
+    synchronized int size() {
+        return fragments.size();
+    }
+
+    private synchronized Fragment get(final String key) {
+        return fragments.get(key);
+    }
+
+    private synchronized void apply(final boolean reset, final Map<String, Fragment> recorded) {
+        if (reset) {
+            fragments.clear();
+        }
+        fragments.putAll(recorded);
+    }
+
+    /**
+     * The fragments used and recorded while marshalling a single model. Not thread safe; a model is
+     * marshalled by a single thread.
+     */
+    final class Update {
+        private final boolean reset;
+        private final Set<String> dirty;
+        private final Map<String, Fragment> recorded = new HashMap<String, Fragment>();
+        private final Map<String, Integer> occurrences = new HashMap<String, Integer>();
+
+        private Update(final boolean reset, final Set<String> dirty) {
+            this.reset = reset;
+            this.dirty = dirty;
+        }
+
+        /**
+         * Wraps a subsystem writer so that it replays the cached fragment if the subsystem is unchanged,
+         * and records a new fragment otherwise.
+         *
+         * @param subsystemName the name of the subsystem
+         * @param writer the writer registered for the subsystem, may be {@code null}
+         * @return the wrapped writer, or {@code null} if {@code writer} is {@code null}
+         */
+        XMLElementWriter<SubsystemMarshallingContext> wrap(final String subsystemName, final XMLElementWriter<SubsystemMarshallingContext> writer) {
+            if (writer == null) {
+                return null;
+            }
+            return new XMLElementWriter<SubsystemMarshallingContext>() {
+                @Override
+                public void writeContent(final XMLExtendedStreamWriter streamWriter, final SubsystemMarshallingContext context) throws XMLStreamException {
+                    write(subsystemName, writer, streamWriter, context);
+                }
+            };
+        }
+
+        /**
+         * Publishes the fragments recorded by this update.
+         */
+        void commit() {
+            apply(reset, recorded);
+        }
+
+        private void write(final String subsystemName, final XMLElementWriter<SubsystemMarshallingContext> writer,
+                           final XMLExtendedStreamWriter streamWriter, final SubsystemMarshallingContext context) throws XMLStreamException {
+            final String key = nextKey(subsystemName);
+            if (!reset && !dirty.contains(subsystemName)) {
+                final Fragment fragment = get(key);
+                // the writer is replaced if the extension is removed and added again
+                if (fragment != null && fragment.writer == writer) {
+                    RecordingXMLStreamWriter.replay(fragment.events, streamWriter);
+                    return;
+                }
+            }
+            // SubsystemMarshallingContext writes the subsystem element to its own writer, so it needs the recorder too
+            final RecordingXMLStreamWriter recorder = new RecordingXMLStreamWriter(streamWriter);
+            writer.writeContent(recorder, new SubsystemMarshallingContext(context.getModelNode(), recorder));
+            recorded.put(key, new Fragment(writer, recorder.getEvents()));
+        }
+
+        private String nextKey(final String subsystemName) {
+            final Integer previous = occurrences.get(subsystemName);
+            final int occurrence = previous == null ? 0 : previous.intValue() + 1;
+            occurrences.put(subsystemName, Integer.valueOf(occurrence));
+            return subsystemName + '#' + occurrence;
+        }
+    }
+
+    private static final class Fragment {
+        private final XMLElementWriter<SubsystemMarshallingContext> writer;
+        private final List<RecordingXMLStreamWriter.Event> events;
+
+        private Fragment(final XMLElementWriter<SubsystemMarshallingContext> writer, final List<RecordingXMLStreamWriter.Event> events) {
+            this.writer = writer;
+            this.events = events;
+        }
+    }
+}
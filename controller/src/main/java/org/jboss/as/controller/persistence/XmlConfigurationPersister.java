@@ -54,10 +54,19 @@ import org.jboss.staxmapper.XMLMapper;
  */
 public class XmlConfigurationPersister extends AbstractConfigurationPersister {
 
+    /**
+     * System property which, if set to {@code true}, makes the standard configuration persisters use
+     * {@link #XmlConfigurationPersister(File, QName, XMLElementReader, XMLElementWriter, boolean) incremental}
+     * persistence.
+     */
+    public static final String INCREMENTAL_PERSISTENCE = "org.jboss.as.controller.persistence.incremental";
+
     private final File fileName;
     private final QName rootElement;
     private final XMLElementReader<List<ModelNode>> rootParser;
     private final Map<QName, XMLElementReader<List<ModelNode>>> additionalParsers;
+    private final SubsystemFragmentCache fragmentCache;
+    private final CoalescingConfigurationWriter deferredWriter;
 
     /**
      * Construct a new instance.
@@ -68,11 +77,36 @@ public class XmlConfigurationPersister extends AbstractConfigurationPersister {
      * @param rootDeparser the root model deparser
      */
     public XmlConfigurationPersister(final File fileName, final QName rootElement, final XMLElementReader<List<ModelNode>> rootParser, final XMLElementWriter<ModelMarshallingContext> rootDeparser) {
+        this(fileName, rootElement, rootParser, rootDeparser, false);
+    }
+
+    /**
+     * Construct a new instance.
+     * <p/>
+     * An incremental persister only re-marshals the subsystems affected by an operation, replaying the XML
+     * recorded for the others, and writes the file on a background thread which coalesces successive commits
+     * into a single write. Callers which need the write to be durable wait for it with
+     * {@link ConfigurationPersister.DeferredPersistenceResource#awaitPersisted()}, after releasing their locks.
+     *
+     * @param fileName the configuration base file name
+     * @param rootElement the root element of the configuration file
+     * @param rootParser the root model parser
+     * @param rootDeparser the root model deparser
+     * @param incremental {@code true} to persist incrementally
+     */
+    public XmlConfigurationPersister(final File fileName, final QName rootElement, final XMLElementReader<List<ModelNode>> rootParser, final XMLElementWriter<ModelMarshallingContext> rootDeparser, final boolean incremental) {
         super(rootDeparser);
         this.fileName = fileName;
         this.rootElement = rootElement;
         this.rootParser = rootParser;
         additionalParsers = new HashMap<QName, XMLElementReader<List<ModelNode>>>();
+        if (incremental) {
+            fragmentCache = new SubsystemFragmentCache();
+            deferredWriter = new CoalescingConfigurationWriter(fileName.getName());
+        } else {
+            fragmentCache = null;
+            deferredWriter = null;
+        }
     }
 
     public void registerAdditionalRootElement(final QName anotherRoot, final XMLElementReader<List<ModelNode>> parser){
@@ -84,7 +118,22 @@ public class XmlConfigurationPersister extends AbstractConfigurationPersister {
     /** {@inheritDoc} */
     @Override
     public PersistenceResource store(final ModelNode model, Set<PathAddress> affectedAddresses) throws ConfigurationPersistenceException {
-        return new FilePersistenceResource(model, fileName, this);
+        if (deferredWriter == null) {
+            return createPersistenceResource(model, null);
+        }
+        final SubsystemFragmentCache.Update update = fragmentCache.beginUpdate(affectedAddresses);
+        return deferredWriter.defer(createPersistenceResource(model, update), update);
+    }
+
+    /**
+     * Marshals the model into a resource which writes it to the configuration file when committed.
+     *
+     * @param model the model to persist
+     * @param update the fragment cache update to marshal the subsystems through, or {@code null}
+     * @return the resource
+     */
+    FilePersistenceResource createPersistenceResource(final ModelNode model, final SubsystemFragmentCache.Update update) throws ConfigurationPersistenceException {
+        return new FilePersistenceResource(model, fileName, this, update);
     }
 
     /**
@@ -196,6 +196,57 @@ class BasicResource implements Resource {
         return clone;
     }
 
+    /**
+     * Whether this resource can be copied with {@link #shallowCopy()}, i.e. it is a plain {@code BasicResource}
+     * which only uses the default child providers.
+     *
+     * @return {@code true} if a shallow copy would be equivalent to this resource
+     */
+    boolean isShallowCopyable() {
+        if (getClass() != BasicResource.class) {
+            return false;
+        }
+        synchronized (children) {
+            for (final ResourceProvider provider : children.values()) {
+                if (provider.getClass() != DefaultResourceProvider.class) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Copies the model of this resource, but shares the children with this resource. Only valid if
+     * {@link #isShallowCopyable()}.
+     *
+     * @return the copy
+     */
+    BasicResource shallowCopy() {
+        final BasicResource copy = new BasicResource();
+        copy.writeModel(model);
+        synchronized (children) {
+            for (final Map.Entry<String, ResourceProvider> entry : children.entrySet()) {
+                copy.children.put(entry.getKey(), ((DefaultResourceProvider) entry.getValue()).copy());
+            }
+        }
+        return copy;
+    }
+
+    /**
+     * Replaces an existing child, keeping its position among its siblings. Only valid if {@link #isShallowCopyable()}.
+     *
+     * @param address the address of the child
+     * @param resource the new child
+     */
+    void replaceChild(final PathElement address, final Resource resource) {
+        final ResourceProvider provider = getProvider(address.getKey());
+        if (provider == null || !provider.has(address.getValue())) {
+            throw new NoSuchResourceException(address);
+        }
+        ((DefaultResourceProvider) provider).replace(address.getValue(), resource);
+    }
+
     protected void registerResourceProvider(final String type, final ResourceProvider provider) {
         synchronized (children) {
             if (children.containsKey(type)) {
@@ -273,6 +324,20 @@ class BasicResource implements Resource {
                 return children.remove(name);
             }
         }
+
+        DefaultResourceProvider copy() {
+            final DefaultResourceProvider copy = new DefaultResourceProvider();
+            synchronized (children) {
+                copy.children.putAll(children);
+            }
+            return copy;
+        }
+
+        void replace(String name, Resource resource) {
+            synchronized (children) {
+                children.put(name, resource);
+            }
+        }
     }
 
     abstract static class DelegateResource implements ResourceEntry {
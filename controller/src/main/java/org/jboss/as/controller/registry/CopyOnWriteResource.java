@@ -0,0 +1,251 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2012, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.jboss.as.controller.registry;
+
+import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.Set;
+
+import org.jboss.as.controller.PathAddress;
+import org.jboss.as.controller.PathElement;
+import org.jboss.dmr.ModelNode;
+
+/**
+ * A writable view of a read-only resource tree which copies resources only when they are written to.
+ *
+ * <p>Instead of cloning the whole tree before the first write, only the resources on the path from the root to the
+ * modified resource are copied. Each copy takes a private copy of the model of its resource, but shares the children
+ * with the original, so every subtree which is not written to is shared between the original tree and the tree of
+ * this view. The original tree is never modified, so discarding this view rolls back all changes.</p>
+ *
+ * <p>Resources which are handed out for update have to be obtained through {@link #getRootForUpdate()},
+ * {@link #getChildForUpdate(Resource, PathElement)} and {@link #copySubtree(Resource)}. A resource is copied at most
+ * once, so a resource which has been handed out stays part of this tree. Resources added to the tree have to be
+ * registered with {@link #adopt(Resource)}.</p>
+ *
+ * <p>Only plain resources created by {@link Resource.Factory} are copied this way, any other resource type is
+ * {@link Resource#clone() cloned} together with its subtree when it has to be copied.</p>
+ *
+ * <p>Concurrency note: the methods handing out resources for update are synchronized, as the model may be updated
+ * from several threads during a parallel boot. The resources themselves are not thread-safe.</p>
+ */
+public final class CopyOnWriteResource implements Resource {
+
+    /**
+     * The resources which are private to this tree. {@code TRUE} if the whole subtree of the resource is private,
+     * {@code FALSE} if only the resource itself is and its children may still be shared.
+     */
+    private final Map<Resource, Boolean> copies = new IdentityHashMap<Resource, Boolean>();
+    private volatile Resource root;
+
+    public CopyOnWriteResource(final Resource root) {
+        this.root = root;
+    }
+
+    /**
+     * Gets the root of the (possibly partially copied) tree, e.g. to publish it once all writes are complete.
+     *
+     * @return the root resource
+     */
+    public Resource getDelegate() {
+        return root;
+    }
+
+    /**
+     * Gets the root resource, copying it if it is still shared.
+     *
+     * @return the private root resource
+     */
+    public synchronized Resource getRootForUpdate() {
+        final Resource current = root;
+        if (copies.containsKey(current)) {
+            return current;
+        }
+        final Resource copy = copy(current);
+        root = copy;
+        return copy;
+    }
+
+    /**
+     * Gets a child of a resource which has been obtained for update, copying it if it is still shared.
+     *
+     * @param parent the parent, obtained from one of the {@code ForUpdate} methods of this tree
+     * @param element the address of the child
+     * @return the private child, or {@code null} if there is no such child
+     */
+    public synchronized Resource getChildForUpdate(final Resource parent, final PathElement element) {
+        final Boolean parentState = copies.get(parent);
+        if (parentState == null) {
+            throw new IllegalStateException();
+        }
+        final Resource child = parent.getChild(element);
+        if (child == null) {
+            return null;
+        }
+        if (parentState) {
+            copies.put(child, Boolean.TRUE);
+            return child;
+        }
+        if (copies.containsKey(child)) {
+            return child;
+        }
+        final Resource copy = copy(child);
+        ((BasicResource) parent).replaceChild(element, copy);
+        return copy;
+    }
+
+    /**
+     * Makes the whole subtree of a resource which has been obtained for update private, so that it can be modified
+     * at any depth. The resource itself is not replaced.
+     *
+     * @param resource the resource, obtained from one of the {@code ForUpdate} methods of this tree
+     * @return the resource
+     */
+    public synchronized Resource copySubtree(final Resource resource) {
+        final Boolean state = copies.get(resource);
+        if (state == null) {
+            throw new IllegalStateException();
+        }
+        if (!state) {
+            // only shallow copies are not fully private yet, and those are always basic resources
+            for (final String childType : resource.getChildTypes()) {
+                for (final String name : resource.getChildrenNames(childType)) {
+                    final PathElement element = PathElement.pathElement(childType, name);
+                    final Resource child = resource.getChild(element);
+                    final Boolean childState = copies.get(child);
+                    if (childState == null) {
+                        final Resource clone = child.clone();
+                        ((BasicResource) resource).replaceChild(element, clone);
+                        copies.put(clone, Boolean.TRUE);
+                    } else if (!childState) {
+                        copySubtree(child);
+                    }
+                }
+            }
+            copies.put(resource, Boolean.TRUE);
+        }
+        return resource;
+    }
+
+    /**
+     * Registers a resource which has been added to this tree. The resource and its subtree are considered private.
+     *
+     * @param resource the new resource
+     */
+    public synchronized void adopt(final Resource resource) {
+        copies.put(resource, Boolean.TRUE);
+    }
+
+    private Resource copy(final Resource resource) {
+        if (resource instanceof BasicResource && ((BasicResource) resource).isShallowCopyable()) {
+            final Resource copy = ((BasicResource) resource).shallowCopy();
+            copies.put(copy, Boolean.FALSE);
+            return copy;
+        }
+        final Resource clone = resource.clone();
+        copies.put(clone, Boolean.TRUE);
+        return clone;
+    }
+
+    @Override
+    public ModelNode getModel() {
+        return getRootForUpdate().getModel();
+    }
+
+    @Override
+    public void writeModel(final ModelNode newModel) {
+        getRootForUpdate().writeModel(newModel);
+    }
+
+    @Override
+    public boolean isModelDefined() {
+        return root.isModelDefined();
+    }
+
+    @Override
+    public boolean hasChild(final PathElement element) {
+        return root.hasChild(element);
+    }
+
+    @Override
+    public Resource getChild(final PathElement element) {
+        return root.getChild(element);
+    }
+
+    @Override
+    public Resource requireChild(final PathElement element) {
+        return root.requireChild(element);
+    }
+
+    @Override
+    public boolean hasChildren(final String childType) {
+        return root.hasChildren(childType);
+    }
+
+    @Override
+    public Resource navigate(final PathAddress address) {
+        return root.navigate(address);
+    }
+
+    @Override
+    public Set<String> getChildTypes() {
+        return root.getChildTypes();
+    }
+
+    @Override
+    public Set<String> getChildrenNames(final String childType) {
+        return root.getChildrenNames(childType);
+    }
+
+    @Override
+    public Set<ResourceEntry> getChildren(final String childType) {
+        return root.getChildren(childType);
+    }
+
+    @Override
+    public void registerChild(final PathElement address, final Resource resource) {
+        final Resource parent = getRootForUpdate();
+        parent.registerChild(address, resource);
+        adopt(resource);
+    }
+
+    @Override
+    public Resource removeChild(final PathElement address) {
+        return getRootForUpdate().removeChild(address);
+    }
+
+    @Override
+    public boolean isRuntime() {
+        return root.isRuntime();
+    }
+
+    @Override
+    public boolean isProxy() {
+        return root.isProxy();
+    }
+
+    @SuppressWarnings({"CloneDoesntCallSuperClone"})
+    @Override
+    public Resource clone() {
+        return root.clone();
+    }
+}
@@ -0,0 +1,189 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2012, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.jboss.as.controller.persistence;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.xml.stream.XMLStreamException;
+
+import org.jboss.as.controller.PathAddress;
+import org.jboss.as.controller.PathElement;
+import org.jboss.dmr.ModelNode;
+import org.jboss.staxmapper.XMLElementWriter;
+import org.jboss.staxmapper.XMLExtendedStreamWriter;
+import org.junit.Test;
+
+/**
+ * Unit tests of the {@link SubsystemFragmentCache} and {@link CoalescingConfigurationWriter} used for incremental
+ * persistence.
+ */
+public class IncrementalPersistenceUnitTestCase {
+
+    @Test
+    public void testUnchangedSubsystemIsReplayed() throws Exception {
+        final SubsystemFragmentCache cache = new SubsystemFragmentCache();
+        final CountingWriter writer = new CountingWriter("a");
+
+        final List<String> first = marshal(cache, affected(), "a", writer, true);
+        assertEquals(1, writer.count.get());
+
+        // another subsystem changed
+        final List<String> second = marshal(cache, affected(PathElement.pathElement("subsystem", "b")), "a", writer, true);
+        assertEquals(1, writer.count.get());
+        assertEquals(first, second);
+
+        // a child of the subsystem changed
+        marshal(cache, affected(PathElement.pathElement("subsystem", "a"), PathElement.pathElement("child", "x")), "a", writer, true);
+        assertEquals(2, writer.count.get());
+    }
+
+    @Test
+    public void testRolledBackFragmentIsDiscarded() throws Exception {
+        final SubsystemFragmentCache cache = new SubsystemFragmentCache();
+        final CountingWriter writer = new CountingWriter("a");
+        final List<String> committed = marshal(cache, affected(), "a", writer, true);
+
+        writer.value = "b";
+        final List<String> rolledBack = marshal(cache, affected(PathElement.pathElement("subsystem", "a")), "a", writer, false);
+        assertFalse(committed.equals(rolledBack));
+
+        assertEquals(committed, marshal(cache, affected(), "a", writer, true));
+        assertEquals(2, writer.count.get());
+    }
+
+    @Test
+    public void testProfileChangeDiscardsAllFragments() throws Exception {
+        final SubsystemFragmentCache cache = new SubsystemFragmentCache();
+        final CountingWriter writer = new CountingWriter("a");
+        marshal(cache, affected(), "a", writer, true);
+        marshal(cache, affected(PathElement.pathElement("profile", "other")), "a", writer, true);
+        assertEquals(2, writer.count.get());
+        assertEquals(1, cache.size());
+    }
+
+    @Test
+    public void testSupersededWritesAreCoalesced() throws Exception {
+        final CoalescingConfigurationWriter writer = new CoalescingConfigurationWriter("test");
+        final CountDownLatch blocked = new CountDownLatch(1);
+        final CountDownLatch release = new CountDownLatch(1);
+        final List<Integer> written = Collections.synchronizedList(new ArrayList<Integer>());
+        final List<Integer> discarded = Collections.synchronizedList(new ArrayList<Integer>());
+
+        final List<ConfigurationPersister.DeferredPersistenceResource> resources = new ArrayList<ConfigurationPersister.DeferredPersistenceResource>();
+        for (int i = 0; i < 4; i++) {
+            final int id = i;
+            resources.add(writer.defer(new ConfigurationPersister.PersistenceResource() {
+                @Override
+                public void commit() {
+                    if (id == 0) {
+                        blocked.countDown();
+                        try {
+                            release.await(10, TimeUnit.SECONDS);
+                        } catch (InterruptedException e) {
+                            Thread.currentThread().interrupt();
+                        }
+                    }
+                    written.add(id);
+                }
+
+                @Override
+                public void rollback() {
+                    discarded.add(id);
+                }
+            }, null));
+        }
+
+        resources.get(0).commit();
+        assertTrue(blocked.await(10, TimeUnit.SECONDS));
+        // committed while the first write is in progress
+        resources.get(1).commit();
+        resources.get(2).commit();
+        resources.get(3).commit();
+        release.countDown();
+
+        resources.get(1).awaitPersisted();
+        assertEquals(Arrays.asList(0, 3), written);
+        assertEquals(Arrays.asList(1, 2), discarded);
+    }
+
+    private static Set<PathAddress> affected(final PathElement... elements) {
+        final Set<PathAddress> affected = new HashSet<PathAddress>();
+        if (elements.length > 0) {
+            affected.add(PathAddress.pathAddress(elements));
+        }
+        return affected;
+    }
+
+    private static List<String> marshal(final SubsystemFragmentCache cache, final Set<PathAddress> affected, final String subsystemName,
+                                        final XMLElementWriter<SubsystemMarshallingContext> writer, final boolean commit) throws XMLStreamException {
+        final SubsystemFragmentCache.Update update = cache.beginUpdate(affected);
+        final List<String> calls = new ArrayList<String>();
+        final XMLExtendedStreamWriter streamWriter = recordingProxy(calls);
+        update.wrap(subsystemName, writer).writeContent(streamWriter, new SubsystemMarshallingContext(new ModelNode(), streamWriter));
+        if (commit) {
+            update.commit();
+        }
+        return calls;
+    }
+
+    private static XMLExtendedStreamWriter recordingProxy(final List<String> calls) {
+        return (XMLExtendedStreamWriter) Proxy.newProxyInstance(XMLExtendedStreamWriter.class.getClassLoader(), new Class<?>[] {XMLExtendedStreamWriter.class}, new InvocationHandler() {
+            @Override
+            public Object invoke(final Object proxy, final Method method, final Object[] args) throws Throwable {
+                calls.add(method.getName() + (args == null ? "" : Arrays.asList(args)));
+                return null;
+            }
+        });
+    }
+
+    private static class CountingWriter implements XMLElementWriter<SubsystemMarshallingContext> {
+        private final AtomicInteger count = new AtomicInteger();
+        private volatile String value;
+
+        CountingWriter(final String value) {
+            this.value = value;
+        }
+
+        @Override
+        public void writeContent(final XMLExtendedStreamWriter streamWriter, final SubsystemMarshallingContext context) throws XMLStreamException {
+            count.incrementAndGet();
+            streamWriter.writeStartElement("subsystem");
+            streamWriter.writeAttribute("value", value);
+            streamWriter.writeEndElement();
+        }
+    }
+}
@@ -0,0 +1,147 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2012, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.jboss.as.controller.registry;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.jboss.as.controller.PathElement;
+import org.jboss.dmr.ModelNode;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Tests of {@link CopyOnWriteResource}.
+ */
+public class CopyOnWriteResourceUnitTestCase {
+
+    private static final PathElement SUBSYSTEM_A = PathElement.pathElement("subsystem", "a");
+    private static final PathElement SUBSYSTEM_B = PathElement.pathElement("subsystem", "b");
+    private static final PathElement SUBSYSTEM_C = PathElement.pathElement("subsystem", "c");
+    private static final PathElement CHILD = PathElement.pathElement("child", "x");
+    private static final PathElement GRANDCHILD = PathElement.pathElement("grandchild", "y");
+
+    private Resource root;
+
+    @Before
+    public void setup() {
+        root = Resource.Factory.create();
+        root.getModel().get("name").set("root");
+        for (PathElement element : new PathElement[] {SUBSYSTEM_A, SUBSYSTEM_B, SUBSYSTEM_C}) {
+            final Resource subsystem = Resource.Factory.create();
+            subsystem.getModel().get("name").set(element.getValue());
+            final Resource child = Resource.Factory.create();
+            child.getModel().get("value").set(1);
+            child.registerChild(GRANDCHILD, Resource.Factory.create());
+            subsystem.registerChild(CHILD, child);
+            root.registerChild(element, subsystem);
+        }
+    }
+
+    @Test
+    public void testOnlyPathIsCopied() {
+        final CopyOnWriteResource cow = new CopyOnWriteResource(root);
+        final Resource newRoot = cow.getRootForUpdate();
+        final Resource subsystem = cow.getChildForUpdate(newRoot, SUBSYSTEM_B);
+        final Resource child = cow.getChildForUpdate(subsystem, CHILD);
+        child.getModel().get("value").set(2);
+
+        // the original is untouched
+        assertEquals(1, root.getChild(SUBSYSTEM_B).getChild(CHILD).getModel().get("value").asInt());
+        assertEquals(2, cow.getDelegate().getChild(SUBSYSTEM_B).getChild(CHILD).getModel().get("value").asInt());
+
+        // the path was copied, everything else is shared
+        assertNotSame(root, newRoot);
+        assertNotSame(root.getChild(SUBSYSTEM_B), subsystem);
+        assertNotSame(root.getChild(SUBSYSTEM_B).getChild(CHILD), child);
+        assertSame(root.getChild(SUBSYSTEM_A), newRoot.getChild(SUBSYSTEM_A));
+        assertSame(root.getChild(SUBSYSTEM_C), newRoot.getChild(SUBSYSTEM_C));
+        assertSame(root.getChild(SUBSYSTEM_B).getChild(CHILD).getChild(GRANDCHILD), child.getChild(GRANDCHILD));
+
+        // the order of the children is kept
+        final List<String> names = new ArrayList<String>(newRoot.getChildrenNames("subsystem"));
+        assertEquals(3, names.size());
+        assertEquals("a", names.get(0));
+        assertEquals("b", names.get(1));
+        assertEquals("c", names.get(2));
+        assertEquals(Resource.Tools.readModel(root).get("name"), Resource.Tools.readModel(newRoot).get("name"));
+    }
+
+    @Test
+    public void testResourcesAreCopiedOnce() {
+        final CopyOnWriteResource cow = new CopyOnWriteResource(root);
+        final Resource newRoot = cow.getRootForUpdate();
+        final Resource subsystem = cow.getChildForUpdate(newRoot, SUBSYSTEM_A);
+        final ModelNode model = subsystem.getModel();
+
+        assertSame(newRoot, cow.getRootForUpdate());
+        assertSame(subsystem, cow.getChildForUpdate(cow.getRootForUpdate(), SUBSYSTEM_A));
+
+        // making the subtree private keeps the resource itself
+        assertSame(subsystem, cow.copySubtree(subsystem));
+        assertSame(model, subsystem.getModel());
+        assertNotSame(root.getChild(SUBSYSTEM_A).getChild(CHILD), subsystem.getChild(CHILD));
+        subsystem.getChild(CHILD).getChild(GRANDCHILD).getModel().get("value").set(true);
+        assertFalse(root.getChild(SUBSYSTEM_A).getChild(CHILD).getChild(GRANDCHILD).isModelDefined());
+        assertSame(subsystem.getChild(CHILD), cow.getChildForUpdate(subsystem, CHILD));
+    }
+
+    @Test
+    public void testAddAndRemove() {
+        final CopyOnWriteResource cow = new CopyOnWriteResource(root);
+        final Resource newRoot = cow.getRootForUpdate();
+        final Resource subsystem = cow.getChildForUpdate(newRoot, SUBSYSTEM_C);
+        final Resource added = Resource.Factory.create();
+        subsystem.registerChild(PathElement.pathElement("child", "z"), added);
+        cow.adopt(added);
+        assertSame(added, cow.getChildForUpdate(subsystem, PathElement.pathElement("child", "z")));
+
+        assertTrue(newRoot.removeChild(SUBSYSTEM_A) != null);
+        assertFalse(newRoot.hasChild(SUBSYSTEM_A));
+        assertTrue(root.hasChild(SUBSYSTEM_A));
+        assertFalse(root.getChild(SUBSYSTEM_C).hasChild(PathElement.pathElement("child", "z")));
+    }
+
+    @Test
+    public void testCustomResourcesAreCloned() {
+        final Resource custom = new PlaceholderResource.PlaceholderResourceEntry("subsystem", "a") {
+            @Override
+            public PlaceholderResource.PlaceholderResourceEntry clone() {
+                return new PlaceholderResource.PlaceholderResourceEntry("subsystem", "a");
+            }
+        };
+        final Resource parent = Resource.Factory.create();
+        parent.registerChild(SUBSYSTEM_A, custom);
+
+        final CopyOnWriteResource cow = new CopyOnWriteResource(parent);
+        final Resource copy = cow.getChildForUpdate(cow.getRootForUpdate(), SUBSYSTEM_A);
+        assertNotSame(custom, copy);
+        assertSame(custom, parent.getChild(SUBSYSTEM_A));
+    }
+}
@@ -22,14 +22,14 @@
 
 package org.jboss.as.repository;
 
-import java.io.BufferedInputStream;
-import java.io.BufferedOutputStream;
 import java.io.Closeable;
 import java.io.File;
 import java.io.FileInputStream;
 import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
 import java.security.DigestOutputStream;
 import java.security.MessageDigest;
 import java.security.NoSuchAlgorithmException;
@@ -66,6 +66,18 @@ public interface ContentRepository {
      */
     byte[] addContent(InputStream stream) throws IOException;
 
+    /**
+     * Add the content of the given local file to the repository. Unlike {@link #addContent(InputStream)} the content
+     * does not pass through the heap: it is hashed through a direct buffer, and only copied, by the file system, if the
+     * repository does not hold it yet. The file itself is left untouched.
+     *
+     * @param file the file holding the content. Cannot be <code>null</code>
+     * @return the hash of the content that will be used as an internal identifier
+     *         for the content. Will not be <code>null</code>
+     * @throws IOException if there is a problem reading the file
+     */
+    byte[] addContent(File file) throws IOException;
+
     /**
      * Get the content as a virtual file.
      *
@@ -109,6 +121,10 @@ public interface ContentRepository {
         private static class ContentRepositoryImpl implements ContentRepository, Service<ContentRepository> {
 
             protected static final String CONTENT = "content";
+            /**
+             * Size of the buffers used to hash and copy content
+             */
+            private static final int BUFFER_SIZE = 65536;
             private final File repoRoot;
             protected final MessageDigest messageDigest;
 
@@ -144,10 +160,9 @@ public interface ContentRepository {
                     messageDigest.reset();
                     try {
                         DigestOutputStream dos = new DigestOutputStream(fos, messageDigest);
-                        BufferedInputStream bis = new BufferedInputStream(stream);
-                        byte[] bytes = new byte[8192];
+                        byte[] bytes = new byte[BUFFER_SIZE];
                         int read;
-                        while ((read = bis.read(bytes)) > -1) {
+                        while ((read = stream.read(bytes)) > -1) {
                             dos.write(bytes, 0, read);
                         }
                         fos.flush();
@@ -175,6 +190,54 @@ public interface ContentRepository {
                 return sha1Bytes;
             }
 
+            @Override
+            public byte[] addContent(File file) throws IOException {
+                if (file == null)
+                    throw DeploymentRepositoryMessages.MESSAGES.nullVar("file");
+                final byte[] fileHash = hashFile(file);
+                if (hasContent(fileHash)) {
+                    DeploymentRepositoryLogger.ROOT_LOGGER.debugf("Content was already present in repository at location %s", getDeploymentContentFile(fileHash).getAbsolutePath());
+                    return fileHash;
+                }
+                final File tmp = File.createTempFile(CONTENT, "tmp", repoRoot);
+                try {
+                    copyFile(file, tmp);
+                    // hash exactly the bytes which are stored, the file may have changed since it was hashed
+                    final byte[] sha1Bytes = hashFile(tmp);
+                    final File realFile = getDeploymentContentFile(sha1Bytes, true);
+                    if (hasContent(sha1Bytes)) {
+                        DeploymentRepositoryLogger.ROOT_LOGGER.debugf("Content was already present in repository at location %s", realFile.getAbsolutePath());
+                    } else {
+                        moveTempToPermanent(tmp, realFile);
+                        DeploymentRepositoryLogger.ROOT_LOGGER.contentAdded(realFile.getAbsolutePath());
+                    }
+                    return sha1Bytes;
+                } finally {
+                    if (tmp.exists() && !tmp.delete()) {
+                        tmp.deleteOnExit();
+                    }
+                }
+            }
+
+            private byte[] hashFile(final File file) throws IOException {
+                final FileInputStream fis = new FileInputStream(file);
+                try {
+                    final FileChannel channel = fis.getChannel();
+                    final ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_SIZE);
+                    synchronized (messageDigest) {
+                        messageDigest.reset();
+                        while (channel.read(buffer) > -1) {
+                            buffer.flip();
+                            messageDigest.update(buffer);
+                            buffer.clear();
+                        }
+                        return messageDigest.digest();
+                    }
+                } finally {
+                    safeClose(fis);
+                }
+            }
+
             @Override
             public VirtualFile getContent(byte[] hash) {
                 if (hash == null)
@@ -268,10 +331,17 @@ public interface ContentRepository {
                 try {
                     fos = new FileOutputStream(dest);
                     fis = new FileInputStream(src);
-                    byte[] bytes = new byte[8192];
-                    int read;
-                    while ((read = fis.read(bytes)) > -1) {
-                        fos.write(bytes, 0, read);
+                    // let the kernel copy the content instead of reading it into the heap and writing it out again
+                    final FileChannel in = fis.getChannel();
+                    final FileChannel out = fos.getChannel();
+                    final long size = in.size();
+                    long position = 0;
+                    while (position < size) {
+                        final long transferred = in.transferTo(position, size - position, out);
+                        if (transferred <= 0) {
+                            break;
+                        }
+                        position += transferred;
                     }
                     fos.flush();
                     fos.getFD().sync();
@@ -0,0 +1,165 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2012, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.jboss.as.repository;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.security.MessageDigest;
+import java.util.Arrays;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Tests of adding local files to the {@link ContentRepository}.
+ */
+public class ContentRepositoryTestCase {
+
+    private File root;
+    private File source;
+    private ContentRepository repository;
+
+    @Before
+    public void setUp() throws IOException {
+        root = File.createTempFile("content-repository", "");
+        root.delete();
+        source = File.createTempFile("deployment", ".jar");
+        repository = ContentRepository.Factory.create(root);
+    }
+
+    @After
+    public void tearDown() {
+        delete(root);
+        source.delete();
+    }
+
+    @Test
+    public void testAddNewContent() throws Exception {
+        final byte[] bytes = "new content".getBytes("UTF-8");
+        write(source, bytes);
+
+        final byte[] hash = repository.addContent(source);
+
+        assertArrayEquals(sha1(bytes), hash);
+        assertTrue(repository.hasContent(hash));
+        assertArrayEquals(bytes, read(getContentFile(hash)));
+        // the source is copied, not moved
+        assertArrayEquals(bytes, read(source));
+        assertOnlyHashDirectories();
+    }
+
+    @Test
+    public void testAddPresentContent() throws Exception {
+        final byte[] bytes = "present content".getBytes("UTF-8");
+        final byte[] hash = repository.addContent(new ByteArrayInputStream(bytes));
+        final File content = getContentFile(hash);
+        final long lastModified = content.lastModified();
+        write(source, bytes);
+
+        assertArrayEquals(hash, repository.addContent(source));
+        assertArrayEquals(bytes, read(content));
+        assertEquals(lastModified, content.lastModified());
+        assertOnlyHashDirectories();
+    }
+
+    @Test
+    public void testRewrittenFileIsStoredUnderItsNewHash() throws Exception {
+        final byte[] first = "content 1".getBytes("UTF-8");
+        final byte[] second = "content 2".getBytes("UTF-8");
+        write(source, first);
+        final long lastModified = source.lastModified();
+        final byte[] firstHash = repository.addContent(source);
+
+        // same size and timestamp
+        write(source, second);
+        source.setLastModified(lastModified);
+        final byte[] secondHash = repository.addContent(source);
+
+        assertFalse(Arrays.equals(firstHash, secondHash));
+        assertArrayEquals(first, read(getContentFile(firstHash)));
+        assertArrayEquals(second, read(getContentFile(secondHash)));
+        assertOnlyHashDirectories();
+    }
+
+    private File getContentFile(final byte[] hash) {
+        final String sha1 = HashUtil.bytesToHexString(hash);
+        return new File(new File(new File(root, sha1.substring(0, 2)), sha1.substring(2)), "content");
+    }
+
+    /**
+     * No temporary files are left behind in the repository root.
+     */
+    private void assertOnlyHashDirectories() {
+        for (File file : root.listFiles()) {
+            assertTrue(file.getName(), file.isDirectory() && file.getName().length() == 2);
+        }
+    }
+
+    private static byte[] sha1(final byte[] bytes) throws Exception {
+        return MessageDigest.getInstance("SHA-1").digest(bytes);
+    }
+
+    private static void write(final File file, final byte[] bytes) throws IOException {
+        final FileOutputStream out = new FileOutputStream(file);
+        try {
+            out.write(bytes);
+        } finally {
+            out.close();
+        }
+    }
+
+    private static byte[] read(final File file) throws IOException {
+        final InputStream in = new FileInputStream(file);
+        try {
+            final ByteArrayOutputStream out = new ByteArrayOutputStream();
+            final byte[] buffer = new byte[1024];
+            int read;
+            while ((read = in.read(buffer)) != -1) {
+                out.write(buffer, 0, read);
+            }
+            return out.toByteArray();
+        } finally {
+            in.close();
+        }
+    }
+
+    private static void delete(final File file) {
+        final File[] children = file.listFiles();
+        if (children != null) {
+            for (File child : children) {
+                delete(child);
+            }
+        }
+        file.delete();
+    }
+}
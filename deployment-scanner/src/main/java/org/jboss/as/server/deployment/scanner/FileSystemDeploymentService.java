@@ -47,6 +47,10 @@ import java.io.File;
 import java.io.FileFilter;
 import java.io.FileOutputStream;
 import java.io.IOException;
+import java.nio.file.FileSystems;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.HashSet;
@@ -111,6 +115,17 @@ class FileSystemDeploymentService implements DeploymentScanner {
      */
     static final long DEFAULT_DEPLOYMENT_TIMEOUT = 600;
 
+    /**
+     * System property holding the period in ms after which a periodic scan examines the whole deployment directory
+     * even if no change has been reported for it. A value of zero or less disables the change check.
+     */
+    static final String FULL_SCAN_INTERVAL = "org.jboss.as.server.deployment.scanner.fullScanInterval";
+
+    /**
+     * Default value of {@link #FULL_SCAN_INTERVAL}
+     */
+    static final long DEFAULT_FULL_SCAN_INTERVAL = 60000;
+
     private File deploymentDir;
     private long scanInterval = 0;
     private volatile boolean scanEnabled = false;
@@ -137,6 +152,21 @@ class FileSystemDeploymentService implements DeploymentScanner {
     private volatile long maxNoProgress = MAX_NO_PROGRESS;
 
     private volatile long deploymentTimeout = DEFAULT_DEPLOYMENT_TIMEOUT;
+    private volatile long fullScanInterval = Long.getLong(FULL_SCAN_INTERVAL, DEFAULT_FULL_SCAN_INTERVAL);
+    /**
+     * Reports changes to the directories visited by the scan, or <code>null</code> if it could not be created.
+     * Guarded by scanLock.
+     */
+    private WatchService watchService;
+    /**
+     * The deployments known to the server when the last complete scan started, or <code>null</code> if the next
+     * periodic scan must not be skipped
+     */
+    private volatile Set<String> lastScanDeployments;
+    /**
+     * When the last complete scan started
+     */
+    private volatile long lastScanStartTime;
 
     private final String relativeTo;
     private final String relativePath;
@@ -146,7 +176,7 @@ class FileSystemDeploymentService implements DeploymentScanner {
         @Override
         public void run() {
             try {
-                scan();
+                incrementalScan();
             } catch (Exception e) {
                 ROOT_LOGGER.scanException(e, deploymentDir.getAbsolutePath());
             }
@@ -203,6 +233,7 @@ class FileSystemDeploymentService implements DeploymentScanner {
     @Override
     public void setAutoDeployZippedContent(boolean autoDeployZip) {
         this.autoDeployZip = autoDeployZip;
+        this.lastScanDeployments = null;
     }
 
     @Override
@@ -216,11 +247,13 @@ class FileSystemDeploymentService implements DeploymentScanner {
             ROOT_LOGGER.explodedAutoDeploymentContentWarning(DO_DEPLOY, CommonAttributes.AUTO_DEPLOY_EXPLODED);
         }
         this.autoDeployExploded = autoDeployExploded;
+        this.lastScanDeployments = null;
     }
 
     @Override
     public void setAutoDeployXMLContent(final boolean autoDeployXML) {
         this.autoDeployXml = autoDeployXML;
+        this.lastScanDeployments = null;
     }
 
     @Override
@@ -274,6 +307,15 @@ class FileSystemDeploymentService implements DeploymentScanner {
         this.scanEnabled = false;
         cancelScan();
         safeClose(controllerClient);
+        scanLock.lock();
+        try {
+            if (watchService != null) {
+                safeClose(watchService);
+                watchService = null;
+            }
+        } finally {
+            scanLock.unlock();
+        }
     }
 
     /**
@@ -283,6 +325,13 @@ class FileSystemDeploymentService implements DeploymentScanner {
         this.maxNoProgress = max;
     }
 
+    /**
+     * Hook solely for unit test to control how often a full scan is done even if nothing appears to have changed
+     */
+    void setFullScanInterval(long fullScanInterval) {
+        this.fullScanInterval = fullScanInterval;
+    }
+
     private void establishDeployedContentList(File dir) throws OperationFailedException {
         final Set<String> deploymentNames = getDeploymentNames();
         final File[] children = dir.listFiles();
@@ -315,6 +364,114 @@ class FileSystemDeploymentService implements DeploymentScanner {
         }
     }
 
+    /**
+     * Performs a {@link #scan()} unless nothing relevant changed since the last one. The directories the scan visits
+     * are watched by a {@link WatchService}; if it reported no event, the scan is skipped unless the deployments known
+     * to the server changed, e.g. because one was undeployed through the management API. Changes which are not
+     * reported, e.g. on network file systems or where the watch service polls, are picked up by the full scan which
+     * is done at least every {@link #FULL_SCAN_INTERVAL} ms.
+     * <p/>
+     * This method isn't private solely to allow a unit test in the same package to call it.
+     */
+    void incrementalScan() {
+        if (!scanEnabled) {
+            return;
+        }
+        try {
+            scanLock.lockInterruptibly();
+        } catch (InterruptedException ie) {
+            Thread.currentThread().interrupt();
+            return;
+        }
+        try {
+            if (isUnchanged()) {
+                ROOT_LOGGER.tracef("No changes in directory %s since the last scan", deploymentDir.getAbsolutePath());
+                return;
+            }
+            scan();
+        } finally {
+            scanLock.unlock();
+        }
+    }
+
+    /**
+     * Invoke with the scan lock held
+     */
+    private boolean isUnchanged() {
+        final Set<String> lastScanDeployments = this.lastScanDeployments;
+        final long fullScanInterval = this.fullScanInterval;
+        if (lastScanDeployments == null || watchService == null || fullScanInterval <= 0
+                || System.currentTimeMillis() - lastScanStartTime >= fullScanInterval) {
+            return false;
+        }
+        if (pollWatchEvents()) {
+            return false;
+        }
+        return lastScanDeployments.equals(getDeploymentNames());
+    }
+
+    /**
+     * Consumes the pending events of the watch service.
+     *
+     * @return whether there were any
+     */
+    private boolean pollWatchEvents() {
+        boolean changed = false;
+        WatchKey key;
+        while ((key = watchService.poll()) != null) {
+            // includes OVERFLOW, when events were lost
+            changed |= !key.pollEvents().isEmpty();
+            // the directory is gone
+            changed |= !key.reset();
+        }
+        return changed;
+    }
+
+    /**
+     * Registers the directories {@link #scanDirectory(File, String, ScanContext)} visits with the watch service,
+     * creating it if needed. Directories which are already registered keep their key.
+     */
+    private void watchDirectories() {
+        try {
+            if (watchService == null) {
+                watchService = FileSystems.getDefault().newWatchService();
+            }
+            watchDirectory(deploymentDir, false);
+        } catch (IOException e) {
+            // scan on every tick instead
+            ROOT_LOGGER.debugf(e, "Cannot watch directory %s for changes", deploymentDir.getAbsolutePath());
+            if (watchService != null) {
+                safeClose(watchService);
+                watchService = null;
+            }
+        }
+    }
+
+    private void watchDirectory(final File directory, final boolean explodedContent) throws IOException {
+        directory.toPath().register(watchService, StandardWatchEventKinds.ENTRY_CREATE, StandardWatchEventKinds.ENTRY_DELETE,
+                StandardWatchEventKinds.ENTRY_MODIFY);
+        final File[] children = explodedContent ? directory.listFiles() : directory.listFiles(filter);
+        if (children == null) {
+            return;
+        }
+        for (File child : children) {
+            if (!child.isDirectory()) {
+                continue;
+            }
+            final String fileName = child.getName();
+            if (explodedContent) {
+                watchDirectory(child, true);
+            } else if (isEEArchive(fileName)) {
+                // the timestamp of auto-deployed exploded content is that of its most recent file
+                if (autoDeployExploded) {
+                    watchDirectory(child, true);
+                }
+            } else if (!WEB_INF.equalsIgnoreCase(fileName) && !META_INF.equalsIgnoreCase(fileName)) {
+                watchDirectory(child, false);
+            }
+        }
+    }
+
     /**
      * This method isn't private solely to allow a unit test in the same package to call it.
      */
@@ -331,6 +488,12 @@ class FileSystemDeploymentService implements DeploymentScanner {
         try {
             if (scanEnabled) { // confirm the scan is still wanted
                 ROOT_LOGGER.tracef("Scanning directory %s for deployment content changes", deploymentDir.getAbsolutePath());
+                lastScanDeployments = null;
+                // before scanning, so that anything changing during the scan is reported next time
+                if (watchService != null) {
+                    pollWatchEvents();
+                }
+                watchDirectories();
 
                 ScanContext scanContext = new ScanContext();
                 scanDirectory(deploymentDir, relativePath, scanContext);
@@ -451,6 +614,8 @@ class FileSystemDeploymentService implements DeploymentScanner {
                         scannerTasks = retryTasks;
                     }
                 }
+                lastScanStartTime = scanContext.scanStartTime;
+                lastScanDeployments = scanContext.registeredDeployments;
                 ROOT_LOGGER.tracef("Scan complete");
                 firstScan = false;
             }
@@ -488,6 +653,16 @@ class FileSystemDeploymentService implements DeploymentScanner {
                 if (deploymentMarker == null) {
                     scanContext.toRemove.remove(deploymentName);
                     removeExtraneousMarker(child, fileName);
+                } else if (!scanContext.registeredDeployments.contains(deploymentName)) {
+                    // removed through the management API; record it as undeployed so it is not deployed again until
+                    // its content changes
+                    ROOT_LOGGER.debugf("Deployment %s was removed from the server", deploymentName);
+                    scanContext.toRemove.remove(deploymentName);
+                    removeExtraneousMarker(child, fileName);
+                    final File undeployedMarker = new File(directory, deploymentName + UNDEPLOYED);
+                    createMarkerFile(undeployedMarker, deploymentName);
+                    undeployedMarker.setLastModified(scanContext.scanStartTime);
+                    deployed.remove(deploymentName);
                 } else {
                     final File deploymentFile = new File(directory, deploymentName);
                     if (deploymentFile.exists()) {
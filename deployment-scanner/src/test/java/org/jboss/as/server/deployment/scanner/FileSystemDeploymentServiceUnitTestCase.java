@@ -43,6 +43,7 @@ import java.util.concurrent.ScheduledFuture;
 import java.util.concurrent.ScheduledThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import org.jboss.as.controller.OperationFailedException;
 import org.jboss.as.controller.PathAddress;
@@ -111,6 +112,76 @@ public class FileSystemDeploymentServiceUnitTestCase {
         testSupport.cleanupChannels();
     }
 
+    @Test
+    public void testIncrementalScan() throws Exception {
+        File war = createFile("foo.war");
+        File dodeploy = createFile("foo.war" + FileSystemDeploymentService.DO_DEPLOY);
+        File deployed = new File(tmpDir, "foo.war" + FileSystemDeploymentService.DEPLOYED);
+        final AtomicInteger scans = new AtomicInteger();
+        MockServerController sc = new MockServerController();
+        FileSystemDeploymentService testee = new FileSystemDeploymentService(null, tmpDir, null, sc, executor) {
+            @Override
+            void scan() {
+                scans.incrementAndGet();
+                super.scan();
+            }
+        };
+        testee.startScanner();
+        sc.addCompositeSuccessResponse(1);
+        testee.incrementalScan();
+        assertFalse(dodeploy.exists());
+        assertTrue(deployed.exists());
+
+        // the scan changed the markers and the deployments, so at least the next one is not skipped
+        awaitIdle(testee, scans);
+        int count = scans.get();
+        testee.incrementalScan();
+        assertEquals(count, scans.get());
+
+        File dodeploy2 = createFile("bar.war" + FileSystemDeploymentService.DO_DEPLOY);
+        File deployed2 = new File(tmpDir, "bar.war" + FileSystemDeploymentService.DEPLOYED);
+        createFile("bar.war");
+        sc.addCompositeSuccessResponse(1);
+        long deadline = System.currentTimeMillis() + 30000;
+        while (dodeploy2.exists() && System.currentTimeMillis() < deadline) {
+            Thread.sleep(100);
+            testee.incrementalScan();
+        }
+        assertFalse(dodeploy2.exists());
+        assertTrue(deployed2.exists());
+
+        // undeployed through the management API
+        awaitIdle(testee, scans);
+        sc.added.remove("foo.war");
+        sc.deployed.remove("foo.war");
+        count = scans.get();
+        testee.incrementalScan();
+        assertEquals(count + 1, scans.get());
+        assertFalse(deployed.exists());
+        assertTrue(new File(tmpDir, "foo.war" + FileSystemDeploymentService.UNDEPLOYED).exists());
+        assertTrue(war.exists());
+
+        awaitIdle(testee, scans);
+        count = scans.get();
+        testee.setFullScanInterval(0);
+        testee.incrementalScan();
+        assertEquals(count + 1, scans.get());
+    }
+
+    /**
+     * Ticks until one is skipped, as file system events may be reported some time after the change.
+     */
+    private static void awaitIdle(FileSystemDeploymentService testee, AtomicInteger scans) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 30000;
+        int count;
+        do {
+            assertTrue("incremental scans were not skipped", System.currentTimeMillis() < deadline);
+            Thread.sleep(100);
+            count = scans.get();
+            testee.incrementalScan();
+        } while (scans.get() != count);
+    }
+
     @Test
     public void testIgnoreNoMarker() throws Exception {
         File f1 = createFile("foo.war");
@@ -456,6 +456,59 @@ public interface EjbLogger extends BasicLogger {
     @Message(id = 14150, value = "Failed to parse property %s due to %s")
     void failedToCreateOptionForProperty(String propertyName, String reason);
 
+    @LogMessage(level = ERROR)
+    @Message(id = 14151, value = "Failed to trigger timeout task %s")
+    void failedToTriggerTimeout(Runnable task, @Cause Throwable cause);
+
+    /**
+     * Logs a warning message indicating that the remainder of a timer journal segment could not be read
+     */
+    @LogMessage(level = WARN)
+    @Message(id = 14152, value = "Timer journal segment %s is truncated or corrupt at offset %d, ignoring the remaining %d bytes")
+    void timerJournalSegmentCorrupt(File segment, long offset, long remaining);
+
+    /**
+     * Logs an error message indicating a timer could not be restored from the timer journal
+     */
+    @LogMessage(level = ERROR)
+    @Message(id = 14153, value = "Could not restore timer %s of %s from the timer journal")
+    void failToRestoreTimerFromJournal(String timerId, String timedObjectId, @Cause Throwable cause);
+
+    /**
+     * Logs an error message indicating a compacted timer journal segment could not be deleted
+     */
+    @LogMessage(level = ERROR)
+    @Message(id = 14154, value = "Could not delete timer journal segment %s")
+    void failToDeleteTimerJournalSegment(File segment);
+
+    /**
+     * Logs an error message indicating passivated state could not be written to a passivation store segment
+     */
+    @LogMessage(level = ERROR)
+    @Message(id = 14155, value = "Could not write the passivated state of %d beans to %s, keeping it in memory")
+    void failToWritePassivationStoreSegment(int count, File segment, @Cause Throwable cause);
+
+    /**
+     * Logs an error message indicating a batched message delivery transaction could not be completed
+     */
+    @LogMessage(level = ERROR)
+    @Message(id = 14156, value = "Could not complete the batched message delivery transaction of %s")
+    void failToCompleteDeliveryBatch(Object endpoint, @Cause Throwable cause);
+
+    /**
+     * Logs a warning message indicating the timer journal could not be compacted
+     */
+    @LogMessage(level = WARN)
+    @Message(id = 14157, value = "Could not compact timer journal %s, keeping the existing segments")
+    void failToCompactTimerJournal(File directory, @Cause Throwable cause);
+
+    /**
+     * Logs a warning message indicating an IIOP marshalling strategy could not be generated
+     */
+    @LogMessage(level = WARN)
+    @Message(id = 14158, value = "Could not generate the IIOP marshalling strategy for %s, falling back to the generic strategy. Further failures are only logged at debug level")
+    void failToGenerateIIOPStrategy(Object operation, @Cause Throwable cause);
+
     // Don't add message ids greater that 14299!!! If you need more first check what EjbMessages is
     // using and take more (lower) numbers from the available range for this module. If the range for the module is
     // all used, go to https://community.jboss.org/docs/DOC-16810 and allocate another block for this subsystem
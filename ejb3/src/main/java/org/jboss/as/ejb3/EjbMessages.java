@@ -25,6 +25,7 @@ import javax.interceptor.InvocationContext;
 import javax.naming.Context;
 import javax.transaction.xa.Xid;
 import javax.xml.stream.Location;
+import javax.xml.stream.XMLStreamException;
 
 import org.jboss.as.controller.PathAddress;
 import org.jboss.as.ee.component.Component;
@@ -49,6 +50,7 @@ import org.jboss.logging.Cause;
 import org.jboss.logging.Message;
 import org.jboss.logging.MessageBundle;
 import org.jboss.logging.Messages;
+import org.jboss.logging.Param;
 import org.jboss.metadata.ejb.spec.MethodParametersMetaData;
 import org.jboss.msc.service.ServiceController;
 import org.jboss.msc.service.StartException;
@@ -2034,6 +2036,30 @@ public interface EjbMessages {
     @Message(id = 14570, value = "No subordinate transaction present for xid %s")
     RuntimeException noSubordinateTransactionPresentForXid(Xid xid);
 
+    /**
+     * Creates an exception indicating the timer journal could not be opened
+     *
+     * @return an {@link StartException} for the error.
+     */
+    @Message(id = 14571, value = "Could not open timer journal %s")
+    StartException failToOpenTimerJournal(File journalDir, @Cause Throwable cause);
+
+    /**
+     * Creates an exception indicating the lock strategy configured in jboss-ejb3.xml is unknown
+     *
+     * @return an {@link XMLStreamException} for the error.
+     */
+    @Message(id = 14572, value = "Unknown lock strategy %s")
+    XMLStreamException unknownLockStrategy(String value, @Param Location location);
+
+    /**
+     * Creates an exception indicating a delivery batch setting configured in jboss-ejb3.xml is not a positive number
+     *
+     * @return an {@link XMLStreamException} for the error.
+     */
+    @Message(id = 14573, value = "Invalid value %s for %s, a positive number is expected")
+    XMLStreamException invalidDeliveryBatchValue(String value, String element, @Param Location location);
+
 
     // STOP!!! Don't add message ids greater that 14599!!! If you need more first check what EjbLogger is
     // using and take more (lower) numbers from the available range for this module. If the range for the module is
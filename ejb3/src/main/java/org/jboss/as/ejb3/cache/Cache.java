@@ -70,4 +70,11 @@ public interface Cache<K extends Serializable, V extends Identifiable<K>> extend
      * Stop the cache.
      */
     void stop();
+
+    /**
+     * Gets the hit, activation and passivation statistics of this cache.
+     *
+     * @return the statistics
+     */
+    CacheStatistics getStatistics();
 }
@@ -0,0 +1,102 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2012, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.jboss.as.ejb3.cache;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Counts the hits, activations and passivations of a {@link Cache}.
+ */
+public class CacheStatistics {
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong activations = new AtomicLong();
+    private final AtomicLong activationTime = new AtomicLong();
+    private final AtomicLong passivations = new AtomicLong();
+    private final AtomicLong passivationTime = new AtomicLong();
+
+    /**
+     * Records a lookup of an object which was in memory.
+     */
+    public void hit() {
+        this.hits.incrementAndGet();
+    }
+
+    /**
+     * Records a lookup of an object which had to be activated.
+     *
+     * @param nanos the time it took to activate the object, in nanoseconds
+     */
+    public void activated(long nanos) {
+        this.activations.incrementAndGet();
+        this.activationTime.addAndGet(nanos);
+    }
+
+    /**
+     * Records the passivation of an object.
+     *
+     * @param nanos the time it took to passivate the object, in nanoseconds
+     */
+    public void passivated(long nanos) {
+        this.passivations.incrementAndGet();
+        this.passivationTime.addAndGet(nanos);
+    }
+
+    /**
+     * @return the number of lookups of objects which were in memory
+     */
+    public long getHitCount() {
+        return this.hits.get();
+    }
+
+    /**
+     * @return the number of lookups of objects which had to be activated
+     */
+    public long getMissCount() {
+        return this.activations.get();
+    }
+
+    /**
+     * @return the average time it took to activate an object, in microseconds
+     */
+    public long getAverageActivationTime() {
+        return average(this.activationTime.get(), this.activations.get());
+    }
+
+    /**
+     * @return the number of passivated objects
+     */
+    public long getPassivationCount() {
+        return this.passivations.get();
+    }
+
+    /**
+     * @return the average time it took to passivate an object, in microseconds
+     */
+    public long getAveragePassivationTime() {
+        return average(this.passivationTime.get(), this.passivations.get());
+    }
+
+    private static long average(long nanos, long count) {
+        return (count > 0) ? TimeUnit.NANOSECONDS.toMicros(nanos / count) : 0;
+    }
+}
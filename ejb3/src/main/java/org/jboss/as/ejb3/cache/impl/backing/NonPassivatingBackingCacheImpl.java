@@ -25,7 +25,6 @@ import java.io.Serializable;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.Executors;
-import java.util.concurrent.Future;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.ThreadFactory;
 
@@ -39,6 +38,7 @@ import org.jboss.as.ejb3.cache.spi.BackingCache;
 import org.jboss.as.ejb3.cache.spi.BackingCacheEntryFactory;
 import org.jboss.as.ejb3.cache.spi.BackingCacheLifecycleListener.LifecycleState;
 import org.jboss.as.ejb3.cache.spi.impl.AbstractBackingCache;
+import org.jboss.as.ejb3.cache.spi.impl.ExpirationTracker;
 import org.jboss.as.ejb3.cache.spi.impl.RemoveTask;
 import org.jboss.as.ejb3.component.stateful.StatefulTimeoutInfo;
 import org.jboss.as.server.ServerEnvironment;
@@ -59,7 +59,12 @@ public class NonPassivatingBackingCacheImpl<K extends Serializable, V extends Ca
     private final StatefulTimeoutInfo timeout;
     private volatile ScheduledExecutorService executor;
     private final ThreadFactory threadFactory;
-    private final Map<K, Future<?>> expirationFutures = new ConcurrentHashMap<K, Future<?>>();
+    private final ExpirationTracker<K> expirationTracker = new ExpirationTracker<K>(new ExpirationTracker.TaskFactory<K>() {
+        @Override
+        public Runnable createTask(K id) {
+            return new RemoveTask<K>(NonPassivatingBackingCacheImpl.this, id);
+        }
+    });
     private final ServerEnvironment environment;
 
     public NonPassivatingBackingCacheImpl(StatefulObjectFactory<V> factory, ThreadFactory threadFactory, StatefulTimeoutInfo timeout, ServerEnvironment environment) {
@@ -113,6 +118,7 @@ public class NonPassivatingBackingCacheImpl<K extends Serializable, V extends Ca
     public NonPassivatingBackingCacheEntry<K, V> get(K key) throws NoSuchEJBException {
         NonPassivatingBackingCacheEntry<K, V> entry = cache.get(key);
         if (entry == null) return null;
+        this.statistics.hit();
         entry.setInUse(true);
         this.scheduleExpiration(key, true);
         return entry;
@@ -167,6 +173,7 @@ public class NonPassivatingBackingCacheImpl<K extends Serializable, V extends Ca
             if (this.threadFactory != null) {
                 this.executor = Executors.newScheduledThreadPool(1, this.threadFactory);
             }
+            this.expirationTracker.start(this.executor);
             notifyLifecycleListeners(LifecycleState.STARTED);
         } catch (RuntimeException e) {
             notifyLifecycleListeners(LifecycleState.FAILED);
@@ -178,15 +185,11 @@ public class NonPassivatingBackingCacheImpl<K extends Serializable, V extends Ca
     public void stop() {
         notifyLifecycleListeners(LifecycleState.STOPPING);
         try {
+            // This may be a shared executor, so cancel our tasks
+            this.expirationTracker.stop();
             if (this.threadFactory != null) {
                 this.executor.shutdownNow();
-            } else {
-                // This is a shared executor, so just cancel our tasks
-                for (Future<?> future: this.expirationFutures.values()) {
-                    future.cancel(false);
-                }
             }
-            this.expirationFutures.clear();
             this.cache.clear();
             notifyLifecycleListeners(LifecycleState.STOPPED);
         } catch (RuntimeException e) {
@@ -197,9 +200,10 @@ public class NonPassivatingBackingCacheImpl<K extends Serializable, V extends Ca
 
     private void scheduleExpiration(K id, boolean cancel) {
         if (this.timeout != null && timeout.getValue() != -1) {
-            Future<?> future = cancel ? this.expirationFutures.remove(id) : this.expirationFutures.put(id, this.executor.schedule(new RemoveTask<K>(this, id), this.timeout.getValue(), this.timeout.getTimeUnit()));
-            if (future != null) {
-                future.cancel(false);
+            if (cancel) {
+                this.expirationTracker.cancel(id);
+            } else {
+                this.expirationTracker.schedule(id, this.timeout.getValue(), this.timeout.getTimeUnit());
             }
         }
     }
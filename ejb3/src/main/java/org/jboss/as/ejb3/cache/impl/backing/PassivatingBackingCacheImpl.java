@@ -23,14 +23,10 @@
 package org.jboss.as.ejb3.cache.impl.backing;
 
 import java.io.Serializable;
-import java.util.Map;
 import java.util.Set;
-import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.Executors;
-import java.util.concurrent.Future;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.ThreadFactory;
-import java.util.concurrent.TimeUnit;
 
 import javax.ejb.NoSuchEJBException;
 
@@ -47,6 +43,7 @@ import org.jboss.as.ejb3.cache.spi.PassivatingBackingCache;
 import org.jboss.as.ejb3.cache.spi.BackingCacheLifecycleListener.LifecycleState;
 import org.jboss.as.ejb3.cache.spi.ReplicationPassivationManager;
 import org.jboss.as.ejb3.cache.spi.impl.AbstractBackingCache;
+import org.jboss.as.ejb3.cache.spi.impl.ExpirationTracker;
 import org.jboss.as.ejb3.cache.spi.impl.PassivateTask;
 import org.jboss.as.ejb3.cache.spi.impl.RemoveTask;
 import org.jboss.as.ejb3.component.stateful.StatefulTimeoutInfo;
@@ -67,8 +64,18 @@ public class PassivatingBackingCacheImpl<K extends Serializable, V extends Cache
 
     private final ThreadFactory threadFactory;
     private volatile ScheduledExecutorService executor;
-    private final Map<K, Future<?>> expirationFutures = new ConcurrentHashMap<K, Future<?>>();
-    private final Map<K, Future<?>> passivationFutures = new ConcurrentHashMap<K, Future<?>>();
+    private final ExpirationTracker<K> expirationTracker = new ExpirationTracker<K>(new ExpirationTracker.TaskFactory<K>() {
+        @Override
+        public Runnable createTask(K id) {
+            return new RemoveTask<K>(PassivatingBackingCacheImpl.this, id);
+        }
+    });
+    private final ExpirationTracker<K> passivationTracker = new ExpirationTracker<K>(new ExpirationTracker.TaskFactory<K>() {
+        @Override
+        public Runnable createTask(K id) {
+            return new PassivateTask<K>(PassivatingBackingCacheImpl.this, id);
+        }
+    });
 
     public PassivatingBackingCacheImpl(StatefulObjectFactory<V> factory, BackingCacheEntryFactory<K, V, E> entryFactory, ReplicationPassivationManager<K, E> passivationManager, BackingCacheEntryStore<K, V, E> store) {
         this(factory, entryFactory, passivationManager, store, null, null);
@@ -129,6 +136,7 @@ public class PassivatingBackingCacheImpl<K extends Serializable, V extends Cache
     public E get(K key) throws NoSuchEJBException {
         this.trace("get(%s)", key);
 
+        final long start = System.nanoTime();
         boolean valid = false;
         boolean lock = true;
         while (!valid) {
@@ -144,7 +152,13 @@ public class PassivatingBackingCacheImpl<K extends Serializable, V extends Cache
                        passivationManager.postReplicate(entry);
                     }
 
+                    final boolean activated = entry.isPrePassivated();
                     passivationManager.postActivate(entry);
+                    if (activated) {
+                        this.statistics.activated(System.nanoTime() - start);
+                    } else {
+                        this.statistics.hit();
+                    }
 
                     entry.setPrePassivated(false);
 
@@ -181,6 +195,8 @@ public class PassivatingBackingCacheImpl<K extends Serializable, V extends Cache
                 throw EjbMessages.MESSAGES.cacheEntryInUse(entry);
             }
 
+            final long start = System.nanoTime();
+
             passivationManager.prePassivate(entry);
 
             entry.setPrePassivated(true);
@@ -188,6 +204,9 @@ public class PassivatingBackingCacheImpl<K extends Serializable, V extends Cache
             entry.invalidate();
 
             store.passivate(entry);
+
+            this.passivationTracker.cancel(key);
+            this.statistics.passivated(System.nanoTime() - start);
         } finally {
             entry.unlock();
         }
@@ -259,16 +278,9 @@ public class PassivatingBackingCacheImpl<K extends Serializable, V extends Cache
     private void cancelExpirationPassivation(K id) {
         if (this.executor != null) {
             if (this.store.getTimeout() != null) {
-                this.cancel(this.expirationFutures, id);
+                this.expirationTracker.cancel(id);
             }
-            this.cancel(this.passivationFutures, id);
-        }
-    }
-
-    private void cancel(Map<K, Future<?>> futures, K id) {
-        Future<?> future = futures.remove(id);
-        if (future != null) {
-            future.cancel(false);
+            this.passivationTracker.cancel(id);
         }
     }
 
@@ -276,17 +288,10 @@ public class PassivatingBackingCacheImpl<K extends Serializable, V extends Cache
         if (this.executor != null) {
             StatefulTimeoutInfo timeout = this.store.getTimeout();
             if (timeout != null && timeout.getValue() != -1) {
-                this.schedule(this.expirationFutures, id, this.removeTaskFactory, timeout.getValue(), timeout.getTimeUnit());
+                this.expirationTracker.schedule(id, timeout.getValue(), timeout.getTimeUnit());
             }
             BackingCacheEntryStoreConfig config = this.store.getConfig();
-            this.schedule(this.passivationFutures, id, this.passivateTaskFactory, config.getIdleTimeout(), config.getIdleTimeoutUnit());
-        }
-    }
-
-    private void schedule(Map<K, Future<?>> futures, K id, TaskFactory<K> factory, long time, TimeUnit unit) {
-        Future<?> future = futures.put(id, this.executor.schedule(factory.createTask(id), time, unit));
-        if (future != null) {
-            future.cancel(false);
+            this.passivationTracker.schedule(id, config.getIdleTimeout(), config.getIdleTimeoutUnit());
         }
     }
 
@@ -298,6 +303,10 @@ public class PassivatingBackingCacheImpl<K extends Serializable, V extends Cache
             if (this.threadFactory != null) {
                 this.executor = Executors.newSingleThreadScheduledExecutor(this.threadFactory);
             }
+            if (this.executor != null) {
+                this.expirationTracker.start(this.executor);
+                this.passivationTracker.start(this.executor);
+            }
             notifyLifecycleListeners(LifecycleState.STARTED);
         } catch (RuntimeException e) {
             notifyLifecycleListeners(LifecycleState.FAILED);
@@ -310,6 +319,9 @@ public class PassivatingBackingCacheImpl<K extends Serializable, V extends Cache
         notifyLifecycleListeners(LifecycleState.STOPPING);
         try {
             store.stop();
+            // the executor may be shared, so cancel our tasks
+            this.expirationTracker.stop();
+            this.passivationTracker.stop();
             if (this.threadFactory != null) {
                 this.executor.shutdownNow();
             }
@@ -325,24 +337,6 @@ public class PassivatingBackingCacheImpl<K extends Serializable, V extends Cache
         return store;
     }
 
-    interface TaskFactory<K> {
-        Runnable createTask(K id);
-    }
-
-    private TaskFactory<K> removeTaskFactory = new TaskFactory<K>() {
-        @Override
-        public Runnable createTask(K id) {
-            return new RemoveTask<K>(PassivatingBackingCacheImpl.this, id);
-        }
-    };
-
-    private TaskFactory<K> passivateTaskFactory = new TaskFactory<K>() {
-        @Override
-        public Runnable createTask(K id) {
-            return new PassivateTask<K>(PassivatingBackingCacheImpl.this, id);
-        }
-    };
-
     private void trace(String pattern, Object... args) {
         if (log.isTraceEnabled()) {
             log.tracef(pattern, args);
@@ -33,7 +33,9 @@ import org.jboss.as.ejb3.cache.spi.BackingCacheEntryStoreSource;
 import org.jboss.as.ejb3.cache.spi.SerializationGroup;
 import org.jboss.as.ejb3.cache.spi.SerializationGroupMember;
 import org.jboss.as.ejb3.cache.spi.impl.AbstractBackingCacheEntryStoreSource;
+import org.jboss.as.ejb3.cache.spi.PersistentObjectStore;
 import org.jboss.as.ejb3.cache.spi.impl.FilePersistentObjectStore;
+import org.jboss.as.ejb3.cache.spi.impl.SegmentedPersistentObjectStore;
 import org.jboss.as.ejb3.component.stateful.StatefulTimeoutInfo;
 import org.jboss.as.server.ServerEnvironment;
 import org.jboss.as.server.ServerEnvironmentService;
@@ -42,8 +44,8 @@ import org.jboss.msc.service.ServiceTarget;
 import org.jboss.msc.value.InjectedValue;
 
 /**
- * {@link BackingCacheEntryStoreSource} for a non-clustered cache. Uses a {@link FilePersistentObjectStore} store for
- * persistence.
+ * {@link BackingCacheEntryStoreSource} for a non-clustered cache. Uses a {@link FilePersistentObjectStore} or a
+ * {@link SegmentedPersistentObjectStore} store for persistence.
  *
  * @author Brian Stansberry
  * @author Paul Ferraro
@@ -61,6 +63,8 @@ public class NonClusteredBackingCacheEntryStoreSource<K extends Serializable, V
 
     public static final String DEFAULT_RELATIVE_TO = ServerEnvironment.SERVER_DATA_DIR;
     public static final int DEFAULT_SUBDIRECTORY_COUNT = 100;
+    public static final PersistentObjectStoreType DEFAULT_STORE_TYPE = PersistentObjectStoreType.FILE;
+    public static final boolean DEFAULT_COMPRESSION = false;
 
     private final InjectedValue<String> relativeTo = new InjectedValue<String>();
     private final InjectedValue<ServerEnvironment> environment = new InjectedValue<ServerEnvironment>();
@@ -68,10 +72,12 @@ public class NonClusteredBackingCacheEntryStoreSource<K extends Serializable, V
     private String groupDirectoryName = DEFAULT_GROUP_DIRECTORY_NAME;
     private String relativeToRef = DEFAULT_RELATIVE_TO;
     private int subdirectoryCount = DEFAULT_SUBDIRECTORY_COUNT;
+    private volatile PersistentObjectStoreType storeType = DEFAULT_STORE_TYPE;
+    private volatile boolean compression = DEFAULT_COMPRESSION;
 
     @Override
     public <E extends SerializationGroup<K, V, G>> BackingCacheEntryStore<G, Cacheable<G>, E> createGroupIntegratedObjectStore(PassivationManager<G, E> passivationManager, StatefulTimeoutInfo timeout) {
-        FilePersistentObjectStore<G, E> objectStore = new FilePersistentObjectStore<G, E>(passivationManager.getMarshallingConfiguration(), this.getStoragePath(null, this.groupDirectoryName), subdirectoryCount);
+        PersistentObjectStore<G, E> objectStore = this.createObjectStore(passivationManager, this.getStoragePath(null, this.groupDirectoryName));
 
         SimpleBackingCacheEntryStore<G, Cacheable<G>, E> store = new SimpleBackingCacheEntryStore<G, Cacheable<G>, E>(objectStore, this.environment.getValue(), timeout, this);
 
@@ -80,7 +86,7 @@ public class NonClusteredBackingCacheEntryStoreSource<K extends Serializable, V
 
     @Override
     public <E extends SerializationGroupMember<K, V, G>> BackingCacheEntryStore<K, V, E> createIntegratedObjectStore(String beanName, PassivationManager<K, E> passivationManager, StatefulTimeoutInfo timeout) {
-        FilePersistentObjectStore<K, E> objectStore = new FilePersistentObjectStore<K, E>(passivationManager.getMarshallingConfiguration(), this.getStoragePath(beanName, this.sessionDirectoryName), subdirectoryCount);
+        PersistentObjectStore<K, E> objectStore = this.createObjectStore(passivationManager, this.getStoragePath(beanName, this.sessionDirectoryName));
 
         SimpleBackingCacheEntryStore<K, V, E> store = new SimpleBackingCacheEntryStore<K, V, E>(objectStore, this.environment.getValue(), timeout, this);
 
@@ -93,6 +99,15 @@ public class NonClusteredBackingCacheEntryStoreSource<K extends Serializable, V
         builder.addDependency(ServerEnvironmentService.SERVICE_NAME, ServerEnvironment.class, this.environment);
     }
 
+    private <I extends Serializable, E extends Cacheable<I>> PersistentObjectStore<I, E> createObjectStore(PassivationManager<I, E> passivationManager, String path) {
+        switch (this.storeType) {
+            case SEGMENTED:
+                return new SegmentedPersistentObjectStore<I, E>(passivationManager.getMarshallingConfiguration(), path, this.compression);
+            default:
+                return new FilePersistentObjectStore<I, E>(passivationManager.getMarshallingConfiguration(), path, this.subdirectoryCount);
+        }
+    }
+
     private String getStoragePath(String beanName, String subDirectory) {
         String relativeTo = this.relativeTo.getOptionalValue();
         File path = (relativeTo != null) ? new File(new File(relativeTo), subDirectory) : new File(subDirectory);
@@ -151,6 +166,35 @@ public class NonClusteredBackingCacheEntryStoreSource<K extends Serializable, V
         this.subdirectoryCount = subdirectoryCount;
     }
 
+    /**
+     * Gets the type of the store in which passivated beans are written. Default is {@link #DEFAULT_STORE_TYPE}.
+     */
+    public PersistentObjectStoreType getStoreType() {
+        return this.storeType;
+    }
+
+    /**
+     * Sets the type of the store in which passivated beans are written.
+     */
+    public void setStoreType(PersistentObjectStoreType storeType) {
+        this.storeType = storeType;
+    }
+
+    /**
+     * Gets whether the state of passivated beans is compressed. Only applies to a {@link PersistentObjectStoreType#SEGMENTED}
+     * store. Default is {@link #DEFAULT_COMPRESSION}.
+     */
+    public boolean isCompression() {
+        return this.compression;
+    }
+
+    /**
+     * Sets whether the state of passivated beans is compressed.
+     */
+    public void setCompression(boolean compression) {
+        this.compression = compression;
+    }
+
     public String getRelativeTo() {
         return this.relativeToRef;
     }
@@ -28,6 +28,7 @@ import javax.ejb.NoSuchEJBException;
 
 import org.jboss.as.ejb3.cache.AffinitySupport;
 import org.jboss.as.ejb3.cache.Cache;
+import org.jboss.as.ejb3.cache.CacheStatistics;
 import org.jboss.as.ejb3.cache.Cacheable;
 import org.jboss.as.ejb3.cache.Removable;
 
@@ -112,6 +113,13 @@ public interface BackingCache<K extends Serializable, V extends Cacheable<K>, E
      */
     boolean isClustered();
 
+    /**
+     * Gets the hit, activation and passivation statistics of this cache.
+     *
+     * @return the statistics
+     */
+    CacheStatistics getStatistics();
+
     /**
      * Registers a listener for callbacks when the cache starts and stops.
      *
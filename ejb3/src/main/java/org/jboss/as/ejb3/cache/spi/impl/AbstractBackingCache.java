@@ -25,6 +25,7 @@ import java.io.Serializable;
 import java.util.HashSet;
 import java.util.Set;
 
+import org.jboss.as.ejb3.cache.CacheStatistics;
 import org.jboss.as.ejb3.cache.Cacheable;
 import org.jboss.as.ejb3.cache.spi.BackingCache;
 import org.jboss.as.ejb3.cache.spi.BackingCacheEntry;
@@ -44,6 +45,13 @@ public abstract class AbstractBackingCache<K extends Serializable, V extends Cac
 
     private final Set<BackingCacheLifecycleListener> listeners = new HashSet<BackingCacheLifecycleListener>();
 
+    protected final CacheStatistics statistics = new CacheStatistics();
+
+    @Override
+    public CacheStatistics getStatistics() {
+        return this.statistics;
+    }
+
     @Override
     public void addLifecycleListener(BackingCacheLifecycleListener listener) {
         synchronized (listeners) {
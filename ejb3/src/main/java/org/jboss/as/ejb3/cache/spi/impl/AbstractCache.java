@@ -27,6 +27,7 @@ import java.io.Serializable;
 import javax.ejb.NoSuchEJBException;
 
 import org.jboss.as.ejb3.cache.Cache;
+import org.jboss.as.ejb3.cache.CacheStatistics;
 import org.jboss.as.ejb3.cache.Cacheable;
 import org.jboss.as.ejb3.cache.spi.BackingCache;
 import org.jboss.as.ejb3.cache.spi.BackingCacheEntry;
@@ -43,6 +44,11 @@ public abstract class AbstractCache<K extends Serializable, V extends Cacheable<
         this.backingCache = backingCache;
     }
 
+    @Override
+    public CacheStatistics getStatistics() {
+        return this.backingCache.getStatistics();
+    }
+
     @Override
     public V create() {
         return this.backingCache.create().getUnderlyingItem();
@@ -0,0 +1,153 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2012, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.jboss.as.ejb3.cache.spi.impl;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Runs a task for each id which wasn't {@link #schedule(Object, long, TimeUnit) rescheduled} or {@link #cancel(Object) cancelled}
+ * within its delay, e.g. to passivate or remove idle beans.
+ * <p/>
+ * All the ids of a cache are scheduled with the same delay, so their deadlines are in the same order in which they were
+ * scheduled. The ids are therefore kept in a list in scheduling order, and a single task per tracker, scheduled for the
+ * deadline at the head of the list, takes off the expired ids. Scheduling and cancelling an id is constant time, and
+ * expiring ids only looks at the expired ones, instead of keeping a scheduled future per id.
+ * <p/>
+ * If the delay is shortened, ids scheduled with the new delay expire no earlier than the ids scheduled before them.
+ *
+ * @param <K> the id type
+ */
+public class ExpirationTracker<K> {
+
+    public interface TaskFactory<K> {
+        Runnable createTask(K id);
+    }
+
+    private final TaskFactory<K> factory;
+
+    // the deadline of each id, in nanoseconds, in the order in which the ids were scheduled; guarded by this
+    private final Map<K, Long> deadlines = new LinkedHashMap<K, Long>();
+    // guarded by this
+    private ScheduledExecutorService executor;
+    private ScheduledFuture<?> future;
+
+    private final Runnable expireTask = new Runnable() {
+        @Override
+        public void run() {
+            ExpirationTracker.this.expire();
+        }
+    };
+
+    public ExpirationTracker(TaskFactory<K> factory) {
+        this.factory = factory;
+    }
+
+    public synchronized void start(ScheduledExecutorService executor) {
+        this.executor = executor;
+        if (!this.deadlines.isEmpty()) {
+            this.scheduleExpiration(this.deadlines.values().iterator().next());
+        }
+    }
+
+    public synchronized void stop() {
+        this.executor = null;
+        if (this.future != null) {
+            this.future.cancel(false);
+            this.future = null;
+        }
+        this.deadlines.clear();
+    }
+
+    /**
+     * (Re)schedules the task of the given id.
+     */
+    public void schedule(K id, long delay, TimeUnit unit) {
+        final long deadline = System.nanoTime() + unit.toNanos(delay);
+        synchronized (this) {
+            // move it to the end of the list
+            this.deadlines.remove(id);
+            this.deadlines.put(id, deadline);
+            if (this.future == null) {
+                this.scheduleExpiration(this.deadlines.values().iterator().next());
+            }
+        }
+    }
+
+    /**
+     * Cancels the task of the given id, if it didn't run yet.
+     */
+    public synchronized void cancel(K id) {
+        this.deadlines.remove(id);
+    }
+
+    /**
+     * @return the number of scheduled ids
+     */
+    public synchronized int size() {
+        return this.deadlines.size();
+    }
+
+    // must hold this
+    private void scheduleExpiration(long deadline) {
+        if (this.executor == null) {
+            return;
+        }
+        if (this.future != null) {
+            this.future.cancel(false);
+        }
+        try {
+            this.future = this.executor.schedule(this.expireTask, Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+        } catch (RejectedExecutionException e) {
+            // the executor is shutting down
+            this.future = null;
+        }
+    }
+
+    void expire() {
+        final List<K> expired = new ArrayList<K>();
+        synchronized (this) {
+            this.future = null;
+            final long now = System.nanoTime();
+            final Iterator<Map.Entry<K, Long>> entries = this.deadlines.entrySet().iterator();
+            while (entries.hasNext()) {
+                final Map.Entry<K, Long> entry = entries.next();
+                if (entry.getValue() - now > 0) {
+                    this.scheduleExpiration(entry.getValue());
+                    break;
+                }
+                expired.add(entry.getKey());
+                entries.remove();
+            }
+        }
+        for (K id : expired) {
+            this.factory.createTask(id).run();
+        }
+    }
+}
@@ -0,0 +1,518 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2012, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.jboss.as.ejb3.cache.spi.impl;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.RandomAccessFile;
+import java.io.Serializable;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.security.AccessController;
+import java.security.PrivilegedAction;
+import java.security.PrivilegedActionException;
+import java.security.PrivilegedExceptionAction;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Queue;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.Inflater;
+import java.util.zip.InflaterInputStream;
+
+import org.jboss.as.ejb3.EjbLogger;
+import org.jboss.as.ejb3.EjbMessages;
+import org.jboss.as.ejb3.cache.Cacheable;
+import org.jboss.as.ejb3.cache.spi.PersistentObjectStore;
+import org.jboss.logging.Logger;
+import org.jboss.marshalling.Marshaller;
+import org.jboss.marshalling.MarshallerFactory;
+import org.jboss.marshalling.Marshalling;
+import org.jboss.marshalling.MarshallingConfiguration;
+import org.jboss.marshalling.Unmarshaller;
+import org.jboss.threads.JBossThreadFactory;
+
+/**
+ * Stores objects by appending their serialized form to a few large segment files, instead of writing a file per object
+ * like {@link FilePersistentObjectStore}.
+ * <p/>
+ * An object is serialized, and optionally deflated, by the thread which stores it. The resulting bytes are queued, and
+ * appended to the current segment by a single writer thread, which writes all the queued objects at once. Until then
+ * the bytes are kept in memory, so an object which is loaded again before it was written never touches the disk. If the
+ * queued bytes exceed a limit, the storing thread writes the queue itself, which bounds the memory used by the queue.
+ * <p/>
+ * If a segment can't be written, the objects stay queued in memory and are written with the next batch. A storing
+ * thread which finds the queue full and can't write it fails to passivate its object instead.
+ * <p/>
+ * The location of every stored object is kept in memory only; like the objects in a {@link FilePersistentObjectStore},
+ * they don't survive a restart. Loading an object removes it from the store, and a segment is deleted once all the
+ * objects written to it have been loaded again, or the store is stopped. Segment names start with a prefix unique to
+ * the store, so several stores can share a directory.
+ *
+ * @param <K> the key type
+ * @param <V> the value type
+ */
+public class SegmentedPersistentObjectStore<K extends Serializable, V extends Cacheable<K>> implements PersistentObjectStore<K, V> {
+    private static final Logger log = Logger.getLogger(SegmentedPersistentObjectStore.class);
+
+    public static final long DEFAULT_SEGMENT_SIZE = 16 * 1024 * 1024;
+    public static final long DEFAULT_MAX_QUEUED_BYTES = 64 * 1024 * 1024;
+
+    private static final String SEGMENT_SUFFIX = ".segment";
+
+    private final MarshallerFactory marshallerFactory = Marshalling.getMarshallerFactory("river", MarshallerFactory.class.getClassLoader());
+    private final MarshallingConfiguration configuration;
+    private final File directory;
+    private final boolean compress;
+    private final long segmentSize;
+    private final long maxQueuedBytes;
+    private final String segmentPrefix = UUID.randomUUID().toString() + '-';
+
+    /**
+     * The location of each stored object, either a {@link Queued} or a {@link Written} entry.
+     */
+    private final ConcurrentMap<K, Entry> entries = new ConcurrentHashMap<K, Entry>();
+    /**
+     * The segments which were not deleted yet, so they can be deleted when the store is stopped.
+     */
+    private final Set<Segment> segments = Collections.newSetFromMap(new ConcurrentHashMap<Segment, Boolean>());
+    private final Queue<Queued<K>> queue = new ConcurrentLinkedQueue<Queued<K>>();
+    private final AtomicLong queuedBytes = new AtomicLong();
+    private final AtomicBoolean flushScheduled = new AtomicBoolean();
+    private final Runnable flushTask = new Runnable() {
+        @Override
+        public void run() {
+            flushScheduled.set(false);
+            try {
+                flush();
+            } catch (IOException e) {
+                // logged by flush(), the objects are written with the next batch
+            }
+        }
+    };
+
+    // guarded by this.queue
+    private Segment segment;
+    private int segmentCount;
+    private volatile ExecutorService writer;
+
+    public SegmentedPersistentObjectStore(MarshallingConfiguration configuration, String directoryName, boolean compress) {
+        this(configuration, directoryName, compress, DEFAULT_SEGMENT_SIZE, DEFAULT_MAX_QUEUED_BYTES);
+    }
+
+    public SegmentedPersistentObjectStore(MarshallingConfiguration configuration, String directoryName, boolean compress, long segmentSize, long maxQueuedBytes) {
+        this.configuration = configuration;
+        this.directory = new File(directoryName);
+        this.compress = compress;
+        this.segmentSize = segmentSize;
+        this.maxQueuedBytes = maxQueuedBytes;
+    }
+
+    @Override
+    public void start() {
+        if (!this.directory.exists()) {
+            if (!mkdirs(this.directory)) {
+                throw EjbMessages.MESSAGES.passivationDirectoryCreationFailed(this.directory.getPath());
+            }
+            this.directory.deleteOnExit();
+        }
+        if (!this.directory.isDirectory()) {
+            throw EjbMessages.MESSAGES.passivationPathNotADirectory(this.directory.getPath());
+        }
+        final ThreadGroup group = new ThreadGroup("EJB passivation store writer - " + this.directory.getPath());
+        this.writer = Executors.newSingleThreadExecutor(new JBossThreadFactory(group, Boolean.TRUE, null, "%G - %t", null, null, AccessController.getContext()));
+    }
+
+    @Override
+    public void stop() {
+        final ExecutorService writer = this.writer;
+        this.writer = null;
+        if (writer != null) {
+            writer.shutdown();
+            try {
+                writer.awaitTermination(1, TimeUnit.MINUTES);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        // the locations are gone with this instance, so the segments can't be read anymore
+        synchronized (this.queue) {
+            this.queue.clear();
+            this.queuedBytes.set(0);
+            this.entries.clear();
+            for (Segment segment : this.segments) {
+                segment.delete();
+            }
+            this.segment = null;
+        }
+    }
+
+    @Override
+    public void store(V obj) {
+        final K key = obj.getId();
+        final byte[] bytes;
+        try {
+            bytes = this.marshal(obj);
+        } catch (IOException e) {
+            throw EjbMessages.MESSAGES.passivationFailed(e, key);
+        }
+        log.tracef("Queueing %d bytes of state of %s", bytes.length, key);
+        final Queued<K> queued = new Queued<K>(key, bytes);
+        final Entry previous = this.entries.put(key, queued);
+        if (previous instanceof Written) {
+            ((Written) previous).segment.release();
+        }
+        this.queue.add(queued);
+        if (this.queuedBytes.addAndGet(bytes.length) > this.maxQueuedBytes) {
+            // the writer can't keep up, so help
+            try {
+                this.flush();
+            } catch (IOException e) {
+                // don't grow the queue any further, the caller keeps the object instead
+                this.entries.remove(key, queued);
+                throw EjbMessages.MESSAGES.passivationFailed(e, key);
+            }
+        } else {
+            this.scheduleFlush();
+        }
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public V load(K key) {
+        final Entry entry = this.entries.remove(key);
+        if (entry == null) {
+            return null;
+        }
+        try {
+            final byte[] bytes;
+            if (entry instanceof Queued) {
+                bytes = ((Queued<?>) entry).bytes;
+            } else {
+                final Written written = (Written) entry;
+                log.tracef("Loading state of %s from %s", key, written.segment.file);
+                try {
+                    bytes = written.segment.read(written.position, written.length);
+                } finally {
+                    written.segment.release();
+                }
+            }
+            return (V) this.unmarshal(bytes);
+        } catch (Exception e) {
+            throw EjbMessages.MESSAGES.activationFailed(e, key);
+        }
+    }
+
+    /**
+     * @return the number of objects in this store
+     */
+    public int size() {
+        return this.entries.size();
+    }
+
+    /**
+     * @return the number of bytes which are queued to be written
+     */
+    public long getQueuedBytes() {
+        return this.queuedBytes.get();
+    }
+
+    private void scheduleFlush() {
+        final ExecutorService writer = this.writer;
+        if (writer != null && this.flushScheduled.compareAndSet(false, true)) {
+            try {
+                writer.execute(this.flushTask);
+            } catch (RejectedExecutionException e) {
+                // we're stopping
+                this.flushScheduled.set(false);
+            }
+        }
+    }
+
+    /**
+     * Appends all queued objects, which weren't loaded or stored again in the meantime, to the current segment. If
+     * that fails, the objects are queued again.
+     *
+     * @throws IOException if the segment could not be written
+     */
+    void flush() throws IOException {
+        synchronized (this.queue) {
+            final List<Queued<K>> batch = new ArrayList<Queued<K>>();
+            Queued<K> queued = this.queue.poll();
+            while (queued != null) {
+                this.queuedBytes.addAndGet(-queued.bytes.length);
+                if (this.entries.get(queued.key) == queued) {
+                    batch.add(queued);
+                }
+                queued = this.queue.poll();
+            }
+            if (batch.isEmpty()) {
+                return;
+            }
+            Segment segment = null;
+            try {
+                segment = this.currentSegment();
+                final ByteBuffer[] buffers = new ByteBuffer[batch.size()];
+                for (int i = 0; i < buffers.length; i++) {
+                    buffers[i] = ByteBuffer.wrap(batch.get(i).bytes);
+                }
+                final long position = segment.append(buffers);
+                long offset = position;
+                for (Queued<K> written : batch) {
+                    segment.acquire();
+                    if (!this.entries.replace(written.key, written, new Written(segment, offset, written.bytes.length))) {
+                        // loaded or stored again while we were writing
+                        segment.release();
+                    }
+                    offset += written.bytes.length;
+                }
+                if (segment.size() >= this.segmentSize) {
+                    this.segment = null;
+                    segment.seal();
+                }
+            } catch (IOException e) {
+                // the queued entries are still in the entries map, queue them again so they're written with the next batch
+                EjbLogger.EJB3_LOGGER.failToWritePassivationStoreSegment(batch.size(), (segment != null) ? segment.file : this.directory, e);
+                for (Queued<K> failed : batch) {
+                    this.queue.add(failed);
+                    this.queuedBytes.addAndGet(failed.bytes.length);
+                }
+                if (segment != null) {
+                    this.segment = null;
+                    segment.seal();
+                }
+                throw e;
+            }
+        }
+    }
+
+    private Segment currentSegment() throws IOException {
+        if (this.segment == null) {
+            final File file = new File(this.directory, this.segmentPrefix + this.segmentCount++ + SEGMENT_SUFFIX);
+            this.segment = new Segment(file, this.segments);
+        }
+        return this.segment;
+    }
+
+    private byte[] marshal(V obj) throws IOException {
+        final ByteArrayOutputStream bytes = new ByteArrayOutputStream(512);
+        final Deflater deflater = this.compress ? new Deflater(Deflater.BEST_SPEED) : null;
+        try {
+            final OutputStream output = (deflater != null) ? new DeflaterOutputStream(bytes, deflater, 512) : bytes;
+            final Marshaller marshaller = this.marshallerFactory.createMarshaller(this.configuration);
+            marshaller.start(Marshalling.createByteOutput(output));
+            try {
+                marshaller.writeObject(obj);
+                marshaller.finish();
+            } finally {
+                marshaller.close();
+            }
+            output.close();
+        } finally {
+            if (deflater != null) {
+                deflater.end();
+            }
+        }
+        return bytes.toByteArray();
+    }
+
+    private Object unmarshal(byte[] bytes) throws IOException, ClassNotFoundException {
+        final Inflater inflater = this.compress ? new Inflater() : null;
+        try {
+            final InputStream input = (inflater != null) ? new InflaterInputStream(new ByteArrayInputStream(bytes), inflater, 512) : new ByteArrayInputStream(bytes);
+            final Unmarshaller unmarshaller = this.marshallerFactory.createUnmarshaller(this.configuration);
+            unmarshaller.start(Marshalling.createByteInput(input));
+            try {
+                final Object value = unmarshaller.readObject();
+                unmarshaller.finish();
+                return value;
+            } finally {
+                unmarshaller.close();
+            }
+        } finally {
+            if (inflater != null) {
+                inflater.end();
+            }
+        }
+    }
+
+    private interface Entry {
+    }
+
+    /**
+     * An object which was not yet written to a segment.
+     */
+    private static class Queued<K> implements Entry {
+        final K key;
+        final byte[] bytes;
+
+        Queued(K key, byte[] bytes) {
+            this.key = key;
+            this.bytes = bytes;
+        }
+    }
+
+    /**
+     * An object which was written to a segment.
+     */
+    private static class Written implements Entry {
+        final Segment segment;
+        final long position;
+        final int length;
+
+        Written(Segment segment, long position, int length) {
+            this.segment = segment;
+            this.position = position;
+            this.length = length;
+        }
+    }
+
+    /**
+     * A segment file, with a count of the objects in it which were not yet loaded again. A sealed segment doesn't get any
+     * new objects, so it's deleted once that count drops to zero.
+     */
+    private static class Segment {
+        final File file;
+        private final Set<Segment> segments;
+        private final RandomAccessFile raf;
+        private final FileChannel channel;
+        private final AtomicInteger live = new AtomicInteger();
+        private final AtomicBoolean deleted = new AtomicBoolean();
+        private volatile boolean sealed;
+        // only accessed by the thread which flushes
+        private long size;
+
+        Segment(File file, Set<Segment> segments) throws FileNotFoundException {
+            this.file = file;
+            this.segments = segments;
+            this.raf = open(file);
+            this.channel = this.raf.getChannel();
+            segments.add(this);
+        }
+
+        long append(ByteBuffer[] buffers) throws IOException {
+            final long position = this.size;
+            long remaining = 0;
+            for (ByteBuffer buffer : buffers) {
+                remaining += buffer.remaining();
+            }
+            this.channel.position(position);
+            while (remaining > 0) {
+                remaining -= this.channel.write(buffers);
+            }
+            this.size = this.channel.position();
+            return position;
+        }
+
+        long size() {
+            return this.size;
+        }
+
+        byte[] read(long position, int length) throws IOException {
+            final ByteBuffer buffer = ByteBuffer.allocate(length);
+            while (buffer.hasRemaining()) {
+                if (this.channel.read(buffer, position + buffer.position()) < 0) {
+                    throw new IOException(this.file.getPath());
+                }
+            }
+            return buffer.array();
+        }
+
+        void acquire() {
+            this.live.incrementAndGet();
+        }
+
+        void release() {
+            if (this.live.decrementAndGet() == 0 && this.sealed) {
+                this.delete();
+            }
+        }
+
+        void seal() {
+            this.sealed = true;
+            if (this.live.get() == 0) {
+                this.delete();
+            }
+        }
+
+        void delete() {
+            if (this.deleted.compareAndSet(false, true)) {
+                this.segments.remove(this);
+                try {
+                    this.raf.close();
+                } catch (IOException ignore) {
+                    //
+                }
+                SegmentedPersistentObjectStore.delete(this.file);
+            }
+        }
+    }
+
+    private static RandomAccessFile open(final File file) throws FileNotFoundException {
+        try {
+            return AccessController.doPrivileged(new PrivilegedExceptionAction<RandomAccessFile>() {
+                @Override
+                public RandomAccessFile run() throws FileNotFoundException {
+                    return new RandomAccessFile(file, "rw");
+                }
+            });
+        } catch (PrivilegedActionException e) {
+            throw (FileNotFoundException) e.getException();
+        }
+    }
+
+    private static boolean delete(final File file) {
+        return AccessController.doPrivileged(new PrivilegedAction<Boolean>() {
+            @Override
+            public Boolean run() {
+                return file.delete();
+            }
+        });
+    }
+
+    private static boolean mkdirs(final File file) {
+        return AccessController.doPrivileged(new PrivilegedAction<Boolean>() {
+            @Override
+            public Boolean run() {
+                return file.mkdirs();
+            }
+        });
+    }
+}
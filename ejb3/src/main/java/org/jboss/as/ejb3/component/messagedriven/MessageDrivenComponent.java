@@ -27,6 +27,7 @@ import org.jboss.as.ejb3.component.allowedmethods.AllowedMethodsInformation;
 import org.jboss.as.ejb3.component.pool.PoolConfig;
 import org.jboss.as.ejb3.component.pool.PooledComponent;
 import org.jboss.as.ejb3.inflow.JBossMessageEndpointFactory;
+import org.jboss.as.ejb3.inflow.MessageDeliveryStatistics;
 import org.jboss.as.ejb3.inflow.MessageEndpointService;
 import org.jboss.as.ejb3.pool.Pool;
 import org.jboss.as.ejb3.pool.StatelessObjectFactory;
@@ -43,6 +44,9 @@ import javax.resource.spi.endpoint.MessageEndpointFactory;
 import javax.transaction.TransactionManager;
 import java.lang.reflect.Method;
 import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicReference;
 
@@ -65,6 +69,11 @@ public class MessageDrivenComponent extends EJBComponent implements PooledCompon
     private ResourceAdapter resourceAdapter;
     private Endpoint endpoint;
 
+    private final int deliveryBatchSize;
+    private final long deliveryBatchWindow;
+    private final MessageDeliveryStatistics deliveryStatistics = new MessageDeliveryStatistics();
+    private volatile ScheduledExecutorService deliveryBatchExecutor;
+
     /**
      * Construct a new instance.
      *
@@ -97,6 +106,8 @@ public class MessageDrivenComponent extends EJBComponent implements PooledCompon
 
         this.activationSpec = activationSpec;
         this.messageListenerInterface = messageListenerInterface;
+        this.deliveryBatchSize = ejbComponentCreateService.getDeliveryBatchSize();
+        this.deliveryBatchWindow = ejbComponentCreateService.getDeliveryBatchWindow();
         final MessageEndpointService<?> service = new MessageEndpointService<Object>() {
             @Override
             public Class<Object> getMessageListenerInterface() {
@@ -130,6 +141,26 @@ public class MessageDrivenComponent extends EJBComponent implements PooledCompon
             public ClassLoader getClassLoader() {
                 return ejbComponentCreateService.getComponentClass().getClassLoader();
             }
+
+            @Override
+            public int getDeliveryBatchSize() {
+                return deliveryBatchSize;
+            }
+
+            @Override
+            public long getDeliveryBatchWindow() {
+                return deliveryBatchWindow;
+            }
+
+            @Override
+            public ScheduledExecutorService getDeliveryBatchExecutor() {
+                return deliveryBatchExecutor;
+            }
+
+            @Override
+            public MessageDeliveryStatistics getDeliveryStatistics() {
+                return deliveryStatistics;
+            }
         };
         this.endpointFactory = new JBossMessageEndpointFactory(getComponentClass().getClassLoader(), service);
     }
@@ -157,6 +188,10 @@ public class MessageDrivenComponent extends EJBComponent implements PooledCompon
         this.endpoint = endpoint;
     }
 
+    public MessageDeliveryStatistics getDeliveryStatistics() {
+        return deliveryStatistics;
+    }
+
     @Override
     public void start() {
         if (endpoint == null) {
@@ -165,6 +200,19 @@ public class MessageDrivenComponent extends EJBComponent implements PooledCompon
 
         super.start();
 
+        if (this.deliveryBatchSize > 1) {
+            ROOT_LOGGER.debug("Batching up to " + deliveryBatchSize + " deliveries per transaction for MDB " + this.getComponentName());
+            final String threadName = "EJB delivery batch timer - " + this.getComponentName();
+            this.deliveryBatchExecutor = Executors.newSingleThreadScheduledExecutor(new ThreadFactory() {
+                @Override
+                public Thread newThread(Runnable task) {
+                    final Thread thread = new Thread(task, threadName);
+                    thread.setDaemon(true);
+                    return thread;
+                }
+            });
+        }
+
         try {
             this.endpoint.activate(endpointFactory, activationSpec);
         } catch (ResourceException e) {
@@ -187,6 +235,12 @@ public class MessageDrivenComponent extends EJBComponent implements PooledCompon
             endpoint.deactivate(endpointFactory, activationSpec);
         } catch (ResourceException re) {
             throw EJB3_LOGGER.failureDuringEndpointDeactivation(this.getComponentName(), re);
+        } finally {
+            // the endpoints complete their open batches when they are released
+            if (this.deliveryBatchExecutor != null) {
+                this.deliveryBatchExecutor.shutdownNow();
+                this.deliveryBatchExecutor = null;
+            }
         }
 
         super.stop(stopContext);
@@ -48,6 +48,8 @@ public class MessageDrivenComponentCreateService extends EJBComponentCreateServi
     private final Class<?> messageListenerInterface;
     private final Properties activationProps;
     private final String resourceAdapterName;
+    private final int deliveryBatchSize;
+    private final long deliveryBatchWindow;
     private final InjectedValue<ResourceAdapter> resourceAdapterInjectedValue = new InjectedValue<ResourceAdapter>();
     private final InjectedValue<PoolConfig> poolConfig = new InjectedValue<PoolConfig>();
     private final InjectedValue<DefaultResourceAdapterService> defaultResourceAdapterServiceInjectedValue = new InjectedValue<DefaultResourceAdapterService>();
@@ -67,6 +69,8 @@ public class MessageDrivenComponentCreateService extends EJBComponentCreateServi
         this.messageListenerInterface = componentConfiguration.getViews().get(0).getViewClass();
 
         this.activationProps = componentDescription.getActivationProps();
+        this.deliveryBatchSize = componentDescription.getDeliveryBatchSize();
+        this.deliveryBatchWindow = componentDescription.getDeliveryBatchWindow();
     }
 
     @Override
@@ -105,6 +109,14 @@ public class MessageDrivenComponentCreateService extends EJBComponentCreateServi
         return this.poolConfig.getOptionalValue();
     }
 
+    int getDeliveryBatchSize() {
+        return this.deliveryBatchSize;
+    }
+
+    long getDeliveryBatchWindow() {
+        return this.deliveryBatchWindow;
+    }
+
     public InjectedValue<PoolConfig> getPoolConfigInjector() {
         return this.poolConfig;
     }
@@ -74,6 +74,14 @@ public class MessageDrivenComponentDescription extends EJBComponentDescription {
 
     private String mdbPoolConfigName;
 
+    /**
+     * The default time, in milliseconds, a batch transaction waits for more deliveries
+     */
+    public static final long DEFAULT_DELIVERY_BATCH_WINDOW = 100;
+
+    private int deliveryBatchSize = 1;
+    private long deliveryBatchWindow = DEFAULT_DELIVERY_BATCH_WINDOW;
+
     /**
      * Construct a new instance.
      *
@@ -249,6 +257,28 @@ public class MessageDrivenComponentDescription extends EJBComponentDescription {
         return this.mdbPoolConfigName;
     }
 
+    /**
+     * @return the maximum number of transacted deliveries committed in a single transaction, 1 if deliveries are not batched
+     */
+    public int getDeliveryBatchSize() {
+        return this.deliveryBatchSize;
+    }
+
+    public void setDeliveryBatchSize(final int deliveryBatchSize) {
+        this.deliveryBatchSize = deliveryBatchSize;
+    }
+
+    /**
+     * @return the maximum time, in milliseconds, a batch transaction is kept open waiting for more deliveries
+     */
+    public long getDeliveryBatchWindow() {
+        return this.deliveryBatchWindow;
+    }
+
+    public void setDeliveryBatchWindow(final long deliveryBatchWindow) {
+        this.deliveryBatchWindow = deliveryBatchWindow;
+    }
+
     private class PoolInjectingConfigurator implements DependencyConfigurator<Service<Component>> {
 
         private final MessageDrivenComponentDescription mdbComponentDescription;
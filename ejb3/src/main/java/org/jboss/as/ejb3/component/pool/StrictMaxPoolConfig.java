@@ -25,6 +25,7 @@ package org.jboss.as.ejb3.component.pool;
 import org.jboss.as.ejb3.pool.Pool;
 import org.jboss.as.ejb3.pool.StatelessObjectFactory;
 import org.jboss.as.ejb3.pool.strictmax.StrictMaxPool;
+import org.jboss.as.ejb3.pool.strictmax.StripedStrictMaxPool;
 
 import java.util.concurrent.TimeUnit;
 
@@ -39,6 +40,8 @@ public class StrictMaxPoolConfig extends PoolConfig {
 
     public static final TimeUnit DEFAULT_TIMEOUT_UNIT = TimeUnit.MINUTES;
 
+    public static final boolean DEFAULT_STRIPED = false;
+
 
     private volatile int maxPoolSize;
 
@@ -46,15 +49,25 @@ public class StrictMaxPoolConfig extends PoolConfig {
 
     private volatile long timeout;
 
+    private volatile boolean striped;
+
     public StrictMaxPoolConfig(final String poolName, int maxSize, long timeout, TimeUnit timeUnit) {
+        this(poolName, maxSize, timeout, timeUnit, DEFAULT_STRIPED);
+    }
+
+    public StrictMaxPoolConfig(final String poolName, int maxSize, long timeout, TimeUnit timeUnit, boolean striped) {
         super(poolName);
         this.maxPoolSize = maxSize;
         this.timeout = timeout;
         this.timeoutUnit = timeUnit;
+        this.striped = striped;
     }
 
     @Override
     public Pool<?> createPool(final StatelessObjectFactory statelessObjectFactory) {
+        if (this.striped) {
+            return new StripedStrictMaxPool(statelessObjectFactory, this.maxPoolSize, this.timeout, this.timeoutUnit);
+        }
         return new StrictMaxPool(statelessObjectFactory, this.maxPoolSize, this.timeout, this.timeoutUnit);
     }
 
@@ -82,6 +95,14 @@ public class StrictMaxPoolConfig extends PoolConfig {
         this.timeout = timeout;
     }
 
+    public boolean isStriped() {
+        return striped;
+    }
+
+    public void setStriped(boolean striped) {
+        this.striped = striped;
+    }
+
     @Override
     public String toString() {
         return "StrictMaxPoolConfig{" +
@@ -89,6 +110,7 @@ public class StrictMaxPoolConfig extends PoolConfig {
                 ", maxPoolSize=" + maxPoolSize +
                 ", timeoutUnit=" + timeoutUnit +
                 ", timeout=" + timeout +
+                ", striped=" + striped +
                 '}';
     }
 }
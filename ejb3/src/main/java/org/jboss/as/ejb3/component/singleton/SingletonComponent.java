@@ -37,6 +37,7 @@ import org.jboss.as.ejb3.component.allowedmethods.AllowedMethodsInformation;
 import org.jboss.as.ejb3.component.session.SessionBeanComponent;
 import org.jboss.as.ejb3.concurrency.AccessTimeoutDetails;
 import org.jboss.as.ejb3.concurrency.LockableComponent;
+import org.jboss.as.ejb3.concurrency.ReadWriteLockStrategy;
 import org.jboss.as.naming.ManagedReference;
 import org.jboss.as.server.CurrentServiceContainer;
 import org.jboss.invocation.Interceptor;
@@ -68,6 +69,8 @@ public class SingletonComponent extends SessionBeanComponent implements Lockable
 
     private final DefaultAccessTimeoutService defaultAccessTimeoutProvider;
 
+    private final ReadWriteLockStrategy lockStrategy;
+
     /**
      * We can't lock on <code>this</code> because the {@link org.jboss.as.ee.component.BasicComponent#waitForComponentStart()}
      * also synchronizes on it, and calls {@link #wait()}.
@@ -90,6 +93,7 @@ public class SingletonComponent extends SessionBeanComponent implements Lockable
         this.methodLockTypes = singletonComponentCreateService.getMethodApplicableLockTypes();
         this.methodAccessTimeouts = singletonComponentCreateService.getMethodApplicableAccessTimeouts();
         this.defaultAccessTimeoutProvider = singletonComponentCreateService.getDefaultAccessTimeoutService();
+        this.lockStrategy = singletonComponentCreateService.getLockStrategy();
     }
 
     @Override
@@ -173,6 +177,11 @@ public class SingletonComponent extends SessionBeanComponent implements Lockable
         return defaultAccessTimeoutProvider.getDefaultAccessTimeout();
     }
 
+    @Override
+    public ReadWriteLockStrategy getReadWriteLockStrategy() {
+        return lockStrategy;
+    }
+
     private void destroySingletonInstance() {
         synchronized (creationLock) {
             if (this.singletonComponentInstance != null) {
@@ -26,6 +26,7 @@ import org.jboss.as.ee.component.BasicComponent;
 import org.jboss.as.ee.component.ComponentConfiguration;
 import org.jboss.as.ejb3.component.DefaultAccessTimeoutService;
 import org.jboss.as.ejb3.component.session.SessionBeanComponentCreateService;
+import org.jboss.as.ejb3.concurrency.ReadWriteLockStrategy;
 import org.jboss.as.ejb3.deployment.ApplicationExceptions;
 import org.jboss.msc.inject.Injector;
 import org.jboss.msc.service.ServiceName;
@@ -41,11 +42,14 @@ public class SingletonComponentCreateService extends SessionBeanComponentCreateS
     private final boolean initOnStartup;
     private final List<ServiceName> dependsOn;
     private final InjectedValue<DefaultAccessTimeoutService> defaultAccessTimeoutService = new InjectedValue<DefaultAccessTimeoutService>();
+    private final ReadWriteLockStrategy lockStrategy;
+    private final InjectedValue<ReadWriteLockStrategy> defaultLockStrategy = new InjectedValue<ReadWriteLockStrategy>();
 
-    public SingletonComponentCreateService(final ComponentConfiguration componentConfiguration, final ApplicationExceptions ejbJarConfiguration, final boolean initOnStartup, final List<ServiceName> dependsOn) {
+    public SingletonComponentCreateService(final ComponentConfiguration componentConfiguration, final ApplicationExceptions ejbJarConfiguration, final boolean initOnStartup, final List<ServiceName> dependsOn, final ReadWriteLockStrategy lockStrategy) {
         super(componentConfiguration, ejbJarConfiguration);
         this.initOnStartup = initOnStartup;
         this.dependsOn = dependsOn;
+        this.lockStrategy = lockStrategy;
     }
 
     @Override
@@ -64,4 +68,19 @@ public class SingletonComponentCreateService extends SessionBeanComponentCreateS
     Injector<DefaultAccessTimeoutService> getDefaultAccessTimeoutInjector() {
         return this.defaultAccessTimeoutService;
     }
+
+    /**
+     * @return the lock strategy of the bean, or else the default of the subsystem, or else {@link ReadWriteLockStrategy#DEFAULT}
+     */
+    public ReadWriteLockStrategy getLockStrategy() {
+        if (this.lockStrategy != null) {
+            return this.lockStrategy;
+        }
+        final ReadWriteLockStrategy defaultStrategy = this.defaultLockStrategy.getOptionalValue();
+        return (defaultStrategy != null) ? defaultStrategy : ReadWriteLockStrategy.DEFAULT;
+    }
+
+    Injector<ReadWriteLockStrategy> getDefaultLockStrategyInjector() {
+        return this.defaultLockStrategy;
+    }
 }
@@ -27,6 +27,8 @@ import org.jboss.as.ee.component.ComponentConfiguration;
 import org.jboss.as.ee.component.DependencyConfigurator;
 import org.jboss.as.ejb3.component.DefaultAccessTimeoutService;
 import org.jboss.as.ejb3.component.EJBComponentCreateServiceFactory;
+import org.jboss.as.ejb3.concurrency.ReadWriteLockStrategy;
+import org.jboss.as.ejb3.subsystem.DefaultSingletonBeanLockStrategyWriteHandler;
 import org.jboss.as.server.deployment.DeploymentUnitProcessingException;
 import org.jboss.msc.service.ServiceBuilder;
 import org.jboss.msc.service.ServiceName;
@@ -40,10 +42,12 @@ public class SingletonComponentCreateServiceFactory extends EJBComponentCreateSe
 
     private final boolean initOnStartup;
     private final List<ServiceName> dependsOn;
+    private final ReadWriteLockStrategy lockStrategy;
 
-    public SingletonComponentCreateServiceFactory(final boolean initServiceOnStartup, final List<ServiceName> dependsOn) {
+    public SingletonComponentCreateServiceFactory(final boolean initServiceOnStartup, final List<ServiceName> dependsOn, final ReadWriteLockStrategy lockStrategy) {
         this.initOnStartup = initServiceOnStartup;
         this.dependsOn = dependsOn;
+        this.lockStrategy = lockStrategy;
     }
 
     @Override
@@ -57,8 +61,13 @@ public class SingletonComponentCreateServiceFactory extends EJBComponentCreateSe
             @Override
             public void configureDependency(ServiceBuilder<?> serviceBuilder, SingletonComponentCreateService componentCreateService) throws DeploymentUnitProcessingException {
                 serviceBuilder.addDependency(DefaultAccessTimeoutService.SINGLETON_SERVICE_NAME, DefaultAccessTimeoutService.class, componentCreateService.getDefaultAccessTimeoutInjector());
+                // the default lock strategy is only needed if the bean doesn't configure its own
+                if (lockStrategy == null) {
+                    serviceBuilder.addDependency(ServiceBuilder.DependencyType.OPTIONAL, DefaultSingletonBeanLockStrategyWriteHandler.SERVICE_NAME,
+                            ReadWriteLockStrategy.class, componentCreateService.getDefaultLockStrategyInjector());
+                }
             }
         });
-        return new SingletonComponentCreateService(configuration, this.ejbJarConfiguration, this.initOnStartup, dependsOn);
+        return new SingletonComponentCreateService(configuration, this.ejbJarConfiguration, this.initOnStartup, dependsOn, this.lockStrategy);
     }
 }
@@ -46,6 +46,7 @@ import org.jboss.as.ejb3.component.session.SessionBeanComponentDescription;
 import org.jboss.as.ejb3.component.session.StatelessRemoteViewInstanceFactory;
 import org.jboss.as.ejb3.component.session.StatelessWriteReplaceInterceptor;
 import org.jboss.as.ejb3.concurrency.ContainerManagedConcurrencyInterceptorFactory;
+import org.jboss.as.ejb3.concurrency.ReadWriteLockStrategy;
 import org.jboss.as.ejb3.deployment.EjbJarDescription;
 import org.jboss.as.ejb3.tx.EjbBMTInterceptor;
 import org.jboss.as.ejb3.tx.SingletonLifecycleCMTTxInterceptor;
@@ -75,6 +76,11 @@ public class SingletonComponentDescription extends SessionBeanComponentDescripti
 
     private DefaultAccessTimeoutService defaultAccessTimeoutProvider;
 
+    /**
+     * The lock strategy configured for this bean, or null to use the default of the subsystem
+     */
+    private ReadWriteLockStrategy lockStrategy;
+
     /**
      * Construct a new instance.
      *
@@ -101,7 +107,7 @@ public class SingletonComponentDescription extends SessionBeanComponentDescripti
 
         ComponentConfiguration singletonComponentConfiguration = new ComponentConfiguration(this, classIndex, moduleClassLoader, moduleLoader);
         // setup the component create service
-        singletonComponentConfiguration.setComponentCreateServiceFactory(new SingletonComponentCreateServiceFactory(this.isInitOnStartup(), dependsOn));
+        singletonComponentConfiguration.setComponentCreateServiceFactory(new SingletonComponentCreateServiceFactory(this.isInitOnStartup(), dependsOn, this.lockStrategy));
 
         if (getTransactionManagementType().equals(TransactionManagementType.CONTAINER)) {
             //we need to add the transaction interceptor to the lifecycle methods
@@ -158,6 +164,19 @@ public class SingletonComponentDescription extends SessionBeanComponentDescripti
 
     }
 
+    public ReadWriteLockStrategy getLockStrategy() {
+        return this.lockStrategy;
+    }
+
+    /**
+     * Sets the {@link ReadWriteLockStrategy} of the container managed concurrency lock of this bean
+     *
+     * @param lockStrategy the lock strategy, or null to use the default of the subsystem
+     */
+    public void setLockStrategy(final ReadWriteLockStrategy lockStrategy) {
+        this.lockStrategy = lockStrategy;
+    }
+
     @Override
     public boolean allowsConcurrentAccess() {
         return true;
@@ -0,0 +1,74 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2012, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.jboss.as.ejb3.concurrency;
+
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+
+import org.jboss.metadata.ejb.parser.jboss.ejb3.AbstractEJBBoundMetaDataParser;
+
+import static org.jboss.as.ejb3.EjbMessages.MESSAGES;
+
+/**
+ * Parser for <code>urn:ejb-lock</code> namespace. The <code>urn:ejb-lock</code> namespace elements
+ * can be used to configure the {@link ReadWriteLockStrategy} of singleton EJBs.
+ */
+public class EJBBoundLockParser extends AbstractEJBBoundMetaDataParser<EJBBoundLockMetaData> {
+
+    public static final String NAMESPACE_URI = "urn:ejb-lock:1.0";
+
+    private static final String ROOT_ELEMENT_LOCK = "lock";
+    private static final String ELEMENT_LOCK_STRATEGY = "lock-strategy";
+
+    @Override
+    public EJBBoundLockMetaData parse(final XMLStreamReader reader) throws XMLStreamException {
+        final String element = reader.getLocalName();
+        // we only parse <lock> (root) element
+        if (!ROOT_ELEMENT_LOCK.equals(element)) {
+            throw unexpectedElement(reader);
+        }
+        final EJBBoundLockMetaData lockMetaData = new EJBBoundLockMetaData();
+        this.processElements(lockMetaData, reader);
+        return lockMetaData;
+    }
+
+    @Override
+    protected void processElement(final EJBBoundLockMetaData lockMetaData, final XMLStreamReader reader) throws XMLStreamException {
+        final String namespaceURI = reader.getNamespaceURI();
+        final String elementName = reader.getLocalName();
+        // if it doesn't belong to our namespace then let the super handle this
+        if (!NAMESPACE_URI.equals(namespaceURI)) {
+            super.processElement(lockMetaData, reader);
+            return;
+        }
+        if (ELEMENT_LOCK_STRATEGY.equals(elementName)) {
+            final String value = getElementText(reader);
+            try {
+                lockMetaData.setLockStrategy(ReadWriteLockStrategy.forName(value.trim()));
+            } catch (IllegalArgumentException e) {
+                throw MESSAGES.unknownLockStrategy(value, reader.getLocation());
+            }
+        } else {
+            throw unexpectedElement(reader);
+        }
+    }
+}
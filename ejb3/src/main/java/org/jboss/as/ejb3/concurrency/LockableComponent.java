@@ -61,4 +61,12 @@ public interface LockableComponent {
      * @return
      */
     AccessTimeoutDetails getDefaultAccessTimeout();
+
+    /**
+     * Returns the {@link ReadWriteLockStrategy} which creates the lock guarding the component. This method must *not*
+     * return a null value.
+     *
+     * @return
+     */
+    ReadWriteLockStrategy getReadWriteLockStrategy();
 }
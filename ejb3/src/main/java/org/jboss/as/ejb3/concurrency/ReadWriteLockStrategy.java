@@ -0,0 +1,84 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2012, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.jboss.as.ejb3.concurrency;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.locks.ReadWriteLock;
+
+/**
+ * The available {@link ReadWriteLock} implementations for container managed concurrency.
+ */
+public enum ReadWriteLockStrategy {
+
+    /**
+     * A single {@link java.util.concurrent.locks.ReentrantReadWriteLock}, see {@link EJBReadWriteLock}
+     */
+    REENTRANT("reentrant") {
+        @Override
+        public ReadWriteLock createLock() {
+            return new EJBReadWriteLock();
+        }
+    },
+    /**
+     * Per-CPU read counters for read-mostly components, see {@link StripedEJBReadWriteLock}
+     */
+    STRIPED("striped") {
+        @Override
+        public ReadWriteLock createLock() {
+            return new StripedEJBReadWriteLock();
+        }
+    };
+
+    public static final ReadWriteLockStrategy DEFAULT = REENTRANT;
+
+    private static final Map<String, ReadWriteLockStrategy> MAP;
+
+    static {
+        final Map<String, ReadWriteLockStrategy> map = new HashMap<String, ReadWriteLockStrategy>();
+        for (ReadWriteLockStrategy strategy : values()) {
+            map.put(strategy.name, strategy);
+        }
+        MAP = map;
+    }
+
+    private final String name;
+
+    ReadWriteLockStrategy(final String name) {
+        this.name = name;
+    }
+
+    public abstract ReadWriteLock createLock();
+
+    public static ReadWriteLockStrategy forName(final String name) {
+        final ReadWriteLockStrategy strategy = MAP.get(name);
+        if (strategy == null) {
+            throw new IllegalArgumentException(name);
+        }
+        return strategy;
+    }
+
+    @Override
+    public String toString() {
+        return name;
+    }
+}
@@ -0,0 +1,384 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2012, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.jboss.as.ejb3.concurrency;
+
+import java.io.Serializable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantLock;
+
+import static org.jboss.as.ejb3.EjbMessages.MESSAGES;
+
+/**
+ * A {@link ReadWriteLock} for read-mostly components which, like {@link EJBReadWriteLock}, throws an
+ * {@link javax.ejb.IllegalLoopbackException} when a thread holding a read lock tries to obtain a write lock.
+ * <p/>
+ * Instead of a single shared lock state, readers register themselves in one of several padded counters (stripes),
+ * chosen by thread, and then check that no writer is active. An uncontended read lock therefore costs one atomic
+ * increment on a cache line which is mostly private to the thread, and no monitor. Writers serialize on a
+ * {@link ReentrantLock}, announce themselves through a volatile flag, which makes new readers back off, and then
+ * wait for the stripes to drain. Writers thus take precedence over new readers, and can't be starved.
+ * <p/>
+ * Both locks are reentrant, and a thread holding the write lock may also obtain the read lock. Waiting readers and
+ * writers honour the timeout passed to {@link Lock#tryLock(long, TimeUnit)}. The read locks held by each thread are
+ * tracked in a map owned by the lock, rather than in a {@link ThreadLocal}, and a thread's entry is removed as soon
+ * as it releases its last read lock, so pooled threads don't keep entries for locks of undeployed components.
+ */
+public class StripedEJBReadWriteLock implements ReadWriteLock, Serializable {
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * Upper bound on the number of stripes, independent of the number of CPUs
+     */
+    private static final int MAX_STRIPES = 64;
+
+    /**
+     * Distance between two counters, in longs, so that every counter sits on its own cache line
+     */
+    private static final int PADDING = 16;
+
+    private final AtomicLongArray readers;
+    private final int stripeMask;
+
+    /**
+     * The threads which hold read locks. Each entry is only updated by its own thread.
+     */
+    private final ConcurrentMap<Thread, ReadHolds> readHolds = new ConcurrentHashMap<Thread, ReadHolds>();
+
+    /**
+     * Serializes the writers
+     */
+    private final ReentrantLock writerLock = new ReentrantLock();
+
+    /**
+     * Set while a writer holds, or is about to obtain, the write lock
+     */
+    private volatile boolean writing;
+
+    /**
+     * Readers wait on this monitor for the writer to finish, and the writer waits on it for the readers to drain
+     */
+    private final Object monitor = new Object();
+
+    private final Lock readLock = new ReadLock();
+    private final Lock writeLock = new WriteLock();
+
+    public StripedEJBReadWriteLock() {
+        this(Runtime.getRuntime().availableProcessors());
+    }
+
+    StripedEJBReadWriteLock(int concurrency) {
+        final int stripes = Integer.highestOneBit(Math.max(1, Math.min(concurrency, MAX_STRIPES)));
+        this.stripeMask = stripes - 1;
+        this.readers = new AtomicLongArray(stripes * PADDING);
+    }
+
+    public class ReadLock implements Lock, Serializable {
+        private static final long serialVersionUID = 1L;
+
+        @Override
+        public void lock() {
+            boolean interrupted = false;
+            while (true) {
+                try {
+                    acquireRead(false, 0);
+                    break;
+                } catch (InterruptedException e) {
+                    interrupted = true;
+                }
+            }
+            if (interrupted) {
+                Thread.currentThread().interrupt();
+            }
+        }
+
+        @Override
+        public void lockInterruptibly() throws InterruptedException {
+            acquireRead(false, 0);
+        }
+
+        /**
+         * Not implemented
+         *
+         * @throws UnsupportedOperationException
+         */
+        @Override
+        public Condition newCondition() {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public boolean tryLock() {
+            final Thread thread = Thread.currentThread();
+            return tryAcquireRead(thread, index(thread));
+        }
+
+        @Override
+        public boolean tryLock(long time, TimeUnit unit) throws InterruptedException {
+            return acquireRead(true, unit.toNanos(time));
+        }
+
+        @Override
+        public void unlock() {
+            releaseRead();
+        }
+    }
+
+    public class WriteLock implements Lock, Serializable {
+        private static final long serialVersionUID = 1L;
+
+        @Override
+        public void lock() {
+            boolean interrupted = false;
+            while (true) {
+                try {
+                    acquireWrite(false, 0);
+                    break;
+                } catch (InterruptedException e) {
+                    interrupted = true;
+                }
+            }
+            if (interrupted) {
+                Thread.currentThread().interrupt();
+            }
+        }
+
+        @Override
+        public void lockInterruptibly() throws InterruptedException {
+            acquireWrite(false, 0);
+        }
+
+        /**
+         * Not implemented
+         *
+         * @throws UnsupportedOperationException
+         */
+        @Override
+        public Condition newCondition() {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public boolean tryLock() {
+            checkLoopback();
+            if (!writerLock.tryLock()) {
+                return false;
+            }
+            if (writerLock.getHoldCount() > 1) {
+                return true;
+            }
+            writing = true;
+            if (readerCount() == 0) {
+                return true;
+            }
+            releaseWrite();
+            return false;
+        }
+
+        @Override
+        public boolean tryLock(long time, TimeUnit unit) throws InterruptedException {
+            return acquireWrite(true, unit.toNanos(time));
+        }
+
+        @Override
+        public void unlock() {
+            releaseWrite();
+        }
+    }
+
+    private boolean tryAcquireRead(final Thread thread, final int index) {
+        this.readers.incrementAndGet(index);
+        final ReadHolds holds = this.readHolds.get(thread);
+        // re-entrant reads, and reads of the writer itself, must not wait for the writer
+        if (!this.writing || holds != null || this.writerLock.isHeldByCurrentThread()) {
+            if (holds != null) {
+                holds.count++;
+            } else {
+                this.readHolds.put(thread, new ReadHolds(index));
+            }
+            return true;
+        }
+        // a writer is active or waiting for the readers to drain, back off
+        this.readers.decrementAndGet(index);
+        synchronized (this.monitor) {
+            this.monitor.notifyAll();
+        }
+        return false;
+    }
+
+    private boolean acquireRead(final boolean timed, final long nanos) throws InterruptedException {
+        final Thread thread = Thread.currentThread();
+        final int index = index(thread);
+        if (tryAcquireRead(thread, index)) {
+            return true;
+        }
+        final long deadline = System.nanoTime() + nanos;
+        while (true) {
+            synchronized (this.monitor) {
+                while (this.writing) {
+                    if (timed) {
+                        final long remaining = deadline - System.nanoTime();
+                        if (remaining <= 0) {
+                            return false;
+                        }
+                        TimeUnit.NANOSECONDS.timedWait(this.monitor, remaining);
+                    } else {
+                        this.monitor.wait();
+                    }
+                }
+            }
+            if (tryAcquireRead(thread, index)) {
+                return true;
+            }
+        }
+    }
+
+    private void releaseRead() {
+        final Thread thread = Thread.currentThread();
+        final ReadHolds holds = this.readHolds.get(thread);
+        if (holds == null) {
+            throw new IllegalMonitorStateException();
+        }
+        if (--holds.count == 0) {
+            this.readHolds.remove(thread);
+        }
+        this.readers.decrementAndGet(holds.index);
+        if (this.writing) {
+            // the writer may be waiting for us
+            synchronized (this.monitor) {
+                this.monitor.notifyAll();
+            }
+        }
+    }
+
+    private boolean acquireWrite(final boolean timed, final long nanos) throws InterruptedException {
+        checkLoopback();
+        final long deadline = System.nanoTime() + nanos;
+        if (timed) {
+            if (!this.writerLock.tryLock(nanos, TimeUnit.NANOSECONDS)) {
+                return false;
+            }
+        } else {
+            this.writerLock.lockInterruptibly();
+        }
+        if (this.writerLock.getHoldCount() > 1) {
+            return true;
+        }
+        boolean acquired = false;
+        try {
+            this.writing = true;
+            synchronized (this.monitor) {
+                while (readerCount() != 0) {
+                    if (timed) {
+                        final long remaining = deadline - System.nanoTime();
+                        if (remaining <= 0) {
+                            return false;
+                        }
+                        TimeUnit.NANOSECONDS.timedWait(this.monitor, remaining);
+                    } else {
+                        this.monitor.wait();
+                    }
+                }
+            }
+            acquired = true;
+            return true;
+        } finally {
+            if (!acquired) {
+                releaseWrite();
+            }
+        }
+    }
+
+    private void releaseWrite() {
+        if (!this.writerLock.isHeldByCurrentThread()) {
+            throw new IllegalMonitorStateException();
+        }
+        if (this.writerLock.getHoldCount() == 1) {
+            this.writing = false;
+            synchronized (this.monitor) {
+                this.monitor.notifyAll();
+            }
+        }
+        this.writerLock.unlock();
+    }
+
+    private long readerCount() {
+        long count = 0;
+        for (int i = 0; i <= this.stripeMask; i++) {
+            count += this.readers.get(i * PADDING);
+        }
+        return count;
+    }
+
+    /**
+     * Ensures that the current thread doesn't hold any read locks. If
+     * the thread holds any read locks, this method throws a {@link javax.ejb.IllegalLoopbackException}.
+     */
+    private void checkLoopback() {
+        if (this.readHolds.containsKey(Thread.currentThread())) {
+            throw MESSAGES.failToUpgradeToWriteLock();
+        }
+    }
+
+    private int index(final Thread thread) {
+        // spread the thread id so that sequentially numbered threads land on different stripes
+        long id = thread.getId();
+        int h = (int) (id ^ (id >>> 32));
+        h ^= (h >>> 16);
+        h *= 0x85ebca6b;
+        h ^= (h >>> 13);
+        return (h & this.stripeMask) * PADDING;
+    }
+
+    /**
+     * The number of read locks held by a thread, and the index of its counter
+     */
+    private static class ReadHolds {
+        final int index;
+        int count = 1;
+
+        ReadHolds(final int index) {
+            this.index = index;
+        }
+    }
+
+    /**
+     * @see java.util.concurrent.locks.ReadWriteLock#readLock()
+     */
+    @Override
+    public Lock readLock() {
+        return this.readLock;
+    }
+
+    /**
+     * @see java.util.concurrent.locks.ReadWriteLock#writeLock()
+     */
+    @Override
+    public Lock writeLock() {
+        return this.writeLock;
+    }
+}
@@ -93,6 +93,18 @@ public class DeploymentRepository implements Service<DeploymentRepository> {
         }
     }
 
+    /**
+     * Returns the deployed module with the given identifier. Unlike {@link #getModules()} this doesn't copy
+     * the repository, so it's cheap enough to be called for each invocation.
+     *
+     * @param identifier the module identifier
+     * @return the module, or null if no such module is deployed
+     */
+    public ModuleDeployment getModule(DeploymentModuleIdentifier identifier) {
+        final DeploymentHolder holder = this.modules.get(identifier);
+        return holder == null ? null : holder.deployment;
+    }
+
     public Map<DeploymentModuleIdentifier, ModuleDeployment> getModules() {
         Map<DeploymentModuleIdentifier, ModuleDeployment> modules = new HashMap<DeploymentModuleIdentifier, ModuleDeployment>();
         for(Map.Entry<DeploymentModuleIdentifier, DeploymentHolder> entry : this.modules.entrySet()) {
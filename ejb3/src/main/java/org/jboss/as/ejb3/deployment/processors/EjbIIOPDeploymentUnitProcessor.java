@@ -47,13 +47,16 @@ import org.jboss.as.ejb3.deployment.EjbDeploymentMarker;
 import org.jboss.as.ejb3.iiop.EjbIIOPService;
 import org.jboss.as.ejb3.iiop.EjbIIOPTransactionInterceptor;
 import org.jboss.as.ejb3.iiop.POARegistry;
+import org.jboss.as.ejb3.iiop.stub.IIOPStrategyCompiler;
 import org.jboss.as.ejb3.subsystem.IIOPSettingsService;
 import org.jboss.as.jacorb.deployment.JacORBDeploymentMarker;
 import org.jboss.as.jacorb.rmi.AttributeAnalysis;
 import org.jboss.as.jacorb.rmi.InterfaceAnalysis;
 import org.jboss.as.jacorb.rmi.OperationAnalysis;
 import org.jboss.as.jacorb.rmi.RMIIIOPViolationException;
+import org.jboss.as.jacorb.rmi.WorkCacheManager;
 import org.jboss.as.jacorb.rmi.marshal.strategy.SkeletonStrategy;
+import org.jboss.as.jacorb.rmi.marshal.strategy.StrategyCache;
 import org.jboss.as.jacorb.service.CorbaNamingService;
 import org.jboss.as.jacorb.service.CorbaORBService;
 import org.jboss.as.jacorb.service.CorbaPOAService;
@@ -139,7 +142,12 @@ public class EjbIIOPDeploymentUnitProcessor implements DeploymentUnitProcessor {
 
     @Override
     public void undeploy(final DeploymentUnit context) {
-
+        final Module module = context.getAttachment(org.jboss.as.server.deployment.Attachments.MODULE);
+        if (module != null) {
+            // release the RMI/IDL analyses and the marshalling strategies of the deployment
+            WorkCacheManager.purge(module.getClassLoader());
+            StrategyCache.evict(module.getClassLoader());
+        }
     }
 
     private void processEjb(final EJBComponentDescription componentDescription, final DeploymentClassIndex classIndex,
@@ -188,14 +196,14 @@ public class EjbIIOPDeploymentUnitProcessor implements DeploymentUnitProcessor {
                 //TODO: this needs to be fixed so it just returns the correct method
                 final Method method = translateMethod(deploymentReflectionIndex, op);
 
-                beanMethodMap.put(op.getIDLName(), new SkeletonStrategy(method));
+                beanMethodMap.put(op.getIDLName(), IIOPStrategyCompiler.skeletonStrategyFor(method, module.getClassLoader()));
                 final OperationAnalysis setop = remoteAttrs[i].getMutatorAnalysis();
                 if (setop != null) {
                     EjbLogger.ROOT_LOGGER.debug("    " + setop.getJavaName() + "\n                " + setop.getIDLName());
                     //translate to the deployment reflection index method
                     //TODO: this needs to be fixed so it just returns the correct method
                     final Method realSetmethod = translateMethod(deploymentReflectionIndex, setop);
-                    beanMethodMap.put(setop.getIDLName(), new SkeletonStrategy(realSetmethod));
+                    beanMethodMap.put(setop.getIDLName(), IIOPStrategyCompiler.skeletonStrategyFor(realSetmethod, module.getClassLoader()));
                 }
             }
         }
@@ -203,7 +211,7 @@ public class EjbIIOPDeploymentUnitProcessor implements DeploymentUnitProcessor {
         final OperationAnalysis[] ops = remoteInterfaceAnalysis.getOperations();
         for (int i = 0; i < ops.length; i++) {
             EjbLogger.ROOT_LOGGER.debug("    " + ops[i].getJavaName() + "\n                " + ops[i].getIDLName());
-            beanMethodMap.put(ops[i].getIDLName(), new SkeletonStrategy(translateMethod(deploymentReflectionIndex, ops[i])));
+            beanMethodMap.put(ops[i].getIDLName(), IIOPStrategyCompiler.skeletonStrategyFor(translateMethod(deploymentReflectionIndex, ops[i]), module.getClassLoader()));
         }
 
         // Initialize repository ids of remote interface
@@ -225,11 +233,11 @@ public class EjbIIOPDeploymentUnitProcessor implements DeploymentUnitProcessor {
             final OperationAnalysis op = attrs[i].getAccessorAnalysis();
             if (op != null) {
                 EjbLogger.ROOT_LOGGER.debug("    " + op.getJavaName() + "\n                " + op.getIDLName());
-                homeMethodMap.put(op.getIDLName(), new SkeletonStrategy(translateMethod(deploymentReflectionIndex, op)));
+                homeMethodMap.put(op.getIDLName(), IIOPStrategyCompiler.skeletonStrategyFor(translateMethod(deploymentReflectionIndex, op), module.getClassLoader()));
                 final OperationAnalysis setop = attrs[i].getMutatorAnalysis();
                 if (setop != null) {
                     EjbLogger.ROOT_LOGGER.debug("    " + setop.getJavaName() + "\n                " + setop.getIDLName());
-                    homeMethodMap.put(setop.getIDLName(), new SkeletonStrategy(translateMethod(deploymentReflectionIndex, setop)));
+                    homeMethodMap.put(setop.getIDLName(), IIOPStrategyCompiler.skeletonStrategyFor(translateMethod(deploymentReflectionIndex, setop), module.getClassLoader()));
                 }
             }
         }
@@ -237,7 +245,7 @@ public class EjbIIOPDeploymentUnitProcessor implements DeploymentUnitProcessor {
         final OperationAnalysis[] homeops = homeInterfaceAnalysis.getOperations();
         for (int i = 0; i < homeops.length; i++) {
             EjbLogger.ROOT_LOGGER.debug("    " + homeops[i].getJavaName() + "\n                " + homeops[i].getIDLName());
-            homeMethodMap.put(homeops[i].getIDLName(), new SkeletonStrategy(translateMethod(deploymentReflectionIndex, homeops[i])));
+            homeMethodMap.put(homeops[i].getIDLName(), IIOPStrategyCompiler.skeletonStrategyFor(translateMethod(deploymentReflectionIndex, homeops[i]), module.getClassLoader()));
         }
 
         // Initialize repository ids of home interface
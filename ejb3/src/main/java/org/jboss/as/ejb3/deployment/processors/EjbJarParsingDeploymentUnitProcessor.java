@@ -38,9 +38,11 @@ import org.jboss.as.ee.component.EEModuleDescription;
 import org.jboss.as.ee.metadata.MetadataCompleteMarker;
 import org.jboss.as.ejb3.cache.EJBBoundCacheParser;
 import org.jboss.as.ejb3.clustering.EJBBoundClusteringMetaDataParser;
+import org.jboss.as.ejb3.concurrency.EJBBoundLockParser;
 import org.jboss.as.ejb3.deployment.EjbDeploymentAttachmentKeys;
 import org.jboss.as.ejb3.deployment.EjbDeploymentMarker;
 import org.jboss.as.ejb3.deployment.EjbJarDescription;
+import org.jboss.as.ejb3.inflow.EJBBoundDeliveryBatchParser;
 import org.jboss.as.ejb3.pool.EJBBoundPoolParser;
 import org.jboss.as.ejb3.resourceadapterbinding.parser.EJBBoundResourceAdapterBindingMetaDataParser;
 import org.jboss.as.ejb3.security.parser.EJBBoundSecurityMetaDataParser;
@@ -280,6 +282,8 @@ public class EjbJarParsingDeploymentUnitProcessor implements DeploymentUnitProce
             parsers.put("urn:trans-timeout", new TransactionTimeoutMetaDataParser());
             parsers.put(EJBBoundPoolParser.NAMESPACE_URI, new EJBBoundPoolParser());
             parsers.put(EJBBoundCacheParser.NAMESPACE_URI, new EJBBoundCacheParser());
+            parsers.put(EJBBoundLockParser.NAMESPACE_URI, new EJBBoundLockParser());
+            parsers.put(EJBBoundDeliveryBatchParser.NAMESPACE_URI, new EJBBoundDeliveryBatchParser());
             final JBossEjb3MetaDataParser parser = new JBossEjb3MetaDataParser(parsers);
             final EjbJarMetaData ejbJarMetaData = parser.parse(reader, dtdInfo);
             return ejbJarMetaData;
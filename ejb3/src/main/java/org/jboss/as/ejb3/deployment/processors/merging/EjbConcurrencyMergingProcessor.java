@@ -34,14 +34,20 @@ import org.jboss.as.ee.component.EEApplicationClasses;
 import org.jboss.as.ee.metadata.MethodAnnotationAggregator;
 import org.jboss.as.ee.metadata.RuntimeAnnotationInformation;
 import org.jboss.as.ejb3.component.session.SessionBeanComponentDescription;
+import org.jboss.as.ejb3.component.singleton.SingletonComponentDescription;
 import org.jboss.as.ejb3.concurrency.AccessTimeoutDetails;
+import org.jboss.as.ejb3.concurrency.EJBBoundLockMetaData;
+import org.jboss.as.ejb3.concurrency.ReadWriteLockStrategy;
+import org.jboss.as.ejb3.deployment.EjbDeploymentAttachmentKeys;
 import org.jboss.as.server.deployment.DeploymentUnit;
 import org.jboss.as.server.deployment.DeploymentUnitProcessingException;
 import org.jboss.as.server.deployment.reflect.ClassReflectionIndex;
 import org.jboss.as.server.deployment.reflect.DeploymentReflectionIndex;
 import org.jboss.invocation.proxy.MethodIdentifier;
+import org.jboss.metadata.ejb.spec.AssemblyDescriptorMetaData;
 import org.jboss.metadata.ejb.spec.ConcurrentMethodMetaData;
 import org.jboss.metadata.ejb.spec.ConcurrentMethodsMetaData;
+import org.jboss.metadata.ejb.spec.EjbJarMetaData;
 import org.jboss.metadata.ejb.spec.NamedMethodMetaData;
 import org.jboss.metadata.ejb.spec.SessionBean31MetaData;
 import org.jboss.metadata.ejb.spec.SessionBeanMetaData;
@@ -90,6 +96,10 @@ public class EjbConcurrencyMergingProcessor extends AbstractMergingProcessor<Ses
 
     protected void handleDeploymentDescriptor(final DeploymentUnit deploymentUnit, final DeploymentReflectionIndex deploymentReflectionIndex, final Class<?> componentClass, final SessionBeanComponentDescription componentConfiguration) throws DeploymentUnitProcessingException {
 
+        if (componentConfiguration instanceof SingletonComponentDescription) {
+            this.handleLockStrategy(deploymentUnit, (SingletonComponentDescription) componentConfiguration);
+        }
+
         if (componentConfiguration.getDescriptorData() == null) {
             return;
         }
@@ -126,6 +136,36 @@ public class EjbConcurrencyMergingProcessor extends AbstractMergingProcessor<Ses
         }
     }
 
+    /**
+     * Sets up the singleton bean with the lock strategy configured for it, or for all beans, in jboss-ejb3.xml
+     */
+    private void handleLockStrategy(final DeploymentUnit deploymentUnit, final SingletonComponentDescription description) {
+        final EjbJarMetaData metaData = deploymentUnit.getAttachment(EjbDeploymentAttachmentKeys.EJB_JAR_METADATA);
+        if (metaData == null) {
+            return;
+        }
+        final AssemblyDescriptorMetaData assemblyDescriptor = metaData.getAssemblyDescriptor();
+        if (assemblyDescriptor == null) {
+            return;
+        }
+        final List<EJBBoundLockMetaData> locks = assemblyDescriptor.getAny(EJBBoundLockMetaData.class);
+        if (locks == null) {
+            return;
+        }
+        final String ejbName = description.getEJBName();
+        ReadWriteLockStrategy lockStrategy = null;
+        for (final EJBBoundLockMetaData lockMetaData : locks) {
+            // a bean specific strategy overrides the one for all beans
+            if ("*".equals(lockMetaData.getEjbName()) && lockStrategy == null) {
+                lockStrategy = lockMetaData.getLockStrategy();
+            } else if (ejbName.equals(lockMetaData.getEjbName())) {
+                lockStrategy = lockMetaData.getLockStrategy();
+            }
+        }
+        if (lockStrategy != null) {
+            description.setLockStrategy(lockStrategy);
+        }
+    }
 
     private Method resolveMethod(final DeploymentReflectionIndex index, final Class<?> currentClass, final Class<?> componentClass, final NamedMethodMetaData methodData) throws DeploymentUnitProcessingException {
         if (currentClass == null) {
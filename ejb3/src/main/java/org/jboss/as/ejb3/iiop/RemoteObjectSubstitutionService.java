@@ -85,7 +85,7 @@ public class RemoteObjectSubstitutionService implements RemoteObjectSubstitution
     }
 
     private EjbIIOPService serviceForLocator(final EJBLocator locator, DeploymentRepository deploymentRepository) {
-        final ModuleDeployment module = deploymentRepository.getModules().get(new DeploymentModuleIdentifier(locator.getAppName(), locator.getModuleName(), locator.getDistinctName()));
+        final ModuleDeployment module = deploymentRepository.getModule(new DeploymentModuleIdentifier(locator.getAppName(), locator.getModuleName(), locator.getDistinctName()));
         if (module == null) {
             EjbLogger.ROOT_LOGGER.couldNotFindEjbForLocatorIIOP(locator);
             return null;
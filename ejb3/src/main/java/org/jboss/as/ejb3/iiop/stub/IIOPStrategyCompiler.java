@@ -0,0 +1,530 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2012, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.jboss.as.ejb3.iiop.stub;
+
+import java.io.Externalizable;
+import java.io.Serializable;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.rmi.CORBA.Util;
+import javax.rmi.PortableRemoteObject;
+
+import org.jboss.as.ejb3.EjbLogger;
+import org.jboss.as.jacorb.rmi.marshal.CDRStream;
+import org.jboss.as.jacorb.rmi.marshal.strategy.SkeletonStrategy;
+import org.jboss.as.jacorb.rmi.marshal.strategy.StrategyCache;
+import org.jboss.as.jacorb.rmi.marshal.strategy.StubStrategy;
+import org.jboss.classfilewriter.ClassFile;
+import org.jboss.classfilewriter.code.CodeAttribute;
+import org.jboss.classfilewriter.util.Boxing;
+import org.jboss.classfilewriter.util.DescriptorUtils;
+
+/**
+ * Utility class responsible for the dynamic generation of <code>SkeletonStrategy</code> and
+ * <code>StubStrategy</code> subclasses. The generated strategies marshal the parameters and the return
+ * value of an RMI/IIOP operation with direct calls on the CDR stream, instead of dispatching every value
+ * through a <code>CDRStreamReader</code> or <code>CDRStreamWriter</code>.
+ * <p/>
+ * Values that cannot be marshalled inline, such as arrays or classes that are not visible from the class
+ * loader the strategy is defined in, are left to the generic strategy. If a strategy class cannot be
+ * generated at all the generic strategy is used, and the first such failure is logged as a warning.
+ */
+public final class IIOPStrategyCompiler {
+
+    private static final String INPUT_STREAM = "org.omg.CORBA_2_3.portable.InputStream";
+    private static final String OUTPUT_STREAM = "org.omg.CORBA_2_3.portable.OutputStream";
+    private static final String INPUT_STREAM_DESCRIPTOR = "Lorg/omg/CORBA_2_3/portable/InputStream;";
+    private static final String OUTPUT_STREAM_DESCRIPTOR = "Lorg/omg/CORBA_2_3/portable/OutputStream;";
+    private static final String OBJECT_DESCRIPTOR = "Ljava/lang/Object;";
+
+    /**
+     * The classes the generated code refers to, besides the parameter and return value types.
+     */
+    private static final Class<?>[] RUNTIME_CLASSES = {
+            SkeletonStrategy.class, StubStrategy.class,
+            org.omg.CORBA_2_3.portable.InputStream.class, org.omg.CORBA_2_3.portable.OutputStream.class,
+            PortableRemoteObject.class, Util.class
+    };
+
+    private static final AtomicInteger counter = new AtomicInteger();
+
+    /**
+     * Set once a generation failure was logged as a warning
+     */
+    private static final AtomicBoolean failureWarned = new AtomicBoolean();
+
+    private static final StrategyCache.SkeletonStrategyFactory SKELETON_FACTORY = new StrategyCache.SkeletonStrategyFactory() {
+        public SkeletonStrategy createSkeletonStrategy(final Method m, final ClassLoader cl) {
+            try {
+                final Class<?> clazz = compileSkeletonStrategy(m, cl);
+                return (SkeletonStrategy) clazz.getConstructor(Method.class).newInstance(m);
+            } catch (Exception e) {
+                generationFailed(m, e);
+            } catch (LinkageError e) {
+                generationFailed(m, e);
+            }
+            return null;
+        }
+    };
+
+    private IIOPStrategyCompiler() {
+    }
+
+    /**
+     * Returns the <code>SkeletonStrategy</code> for a given method. The strategy class is defined in, and
+     * cached for, the given class loader.
+     *
+     * @param m  the method
+     * @param cl the class loader of the deployment exposing the method
+     * @return the skeleton strategy
+     */
+    public static SkeletonStrategy skeletonStrategyFor(final Method m, final ClassLoader cl) {
+        return StrategyCache.skeletonStrategyFor(m, cl, SKELETON_FACTORY);
+    }
+
+    /**
+     * Returns the <code>StubStrategy</code> for an operation of a stub class generated by
+     * {@link IIOPStubCompiler}. The strategy class is defined in the class loader of the stub class.
+     *
+     * @param paramTypes the abbreviated names of the parameter types
+     * @param excepIds   the repository ids of the declared exceptions
+     * @param excepTypes the names of the declared exception classes
+     * @param retvalType the abbreviated name of the return type
+     * @param stubClass  the stub class
+     * @return the stub strategy
+     */
+    public static StubStrategy stubStrategyFor(final String[] paramTypes, final String[] excepIds, final String[] excepTypes,
+                                               final String retvalType, final Class<?> stubClass) {
+        return StrategyCache.stubStrategyFor(paramTypes, excepIds, excepTypes, retvalType, stubClass.getClassLoader(),
+                new StrategyCache.StubStrategyFactory() {
+                    public StubStrategy createStubStrategy(final String[] paramTypes, final String[] excepIds, final String[] excepTypes,
+                                                           final String retvalType, final ClassLoader cl) {
+                        try {
+                            final Class<?> clazz = compileStubStrategy(stubClass.getName(), paramTypes, retvalType, cl);
+                            return (StubStrategy) clazz.getConstructor(String[].class, String[].class, String[].class, String.class, ClassLoader.class)
+                                    .newInstance(paramTypes, excepIds, excepTypes, retvalType, cl);
+                        } catch (Exception e) {
+                            generationFailed(stubClass.getName(), e);
+                        } catch (LinkageError e) {
+                            generationFailed(stubClass.getName(), e);
+                        }
+                        return null;
+                    }
+                });
+    }
+
+    /**
+     * Logs that a strategy could not be generated. The first failure is logged as a warning, as it usually means
+     * that every operation is marshalled by the slower generic strategies, the others at debug level.
+     */
+    private static void generationFailed(final Object operation, final Throwable cause) {
+        if (failureWarned.compareAndSet(false, true)) {
+            EjbLogger.ROOT_LOGGER.failToGenerateIIOPStrategy(operation, cause);
+        } else {
+            EjbLogger.ROOT_LOGGER.debugf(cause, "Could not generate the IIOP marshalling strategy for %s", operation);
+        }
+    }
+
+    private static Class<?> compileSkeletonStrategy(final Method m, final ClassLoader cl) {
+        checkRuntimeClasses(cl);
+        final String superclass = SkeletonStrategy.class.getName();
+        final String className = m.getDeclaringClass().getName() + "$$IIOPSkeleton" + counter.incrementAndGet();
+        final ClassFile asm = new ClassFile(className, superclass);
+
+        final CodeAttribute ctor = asm.addMethod(Modifier.PUBLIC, "<init>", "V", "Ljava/lang/reflect/Method;").getCodeAttribute();
+        ctor.aload(0);
+        ctor.aload(1);
+        ctor.invokespecial(superclass, "<init>", "(Ljava/lang/reflect/Method;)V");
+        ctor.returnInstruction();
+
+        // Object[] readParams(InputStream in)
+        final Class<?>[] paramTypes = m.getParameterTypes();
+        final CodeAttribute readParams = asm.addMethod(Modifier.PUBLIC, "readParams", "[Ljava/lang/Object;", INPUT_STREAM_DESCRIPTOR).getCodeAttribute();
+        readParams.iconst(paramTypes.length);
+        readParams.anewarray(Object.class.getName());
+        for (int i = 0; i < paramTypes.length; i++) {
+            readParams.dup();
+            readParams.iconst(i);
+            final Marshaller marshaller = Marshaller.forClass(paramTypes[i], cl);
+            if (marshaller != null) {
+                readParams.aload(1);
+                marshaller.read(readParams);
+            } else {
+                readParams.aload(0);
+                readParams.iconst(i);
+                readParams.aload(1);
+                readParams.invokevirtual(superclass, "readParam", "(I" + INPUT_STREAM_DESCRIPTOR + ")" + OBJECT_DESCRIPTOR);
+            }
+            readParams.aastore();
+        }
+        readParams.returnInstruction();
+
+        // void writeRetval(OutputStream out, Object retVal)
+        final Class<?> returnType = m.getReturnType();
+        final Marshaller marshaller = returnType == Void.TYPE ? null : Marshaller.forClass(returnType, cl);
+        if (marshaller != null) {
+            final CodeAttribute writeRetval = asm.addMethod(Modifier.PUBLIC, "writeRetval", "V", OUTPUT_STREAM_DESCRIPTOR, OBJECT_DESCRIPTOR).getCodeAttribute();
+            writeRetval.aload(1);
+            writeRetval.aload(2);
+            if (!returnType.isPrimitive()) {
+                writeRetval.invokestatic(superclass, "replaceRetval", "(" + OBJECT_DESCRIPTOR + ")" + OBJECT_DESCRIPTOR);
+            }
+            marshaller.write(writeRetval);
+            writeRetval.returnInstruction();
+        }
+        return asm.define(cl);
+    }
+
+    private static Class<?> compileStubStrategy(final String stubClassName, final String[] paramTypes, final String retvalType,
+                                                final ClassLoader cl) {
+        checkRuntimeClasses(cl);
+        final String superclass = StubStrategy.class.getName();
+        final String className = stubClassName + "$$IIOPStrategy" + counter.incrementAndGet();
+        final ClassFile asm = new ClassFile(className, superclass);
+
+        final CodeAttribute ctor = asm.addMethod(Modifier.PUBLIC, "<init>", "V", "[Ljava/lang/String;", "[Ljava/lang/String;",
+                "[Ljava/lang/String;", "Ljava/lang/String;", "Ljava/lang/ClassLoader;").getCodeAttribute();
+        ctor.aload(0);
+        ctor.aload(1);
+        ctor.aload(2);
+        ctor.aload(3);
+        ctor.aload(4);
+        ctor.aload(5);
+        ctor.invokespecial(superclass, "<init>", "([Ljava/lang/String;[Ljava/lang/String;[Ljava/lang/String;Ljava/lang/String;Ljava/lang/ClassLoader;)V");
+        ctor.returnInstruction();
+
+        // void writeParams(OutputStream out, Object[] params)
+        final CodeAttribute writeParams = asm.addMethod(Modifier.PUBLIC, "writeParams", "V", OUTPUT_STREAM_DESCRIPTOR, "[Ljava/lang/Object;").getCodeAttribute();
+        writeParams.aload(0);
+        writeParams.aload(2);
+        writeParams.invokevirtual(superclass, "checkParams", "([Ljava/lang/Object;)V");
+        for (int i = 0; i < paramTypes.length; i++) {
+            final Marshaller marshaller = Marshaller.forAbbrev(paramTypes[i], cl);
+            if (marshaller != null) {
+                writeParams.aload(1);
+                writeParams.aload(2);
+                writeParams.iconst(i);
+                writeParams.aaload();
+                if (!marshaller.isPrimitive()) {
+                    writeParams.invokestatic(superclass, "replaceParam", "(" + OBJECT_DESCRIPTOR + ")" + OBJECT_DESCRIPTOR);
+                }
+                marshaller.write(writeParams);
+            } else {
+                writeParams.aload(0);
+                writeParams.aload(1);
+                writeParams.iconst(i);
+                writeParams.aload(2);
+                writeParams.iconst(i);
+                writeParams.aaload();
+                writeParams.invokevirtual(superclass, "writeParam", "(" + OUTPUT_STREAM_DESCRIPTOR + "I" + OBJECT_DESCRIPTOR + ")V");
+            }
+        }
+        writeParams.returnInstruction();
+
+        // Object readRetval(InputStream in)
+        final Marshaller marshaller = retvalType.charAt(0) == 'V' ? null : Marshaller.forAbbrev(retvalType, cl);
+        if (marshaller != null) {
+            final CodeAttribute readRetval = asm.addMethod(Modifier.PUBLIC, "readRetval", OBJECT_DESCRIPTOR, INPUT_STREAM_DESCRIPTOR).getCodeAttribute();
+            readRetval.aload(1);
+            marshaller.read(readRetval);
+            readRetval.returnInstruction();
+        }
+        return asm.define(cl);
+    }
+
+    private static void checkRuntimeClasses(final ClassLoader cl) {
+        for (final Class<?> clazz : RUNTIME_CLASSES) {
+            if (!isVisible(clazz, cl)) {
+                throw new IllegalStateException(clazz.getName() + " is not visible from " + cl);
+            }
+        }
+    }
+
+    /**
+     * Returns true if generated code defined in the given class loader can refer to the given class.
+     */
+    private static boolean isVisible(final Class<?> clazz, final ClassLoader cl) {
+        if (clazz.isArray()) {
+            return false;
+        }
+        for (Class<?> c = clazz; c != null; c = c.getDeclaringClass()) {
+            if (!Modifier.isPublic(c.getModifiers())) {
+                return false;
+            }
+        }
+        try {
+            return Class.forName(clazz.getName(), false, cl) == clazz;
+        } catch (ClassNotFoundException e) {
+            return false;
+        } catch (LinkageError e) {
+            return false;
+        }
+    }
+
+    /**
+     * Emits the bytecodes that marshal a single value, with the same semantics as the
+     * <code>CDRStreamReader</code> and <code>CDRStreamWriter</code> for its abbreviated name.
+     *
+     * @see CDRStream#abbrevFor(Class)
+     */
+    private static final class Marshaller {
+
+        private final char abbrev;
+        private final Class<?> type;
+        private final Method helperRead;
+        private final Method helperWrite;
+
+        private Marshaller(final char abbrev, final Class<?> type, final Method helperRead, final Method helperWrite) {
+            this.abbrev = abbrev;
+            this.type = type;
+            this.helperRead = helperRead;
+            this.helperWrite = helperWrite;
+        }
+
+        /**
+         * Returns the marshaller for a parameter or return type, or null if the value has to be
+         * marshalled by the generic strategy.
+         */
+        static Marshaller forClass(final Class<?> type, final ClassLoader cl) {
+            return create(CDRStream.abbrevFor(type).charAt(0), type, cl);
+        }
+
+        /**
+         * Returns the marshaller for an abbreviated name, or null if the value has to be
+         * marshalled by the generic strategy.
+         */
+        static Marshaller forAbbrev(final String abbrev, final ClassLoader cl) {
+            final char c = abbrev.charAt(0);
+            Class<?> type = null;
+            if (c == 'L' || c == 'N' || c == 'R') {
+                try {
+                    type = Class.forName(abbrev.substring(1), false, cl);
+                } catch (ClassNotFoundException e) {
+                    return null;
+                }
+            }
+            return create(c, type, cl);
+        }
+
+        private static Marshaller create(final char abbrev, final Class<?> type, final ClassLoader cl) {
+            switch (abbrev) {
+                case 'L':
+                case 'R':
+                    return isVisible(type, cl) ? new Marshaller(abbrev, type, null, null) : null;
+                case 'N':
+                    if (!isVisible(type, cl)) {
+                        return null;
+                    }
+                    if (type.getClassLoader() == null) {
+                        return null;
+                    }
+                    try {
+                        final Class<?> helper = type.getClassLoader().loadClass(type.getName() + "Helper");
+                        final Method read = helper.getMethod("read", org.omg.CORBA.portable.InputStream.class);
+                        final Method write = helper.getMethod("write", org.omg.CORBA.portable.OutputStream.class, type);
+                        if (!isVisible(helper, cl) || !Modifier.isStatic(read.getModifiers()) || !Modifier.isStatic(write.getModifiers())) {
+                            return null;
+                        }
+                        return new Marshaller(abbrev, type, read, write);
+                    } catch (ClassNotFoundException e) {
+                        return null;
+                    } catch (NoSuchMethodException e) {
+                        return null;
+                    }
+                case 'Z':
+                case 'B':
+                case 'C':
+                case 'S':
+                case 'I':
+                case 'J':
+                case 'F':
+                case 'D':
+                case 'G':
+                case 'M':
+                case 'A':
+                case 'E':
+                case 'X':
+                case 'O':
+                    return new Marshaller(abbrev, type, null, null);
+                default:
+                    return null;
+            }
+        }
+
+        boolean isPrimitive() {
+            switch (abbrev) {
+                case 'Z':
+                case 'B':
+                case 'C':
+                case 'S':
+                case 'I':
+                case 'J':
+                case 'F':
+                case 'D':
+                    return true;
+                default:
+                    return false;
+            }
+        }
+
+        /**
+         * Reads the value from the input stream on top of the operand stack, and replaces the stream by
+         * the value as an object.
+         */
+        void read(final CodeAttribute ca) {
+            switch (abbrev) {
+                case 'Z':
+                    readPrimitive(ca, "read_boolean", "Z");
+                    break;
+                case 'B':
+                    readPrimitive(ca, "read_octet", "B");
+                    break;
+                case 'C':
+                    readPrimitive(ca, "read_wchar", "C");
+                    break;
+                case 'S':
+                    readPrimitive(ca, "read_short", "S");
+                    break;
+                case 'I':
+                    readPrimitive(ca, "read_long", "I");
+                    break;
+                case 'J':
+                    readPrimitive(ca, "read_longlong", "J");
+                    break;
+                case 'F':
+                    readPrimitive(ca, "read_float", "F");
+                    break;
+                case 'D':
+                    readPrimitive(ca, "read_double", "D");
+                    break;
+                case 'G':
+                    ca.loadClass(String.class.getName());
+                    ca.invokevirtual(INPUT_STREAM, "read_value", "(Ljava/lang/Class;)Ljava/io/Serializable;");
+                    break;
+                case 'L':
+                    ca.loadClass(type.getName());
+                    ca.invokevirtual(INPUT_STREAM, "read_value", "(Ljava/lang/Class;)Ljava/io/Serializable;");
+                    break;
+                case 'M':
+                    ca.invokevirtual(INPUT_STREAM, "read_Object", "()Lorg/omg/CORBA/Object;");
+                    break;
+                case 'R':
+                    // narrow() downloads the stub from the codebase embedded within the IOR
+                    ca.invokevirtual(INPUT_STREAM, "read_Object", "()Lorg/omg/CORBA/Object;");
+                    ca.loadClass(type.getName());
+                    ca.invokestatic(PortableRemoteObject.class.getName(), "narrow", "(Ljava/lang/Object;Ljava/lang/Class;)Ljava/lang/Object;");
+                    break;
+                case 'N':
+                    ca.invokestatic(helperRead.getDeclaringClass().getName(), "read",
+                            "(Lorg/omg/CORBA/portable/InputStream;)" + DescriptorUtils.makeDescriptor(helperRead.getReturnType()));
+                    break;
+                case 'A':
+                    ca.invokevirtual(INPUT_STREAM, "read_abstract_interface", "()Ljava/lang/Object;");
+                    break;
+                default:
+                    // 'E', 'X' and 'O'
+                    ca.invokestatic(Util.class.getName(), "readAny", "(Lorg/omg/CORBA/portable/InputStream;)Ljava/lang/Object;");
+            }
+        }
+
+        /**
+         * Writes the object on top of the operand stack to the output stream below it, consuming both.
+         */
+        void write(final CodeAttribute ca) {
+            switch (abbrev) {
+                case 'Z':
+                    writePrimitive(ca, Boolean.class, "booleanValue", "write_boolean", "Z");
+                    break;
+                case 'B':
+                    writePrimitive(ca, Byte.class, "byteValue", "write_octet", "B");
+                    break;
+                case 'C':
+                    writePrimitive(ca, Character.class, "charValue", "write_wchar", "C");
+                    break;
+                case 'S':
+                    writePrimitive(ca, Short.class, "shortValue", "write_short", "S");
+                    break;
+                case 'I':
+                    writePrimitive(ca, Integer.class, "intValue", "write_long", "I");
+                    break;
+                case 'J':
+                    writePrimitive(ca, Long.class, "longValue", "write_longlong", "J");
+                    break;
+                case 'F':
+                    writePrimitive(ca, Float.class, "floatValue", "write_float", "F");
+                    break;
+                case 'D':
+                    writePrimitive(ca, Double.class, "doubleValue", "write_double", "D");
+                    break;
+                case 'G':
+                    ca.checkcast(String.class);
+                    ca.loadClass(String.class.getName());
+                    ca.invokevirtual(OUTPUT_STREAM, "write_value", "(Ljava/io/Serializable;Ljava/lang/Class;)V");
+                    break;
+                case 'L':
+                    ca.checkcast(Serializable.class);
+                    ca.loadClass(type.getName());
+                    ca.invokevirtual(OUTPUT_STREAM, "write_value", "(Ljava/io/Serializable;Ljava/lang/Class;)V");
+                    break;
+                case 'M':
+                case 'R':
+                    ca.checkcast(org.omg.CORBA.Object.class);
+                    ca.invokevirtual(OUTPUT_STREAM, "write_Object", "(Lorg/omg/CORBA/Object;)V");
+                    break;
+                case 'N':
+                    ca.checkcast(type);
+                    ca.invokestatic(helperWrite.getDeclaringClass().getName(), "write",
+                            "(Lorg/omg/CORBA/portable/OutputStream;" + DescriptorUtils.makeDescriptor(type) + ")V");
+                    break;
+                case 'A':
+                    ca.invokevirtual(OUTPUT_STREAM, "write_abstract_interface", "(Ljava/lang/Object;)V");
+                    break;
+                case 'E':
+                    ca.checkcast(Serializable.class);
+                    ca.invokestatic(Util.class.getName(), "writeAny", "(Lorg/omg/CORBA/portable/OutputStream;Ljava/lang/Object;)V");
+                    break;
+                case 'X':
+                    ca.checkcast(Externalizable.class);
+                    ca.invokestatic(Util.class.getName(), "writeAny", "(Lorg/omg/CORBA/portable/OutputStream;Ljava/lang/Object;)V");
+                    break;
+                default:
+                    // 'O'
+                    ca.invokestatic(Util.class.getName(), "writeAny", "(Lorg/omg/CORBA/portable/OutputStream;Ljava/lang/Object;)V");
+            }
+        }
+
+        private static void readPrimitive(final CodeAttribute ca, final String method, final String descriptor) {
+            ca.invokevirtual(INPUT_STREAM, method, "()" + descriptor);
+            Boxing.boxIfNessesary(ca, descriptor);
+        }
+
+        private static void writePrimitive(final CodeAttribute ca, final Class<?> wrapper, final String unbox, final String method,
+                                           final String descriptor) {
+            ca.checkcast(wrapper);
+            ca.invokevirtual(wrapper.getName(), unbox, "()" + descriptor);
+            ca.invokevirtual(OUTPUT_STREAM, method, "(" + descriptor + ")V");
+        }
+    }
+}
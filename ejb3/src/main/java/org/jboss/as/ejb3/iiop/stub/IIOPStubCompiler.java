@@ -225,11 +225,11 @@ public class IIOPStubCompiler {
             init.ldc(CDRStream.abbrevFor(returnType));
 
             // Push fifth argument for StubStrategy constructor:
-            // null (no ClassLoader specified)
-            init.aconstNull();
+            // this stub class, whose class loader the strategy is defined in
+            init.loadClass(asm.getName());
 
             // Constructs the StubStrategy
-            init.invokestatic(StubStrategy.class.getName(), "forMethod", "([Ljava/lang/String;[Ljava/lang/String;[Ljava/lang/String;Ljava/lang/String;Ljava/lang/ClassLoader;)Lorg/jboss/as/jacorb/rmi/marshal/strategy/StubStrategy;");
+            init.invokestatic(IIOPStrategyCompiler.class.getName(), "stubStrategyFor", "([Ljava/lang/String;[Ljava/lang/String;[Ljava/lang/String;Ljava/lang/String;Ljava/lang/Class;)Lorg/jboss/as/jacorb/rmi/marshal/strategy/StubStrategy;");
 
             // Set the strategy field of this stub class
             init.putstatic(asm.getName(), strategyField, StubStrategy.class);
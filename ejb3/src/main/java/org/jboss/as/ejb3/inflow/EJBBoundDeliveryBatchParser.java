@@ -0,0 +1,87 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2012, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.jboss.as.ejb3.inflow;
+
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+
+import org.jboss.metadata.ejb.parser.jboss.ejb3.AbstractEJBBoundMetaDataParser;
+
+import static org.jboss.as.ejb3.EjbMessages.MESSAGES;
+
+/**
+ * Parser for <code>urn:delivery-batch</code> namespace. The <code>urn:delivery-batch</code> namespace elements
+ * can be used to let MDBs consume several messages in a single transaction. The <code>batch-size</code> is the
+ * maximum number of messages per transaction, and the <code>batch-window</code> the maximum time, in milliseconds,
+ * a transaction is kept open waiting for more messages.
+ */
+public class EJBBoundDeliveryBatchParser extends AbstractEJBBoundMetaDataParser<EJBBoundDeliveryBatchMetaData> {
+
+    public static final String NAMESPACE_URI = "urn:delivery-batch:1.0";
+
+    private static final String ROOT_ELEMENT_DELIVERY_BATCH = "delivery-batch";
+    private static final String ELEMENT_BATCH_SIZE = "batch-size";
+    private static final String ELEMENT_BATCH_WINDOW = "batch-window";
+
+    @Override
+    public EJBBoundDeliveryBatchMetaData parse(final XMLStreamReader reader) throws XMLStreamException {
+        final String element = reader.getLocalName();
+        // we only parse <delivery-batch> (root) element
+        if (!ROOT_ELEMENT_DELIVERY_BATCH.equals(element)) {
+            throw unexpectedElement(reader);
+        }
+        final EJBBoundDeliveryBatchMetaData batchMetaData = new EJBBoundDeliveryBatchMetaData();
+        this.processElements(batchMetaData, reader);
+        return batchMetaData;
+    }
+
+    @Override
+    protected void processElement(final EJBBoundDeliveryBatchMetaData batchMetaData, final XMLStreamReader reader) throws XMLStreamException {
+        final String namespaceURI = reader.getNamespaceURI();
+        final String elementName = reader.getLocalName();
+        // if it doesn't belong to our namespace then let the super handle this
+        if (!NAMESPACE_URI.equals(namespaceURI)) {
+            super.processElement(batchMetaData, reader);
+            return;
+        }
+        if (ELEMENT_BATCH_SIZE.equals(elementName)) {
+            batchMetaData.setBatchSize((int) parsePositive(reader, elementName));
+        } else if (ELEMENT_BATCH_WINDOW.equals(elementName)) {
+            batchMetaData.setBatchWindow(parsePositive(reader, elementName));
+        } else {
+            throw unexpectedElement(reader);
+        }
+    }
+
+    private long parsePositive(final XMLStreamReader reader, final String elementName) throws XMLStreamException {
+        final String value = getElementText(reader);
+        try {
+            final long result = Long.parseLong(value.trim());
+            if (result > 0 && result <= Integer.MAX_VALUE) {
+                return result;
+            }
+        } catch (NumberFormatException e) {
+            // fall through
+        }
+        throw MESSAGES.invalidDeliveryBatchValue(value, elementName, reader.getLocation());
+    }
+}
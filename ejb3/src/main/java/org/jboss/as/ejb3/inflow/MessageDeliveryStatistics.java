@@ -0,0 +1,88 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2012, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.jboss.as.ejb3.inflow;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Counts the message deliveries to an endpoint, and the transactions they were committed or rolled back in.
+ */
+public class MessageDeliveryStatistics {
+    private final AtomicLong deliveries = new AtomicLong();
+    private final AtomicLong deliveryTime = new AtomicLong();
+    private final AtomicLong commits = new AtomicLong();
+    private final AtomicLong rollbacks = new AtomicLong();
+
+    /**
+     * Records a delivery.
+     *
+     * @param nanos the time from before to after the delivery, in nanoseconds
+     */
+    public void delivered(long nanos) {
+        this.deliveries.incrementAndGet();
+        this.deliveryTime.addAndGet(nanos);
+    }
+
+    /**
+     * Records the commit of a transaction covering one or more deliveries.
+     */
+    public void committed() {
+        this.commits.incrementAndGet();
+    }
+
+    /**
+     * Records the rollback of a transaction covering one or more deliveries.
+     */
+    public void rolledBack() {
+        this.rollbacks.incrementAndGet();
+    }
+
+    /**
+     * @return the number of deliveries
+     */
+    public long getDeliveryCount() {
+        return this.deliveries.get();
+    }
+
+    /**
+     * @return the average time of a delivery, in microseconds
+     */
+    public long getAverageDeliveryTime() {
+        final long count = this.deliveries.get();
+        return (count > 0) ? TimeUnit.NANOSECONDS.toMicros(this.deliveryTime.get() / count) : 0;
+    }
+
+    /**
+     * @return the number of committed delivery transactions
+     */
+    public long getCommitCount() {
+        return this.commits.get();
+    }
+
+    /**
+     * @return the number of rolled back delivery transactions
+     */
+    public long getRollbackCount() {
+        return this.rollbacks.get();
+    }
+}
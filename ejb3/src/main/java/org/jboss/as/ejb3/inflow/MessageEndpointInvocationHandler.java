@@ -37,12 +37,23 @@ import javax.transaction.TransactionManager;
 import javax.transaction.xa.XAResource;
 import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
 
 import static java.security.AccessController.doPrivileged;
+import static org.jboss.as.ejb3.EjbLogger.ROOT_LOGGER;
 import static org.jboss.as.ejb3.inflow.ContextClassLoaderActions.contextClassLoader;
 
 /**
+ * If the service has a delivery batch size greater than 1 and the resource adapter passed an {@link XAResource},
+ * transacted deliveries are batched: the transaction begun for the first delivery is suspended instead of committed
+ * after the delivery, and resumed for the following ones, until the batch size is reached or the batch window has
+ * elapsed. The message acknowledgements are part of that transaction, so a rollback makes the resource adapter
+ * redeliver every message of the batch. A batch which stops receiving deliveries is completed by the service's
+ * executor once its window has elapsed, or when the endpoint is released.
+ *
  * @author <a href="mailto:cdewolf@redhat.com">Carlo de Wolf</a>
  */
 public class MessageEndpointInvocationHandler extends AbstractInvocationHandler implements MessageEndpoint {
@@ -50,8 +61,18 @@ public class MessageEndpointInvocationHandler extends AbstractInvocationHandler
     private final Object delegate;
     private final XAResource xaRes;
     private final AtomicBoolean released = new AtomicBoolean(false);
+    private final int batchSize;
+    private final long batchWindow;
+    private final MessageDeliveryStatistics statistics;
 
+    // the fields below are guarded by this
     private Transaction currentTx;
+    private int batchCount;
+    private long batchDeadline;
+    private ScheduledFuture<?> batchCompletion;
+    private boolean delivering;
+    private long deliveryStart;
+
     private ClassLoader previousClassLoader;
     private Transaction previousTx;
 
@@ -59,18 +80,35 @@ public class MessageEndpointInvocationHandler extends AbstractInvocationHandler
         this.service = service;
         this.delegate = delegate;
         this.xaRes = xaResource;
+        // without an XAResource the message acknowledgements are not part of the transaction
+        this.batchSize = xaResource != null && service.getDeliveryBatchExecutor() != null ? Math.max(1, service.getDeliveryBatchSize()) : 1;
+        this.batchWindow = TimeUnit.MILLISECONDS.toNanos(service.getDeliveryBatchWindow());
+        this.statistics = service.getDeliveryStatistics();
     }
 
     @Override
     public void afterDelivery() throws ResourceException {
         final TransactionManager tm = getTransactionManager();
         try {
-            if (currentTx != null) {
-                if (currentTx.getStatus() == Status.STATUS_MARKED_ROLLBACK)
-                    tm.rollback();
-                else
-                    tm.commit();
-                currentTx = null;
+            synchronized (this) {
+                statistics.delivered(System.nanoTime() - deliveryStart);
+                delivering = false;
+                if (currentTx != null) {
+                    tm.suspend();
+                    batchCount++;
+                    final ScheduledExecutorService executor = service.getDeliveryBatchExecutor();
+                    if (batchCount >= batchSize || executor == null || currentTx.getStatus() == Status.STATUS_MARKED_ROLLBACK
+                            || System.nanoTime() - batchDeadline >= 0) {
+                        completeBatch();
+                    } else if (batchCompletion == null) {
+                        batchCompletion = executor.schedule(new Runnable() {
+                            @Override
+                            public void run() {
+                                completeIdleBatch();
+                            }
+                        }, batchDeadline - System.nanoTime(), TimeUnit.NANOSECONDS);
+                    }
+                }
             }
             if (previousTx != null) {
                 tm.resume(previousTx);
@@ -103,11 +141,29 @@ public class MessageEndpointInvocationHandler extends AbstractInvocationHandler
             // TODO: in violation of JCA 1.6 FR 13.5.9?
             previousTx = tm.suspend();
             boolean isTransacted = service.isDeliveryTransacted(method);
-            if (isTransacted) {
-                tm.begin();
-                currentTx = tm.getTransaction();
-                if (xaRes != null)
-                    currentTx.enlistResource(xaRes);
+            synchronized (this) {
+                if (currentTx != null && (!isTransacted || currentTx.getStatus() != Status.STATUS_ACTIVE)) {
+                    // a non transacted delivery, or the batch transaction timed out
+                    try {
+                        completeBatch();
+                    } catch (RollbackException e) {
+                        // the resource adapter redelivers the messages of the rolled back batch
+                        ROOT_LOGGER.failToCompleteDeliveryBatch(this, e);
+                    }
+                }
+                if (currentTx != null) {
+                    // continue the batch, the XAResource is already enlisted
+                    tm.resume(currentTx);
+                } else if (isTransacted) {
+                    tm.begin();
+                    currentTx = tm.getTransaction();
+                    batchCount = 0;
+                    batchDeadline = System.nanoTime() + batchWindow;
+                    if (xaRes != null)
+                        currentTx.enlistResource(xaRes);
+                }
+                delivering = true;
+                deliveryStart = System.nanoTime();
             }
         }
         catch(Throwable t) {
@@ -164,6 +220,58 @@ public class MessageEndpointInvocationHandler extends AbstractInvocationHandler
 
         // TODO: tidy up outstanding delivery
 
+        synchronized (this) {
+            if (currentTx != null && !delivering) {
+                try {
+                    completeBatch();
+                } catch (Exception e) {
+                    ROOT_LOGGER.failToCompleteDeliveryBatch(this, e);
+                }
+            }
+        }
+
         service.release(delegate);
     }
+
+    /**
+     * Completes a batch whose window elapsed while no delivery was in progress. If a delivery is in progress, its
+     * {@link #afterDelivery()} completes the batch instead.
+     */
+    private synchronized void completeIdleBatch() {
+        batchCompletion = null;
+        if (currentTx == null || delivering) {
+            return;
+        }
+        try {
+            completeBatch();
+        } catch (Exception e) {
+            ROOT_LOGGER.failToCompleteDeliveryBatch(this, e);
+        }
+    }
+
+    /**
+     * Commits or rolls back the current transaction. Must be called with the monitor of this handler held, and
+     * with the transaction not associated to the calling thread.
+     */
+    private void completeBatch() throws SystemException, HeuristicMixedException, HeuristicRollbackException, RollbackException {
+        final Transaction tx = currentTx;
+        currentTx = null;
+        batchCount = 0;
+        if (batchCompletion != null) {
+            batchCompletion.cancel(false);
+            batchCompletion = null;
+        }
+        if (tx.getStatus() == Status.STATUS_MARKED_ROLLBACK) {
+            tx.rollback();
+            statistics.rolledBack();
+        } else {
+            try {
+                tx.commit();
+            } catch (RollbackException e) {
+                statistics.rolledBack();
+                throw e;
+            }
+            statistics.committed();
+        }
+    }
 }
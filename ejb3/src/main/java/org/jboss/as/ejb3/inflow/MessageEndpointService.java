@@ -23,6 +23,7 @@ package org.jboss.as.ejb3.inflow;
 
 import javax.transaction.TransactionManager;
 import java.lang.reflect.Method;
+import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.TimeUnit;
 
 /**
@@ -47,4 +48,27 @@ public interface MessageEndpointService<T> {
      * @return
      */
     ClassLoader getClassLoader();
+
+    /**
+     * Returns the maximum number of transacted deliveries which are committed in a single transaction.
+     *
+     * @return the batch size, 1 if deliveries are not batched
+     */
+    int getDeliveryBatchSize();
+
+    /**
+     * Returns the maximum time a batch transaction is kept open waiting for more deliveries.
+     *
+     * @return the batch window, in milliseconds
+     */
+    long getDeliveryBatchWindow();
+
+    /**
+     * Returns the executor which completes batch transactions whose window elapsed without further deliveries.
+     *
+     * @return the executor, or <code>null</code> if deliveries are not batched
+     */
+    ScheduledExecutorService getDeliveryBatchExecutor();
+
+    MessageDeliveryStatistics getDeliveryStatistics();
 }
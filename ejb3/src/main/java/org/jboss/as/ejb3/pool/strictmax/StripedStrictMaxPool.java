@@ -0,0 +1,256 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2012, Red Hat Middleware LLC, and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.jboss.as.ejb3.pool.strictmax;
+
+import static org.jboss.as.ejb3.EjbLogger.ROOT_LOGGER;
+import static org.jboss.as.ejb3.EjbMessages.MESSAGES;
+
+import org.jboss.as.ejb3.pool.AbstractPool;
+import org.jboss.as.ejb3.pool.StatelessObjectFactory;
+
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * A pool with a maximum size which keeps its idle instances in per-CPU stripes instead of a single
+ * synchronized list.
+ * <p/>
+ * Every thread has a home stripe (derived from its thread id) which it checks first, both when taking
+ * and when returning an instance. If the home stripe is empty the remaining stripes are scanned, so an
+ * idle instance released by another thread is still found ("stolen"). Slots are claimed with a single
+ * CAS, so neither {@link #get()} nor {@link #release(Object)} take a monitor or allocate in the steady
+ * state.
+ * <p/>
+ * The number of active instances is bounded by a non-fair {@link Semaphore}: a caller first tries to
+ * barge a permit, and only falls back to waiting (up to the configured timeout) when none is available.
+ */
+public class StripedStrictMaxPool<T> extends AbstractPool<T> {
+
+    /**
+     * Upper bound on the number of stripes, independent of the number of CPUs
+     */
+    private static final int MAX_STRIPES = 64;
+
+    /**
+     * A non-fair semaphore which bounds the number of active instances to maxSize.
+     */
+    private final Semaphore semaphore;
+    /**
+     * The maximum number of instances allowed in the pool
+     */
+    private final int maxSize;
+    /**
+     * The time to wait for the semaphore.
+     */
+    private final long timeout;
+    private final TimeUnit timeUnit;
+    /**
+     * The idle instances. Stripe <code>s</code> occupies the slots
+     * <code>[s * stripeSize, (s + 1) * stripeSize)</code>; a <code>null</code> slot is free.
+     */
+    private final AtomicReferenceArray<T> slots;
+    private final int stripeMask;
+    private final int stripeSize;
+
+    public StripedStrictMaxPool(StatelessObjectFactory<T> factory, int maxSize, long timeout, TimeUnit timeUnit) {
+        this(factory, maxSize, timeout, timeUnit, Runtime.getRuntime().availableProcessors());
+    }
+
+    StripedStrictMaxPool(StatelessObjectFactory<T> factory, int maxSize, long timeout, TimeUnit timeUnit, int concurrency) {
+        super(factory);
+        this.maxSize = maxSize;
+        this.semaphore = new Semaphore(maxSize, false);
+        this.timeout = timeout;
+        this.timeUnit = timeUnit;
+        // never create more stripes than there are instances to put in them
+        final int stripes = floorPowerOfTwo(Math.max(1, Math.min(Math.min(concurrency, maxSize), MAX_STRIPES)));
+        this.stripeMask = stripes - 1;
+        // round up, so that all stripes together can always hold maxSize idle instances
+        this.stripeSize = (maxSize + stripes - 1) / stripes;
+        this.slots = new AtomicReferenceArray<T>(stripes * stripeSize);
+    }
+
+    public void discard(T ctx) {
+        if (ROOT_LOGGER.isTraceEnabled()) {
+            ROOT_LOGGER.tracef("Discard instance %s#%s", this, ctx);
+        }
+
+        semaphore.release();
+
+        // Let the super do any other remove stuff
+        super.doRemove(ctx);
+    }
+
+    public int getCurrentSize() {
+        return getCreateCount() - getRemoveCount();
+    }
+
+    public int getAvailableCount() {
+        return semaphore.availablePermits();
+    }
+
+    public int getMaxSize() {
+        return maxSize;
+    }
+
+    public void setMaxSize(int maxSize) {
+        throw MESSAGES.methodNotImplemented();
+    }
+
+    /**
+     * Get an instance without identity.
+     * Can be used by finders,create-methods, and activation
+     *
+     * @return Context /w instance
+     */
+    public T get() {
+        // barge first, only queue up on the semaphore if the pool is exhausted
+        if (!semaphore.tryAcquire()) {
+            try {
+                boolean acquired = semaphore.tryAcquire(timeout, timeUnit);
+                if (!acquired)
+                    throw MESSAGES.failedToAcquirePermit(timeout, timeUnit);
+            } catch (InterruptedException e) {
+                throw MESSAGES.acquireSemaphoreInterrupted();
+            }
+        }
+
+        final T pooled = take();
+        if (pooled != null) {
+            return pooled;
+        }
+
+        T bean = null;
+        try {
+            // Pool is empty, create an instance
+            bean = create();
+        } finally {
+            if (bean == null) {
+                semaphore.release();
+            }
+        }
+        return bean;
+    }
+
+    /**
+     * Return an instance after invocation.
+     * <p/>
+     * Called in 2 cases:
+     * a) Done with finder method
+     * b) Just removed
+     *
+     * @param obj
+     */
+    public void release(T obj) {
+        if (ROOT_LOGGER.isTraceEnabled()) {
+            ROOT_LOGGER.tracef("%s/%s Free instance: %s", maxSize - semaphore.availablePermits(), maxSize, this);
+        }
+
+        if (!offer(obj)) {
+            destroy(obj);
+        }
+        semaphore.release();
+    }
+
+    @Override
+    @Deprecated
+    public void remove(T ctx) {
+        if (ROOT_LOGGER.isTraceEnabled()) {
+            ROOT_LOGGER.tracef("Removing instance: %s#%s", this, ctx);
+        }
+
+        semaphore.release();
+        // let the super do the other remove stuff
+        super.doRemove(ctx);
+    }
+
+    public void start() {
+    }
+
+    public void stop() {
+        for (int i = 0; i < slots.length(); i++) {
+            final T obj = slots.getAndSet(i, null);
+            if (obj != null) {
+                destroy(obj);
+            }
+        }
+    }
+
+    /**
+     * Removes an idle instance, scanning the home stripe of the calling thread first and then
+     * stealing from the others.
+     *
+     * @return an idle instance, or <code>null</code> if there is none
+     */
+    private T take() {
+        final int length = slots.length();
+        final int start = homeSlot();
+        for (int i = 0; i < length; i++) {
+            int index = start + i;
+            if (index >= length) {
+                index -= length;
+            }
+            if (slots.get(index) != null) {
+                final T obj = slots.getAndSet(index, null);
+                if (obj != null) {
+                    return obj;
+                }
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Stores an idle instance in the first free slot, starting with the home stripe of the calling thread.
+     *
+     * @return <code>false</code> if every slot is occupied
+     */
+    private boolean offer(T obj) {
+        final int length = slots.length();
+        final int start = homeSlot();
+        for (int i = 0; i < length; i++) {
+            int index = start + i;
+            if (index >= length) {
+                index -= length;
+            }
+            if (slots.get(index) == null && slots.compareAndSet(index, null, obj)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private int homeSlot() {
+        // spread the thread id so that sequentially numbered threads land on different stripes
+        long id = Thread.currentThread().getId();
+        int h = (int) (id ^ (id >>> 32));
+        h ^= (h >>> 16);
+        h *= 0x85ebca6b;
+        h ^= (h >>> 13);
+        return (h & stripeMask) * stripeSize;
+    }
+
+    private static int floorPowerOfTwo(int value) {
+        return Integer.highestOneBit(value);
+    }
+}
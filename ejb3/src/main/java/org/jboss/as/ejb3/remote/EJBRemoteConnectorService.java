@@ -60,7 +60,11 @@ import java.io.DataInputStream;
 import java.io.DataOutputStream;
 import java.io.IOException;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.ExecutorService;
 
 /**
@@ -87,6 +91,8 @@ public class EJBRemoteConnectorService implements Service<EJBRemoteConnectorServ
     private volatile InjectedSocketBindingStreamServerService remotingServer;
     private final byte serverProtocolVersion;
     private final String[] supportedMarshallingStrategies;
+    private final RemoteInvocationStatistics invocationStatistics = new RemoteInvocationStatistics();
+    private final ConcurrentMap<Channel, RemoteInvocationStatistics> channelInvocationStatistics = new ConcurrentHashMap<Channel, RemoteInvocationStatistics>();
 
     public EJBRemoteConnectorService(final byte serverProtocolVersion, final String[] supportedMarshallingStrategies, final ServiceName remotingConnectorServiceName) {
         this.serverProtocolVersion = serverProtocolVersion;
@@ -250,9 +256,10 @@ public class EJBRemoteConnectorService implements Service<EJBRemoteConnectorServ
                         // times
                         //EJBRemoteConnectorService.this.populateClientMappingsCache(serviceContainer);
                         // the registry will be available when the clustering subsystem is present, so get the value optionally
+                        final RemoteInvocationStatistics statistics = EJBRemoteConnectorService.this.registerChannel(channel);
                         final VersionOneProtocolChannelReceiver receiver = new VersionOneProtocolChannelReceiver(channel, deploymentRepository,
                                 EJBRemoteConnectorService.this.ejbRemoteTransactionsRepositoryInjectedValue.getValue(), clientMappingRegistryCollector,
-                                marshallerFactory, executorService.getValue());
+                                marshallerFactory, executorService.getValue(), statistics);
                         // trigger the receiving
                         receiver.startReceiving();
                         break;
@@ -293,6 +300,32 @@ public class EJBRemoteConnectorService implements Service<EJBRemoteConnectorServ
         return this.serverEnvironment;
     }
 
+    /**
+     * Returns the statistics of the invocations received over all channels, including those already closed.
+     */
+    public RemoteInvocationStatistics getInvocationStatistics() {
+        return this.invocationStatistics;
+    }
+
+    /**
+     * Returns the invocation statistics of each open channel.
+     */
+    public Map<Channel, RemoteInvocationStatistics> getChannelInvocationStatistics() {
+        return Collections.unmodifiableMap(this.channelInvocationStatistics);
+    }
+
+    private RemoteInvocationStatistics registerChannel(final Channel channel) {
+        final RemoteInvocationStatistics statistics = new RemoteInvocationStatistics(this.invocationStatistics);
+        this.channelInvocationStatistics.put(channel, statistics);
+        channel.addCloseHandler(new CloseHandler<Channel>() {
+            @Override
+            public void handleClose(Channel closed, IOException exception) {
+                EJBRemoteConnectorService.this.channelInvocationStatistics.remove(closed);
+            }
+        });
+        return statistics;
+    }
+
     private boolean isSupportedMarshallingStrategy(final String strategy) {
         return Arrays.asList(this.supportedMarshallingStrategies).contains(strategy);
     }
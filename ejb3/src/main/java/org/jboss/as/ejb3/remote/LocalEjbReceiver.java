@@ -279,7 +279,7 @@ public class LocalEjbReceiver extends EJBReceiver implements Service<LocalEjbRec
     }
 
     private EjbDeploymentInformation findBean(final String appName, final String moduleName, final String distinctName, final String beanName) {
-        final ModuleDeployment module = deploymentRepository.getValue().getModules().get(new DeploymentModuleIdentifier(appName, moduleName, distinctName));
+        final ModuleDeployment module = deploymentRepository.getValue().getModule(new DeploymentModuleIdentifier(appName, moduleName, distinctName));
         if (module == null) {
             throw new IllegalArgumentException("Could not find module app: " + appName + " module: " + moduleName + " distinct name:" + distinctName);
         }
@@ -0,0 +1,114 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2012, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.jboss.as.ejb3.remote;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Counts the EJB invocations received over the remoting channels. One instance is kept per channel, which also
+ * contributes to the totals of a parent instance shared by all channels.
+ * <p/>
+ * The latency of an invocation is measured from the time its request was received until its response was written,
+ * so it includes the time the invocation waited for a thread.
+ */
+public class RemoteInvocationStatistics {
+    private final RemoteInvocationStatistics parent;
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final AtomicLong invocationCount = new AtomicLong();
+    private final AtomicLong totalTime = new AtomicLong();
+    private final AtomicLong maxTime = new AtomicLong();
+
+    public RemoteInvocationStatistics() {
+        this(null);
+    }
+
+    public RemoteInvocationStatistics(final RemoteInvocationStatistics parent) {
+        this.parent = parent;
+    }
+
+    /**
+     * Records the receipt of an invocation request.
+     *
+     * @return the start time to pass to {@link #invocationFinished(long)}
+     */
+    public long invocationStarted() {
+        this.inFlight.incrementAndGet();
+        if (this.parent != null) {
+            this.parent.inFlight.incrementAndGet();
+        }
+        return System.nanoTime();
+    }
+
+    /**
+     * Records the completion of an invocation, successful or not.
+     *
+     * @param start the value returned by {@link #invocationStarted()}
+     */
+    public void invocationFinished(final long start) {
+        final long elapsed = System.nanoTime() - start;
+        this.record(elapsed);
+        if (this.parent != null) {
+            this.parent.record(elapsed);
+        }
+    }
+
+    private void record(final long elapsed) {
+        this.inFlight.decrementAndGet();
+        this.invocationCount.incrementAndGet();
+        this.totalTime.addAndGet(elapsed);
+        long max = this.maxTime.get();
+        while (elapsed > max && !this.maxTime.compareAndSet(max, elapsed)) {
+            max = this.maxTime.get();
+        }
+    }
+
+    /**
+     * @return the number of invocations which were received, but whose response was not yet written
+     */
+    public int getInFlightCount() {
+        return this.inFlight.get();
+    }
+
+    /**
+     * @return the number of completed invocations
+     */
+    public long getInvocationCount() {
+        return this.invocationCount.get();
+    }
+
+    /**
+     * @return the average latency of the completed invocations, in microseconds
+     */
+    public long getAverageInvocationTime() {
+        final long count = this.invocationCount.get();
+        return (count > 0) ? TimeUnit.NANOSECONDS.toMicros(this.totalTime.get() / count) : 0;
+    }
+
+    /**
+     * @return the largest latency of a completed invocation, in microseconds
+     */
+    public long getMaxInvocationTime() {
+        return TimeUnit.NANOSECONDS.toMicros(this.maxTime.get());
+    }
+}
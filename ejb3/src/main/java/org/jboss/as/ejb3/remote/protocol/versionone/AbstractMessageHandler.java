@@ -58,6 +58,15 @@ abstract class AbstractMessageHandler implements MessageHandler {
     protected static final byte HEADER_SESSION_NOT_ACTIVE_FAILURE = 0x0C;
     private static final byte HEADER_INVOCATION_EXCEPTION = 0x06;
 
+    // the configuration is never modified, so it can be shared by all marshallers
+    private static final MarshallingConfiguration MARSHALLING_CONFIGURATION = new MarshallingConfiguration();
+
+    static {
+        MARSHALLING_CONFIGURATION.setClassTable(ProtocolV1ClassTable.INSTANCE);
+        MARSHALLING_CONFIGURATION.setObjectTable(ProtocolV1ObjectTable.INSTANCE);
+        MARSHALLING_CONFIGURATION.setVersion(2);
+    }
+
 
     protected Map<String, Object> readAttachments(final ObjectInput input) throws IOException, ClassNotFoundException {
         final int numAttachments = input.readByte();
@@ -181,7 +190,8 @@ abstract class AbstractMessageHandler implements MessageHandler {
      */
     protected org.jboss.marshalling.Marshaller prepareForMarshalling(final org.jboss.marshalling.MarshallerFactory marshallerFactory, final DataOutput dataOutput) throws IOException {
         final org.jboss.marshalling.Marshaller marshaller = this.getMarshaller(marshallerFactory);
-        final OutputStream outputStream = new OutputStream() {
+        // write blocks straight to the message stream, if possible, instead of one byte at a time
+        final OutputStream outputStream = (dataOutput instanceof OutputStream) ? (OutputStream) dataOutput : new OutputStream() {
             @Override
             public void write(int b) throws IOException {
                 final int byteToWrite = b & 0xff;
@@ -203,12 +213,7 @@ abstract class AbstractMessageHandler implements MessageHandler {
      * @throws IOException
      */
     private org.jboss.marshalling.Marshaller getMarshaller(final org.jboss.marshalling.MarshallerFactory marshallerFactory) throws IOException {
-        final MarshallingConfiguration marshallingConfiguration = new MarshallingConfiguration();
-        marshallingConfiguration.setClassTable(ProtocolV1ClassTable.INSTANCE);
-        marshallingConfiguration.setObjectTable(ProtocolV1ObjectTable.INSTANCE);
-        marshallingConfiguration.setVersion(2);
-
-        return marshallerFactory.createMarshaller(marshallingConfiguration);
+        return marshallerFactory.createMarshaller(MARSHALLING_CONFIGURATION);
     }
 
     /**
@@ -223,7 +228,22 @@ abstract class AbstractMessageHandler implements MessageHandler {
      */
     protected Unmarshaller prepareForUnMarshalling(final MarshallerFactory marshallerFactory, final ClassResolver classResolver, final DataInput dataInput) throws IOException {
         final Unmarshaller unmarshaller = this.getUnMarshaller(marshallerFactory, classResolver);
-        final InputStream is = new InputStream() {
+        this.startUnMarshalling(unmarshaller, dataInput);
+
+        return unmarshaller;
+    }
+
+    /**
+     * Starts a new or a {@link Unmarshaller#finish() finished} {@link Unmarshaller}, to unmarshall from the passed
+     * {@link java.io.DataInput dataInput}.
+     *
+     * @param unmarshaller The unmarshaller
+     * @param dataInput    The data input from which to unmarshall
+     * @throws IOException
+     */
+    protected void startUnMarshalling(final Unmarshaller unmarshaller, final DataInput dataInput) throws IOException {
+        // read blocks straight from the message stream, if possible, instead of one byte at a time
+        final InputStream is = (dataInput instanceof InputStream) ? (InputStream) dataInput : new InputStream() {
             @Override
             public int read() throws IOException {
                 try {
@@ -238,8 +258,6 @@ abstract class AbstractMessageHandler implements MessageHandler {
         final ByteInput byteInput = Marshalling.createByteInput(is);
         // start the unmarshaller
         unmarshaller.start(byteInput);
-
-        return unmarshaller;
     }
 
     /**
@@ -249,7 +267,7 @@ abstract class AbstractMessageHandler implements MessageHandler {
      * @return
      * @throws IOException
      */
-    private Unmarshaller getUnMarshaller(final MarshallerFactory marshallerFactory, final ClassResolver classResolver) throws IOException {
+    protected Unmarshaller getUnMarshaller(final MarshallerFactory marshallerFactory, final ClassResolver classResolver) throws IOException {
         final MarshallingConfiguration marshallingConfiguration = new MarshallingConfiguration();
         marshallingConfiguration.setVersion(2);
         marshallingConfiguration.setClassTable(ProtocolV1ClassTable.INSTANCE);
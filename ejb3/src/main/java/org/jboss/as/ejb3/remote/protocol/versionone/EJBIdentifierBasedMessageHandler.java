@@ -40,7 +40,7 @@ abstract class EJBIdentifierBasedMessageHandler extends AbstractMessageHandler {
 
     protected EjbDeploymentInformation findEJB(final String appName, final String moduleName, final String distinctName, final String beanName) {
         final DeploymentModuleIdentifier ejbModule = new DeploymentModuleIdentifier(appName, moduleName, distinctName);
-        final ModuleDeployment moduleDeployment = this.deploymentRepository.getModules().get(ejbModule);
+        final ModuleDeployment moduleDeployment = this.deploymentRepository.getModule(ejbModule);
         if (moduleDeployment == null) {
             return null;
         }
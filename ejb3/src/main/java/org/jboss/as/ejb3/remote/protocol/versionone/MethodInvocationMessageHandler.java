@@ -32,6 +32,7 @@ import org.jboss.as.ejb3.component.session.SessionBeanComponent;
 import org.jboss.as.ejb3.component.stateful.StatefulSessionComponent;
 import org.jboss.as.ejb3.deployment.DeploymentRepository;
 import org.jboss.as.ejb3.deployment.EjbDeploymentInformation;
+import org.jboss.as.ejb3.remote.RemoteInvocationStatistics;
 import org.jboss.as.security.remoting.RemotingContext;
 import org.jboss.ejb.client.Affinity;
 import org.jboss.ejb.client.EJBClientInvocationContext;
@@ -56,6 +57,8 @@ import java.lang.reflect.Method;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.ExecutorService;
 
 
@@ -73,15 +76,48 @@ class MethodInvocationMessageHandler extends EJBIdentifierBasedMessageHandler {
 
     private final ExecutorService executorService;
     private final MarshallerFactory marshallerFactory;
+    private final RemoteInvocationStatistics statistics;
 
-    MethodInvocationMessageHandler(final DeploymentRepository deploymentRepository, final org.jboss.marshalling.MarshallerFactory marshallerFactory, final ExecutorService executorService) {
+    // The messages of a channel are processed one after the other, so the following are only used by one thread at a time.
+    // We use a mutable ClassResolver, so that we can switch to a different (and correct deployment CL)
+    // midway through the unmarshalling of the stream
+    private final ClassLoaderSwitchingClassResolver classResolver = new ClassLoaderSwitchingClassResolver(null);
+    private Unmarshaller unmarshaller;
+
+    // view methods, by view and by method name and signature, as sent by the client
+    private final ConcurrentMap<ComponentView, ConcurrentMap<String, Method>> viewMethods = new ConcurrentHashMap<ComponentView, ConcurrentMap<String, Method>>();
+
+    MethodInvocationMessageHandler(final DeploymentRepository deploymentRepository, final org.jboss.marshalling.MarshallerFactory marshallerFactory, final ExecutorService executorService,
+                                   final RemoteInvocationStatistics statistics) {
         super(deploymentRepository);
         this.marshallerFactory = marshallerFactory;
         this.executorService = executorService;
+        this.statistics = statistics;
+    }
+
+    /**
+     * Discards the cached view methods and classes, e.g. because a deployment was removed.
+     */
+    void clearCaches() {
+        this.viewMethods.clear();
+        this.classResolver.clearCache();
     }
 
     @Override
     public void processMessage(final Channel channel, final MessageInputStream messageInputStream) throws IOException {
+        final long start = this.statistics.invocationStarted();
+        boolean dispatched = false;
+        try {
+            dispatched = this.processMessage(channel, messageInputStream, start);
+        } finally {
+            if (!dispatched) {
+                // a failure was written (or the channel is broken), the invocation is complete
+                this.statistics.invocationFinished(start);
+            }
+        }
+    }
+
+    private boolean processMessage(final Channel channel, final MessageInputStream messageInputStream, final long start) throws IOException {
 
         final DataInputStream input = new DataInputStream(messageInputStream);
         // read the invocation id
@@ -90,19 +126,26 @@ class MethodInvocationMessageHandler extends EJBIdentifierBasedMessageHandler {
         // read the method name
         final String methodName = input.readUTF();
         // method signature
-        String[] methodParamTypes = null;
         final String signature = input.readUTF();
-        if (signature.isEmpty()) {
-            methodParamTypes = new String[0];
-        } else {
-            methodParamTypes = signature.split(String.valueOf(METHOD_PARAM_TYPE_SEPARATOR));
-        }
 
         // read the Locator
-        // we use a mutable ClassResolver, so that we can switch to a different (and correct deployment CL)
-        // midway through the unmarshalling of the stream
-        final ClassLoaderSwitchingClassResolver classResolver = new ClassLoaderSwitchingClassResolver(Thread.currentThread().getContextClassLoader());
-        final Unmarshaller unmarshaller = this.prepareForUnMarshalling(this.marshallerFactory, classResolver, input);
+        this.classResolver.switchClassLoader(Thread.currentThread().getContextClassLoader());
+        if (this.unmarshaller == null) {
+            this.unmarshaller = this.getUnMarshaller(this.marshallerFactory, this.classResolver);
+        }
+        final Unmarshaller unmarshaller = this.unmarshaller;
+        this.startUnMarshalling(unmarshaller, input);
+        try {
+            return this.processMessage(channel, unmarshaller, invocationId, methodName, signature, start);
+        } finally {
+            // done with unmarshalling; this also readies the unmarshaller for the next message
+            unmarshaller.finish();
+        }
+    }
+
+    private boolean processMessage(final Channel channel, final Unmarshaller unmarshaller, final short invocationId, final String methodName, final String signature,
+                                   final long start) throws IOException {
+        final ClassLoaderSwitchingClassResolver classResolver = this.classResolver;
         // read the EJB info
         final String appName;
         final String moduleName;
@@ -119,7 +162,7 @@ class MethodInvocationMessageHandler extends EJBIdentifierBasedMessageHandler {
         final EjbDeploymentInformation ejbDeploymentInformation = this.findEJB(appName, moduleName, distinctName, beanName);
         if (ejbDeploymentInformation == null) {
             this.writeNoSuchEJBFailureMessage(channel, invocationId, appName, moduleName, distinctName, beanName, null);
-            return;
+            return false;
         }
         final ClassLoader tccl = SecurityActions.getContextClassLoader();
         Runnable runnable = null;
@@ -140,26 +183,24 @@ class MethodInvocationMessageHandler extends EJBIdentifierBasedMessageHandler {
             // Make sure it's a remote view
             if (!ejbDeploymentInformation.isRemoteView(viewClassName)) {
                 this.writeNoSuchEJBFailureMessage(channel, invocationId, appName, moduleName, distinctName, beanName, viewClassName);
-                return;
+                return false;
             }
             final ComponentView componentView = ejbDeploymentInformation.getView(viewClassName);
-            final Method invokedMethod = this.findMethod(componentView, methodName, methodParamTypes);
+            final Method invokedMethod = this.findMethod(componentView, methodName, signature);
             if (invokedMethod == null) {
-                this.writeNoSuchEJBMethodFailureMessage(channel, invocationId, appName, moduleName, distinctName, beanName, viewClassName, methodName, methodParamTypes);
-                return;
+                this.writeNoSuchEJBMethodFailureMessage(channel, invocationId, appName, moduleName, distinctName, beanName, viewClassName, methodName, toParamTypes(signature));
+                return false;
             }
 
-            final Object[] methodParams = new Object[methodParamTypes.length];
+            final Object[] methodParams = new Object[invokedMethod.getParameterTypes().length];
             // un-marshall the method arguments
-            if (methodParamTypes.length > 0) {
-                for (int i = 0; i < methodParamTypes.length; i++) {
-                    try {
-                        methodParams[i] = unmarshaller.readObject();
-                    } catch (ClassNotFoundException cnfe) {
-                        // write out the failure
-                        MethodInvocationMessageHandler.this.writeException(channel, MethodInvocationMessageHandler.this.marshallerFactory, invocationId, cnfe, null);
-                        return;
-                    }
+            for (int i = 0; i < methodParams.length; i++) {
+                try {
+                    methodParams[i] = unmarshaller.readObject();
+                } catch (ClassNotFoundException cnfe) {
+                    // write out the failure
+                    MethodInvocationMessageHandler.this.writeException(channel, MethodInvocationMessageHandler.this.marshallerFactory, invocationId, cnfe, null);
+                    return false;
                 }
             }
             // read the attachments
@@ -169,15 +210,21 @@ class MethodInvocationMessageHandler extends EJBIdentifierBasedMessageHandler {
             } catch (ClassNotFoundException cnfe) {
                 // write out the failure
                 MethodInvocationMessageHandler.this.writeException(channel, MethodInvocationMessageHandler.this.marshallerFactory, invocationId, cnfe, null);
-                return;
+                return false;
             }
-            // done with unmarshalling
-            unmarshaller.finish();
 
             runnable = new Runnable() {
 
                 @Override
                 public void run() {
+                    try {
+                        this.invoke();
+                    } finally {
+                        MethodInvocationMessageHandler.this.statistics.invocationFinished(start);
+                    }
+                }
+
+                private void invoke() {
                     // check if it's async. If yes, then notify the client that's it's async method (so that
                     // it can unblock if necessary)
                     if (componentView.isAsynchronous(invokedMethod)) {
@@ -239,8 +286,7 @@ class MethodInvocationMessageHandler extends EJBIdentifierBasedMessageHandler {
         }
         // invoke the method and write out the response on a separate thread
         executorService.submit(runnable);
-
-
+        return true;
     }
 
     private Affinity getWeakAffinity(final StatefulSessionComponent statefulSessionComponent, final StatefulEJBLocator statefulEJBLocator) {
@@ -316,6 +362,33 @@ class MethodInvocationMessageHandler extends EJBIdentifierBasedMessageHandler {
         }
     }
 
+    private Method findMethod(final ComponentView componentView, final String methodName, final String signature) {
+        ConcurrentMap<String, Method> methods = this.viewMethods.get(componentView);
+        if (methods == null) {
+            methods = new ConcurrentHashMap<String, Method>();
+            final ConcurrentMap<String, Method> existing = this.viewMethods.putIfAbsent(componentView, methods);
+            if (existing != null) {
+                methods = existing;
+            }
+        }
+        final String key = methodName + '(' + signature + ')';
+        Method method = methods.get(key);
+        if (method == null) {
+            method = this.findMethod(componentView, methodName, toParamTypes(signature));
+            if (method != null) {
+                methods.put(key, method);
+            }
+        }
+        return method;
+    }
+
+    private static String[] toParamTypes(final String signature) {
+        if (signature.isEmpty()) {
+            return new String[0];
+        }
+        return signature.split(String.valueOf(METHOD_PARAM_TYPE_SEPARATOR));
+    }
+
     private Method findMethod(final ComponentView componentView, final String methodName, final String[] paramTypes) {
         final Set<Method> viewMethods = componentView.getViewMethods();
         for (final Method method : viewMethods) {
@@ -377,6 +450,8 @@ class MethodInvocationMessageHandler extends EJBIdentifierBasedMessageHandler {
     private class ClassLoaderSwitchingClassResolver extends AbstractClassResolver {
 
         private ClassLoader currentClassLoader;
+        // classes resolved by name, per class loader, so that a class isn't looked up in a deployment again for each message
+        private final ConcurrentMap<ClassLoader, ConcurrentMap<String, Class<?>>> classes = new ConcurrentHashMap<ClassLoader, ConcurrentMap<String, Class<?>>>();
 
         ClassLoaderSwitchingClassResolver(final ClassLoader classLoader) {
             this.currentClassLoader = classLoader;
@@ -396,5 +471,31 @@ class MethodInvocationMessageHandler extends EJBIdentifierBasedMessageHandler {
         protected ClassLoader getClassLoader() {
             return this.currentClassLoader;
         }
+
+        @Override
+        protected Class<?> loadClass(final String name) throws ClassNotFoundException {
+            final ClassLoader classLoader = this.currentClassLoader;
+            if (classLoader == null) {
+                return super.loadClass(name);
+            }
+            ConcurrentMap<String, Class<?>> loaded = this.classes.get(classLoader);
+            if (loaded == null) {
+                loaded = new ConcurrentHashMap<String, Class<?>>();
+                final ConcurrentMap<String, Class<?>> existing = this.classes.putIfAbsent(classLoader, loaded);
+                if (existing != null) {
+                    loaded = existing;
+                }
+            }
+            Class<?> clazz = loaded.get(name);
+            if (clazz == null) {
+                clazz = super.loadClass(name);
+                loaded.put(name, clazz);
+            }
+            return clazz;
+        }
+
+        void clearCache() {
+            this.classes.clear();
+        }
     }
 }
@@ -29,6 +29,7 @@ import org.jboss.as.ejb3.deployment.DeploymentRepository;
 import org.jboss.as.ejb3.deployment.DeploymentRepositoryListener;
 import org.jboss.as.ejb3.deployment.ModuleDeployment;
 import org.jboss.as.ejb3.remote.EJBRemoteTransactionsRepository;
+import org.jboss.as.ejb3.remote.RemoteInvocationStatistics;
 import org.jboss.as.network.ClientMapping;
 import org.jboss.logging.Logger;
 import org.jboss.marshalling.MarshallerFactory;
@@ -71,16 +72,19 @@ public class VersionOneProtocolChannelReceiver implements Channel.Receiver, Depl
     private final MarshallerFactory marshallerFactory;
     private final ExecutorService executorService;
     private final RegistryCollector<String, List<ClientMapping>> clientMappingRegistryCollector;
+    // messages on a channel are received one after the other, so the invocation handler and its unmarshaller are reused
+    private final MethodInvocationMessageHandler methodInvocationMessageHandler;
 
     public VersionOneProtocolChannelReceiver(final Channel channel, final DeploymentRepository deploymentRepository,
                                              final EJBRemoteTransactionsRepository transactionsRepository, final RegistryCollector<String, List<ClientMapping>> clientMappingRegistryCollector,
-                                             final MarshallerFactory marshallerFactory, final ExecutorService executorService) {
+                                             final MarshallerFactory marshallerFactory, final ExecutorService executorService, final RemoteInvocationStatistics statistics) {
         this.marshallerFactory = marshallerFactory;
         this.channel = channel;
         this.executorService = executorService;
         this.deploymentRepository = deploymentRepository;
         this.transactionsRepository = transactionsRepository;
         this.clientMappingRegistryCollector = clientMappingRegistryCollector;
+        this.methodInvocationMessageHandler = new MethodInvocationMessageHandler(deploymentRepository, marshallerFactory, executorService, statistics);
     }
 
     public void startReceiving() {
@@ -142,7 +146,7 @@ public class VersionOneProtocolChannelReceiver implements Channel.Receiver, Depl
             MessageHandler messageHandler = null;
             switch (header) {
                 case HEADER_INVOCATION_REQUEST:
-                    messageHandler = new MethodInvocationMessageHandler(this.deploymentRepository, this.marshallerFactory, this.executorService);
+                    messageHandler = this.methodInvocationMessageHandler;
                     break;
                 case HEADER_SESSION_OPEN_REQUEST:
                     messageHandler = new SessionOpenRequestHandler(this.deploymentRepository, this.marshallerFactory, this.executorService);
@@ -206,6 +210,8 @@ public class VersionOneProtocolChannelReceiver implements Channel.Receiver, Depl
 
     @Override
     public void deploymentRemoved(DeploymentModuleIdentifier deploymentModuleIdentifier) {
+        // don't keep the views and classes of the removed deployment reachable
+        this.methodInvocationMessageHandler.clearCaches();
         try {
             this.sendModuleUnAvailability(new DeploymentModuleIdentifier[]{deploymentModuleIdentifier});
         } catch (IOException e) {
@@ -0,0 +1,88 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2012, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.jboss.as.ejb3.subsystem;
+
+import java.util.List;
+
+import org.jboss.as.controller.AbstractWriteAttributeHandler;
+import org.jboss.as.controller.OperationContext;
+import org.jboss.as.controller.OperationFailedException;
+import org.jboss.as.controller.PathAddress;
+import org.jboss.as.ejb3.concurrency.ReadWriteLockStrategy;
+import org.jboss.dmr.ModelNode;
+import org.jboss.msc.service.Service;
+import org.jboss.msc.service.ServiceController;
+import org.jboss.msc.service.ServiceName;
+import org.jboss.msc.service.ServiceRegistry;
+import org.jboss.msc.service.ValueService;
+import org.jboss.msc.value.ImmediateValue;
+
+/**
+ * Installs the default {@link ReadWriteLockStrategy} of singleton beans which don't configure their own.
+ * The new value applies to singleton beans deployed afterwards.
+ */
+public class DefaultSingletonBeanLockStrategyWriteHandler extends AbstractWriteAttributeHandler<Void> {
+
+    public static final ServiceName SERVICE_NAME = ServiceName.JBOSS.append("ejb3", "singleton", "lock-strategy");
+
+    public static final DefaultSingletonBeanLockStrategyWriteHandler INSTANCE = new DefaultSingletonBeanLockStrategyWriteHandler();
+
+    @Override
+    protected boolean applyUpdateToRuntime(OperationContext context, ModelNode operation, String attributeName,
+                                           ModelNode resolvedValue, ModelNode currentValue, HandbackHolder<Void> handbackHolder) throws OperationFailedException {
+        final ModelNode model = context.readResource(PathAddress.EMPTY_ADDRESS).getModel();
+        updateDefaultLockStrategy(context, model, null);
+
+        return false;
+    }
+
+    @Override
+    protected void revertUpdateToRuntime(OperationContext context, ModelNode operation, String attributeName,
+                                         ModelNode valueToRestore, ModelNode valueToRevert, Void handback) throws OperationFailedException {
+        final ModelNode restored = context.readResource(PathAddress.EMPTY_ADDRESS).getModel().clone();
+        restored.get(attributeName).set(valueToRestore);
+        updateDefaultLockStrategy(context, restored, null);
+    }
+
+    void updateDefaultLockStrategy(final OperationContext context, final ModelNode model, List<ServiceController<?>> newControllers) throws OperationFailedException {
+
+        final ModelNode strategy = EJB3SubsystemRootResourceDefinition.DEFAULT_SINGLETON_BEAN_LOCK_STRATEGY.resolveModelAttribute(context, model);
+
+        final ServiceRegistry serviceRegistry = context.getServiceRegistry(true);
+        ServiceController existingService = serviceRegistry.getService(SERVICE_NAME);
+        // if a default lock strategy is installed, remove it
+        if (existingService != null) {
+            context.removeService(existingService);
+        }
+
+        if (strategy.isDefined()) {
+            final Service<ReadWriteLockStrategy> newDefaultLockStrategyService = new ValueService<ReadWriteLockStrategy>(new ImmediateValue<ReadWriteLockStrategy>(ReadWriteLockStrategy.forName(strategy.asString())));
+            ServiceController<?> newController =
+                context.getServiceTarget().addService(SERVICE_NAME, newDefaultLockStrategyService)
+                    .install();
+            if (newControllers != null) {
+                newControllers.add(newController);
+            }
+        }
+
+    }
+}
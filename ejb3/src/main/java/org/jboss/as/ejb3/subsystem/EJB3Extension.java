@@ -87,7 +87,10 @@ public class EJB3Extension implements Extension {
         subsystemRegistration.registerOperationHandler(DESCRIBE, GenericSubsystemDescribeHandler.INSTANCE, GenericSubsystemDescribeHandler.INSTANCE, false, OperationEntry.EntryType.PRIVATE);
 
         // subsystem=ejb3/service=remote
-        subsystemRegistration.registerSubModel(EJB3RemoteResourceDefinition.INSTANCE);
+        final ManagementResourceRegistration remoteRegistration = subsystemRegistration.registerSubModel(EJB3RemoteResourceDefinition.INSTANCE);
+        if (registerRuntimeOnly) {
+            RemoteInvocationMetricsHandler.INSTANCE.registerMetrics(remoteRegistration);
+        }
 
         // subsystem=ejb3/service=async
         subsystemRegistration.registerSubModel(EJB3AsyncResourceDefinition.INSTANCE);
@@ -100,7 +103,10 @@ public class EJB3Extension implements Extension {
         subsystemRegistration.registerSubModel(ClusterPassivationStoreResourceDefinition.INSTANCE);
 
         // subsystem=ejb3/service=timerservice
-        subsystemRegistration.registerSubModel(TimerServiceResourceDefinition.INSTANCE);
+        final ManagementResourceRegistration timerServiceRegistration = subsystemRegistration.registerSubModel(TimerServiceResourceDefinition.INSTANCE);
+        if (registerRuntimeOnly) {
+            TimerServiceMetricsHandler.INSTANCE.registerMetrics(timerServiceRegistration);
+        }
 
         // subsystem=ejb3/thread-pool=*
         subsystemRegistration.registerSubModel(UnboundedQueueThreadPoolResourceDefinition.create(EJB3SubsystemModel.THREAD_POOL,
@@ -119,7 +119,8 @@ public class EJB3Subsystem12Parser implements XMLElementReader<List<ModelNode>>,
 
         // write the session-bean element
         if (model.hasDefined(EJB3SubsystemModel.DEFAULT_SLSB_INSTANCE_POOL) || model.hasDefined(EJB3SubsystemModel.DEFAULT_STATEFUL_BEAN_ACCESS_TIMEOUT)
-                || model.hasDefined(EJB3SubsystemModel.DEFAULT_SINGLETON_BEAN_ACCESS_TIMEOUT)) {
+                || model.hasDefined(EJB3SubsystemModel.DEFAULT_SINGLETON_BEAN_ACCESS_TIMEOUT)
+                || model.hasDefined(EJB3SubsystemModel.DEFAULT_SINGLETON_BEAN_LOCK_STRATEGY)) {
             // <session-bean>
             writer.writeStartElement(EJB3SubsystemXMLElement.SESSION_BEAN.getLocalName());
         }
@@ -144,7 +145,8 @@ public class EJB3Subsystem12Parser implements XMLElementReader<List<ModelNode>>,
             writer.writeEndElement();
         }
         // <singleton> element
-        if (model.hasDefined(EJB3SubsystemModel.DEFAULT_SINGLETON_BEAN_ACCESS_TIMEOUT)) {
+        if (model.hasDefined(EJB3SubsystemModel.DEFAULT_SINGLETON_BEAN_ACCESS_TIMEOUT)
+                || model.hasDefined(EJB3SubsystemModel.DEFAULT_SINGLETON_BEAN_LOCK_STRATEGY)) {
             // <singleton>
             writer.writeStartElement(EJB3SubsystemXMLElement.SINGLETON.getLocalName());
             // write out the <singleton> element contents
@@ -154,7 +156,8 @@ public class EJB3Subsystem12Parser implements XMLElementReader<List<ModelNode>>,
         }
         // write out the </session-bean> end element
         if (model.hasDefined(EJB3SubsystemModel.DEFAULT_SLSB_INSTANCE_POOL) || model.hasDefined(EJB3SubsystemModel.DEFAULT_STATEFUL_BEAN_ACCESS_TIMEOUT)
-                || model.hasDefined(EJB3SubsystemModel.DEFAULT_SINGLETON_BEAN_ACCESS_TIMEOUT)) {
+                || model.hasDefined(EJB3SubsystemModel.DEFAULT_SINGLETON_BEAN_ACCESS_TIMEOUT)
+                || model.hasDefined(EJB3SubsystemModel.DEFAULT_SINGLETON_BEAN_LOCK_STRATEGY)) {
             // </session-bean>
             writer.writeEndElement();
         }
@@ -278,6 +281,28 @@ public class EJB3Subsystem12Parser implements XMLElementReader<List<ModelNode>>,
         throw ParseUtils.unexpectedAttribute(reader, i);
     }
 
+    /**
+     * Reads an attribute of a nested element which this schema version does not define. Later schema versions
+     * override this to accept the attributes they add and to set them on the given operation.
+     */
+    protected void readElementAttribute(final XMLExtendedStreamReader reader, final int i, final EJB3SubsystemXMLElement element, final ModelNode operation) throws XMLStreamException {
+        throw unexpectedAttribute(reader, i);
+    }
+
+    /**
+     * Writes the attributes of a nested element which were added after this schema version. Nothing to write for 1.2.
+     */
+    protected void writeElementAttributes(final XMLExtendedStreamWriter writer, final EJB3SubsystemXMLElement element, final ModelNode model) throws XMLStreamException {
+    }
+
+    private static void setDefinedAttributes(final ModelNode operation, final ModelNode attributes) {
+        if (attributes.isDefined()) {
+            for (String key : attributes.keys()) {
+                operation.get(key).set(attributes.get(key));
+            }
+        }
+    }
+
     protected void readAttributes(final ModelNode subsystemAddOperation, final XMLExtendedStreamReader reader) throws XMLStreamException {
         for (int i = 0; i < reader.getAttributeCount(); i++) {
             readAttribute(subsystemAddOperation, reader, i);
@@ -442,8 +467,11 @@ public class EJB3Subsystem12Parser implements XMLElementReader<List<ModelNode>>,
     }
 
     private void writeSingletonBean(final XMLExtendedStreamWriter writer, final ModelNode singletonBeanModel) throws XMLStreamException {
-        final String defaultAccessTimeout = singletonBeanModel.get(DEFAULT_SINGLETON_BEAN_ACCESS_TIMEOUT).asString();
-        writer.writeAttribute(EJB3SubsystemXMLAttribute.DEFAULT_ACCESS_TIMEOUT.getLocalName(), defaultAccessTimeout);
+        if (singletonBeanModel.hasDefined(DEFAULT_SINGLETON_BEAN_ACCESS_TIMEOUT)) {
+            final String defaultAccessTimeout = singletonBeanModel.get(DEFAULT_SINGLETON_BEAN_ACCESS_TIMEOUT).asString();
+            writer.writeAttribute(EJB3SubsystemXMLAttribute.DEFAULT_ACCESS_TIMEOUT.getLocalName(), defaultAccessTimeout);
+        }
+        this.writeElementAttributes(writer, EJB3SubsystemXMLElement.SINGLETON, singletonBeanModel);
     }
 
     private void writeStatefulBean(final XMLExtendedStreamWriter writer, final ModelNode statefulBeanModel) throws XMLStreamException {
@@ -498,6 +526,7 @@ public class EJB3Subsystem12Parser implements XMLElementReader<List<ModelNode>>,
         StrictMaxPoolResourceDefinition.MAX_POOL_SIZE.marshallAsAttribute(strictMaxPoolModelNode, writer);
         StrictMaxPoolResourceDefinition.INSTANCE_ACQUISITION_TIMEOUT.marshallAsAttribute(strictMaxPoolModelNode, writer);
         StrictMaxPoolResourceDefinition.INSTANCE_ACQUISITION_TIMEOUT_UNIT.marshallAsAttribute(strictMaxPoolModelNode, writer);
+        this.writeElementAttributes(writer, EJB3SubsystemXMLElement.STRICT_MAX_POOL, strictMaxPoolModelNode);
     }
 
     private void writeCaches(XMLExtendedStreamWriter writer, ModelNode model) throws XMLStreamException {
@@ -548,6 +577,7 @@ public class EJB3Subsystem12Parser implements XMLElementReader<List<ModelNode>>,
                 FilePassivationStoreResourceDefinition.GROUPS_PATH.marshallAsAttribute(store, writer);
                 FilePassivationStoreResourceDefinition.SESSIONS_PATH.marshallAsAttribute(store, writer);
                 FilePassivationStoreResourceDefinition.SUBDIRECTORY_COUNT.marshallAsAttribute(store, writer);
+                this.writeElementAttributes(writer, EJB3SubsystemXMLElement.FILE_PASSIVATION_STORE, store);
                 writer.writeEndElement();
             }
         }
@@ -556,6 +586,7 @@ public class EJB3Subsystem12Parser implements XMLElementReader<List<ModelNode>>,
     private void writeTimerService(final XMLExtendedStreamWriter writer, final ModelNode timerServiceModel) throws XMLStreamException {
 
         TimerServiceResourceDefinition.THREAD_POOL_NAME.marshallAsAttribute(timerServiceModel, writer);
+        this.writeElementAttributes(writer, EJB3SubsystemXMLElement.TIMER_SERVICE, timerServiceModel);
 
         // <data-store>
         if (TimerServiceResourceDefinition.PATH.isMarshallable(timerServiceModel)
@@ -564,6 +595,7 @@ public class EJB3Subsystem12Parser implements XMLElementReader<List<ModelNode>>,
             writer.writeEmptyElement(EJB3SubsystemXMLElement.DATA_STORE.getLocalName());
             TimerServiceResourceDefinition.PATH.marshallAsAttribute(timerServiceModel, writer);
             TimerServiceResourceDefinition.RELATIVE_TO.marshallAsAttribute(timerServiceModel, writer);
+            this.writeElementAttributes(writer, EJB3SubsystemXMLElement.DATA_STORE, timerServiceModel);
         }
 
     }
@@ -801,7 +833,7 @@ public class EJB3Subsystem12Parser implements XMLElementReader<List<ModelNode>>,
                     missingRequiredAttributes.remove(EJB3SubsystemXMLAttribute.DEFAULT_ACCESS_TIMEOUT);
                     break;
                 default:
-                    throw unexpectedAttribute(reader, i);
+                    this.readElementAttribute(reader, i, EJB3SubsystemXMLElement.SINGLETON, ejb3SubsystemAddOperation);
             }
         }
         requireNoContent(reader);
@@ -850,6 +882,7 @@ public class EJB3Subsystem12Parser implements XMLElementReader<List<ModelNode>>,
         Integer maxPoolSize = null;
         Long timeout = null;
         String unit = null;
+        final ModelNode versionedAttributes = new ModelNode();
         for (int i = 0; i < count; i++) {
             requireNoNamespaceAttribute(reader, i);
             final String value = reader.getAttributeValue(i);
@@ -867,9 +900,8 @@ public class EJB3Subsystem12Parser implements XMLElementReader<List<ModelNode>>,
                 case INSTANCE_ACQUISITION_TIMEOUT_UNIT:
                     unit = StrictMaxPoolResourceDefinition.INSTANCE_ACQUISITION_TIMEOUT_UNIT.parse(value, reader).asString();
                     break;
-
                 default:
-                    throw unexpectedAttribute(reader, i);
+                    this.readElementAttribute(reader, i, EJB3SubsystemXMLElement.STRICT_MAX_POOL, versionedAttributes);
             }
         }
         requireNoContent(reader);
@@ -877,7 +909,9 @@ public class EJB3Subsystem12Parser implements XMLElementReader<List<ModelNode>>,
             throw missingRequired(reader, Collections.singleton(EJB3SubsystemXMLAttribute.NAME.getLocalName()));
         }
         // create and add the operation
-        operations.add(this.createAddStrictMaxBeanInstancePoolOperation(poolName, maxPoolSize, timeout, unit));
+        final ModelNode addStrictMaxPoolOperation = this.createAddStrictMaxBeanInstancePoolOperation(poolName, maxPoolSize, timeout, unit);
+        setDefinedAttributes(addStrictMaxPoolOperation, versionedAttributes);
+        operations.add(addStrictMaxPoolOperation);
     }
 
     private void parseCaches(final XMLExtendedStreamReader reader, List<ModelNode> operations) throws XMLStreamException {
@@ -962,6 +996,7 @@ public class EJB3Subsystem12Parser implements XMLElementReader<List<ModelNode>>,
         String groupsPath = null;
         String sessionsPath = null;
         Integer subdirectoryCount = null;
+        final ModelNode versionedAttributes = new ModelNode();
         for (int i = 0; i < reader.getAttributeCount(); i++) {
             requireNoNamespaceAttribute(reader, i);
             final String value = reader.getAttributeValue(i);
@@ -999,7 +1034,7 @@ public class EJB3Subsystem12Parser implements XMLElementReader<List<ModelNode>>,
                     break;
                 }
                 default: {
-                    throw unexpectedAttribute(reader, i);
+                    this.readElementAttribute(reader, i, EJB3SubsystemXMLElement.FILE_PASSIVATION_STORE, versionedAttributes);
                 }
             }
         }
@@ -1008,7 +1043,9 @@ public class EJB3Subsystem12Parser implements XMLElementReader<List<ModelNode>>,
             throw missingRequired(reader, Collections.singleton(EJB3SubsystemXMLAttribute.NAME.getLocalName()));
         }
         // create and add the operation
-        operations.add(this.createAddFilePassivationStoreOperation(name, maxSize, timeout, unit, relativeTo, groupsPath, sessionsPath, subdirectoryCount));
+        final ModelNode addFilePassivationStoreOperation = this.createAddFilePassivationStoreOperation(name, maxSize, timeout, unit, relativeTo, groupsPath, sessionsPath, subdirectoryCount);
+        setDefinedAttributes(addFilePassivationStoreOperation, versionedAttributes);
+        operations.add(addFilePassivationStoreOperation);
     }
 
     private void parseClusterPassivationStore(final XMLExtendedStreamReader reader, List<ModelNode> operations) throws XMLStreamException {
@@ -1094,7 +1131,7 @@ public class EJB3Subsystem12Parser implements XMLElementReader<List<ModelNode>>,
                     threadPoolName = value;
                     break;
                 default:
-                    throw unexpectedAttribute(reader, i);
+                    this.readElementAttribute(reader, i, EJB3SubsystemXMLElement.TIMER_SERVICE, timerServiceAdd);
             }
         }
         if (!required.isEmpty()) {
@@ -1124,7 +1161,7 @@ public class EJB3Subsystem12Parser implements XMLElementReader<List<ModelNode>>,
                                 dataStorePathRelativeTo = TimerServiceResourceDefinition.RELATIVE_TO.parse(value, reader).asString();
                                 break;
                             default:
-                                throw unexpectedAttribute(reader, i);
+                                this.readElementAttribute(reader, i, EJB3SubsystemXMLElement.DATA_STORE, timerServiceAdd);
                         }
                     }
                     if (dataStorePath == null) {
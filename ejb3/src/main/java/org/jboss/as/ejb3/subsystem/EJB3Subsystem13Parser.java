@@ -89,6 +89,80 @@ public class EJB3Subsystem13Parser extends EJB3Subsystem12Parser {
         }
     }
 
+    @Override
+    protected void readElementAttribute(final XMLExtendedStreamReader reader, final int i, final EJB3SubsystemXMLElement element, final ModelNode operation) throws XMLStreamException {
+        final String value = reader.getAttributeValue(i);
+        final EJB3SubsystemXMLAttribute attribute = EJB3SubsystemXMLAttribute.forName(reader.getAttributeLocalName(i));
+        switch (element) {
+            case STRICT_MAX_POOL: {
+                if (attribute == EJB3SubsystemXMLAttribute.STRIPED) {
+                    StrictMaxPoolResourceDefinition.STRIPED.parseAndSetParameter(value, operation, reader);
+                    return;
+                }
+                break;
+            }
+            case TIMER_SERVICE: {
+                if (attribute == EJB3SubsystemXMLAttribute.SCHEDULER) {
+                    TimerServiceResourceDefinition.SCHEDULER.parseAndSetParameter(value, operation, reader);
+                    return;
+                }
+                break;
+            }
+            case DATA_STORE: {
+                if (attribute == EJB3SubsystemXMLAttribute.TYPE) {
+                    TimerServiceResourceDefinition.DATA_STORE_TYPE.parseAndSetParameter(value, operation, reader);
+                    return;
+                }
+                break;
+            }
+            case FILE_PASSIVATION_STORE: {
+                if (attribute == EJB3SubsystemXMLAttribute.TYPE) {
+                    FilePassivationStoreResourceDefinition.STORE_TYPE.parseAndSetParameter(value, operation, reader);
+                    return;
+                } else if (attribute == EJB3SubsystemXMLAttribute.COMPRESSION) {
+                    FilePassivationStoreResourceDefinition.COMPRESSION.parseAndSetParameter(value, operation, reader);
+                    return;
+                }
+                break;
+            }
+            case SINGLETON: {
+                if (attribute == EJB3SubsystemXMLAttribute.LOCK_STRATEGY) {
+                    EJB3SubsystemRootResourceDefinition.DEFAULT_SINGLETON_BEAN_LOCK_STRATEGY.parseAndSetParameter(value, operation, reader);
+                    return;
+                }
+                break;
+            }
+        }
+        super.readElementAttribute(reader, i, element, operation);
+    }
+
+    @Override
+    protected void writeElementAttributes(final XMLExtendedStreamWriter writer, final EJB3SubsystemXMLElement element, final ModelNode model) throws XMLStreamException {
+        switch (element) {
+            case STRICT_MAX_POOL: {
+                StrictMaxPoolResourceDefinition.STRIPED.marshallAsAttribute(model, writer);
+                break;
+            }
+            case TIMER_SERVICE: {
+                TimerServiceResourceDefinition.SCHEDULER.marshallAsAttribute(model, writer);
+                break;
+            }
+            case DATA_STORE: {
+                TimerServiceResourceDefinition.DATA_STORE_TYPE.marshallAsAttribute(model, writer);
+                break;
+            }
+            case FILE_PASSIVATION_STORE: {
+                FilePassivationStoreResourceDefinition.STORE_TYPE.marshallAsAttribute(model, writer);
+                FilePassivationStoreResourceDefinition.COMPRESSION.marshallAsAttribute(model, writer);
+                break;
+            }
+            case SINGLETON: {
+                EJB3SubsystemRootResourceDefinition.DEFAULT_SINGLETON_BEAN_LOCK_STRATEGY.marshallAsAttribute(model, writer);
+                break;
+            }
+        }
+    }
+
     @Override
     protected EJB3SubsystemNamespace getExpectedNamespace() {
         return EJB3SubsystemNamespace.EJB3_1_3;
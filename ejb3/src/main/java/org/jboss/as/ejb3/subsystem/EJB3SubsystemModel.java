@@ -55,6 +55,7 @@ public interface EJB3SubsystemModel {
 
     String MAX_POOL_SIZE = "max-pool-size";
     String STRICT_MAX_BEAN_INSTANCE_POOL = "strict-max-bean-instance-pool";
+    String STRIPED = "striped";
 
     String MAX_THREADS = "max-threads";
     String KEEPALIVE_TIME = "keepalive-time";
@@ -63,11 +64,22 @@ public interface EJB3SubsystemModel {
     String PATH = "path";
 
     String DEFAULT_SINGLETON_BEAN_ACCESS_TIMEOUT = "default-singleton-bean-access-timeout";
+    String DEFAULT_SINGLETON_BEAN_LOCK_STRATEGY = "default-singleton-bean-lock-strategy";
     String DEFAULT_STATEFUL_BEAN_ACCESS_TIMEOUT = "default-stateful-bean-access-timeout";
 
     String REMOTE = "remote";
     String SERVICE = "service";
     String TIMER_SERVICE = "timer-service";
+    String SCHEDULER = "scheduler";
+    String DATA_STORE_TYPE = "data-store-type";
+    String PENDING_TIMEOUTS = "pending-timeouts";
+    String MAX_TIMEOUT_LAG = "max-timeout-lag";
+    String AVERAGE_TIMEOUT_LAG = "average-timeout-lag";
+    String IN_FLIGHT_INVOCATIONS = "in-flight-invocations";
+    String INVOCATION_COUNT = "invocation-count";
+    String AVERAGE_INVOCATION_TIME = "average-invocation-time";
+    String MAX_INVOCATION_TIME = "max-invocation-time";
+    String CHANNEL_INVOCATION_STATISTICS = "channel-invocation-statistics";
     String THREAD_POOL = "thread-pool";
     String THREAD_POOL_NAME = "thread-pool-name";
     String DEFAULT = "default";
@@ -85,6 +97,8 @@ public interface EJB3SubsystemModel {
     String GROUPS_PATH = "groups-path";
     String SESSIONS_PATH = "sessions-path";
     String SUBDIRECTORY_COUNT = "subdirectory-count";
+    String STORE_TYPE = "store-type";
+    String COMPRESSION = "compression";
 
     String CLUSTER_PASSIVATION_STORE = "cluster-passivation-store";
     String BEAN_CACHE = "bean-cache";
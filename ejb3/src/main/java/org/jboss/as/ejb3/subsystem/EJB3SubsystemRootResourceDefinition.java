@@ -28,11 +28,13 @@ import org.jboss.as.controller.SimpleAttributeDefinition;
 import org.jboss.as.controller.SimpleAttributeDefinitionBuilder;
 import org.jboss.as.controller.SimpleResourceDefinition;
 import org.jboss.as.controller.descriptions.ModelDescriptionConstants;
+import org.jboss.as.controller.operations.validation.EnumValidator;
 import org.jboss.as.controller.operations.validation.LongRangeValidator;
 import org.jboss.as.controller.operations.validation.StringLengthValidator;
 import org.jboss.as.controller.registry.AttributeAccess;
 import org.jboss.as.controller.registry.ManagementResourceRegistration;
 import org.jboss.as.controller.registry.OperationEntry;
+import org.jboss.as.ejb3.concurrency.ReadWriteLockStrategy;
 import org.jboss.dmr.ModelNode;
 import org.jboss.dmr.ModelType;
 
@@ -79,6 +81,12 @@ public class EJB3SubsystemRootResourceDefinition extends SimpleResourceDefinitio
                     .setValidator(new LongRangeValidator(1, Integer.MAX_VALUE, false, false))
                     .setFlags(AttributeAccess.Flag.RESTART_NONE)
                     .build();
+    public static final SimpleAttributeDefinition DEFAULT_SINGLETON_BEAN_LOCK_STRATEGY =
+            new SimpleAttributeDefinitionBuilder(EJB3SubsystemModel.DEFAULT_SINGLETON_BEAN_LOCK_STRATEGY, ModelType.STRING, true)
+                    .setXmlName(EJB3SubsystemXMLAttribute.LOCK_STRATEGY.getLocalName())
+                    .setValidator(new EnumValidator<ReadWriteLockStrategy>(ReadWriteLockStrategy.class, true, false))
+                    .setFlags(AttributeAccess.Flag.RESTART_NONE)
+                    .build();
     public static final SimpleAttributeDefinition DEFAULT_SFSB_CACHE =
             new SimpleAttributeDefinitionBuilder(EJB3SubsystemModel.DEFAULT_SFSB_CACHE, ModelType.STRING, true)
                     .setAllowExpression(true)
@@ -121,6 +129,7 @@ public class EJB3SubsystemRootResourceDefinition extends SimpleResourceDefinitio
             DEFAULT_RESOURCE_ADAPTER_NAME,
             DEFAULT_SFSB_CACHE,
             DEFAULT_SINGLETON_BEAN_ACCESS_TIMEOUT,
+            DEFAULT_SINGLETON_BEAN_LOCK_STRATEGY,
             DEFAULT_SLSB_INSTANCE_POOL,
             DEFAULT_STATEFUL_BEAN_ACCESS_TIMEOUT,
             ENABLE_STATISTICS,
@@ -138,6 +147,7 @@ public class EJB3SubsystemRootResourceDefinition extends SimpleResourceDefinitio
         resourceRegistration.registerReadWriteAttribute(DEFAULT_ENTITY_BEAN_OPTIMISTIC_LOCKING, null, EJB3SubsystemDefaultEntityBeanOptimisticLockingWriteHandler.INSTANCE);
         resourceRegistration.registerReadWriteAttribute(DEFAULT_RESOURCE_ADAPTER_NAME, null, DefaultResourceAdapterWriteHandler.INSTANCE);
         resourceRegistration.registerReadWriteAttribute(DEFAULT_SINGLETON_BEAN_ACCESS_TIMEOUT, null, DefaultSingletonBeanAccessTimeoutWriteHandler.INSTANCE);
+        resourceRegistration.registerReadWriteAttribute(DEFAULT_SINGLETON_BEAN_LOCK_STRATEGY, null, DefaultSingletonBeanLockStrategyWriteHandler.INSTANCE);
         resourceRegistration.registerReadWriteAttribute(DEFAULT_STATEFUL_BEAN_ACCESS_TIMEOUT, null, DefaultStatefulBeanAccessTimeoutWriteHandler.INSTANCE);
         resourceRegistration.registerReadWriteAttribute(ENABLE_STATISTICS, null, EnableStatisticsWriteHandler.INSTANCE);
         resourceRegistration.registerReadWriteAttribute(PASS_BY_VALUE, null, EJBRemoteInvocationPassByValueWriteHandler.INSTANCE);
@@ -38,6 +38,7 @@ public enum EJB3SubsystemXMLAttribute {
     CACHE_REF("cache-ref"),
     CLIENT_MAPPINGS_CACHE("client-mappings-cache"),
     CLUSTERED_CACHE_REF("clustered-cache-ref"),
+    COMPRESSION("compression"),
     CONNECTOR_REF("connector-ref"),
     CORE_THREADS("core-threads"),
 
@@ -55,6 +56,8 @@ public enum EJB3SubsystemXMLAttribute {
 
     KEEPALIVE_TIME("keepalive-time"),
 
+    LOCK_STRATEGY("lock-strategy"),
+
     MAX_POOL_SIZE("max-pool-size"),
     MAX_SIZE("max-size"),
     MAX_THREADS("max-threads"),
@@ -70,10 +73,14 @@ public enum EJB3SubsystemXMLAttribute {
     RELATIVE_TO("relative-to"),
     RESOURCE_ADAPTER_NAME("resource-adapter-name"),
 
+    SCHEDULER("scheduler"),
+
     SESSIONS_PATH("sessions-path"),
+    STRIPED("striped"),
     SUBDIRECTORY_COUNT("subdirectory-count"),
 
     THREAD_POOL_NAME("thread-pool-name"),
+    TYPE("type"),
 
     USE_QUALIFIED_NAME("use-qualified-name"),
 
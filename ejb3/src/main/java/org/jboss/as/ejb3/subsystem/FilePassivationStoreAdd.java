@@ -28,6 +28,7 @@ import org.jboss.as.controller.AttributeDefinition;
 import org.jboss.as.ejb3.cache.Cacheable;
 import org.jboss.as.ejb3.cache.impl.factory.NonClusteredBackingCacheEntryStoreSource;
 import org.jboss.as.ejb3.cache.impl.factory.NonClusteredBackingCacheEntryStoreSourceService;
+import org.jboss.as.ejb3.cache.impl.factory.PersistentObjectStoreType;
 import org.jboss.as.ejb3.cache.spi.BackingCacheEntryStoreSourceService;
 import org.jboss.dmr.ModelNode;
 
@@ -57,6 +58,12 @@ public class FilePassivationStoreAdd extends PassivationStoreAdd {
         if (model.hasDefined(EJB3SubsystemModel.SUBDIRECTORY_COUNT)) {
             source.setSubdirectoryCount(model.get(EJB3SubsystemModel.SUBDIRECTORY_COUNT).asInt());
         }
+        if (model.hasDefined(EJB3SubsystemModel.STORE_TYPE)) {
+            source.setStoreType(PersistentObjectStoreType.forName(model.get(EJB3SubsystemModel.STORE_TYPE).asString()));
+        }
+        if (model.hasDefined(EJB3SubsystemModel.COMPRESSION)) {
+            source.setCompression(model.get(EJB3SubsystemModel.COMPRESSION).asBoolean());
+        }
         return service;
     }
 }
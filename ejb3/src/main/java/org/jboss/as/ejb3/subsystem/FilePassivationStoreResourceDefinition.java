@@ -25,10 +25,12 @@ package org.jboss.as.ejb3.subsystem;
 import org.jboss.as.controller.AttributeDefinition;
 import org.jboss.as.controller.SimpleAttributeDefinition;
 import org.jboss.as.controller.SimpleAttributeDefinitionBuilder;
+import org.jboss.as.controller.operations.validation.EnumValidator;
 import org.jboss.as.controller.operations.validation.IntRangeValidator;
 import org.jboss.as.controller.registry.AttributeAccess;
 import org.jboss.as.controller.registry.OperationEntry;
 import org.jboss.as.ejb3.cache.impl.factory.NonClusteredBackingCacheEntryStoreSource;
+import org.jboss.as.ejb3.cache.impl.factory.PersistentObjectStoreType;
 import org.jboss.dmr.ModelNode;
 import org.jboss.dmr.ModelType;
 
@@ -67,8 +69,22 @@ public class FilePassivationStoreResourceDefinition extends PassivationStoreReso
                     .setValidator(new IntRangeValidator(1, Integer.MAX_VALUE, true, true))
                     .setFlags(AttributeAccess.Flag.RESTART_NONE)
                     .build();
+    public static final SimpleAttributeDefinition STORE_TYPE =
+            new SimpleAttributeDefinitionBuilder(EJB3SubsystemModel.STORE_TYPE, ModelType.STRING, true)
+                    .setXmlName(EJB3SubsystemXMLAttribute.TYPE.getLocalName())
+                    .setDefaultValue(new ModelNode().set(NonClusteredBackingCacheEntryStoreSource.DEFAULT_STORE_TYPE.toString()))
+                    .setValidator(new EnumValidator<PersistentObjectStoreType>(PersistentObjectStoreType.class, true, false))
+                    .setFlags(AttributeAccess.Flag.RESTART_NONE)
+                    .build();
+    public static final SimpleAttributeDefinition COMPRESSION =
+            new SimpleAttributeDefinitionBuilder(EJB3SubsystemModel.COMPRESSION, ModelType.BOOLEAN, true)
+                    .setXmlName(EJB3SubsystemXMLAttribute.COMPRESSION.getLocalName())
+                    .setDefaultValue(new ModelNode().set(NonClusteredBackingCacheEntryStoreSource.DEFAULT_COMPRESSION))
+                    .setAllowExpression(true)
+                    .setFlags(AttributeAccess.Flag.RESTART_NONE)
+                    .build();
 
-    private static final AttributeDefinition[] ATTRIBUTES = new AttributeDefinition[] { IDLE_TIMEOUT, IDLE_TIMEOUT_UNIT, MAX_SIZE, RELATIVE_TO, GROUPS_PATH, SESSIONS_PATH, SUBDIRECTORY_COUNT };
+    private static final AttributeDefinition[] ATTRIBUTES = new AttributeDefinition[] { IDLE_TIMEOUT, IDLE_TIMEOUT_UNIT, MAX_SIZE, RELATIVE_TO, GROUPS_PATH, SESSIONS_PATH, SUBDIRECTORY_COUNT, STORE_TYPE, COMPRESSION };
 
     private static final FilePassivationStoreAdd ADD = new FilePassivationStoreAdd(ATTRIBUTES);
     private static final FilePassivationStoreRemove REMOVE = new FilePassivationStoreRemove(ADD);
@@ -26,6 +26,7 @@ import org.jboss.as.controller.AttributeDefinition;
 import org.jboss.as.controller.OperationContext;
 import org.jboss.as.controller.OperationFailedException;
 import org.jboss.as.ejb3.cache.impl.factory.NonClusteredBackingCacheEntryStoreSource;
+import org.jboss.as.ejb3.cache.impl.factory.PersistentObjectStoreType;
 import org.jboss.dmr.ModelNode;
 
 /**
@@ -56,6 +57,12 @@ public class FilePassivationStoreWriteHandler extends PassivationStoreWriteHandl
         } else if (FilePassivationStoreResourceDefinition.SUBDIRECTORY_COUNT.getName().equals(attributeName)) {
             int count = FilePassivationStoreResourceDefinition.SUBDIRECTORY_COUNT.resolveModelAttribute(context, model).asInt();
             config.setSubdirectoryCount(count);
+        } else if (FilePassivationStoreResourceDefinition.STORE_TYPE.getName().equals(attributeName)) {
+            String type = FilePassivationStoreResourceDefinition.STORE_TYPE.resolveModelAttribute(context, model).asString();
+            config.setStoreType(PersistentObjectStoreType.forName(type));
+        } else if (FilePassivationStoreResourceDefinition.COMPRESSION.getName().equals(attributeName)) {
+            boolean compression = FilePassivationStoreResourceDefinition.COMPRESSION.resolveModelAttribute(context, model).asBoolean();
+            config.setCompression(compression);
         }
     }
 }
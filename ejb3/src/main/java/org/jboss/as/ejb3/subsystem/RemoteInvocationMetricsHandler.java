@@ -0,0 +1,122 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2012, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.jboss.as.ejb3.subsystem;
+
+import java.util.Map;
+
+import org.jboss.as.controller.AbstractRuntimeOnlyHandler;
+import org.jboss.as.controller.OperationContext;
+import org.jboss.as.controller.OperationFailedException;
+import org.jboss.as.controller.SimpleAttributeDefinition;
+import org.jboss.as.controller.SimpleAttributeDefinitionBuilder;
+import org.jboss.as.controller.descriptions.ModelDescriptionConstants;
+import org.jboss.as.controller.registry.AttributeAccess;
+import org.jboss.as.controller.registry.ManagementResourceRegistration;
+import org.jboss.as.ejb3.remote.EJBRemoteConnectorService;
+import org.jboss.as.ejb3.remote.RemoteInvocationStatistics;
+import org.jboss.dmr.ModelNode;
+import org.jboss.dmr.ModelType;
+import org.jboss.msc.service.ServiceController;
+import org.jboss.remoting3.Channel;
+
+import static org.jboss.as.ejb3.EjbMessages.MESSAGES;
+
+/**
+ * Handler for the metrics of the invocations received by the {@link EJBRemoteConnectorService}.
+ */
+public class RemoteInvocationMetricsHandler extends AbstractRuntimeOnlyHandler {
+
+    public static final SimpleAttributeDefinition IN_FLIGHT_INVOCATIONS =
+            new SimpleAttributeDefinitionBuilder(EJB3SubsystemModel.IN_FLIGHT_INVOCATIONS, ModelType.INT, true)
+                    .setFlags(AttributeAccess.Flag.STORAGE_RUNTIME)
+                    .build();
+
+    public static final SimpleAttributeDefinition INVOCATION_COUNT =
+            new SimpleAttributeDefinitionBuilder(EJB3SubsystemModel.INVOCATION_COUNT, ModelType.LONG, true)
+                    .setFlags(AttributeAccess.Flag.STORAGE_RUNTIME)
+                    .build();
+
+    public static final SimpleAttributeDefinition AVERAGE_INVOCATION_TIME =
+            new SimpleAttributeDefinitionBuilder(EJB3SubsystemModel.AVERAGE_INVOCATION_TIME, ModelType.LONG, true)
+                    .setFlags(AttributeAccess.Flag.STORAGE_RUNTIME)
+                    .build();
+
+    public static final SimpleAttributeDefinition MAX_INVOCATION_TIME =
+            new SimpleAttributeDefinitionBuilder(EJB3SubsystemModel.MAX_INVOCATION_TIME, ModelType.LONG, true)
+                    .setFlags(AttributeAccess.Flag.STORAGE_RUNTIME)
+                    .build();
+
+    public static final SimpleAttributeDefinition CHANNEL_INVOCATION_STATISTICS =
+            new SimpleAttributeDefinitionBuilder(EJB3SubsystemModel.CHANNEL_INVOCATION_STATISTICS, ModelType.OBJECT, true)
+                    .setFlags(AttributeAccess.Flag.STORAGE_RUNTIME)
+                    .build();
+
+    public static final RemoteInvocationMetricsHandler INSTANCE = new RemoteInvocationMetricsHandler();
+
+    private RemoteInvocationMetricsHandler() {
+    }
+
+    @Override
+    protected void executeRuntimeStep(OperationContext context, ModelNode operation) throws OperationFailedException {
+        final String attributeName = operation.require(ModelDescriptionConstants.NAME).asString();
+        final ServiceController<?> controller = context.getServiceRegistry(false).getService(EJBRemoteConnectorService.SERVICE_NAME);
+        final EJBRemoteConnectorService service = controller == null ? null : (EJBRemoteConnectorService) controller.getValue();
+        if (service != null) {
+            if (CHANNEL_INVOCATION_STATISTICS.getName().equals(attributeName)) {
+                final ModelNode result = context.getResult();
+                result.setEmptyObject();
+                for (Map.Entry<Channel, RemoteInvocationStatistics> entry : service.getChannelInvocationStatistics().entrySet()) {
+                    final ModelNode channel = result.get(entry.getKey().toString());
+                    for (SimpleAttributeDefinition attribute : new SimpleAttributeDefinition[] {IN_FLIGHT_INVOCATIONS, INVOCATION_COUNT, AVERAGE_INVOCATION_TIME, MAX_INVOCATION_TIME}) {
+                        setMetric(channel.get(attribute.getName()), attribute.getName(), entry.getValue());
+                    }
+                }
+            } else {
+                setMetric(context.getResult(), attributeName, service.getInvocationStatistics());
+            }
+        }
+        context.completeStep();
+    }
+
+    private static void setMetric(final ModelNode result, final String attributeName, final RemoteInvocationStatistics statistics) {
+        if (IN_FLIGHT_INVOCATIONS.getName().equals(attributeName)) {
+            result.set(statistics.getInFlightCount());
+        } else if (INVOCATION_COUNT.getName().equals(attributeName)) {
+            result.set(statistics.getInvocationCount());
+        } else if (AVERAGE_INVOCATION_TIME.getName().equals(attributeName)) {
+            result.set(statistics.getAverageInvocationTime());
+        } else if (MAX_INVOCATION_TIME.getName().equals(attributeName)) {
+            result.set(statistics.getMaxInvocationTime());
+        } else {
+            // Bug; we were registered for an attribute but there is no code for handling it
+            throw MESSAGES.unknownAttribute(attributeName);
+        }
+    }
+
+    void registerMetrics(final ManagementResourceRegistration resourceRegistration) {
+        resourceRegistration.registerMetric(IN_FLIGHT_INVOCATIONS, this);
+        resourceRegistration.registerMetric(INVOCATION_COUNT, this);
+        resourceRegistration.registerMetric(AVERAGE_INVOCATION_TIME, this);
+        resourceRegistration.registerMetric(MAX_INVOCATION_TIME, this);
+        resourceRegistration.registerMetric(CHANNEL_INVOCATION_STATISTICS, this);
+    }
+}
@@ -73,6 +73,13 @@ public class StrictMaxPoolResourceDefinition extends SimpleResourceDefinition {
                     .setDefaultValue(new ModelNode().set(StrictMaxPoolConfig.DEFAULT_TIMEOUT_UNIT.name()))
                     .setFlags(AttributeAccess.Flag.RESTART_NONE)
                     .build();
+    public static final SimpleAttributeDefinition STRIPED =
+            new SimpleAttributeDefinitionBuilder(EJB3SubsystemModel.STRIPED, ModelType.BOOLEAN, true)
+                    .setXmlName(EJB3SubsystemXMLAttribute.STRIPED.getLocalName())
+                    .setDefaultValue(new ModelNode().set(StrictMaxPoolConfig.DEFAULT_STRIPED))
+                    .setAllowExpression(true)
+                    .setFlags(AttributeAccess.Flag.RESTART_NONE)
+                    .build();
 
     public static final Map<String, AttributeDefinition> ATTRIBUTES ;
 
@@ -81,6 +88,7 @@ public class StrictMaxPoolResourceDefinition extends SimpleResourceDefinition {
         map.put(MAX_POOL_SIZE.getName(), MAX_POOL_SIZE);
         map.put(INSTANCE_ACQUISITION_TIMEOUT.getName(), INSTANCE_ACQUISITION_TIMEOUT);
         map.put(INSTANCE_ACQUISITION_TIMEOUT_UNIT.getName(), INSTANCE_ACQUISITION_TIMEOUT_UNIT);
+        map.put(STRIPED.getName(), STRIPED);
 
         ATTRIBUTES = Collections.unmodifiableMap(map);
     }
@@ -25,7 +25,6 @@ package org.jboss.as.ejb3.subsystem;
 import static org.jboss.as.ejb3.EjbLogger.ROOT_LOGGER;
 
 import java.util.List;
-import java.util.Timer;
 
 import javax.transaction.TransactionManager;
 import javax.transaction.TransactionSynchronizationRegistry;
@@ -41,7 +40,11 @@ import org.jboss.as.ejb3.deployment.processors.AroundTimeoutAnnotationParsingPro
 import org.jboss.as.ejb3.deployment.processors.TimerServiceDeploymentProcessor;
 import org.jboss.as.ejb3.deployment.processors.annotation.TimerServiceAnnotationProcessor;
 import org.jboss.as.ejb3.deployment.processors.merging.TimerMethodMergingProcessor;
+import org.jboss.as.ejb3.timerservice.persistence.TimerPersistenceType;
 import org.jboss.as.ejb3.timerservice.persistence.filestore.FileTimerPersistence;
+import org.jboss.as.ejb3.timerservice.persistence.journal.JournalTimerPersistence;
+import org.jboss.as.ejb3.timerservice.scheduler.TimeoutScheduler;
+import org.jboss.as.ejb3.timerservice.scheduler.TimeoutSchedulerType;
 import org.jboss.as.server.AbstractDeploymentChainStep;
 import org.jboss.as.server.DeploymentProcessorTarget;
 import org.jboss.as.server.Services;
@@ -93,6 +96,10 @@ public class TimerServiceAdd extends AbstractBoottimeAddStepHandler {
 
         final String threadPoolName = TimerServiceResourceDefinition.THREAD_POOL_NAME.resolveModelAttribute(context, model).asString();
         final ServiceName threadPoolServiceName = EJB3SubsystemModel.BASE_THREAD_POOL_SERVICE_NAME.append(threadPoolName);
+        final String scheduler = TimerServiceResourceDefinition.SCHEDULER.resolveModelAttribute(context, model).asString();
+        final TimeoutSchedulerType schedulerType = TimeoutSchedulerType.forName(scheduler);
+        final String dataStoreType = TimerServiceResourceDefinition.DATA_STORE_TYPE.resolveModelAttribute(context, model).asString();
+        final TimerPersistenceType persistenceType = TimerPersistenceType.forName(dataStoreType);
 
         context.addStep(new AbstractDeploymentChainStep() {
             protected void execute(DeploymentProcessorTarget processorTarget) {
@@ -117,36 +124,51 @@ public class TimerServiceAdd extends AbstractBoottimeAddStepHandler {
             }
         }, OperationContext.Stage.RUNTIME);
 
-        newControllers.add(context.getServiceTarget().addService(TimerServiceDeploymentProcessor.TIMER_SERVICE_NAME, new TimerValueService())
-                .install());
-        final FileTimerPersistence fileTimerPersistence = new FileTimerPersistence(true);
-        newControllers.add(context.getServiceTarget().addService(FileTimerPersistence.SERVICE_NAME, fileTimerPersistence)
-                .addDependency(Services.JBOSS_SERVICE_MODULE_LOADER, ModuleLoader.class, fileTimerPersistence.getModuleLoader())
-                .addDependency(TimerServiceDeploymentProcessor.PATH_SERVICE_NAME, String.class, fileTimerPersistence.getBaseDir())
-                .addDependency(TransactionManagerService.SERVICE_NAME, TransactionManager.class, fileTimerPersistence.getTransactionManager())
-                .addDependency(TransactionSynchronizationRegistryService.SERVICE_NAME, TransactionSynchronizationRegistry.class, fileTimerPersistence.getTransactionSynchronizationRegistry())
+        newControllers.add(context.getServiceTarget().addService(TimerServiceDeploymentProcessor.TIMER_SERVICE_NAME, new TimeoutSchedulerService(schedulerType))
                 .install());
+        if (persistenceType == TimerPersistenceType.JOURNAL) {
+            final JournalTimerPersistence journalTimerPersistence = new JournalTimerPersistence(true);
+            newControllers.add(context.getServiceTarget().addService(TimerServiceDeploymentProcessor.TIMER_PERSISTENCE_SERVICE_NAME, journalTimerPersistence)
+                    .addDependency(Services.JBOSS_SERVICE_MODULE_LOADER, ModuleLoader.class, journalTimerPersistence.getModuleLoader())
+                    .addDependency(TimerServiceDeploymentProcessor.PATH_SERVICE_NAME, String.class, journalTimerPersistence.getBaseDir())
+                    .addDependency(TransactionManagerService.SERVICE_NAME, TransactionManager.class, journalTimerPersistence.getTransactionManager())
+                    .addDependency(TransactionSynchronizationRegistryService.SERVICE_NAME, TransactionSynchronizationRegistry.class, journalTimerPersistence.getTransactionSynchronizationRegistry())
+                    .install());
+        } else {
+            final FileTimerPersistence fileTimerPersistence = new FileTimerPersistence(true);
+            newControllers.add(context.getServiceTarget().addService(TimerServiceDeploymentProcessor.TIMER_PERSISTENCE_SERVICE_NAME, fileTimerPersistence)
+                    .addDependency(Services.JBOSS_SERVICE_MODULE_LOADER, ModuleLoader.class, fileTimerPersistence.getModuleLoader())
+                    .addDependency(TimerServiceDeploymentProcessor.PATH_SERVICE_NAME, String.class, fileTimerPersistence.getBaseDir())
+                    .addDependency(TransactionManagerService.SERVICE_NAME, TransactionManager.class, fileTimerPersistence.getTransactionManager())
+                    .addDependency(TransactionSynchronizationRegistryService.SERVICE_NAME, TransactionSynchronizationRegistry.class, fileTimerPersistence.getTransactionSynchronizationRegistry())
+                    .install());
+        }
 
     }
 
-    private static final class TimerValueService implements Service<Timer> {
+    private static final class TimeoutSchedulerService implements Service<TimeoutScheduler> {
 
-        private Timer timer;
+        private final TimeoutSchedulerType type;
+        private TimeoutScheduler scheduler;
+
+        TimeoutSchedulerService(final TimeoutSchedulerType type) {
+            this.type = type;
+        }
 
         @Override
         public synchronized void start(final StartContext context) throws StartException {
-            timer = new Timer();
+            scheduler = type.createScheduler();
         }
 
         @Override
         public synchronized void stop(final StopContext context) {
-            timer.cancel();
-            timer = null;
+            scheduler.shutdown();
+            scheduler = null;
         }
 
         @Override
-        public synchronized Timer getValue() throws IllegalStateException, IllegalArgumentException {
-            return timer;
+        public synchronized TimeoutScheduler getValue() throws IllegalStateException, IllegalArgumentException {
+            return scheduler;
         }
     }
 }
@@ -0,0 +1,90 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2012, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.jboss.as.ejb3.subsystem;
+
+import org.jboss.as.controller.AbstractRuntimeOnlyHandler;
+import org.jboss.as.controller.OperationContext;
+import org.jboss.as.controller.OperationFailedException;
+import org.jboss.as.controller.SimpleAttributeDefinition;
+import org.jboss.as.controller.SimpleAttributeDefinitionBuilder;
+import org.jboss.as.controller.descriptions.ModelDescriptionConstants;
+import org.jboss.as.controller.registry.AttributeAccess;
+import org.jboss.as.controller.registry.ManagementResourceRegistration;
+import org.jboss.as.ejb3.deployment.processors.TimerServiceDeploymentProcessor;
+import org.jboss.as.ejb3.timerservice.scheduler.TimeoutScheduler;
+import org.jboss.dmr.ModelNode;
+import org.jboss.dmr.ModelType;
+import org.jboss.msc.service.ServiceController;
+
+import static org.jboss.as.ejb3.EjbMessages.MESSAGES;
+
+/**
+ * Handler for the metrics of the {@link TimeoutScheduler} shared by all timer services.
+ */
+public class TimerServiceMetricsHandler extends AbstractRuntimeOnlyHandler {
+
+    public static final SimpleAttributeDefinition PENDING_TIMEOUTS =
+            new SimpleAttributeDefinitionBuilder(EJB3SubsystemModel.PENDING_TIMEOUTS, ModelType.INT, true)
+                    .setFlags(AttributeAccess.Flag.STORAGE_RUNTIME)
+                    .build();
+
+    public static final SimpleAttributeDefinition MAX_TIMEOUT_LAG =
+            new SimpleAttributeDefinitionBuilder(EJB3SubsystemModel.MAX_TIMEOUT_LAG, ModelType.LONG, true)
+                    .setFlags(AttributeAccess.Flag.STORAGE_RUNTIME)
+                    .build();
+
+    public static final SimpleAttributeDefinition AVERAGE_TIMEOUT_LAG =
+            new SimpleAttributeDefinitionBuilder(EJB3SubsystemModel.AVERAGE_TIMEOUT_LAG, ModelType.LONG, true)
+                    .setFlags(AttributeAccess.Flag.STORAGE_RUNTIME)
+                    .build();
+
+    public static final TimerServiceMetricsHandler INSTANCE = new TimerServiceMetricsHandler();
+
+    private TimerServiceMetricsHandler() {
+    }
+
+    @Override
+    protected void executeRuntimeStep(OperationContext context, ModelNode operation) throws OperationFailedException {
+        final String attributeName = operation.require(ModelDescriptionConstants.NAME).asString();
+        final ServiceController<?> controller = context.getServiceRegistry(false).getService(TimerServiceDeploymentProcessor.TIMER_SERVICE_NAME);
+        final TimeoutScheduler scheduler = controller == null ? null : (TimeoutScheduler) controller.getValue();
+        if (scheduler != null) {
+            if (PENDING_TIMEOUTS.getName().equals(attributeName)) {
+                context.getResult().set(scheduler.getPendingTimeoutCount());
+            } else if (MAX_TIMEOUT_LAG.getName().equals(attributeName)) {
+                context.getResult().set(scheduler.getMaxTimeoutLag());
+            } else if (AVERAGE_TIMEOUT_LAG.getName().equals(attributeName)) {
+                context.getResult().set(scheduler.getAverageTimeoutLag());
+            } else {
+                // Bug; we were registered for an attribute but there is no code for handling it
+                throw MESSAGES.unknownAttribute(attributeName);
+            }
+        }
+        context.completeStep();
+    }
+
+    void registerMetrics(final ManagementResourceRegistration resourceRegistration) {
+        resourceRegistration.registerMetric(PENDING_TIMEOUTS, this);
+        resourceRegistration.registerMetric(MAX_TIMEOUT_LAG, this);
+        resourceRegistration.registerMetric(AVERAGE_TIMEOUT_LAG, this);
+    }
+}
@@ -32,11 +32,15 @@ import org.jboss.as.controller.ResourceDefinition;
 import org.jboss.as.controller.SimpleAttributeDefinition;
 import org.jboss.as.controller.SimpleAttributeDefinitionBuilder;
 import org.jboss.as.controller.SimpleResourceDefinition;
+import org.jboss.as.controller.operations.validation.EnumValidator;
 import org.jboss.as.controller.operations.validation.ModelTypeValidator;
 import org.jboss.as.controller.operations.validation.StringLengthValidator;
 import org.jboss.as.controller.registry.AttributeAccess;
 import org.jboss.as.controller.registry.ManagementResourceRegistration;
 import org.jboss.as.controller.registry.OperationEntry;
+import org.jboss.as.ejb3.timerservice.persistence.TimerPersistenceType;
+import org.jboss.as.ejb3.timerservice.scheduler.TimeoutSchedulerType;
+import org.jboss.dmr.ModelNode;
 import org.jboss.dmr.ModelType;
 
 /**
@@ -66,6 +70,21 @@ public class TimerServiceResourceDefinition extends SimpleResourceDefinition {
                     .build();
 
 
+    public static final SimpleAttributeDefinition SCHEDULER =
+            new SimpleAttributeDefinitionBuilder(EJB3SubsystemModel.SCHEDULER, ModelType.STRING, true)
+                    .setDefaultValue(new ModelNode().set(TimeoutSchedulerType.TIMER.toString()))
+                    .setValidator(new EnumValidator<TimeoutSchedulerType>(TimeoutSchedulerType.class, true, false))
+                    .setFlags(AttributeAccess.Flag.RESTART_ALL_SERVICES)
+                    .build();
+
+    public static final SimpleAttributeDefinition DATA_STORE_TYPE =
+            new SimpleAttributeDefinitionBuilder(EJB3SubsystemModel.DATA_STORE_TYPE, ModelType.STRING, true)
+                    .setXmlName(EJB3SubsystemXMLAttribute.TYPE.getLocalName())
+                    .setDefaultValue(new ModelNode().set(TimerPersistenceType.FILE.toString()))
+                    .setValidator(new EnumValidator<TimerPersistenceType>(TimerPersistenceType.class, true, false))
+                    .setFlags(AttributeAccess.Flag.RESTART_ALL_SERVICES)
+                    .build();
+
     public static final Map<String, AttributeDefinition> ATTRIBUTES ;
 
     static {
@@ -73,6 +92,8 @@ public class TimerServiceResourceDefinition extends SimpleResourceDefinition {
         map.put(PATH.getName(), PATH);
         map.put(RELATIVE_TO.getName(), RELATIVE_TO);
         map.put(THREAD_POOL_NAME.getName(), THREAD_POOL_NAME);
+        map.put(SCHEDULER.getName(), SCHEDULER);
+        map.put(DATA_STORE_TYPE.getName(), DATA_STORE_TYPE);
 
         ATTRIBUTES = Collections.unmodifiableMap(map);
     }
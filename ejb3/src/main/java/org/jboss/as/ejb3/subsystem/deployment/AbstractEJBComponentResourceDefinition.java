@@ -88,6 +88,10 @@ public abstract class AbstractEJBComponentResourceDefinition extends SimpleResou
         }
     };
 
+    public static final SimpleAttributeDefinition PENDING_TIMEOUTS = new SimpleAttributeDefinitionBuilder("pending-timeouts", ModelType.INT, true)
+            .setFlags(AttributeAccess.Flag.STORAGE_RUNTIME)
+            .build();
+
     // Pool attributes
 
     public static final SimpleAttributeDefinition POOL_AVAILABLE_COUNT = new SimpleAttributeDefinitionBuilder("pool-available-count", ModelType.INT, false)
@@ -121,6 +125,7 @@ public abstract class AbstractEJBComponentResourceDefinition extends SimpleResou
         resourceRegistration.registerReadOnlyAttribute(DECLARED_ROLES, handler);
         if (componentType.hasTimer()) {
             resourceRegistration.registerReadOnlyAttribute(TimerAttributeDefinition.INSTANCE, handler);
+            resourceRegistration.registerMetric(PENDING_TIMEOUTS, handler);
         }
 
         if (componentType.hasPool()) {
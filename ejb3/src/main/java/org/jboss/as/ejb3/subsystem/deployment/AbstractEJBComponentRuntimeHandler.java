@@ -38,6 +38,7 @@ import org.jboss.as.controller.descriptions.ModelDescriptionConstants;
 import org.jboss.as.ejb3.component.EJBComponent;
 import org.jboss.as.ejb3.pool.Pool;
 import org.jboss.as.ejb3.security.EJBSecurityMetaData;
+import org.jboss.as.ejb3.timerservice.TimerServiceImpl;
 import org.jboss.dmr.ModelNode;
 import org.jboss.msc.service.ServiceController;
 import org.jboss.msc.service.ServiceName;
@@ -46,6 +47,7 @@ import org.jboss.msc.service.ServiceRegistry;
 import static org.jboss.as.ejb3.EjbMessages.MESSAGES;
 import static org.jboss.as.ejb3.subsystem.deployment.AbstractEJBComponentResourceDefinition.COMPONENT_CLASS_NAME;
 import static org.jboss.as.ejb3.subsystem.deployment.AbstractEJBComponentResourceDefinition.DECLARED_ROLES;
+import static org.jboss.as.ejb3.subsystem.deployment.AbstractEJBComponentResourceDefinition.PENDING_TIMEOUTS;
 import static org.jboss.as.ejb3.subsystem.deployment.AbstractEJBComponentResourceDefinition.POOL_AVAILABLE_COUNT;
 import static org.jboss.as.ejb3.subsystem.deployment.AbstractEJBComponentResourceDefinition.POOL_CREATE_COUNT;
 import static org.jboss.as.ejb3.subsystem.deployment.AbstractEJBComponentResourceDefinition.POOL_CURRENT_SIZE;
@@ -129,6 +131,11 @@ public abstract class AbstractEJBComponentRuntimeHandler<T extends EJBComponent>
             }
         } else if (componentType.hasTimer() && TimerAttributeDefinition.INSTANCE.getName().equals(attributeName)) {
             TimerAttributeDefinition.addTimers(component, context.getResult());
+        } else if (componentType.hasTimer() && PENDING_TIMEOUTS.getName().equals(attributeName)) {
+            final javax.ejb.TimerService timerService = component.getTimerService();
+            if (timerService instanceof TimerServiceImpl) {
+                context.getResult().set(((TimerServiceImpl) timerService).getPendingTimeoutCount());
+            }
         } else if (hasPool && POOL_AVAILABLE_COUNT.getName().equals(attributeName)) {
             final Pool<?> pool = componentType.getPool(component);
             final ModelNode result = context.getResult();
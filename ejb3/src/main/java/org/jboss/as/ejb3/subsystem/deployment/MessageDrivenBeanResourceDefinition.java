@@ -23,7 +23,12 @@
 package org.jboss.as.ejb3.subsystem.deployment;
 
 import org.jboss.as.controller.ResourceDefinition;
+import org.jboss.as.controller.SimpleAttributeDefinition;
+import org.jboss.as.controller.SimpleAttributeDefinitionBuilder;
+import org.jboss.as.controller.registry.AttributeAccess;
+import org.jboss.as.controller.registry.ManagementResourceRegistration;
 import org.jboss.as.ejb3.component.messagedriven.MessageDrivenComponent;
+import org.jboss.dmr.ModelType;
 
 /**
  * {@link ResourceDefinition} for a {@link MessageDrivenComponent}.
@@ -32,9 +37,30 @@ import org.jboss.as.ejb3.component.messagedriven.MessageDrivenComponent;
  */
 public class MessageDrivenBeanResourceDefinition extends AbstractEJBComponentResourceDefinition {
 
+    // Delivery attributes
+
+    public static final SimpleAttributeDefinition DELIVERY_COUNT = new SimpleAttributeDefinitionBuilder("delivery-count", ModelType.LONG, false)
+            .setFlags(AttributeAccess.Flag.STORAGE_RUNTIME).build();
+    public static final SimpleAttributeDefinition AVERAGE_DELIVERY_TIME = new SimpleAttributeDefinitionBuilder("average-delivery-time", ModelType.LONG, false)
+            .setFlags(AttributeAccess.Flag.STORAGE_RUNTIME).build();
+    public static final SimpleAttributeDefinition DELIVERY_COMMIT_COUNT = new SimpleAttributeDefinitionBuilder("delivery-commit-count", ModelType.LONG, false)
+            .setFlags(AttributeAccess.Flag.STORAGE_RUNTIME).build();
+    public static final SimpleAttributeDefinition DELIVERY_ROLLBACK_COUNT = new SimpleAttributeDefinitionBuilder("delivery-rollback-count", ModelType.LONG, false)
+            .setFlags(AttributeAccess.Flag.STORAGE_RUNTIME).build();
+
     public static final MessageDrivenBeanResourceDefinition INSTANCE = new MessageDrivenBeanResourceDefinition();
 
     private MessageDrivenBeanResourceDefinition() {
         super(EJBComponentType.MESSAGE_DRIVEN);
     }
+
+    @Override
+    public void registerAttributes(ManagementResourceRegistration resourceRegistration) {
+        super.registerAttributes(resourceRegistration);
+        final MessageDrivenBeanRuntimeHandler handler = MessageDrivenBeanRuntimeHandler.INSTANCE;
+        resourceRegistration.registerMetric(DELIVERY_COUNT, handler);
+        resourceRegistration.registerMetric(AVERAGE_DELIVERY_TIME, handler);
+        resourceRegistration.registerMetric(DELIVERY_COMMIT_COUNT, handler);
+        resourceRegistration.registerMetric(DELIVERY_ROLLBACK_COUNT, handler);
+    }
 }
@@ -22,7 +22,15 @@
 
 package org.jboss.as.ejb3.subsystem.deployment;
 
+import org.jboss.as.controller.OperationContext;
+import org.jboss.as.controller.PathAddress;
 import org.jboss.as.ejb3.component.messagedriven.MessageDrivenComponent;
+import org.jboss.as.ejb3.inflow.MessageDeliveryStatistics;
+
+import static org.jboss.as.ejb3.subsystem.deployment.MessageDrivenBeanResourceDefinition.AVERAGE_DELIVERY_TIME;
+import static org.jboss.as.ejb3.subsystem.deployment.MessageDrivenBeanResourceDefinition.DELIVERY_COMMIT_COUNT;
+import static org.jboss.as.ejb3.subsystem.deployment.MessageDrivenBeanResourceDefinition.DELIVERY_COUNT;
+import static org.jboss.as.ejb3.subsystem.deployment.MessageDrivenBeanResourceDefinition.DELIVERY_ROLLBACK_COUNT;
 
 /**
  * Handles operations that provide runtime management of a {@link MessageDrivenComponent}.
@@ -36,4 +44,20 @@ public class MessageDrivenBeanRuntimeHandler extends AbstractEJBComponentRuntime
     private MessageDrivenBeanRuntimeHandler() {
         super(EJBComponentType.MESSAGE_DRIVEN, MessageDrivenComponent.class);
     }
+
+    @Override
+    protected void executeReadAttribute(String attributeName, OperationContext context, MessageDrivenComponent component, PathAddress address) {
+        final MessageDeliveryStatistics statistics = component.getDeliveryStatistics();
+        if (DELIVERY_COUNT.getName().equals(attributeName)) {
+            context.getResult().set(statistics.getDeliveryCount());
+        } else if (AVERAGE_DELIVERY_TIME.getName().equals(attributeName)) {
+            context.getResult().set(statistics.getAverageDeliveryTime());
+        } else if (DELIVERY_COMMIT_COUNT.getName().equals(attributeName)) {
+            context.getResult().set(statistics.getCommitCount());
+        } else if (DELIVERY_ROLLBACK_COUNT.getName().equals(attributeName)) {
+            context.getResult().set(statistics.getRollbackCount());
+        } else {
+            super.executeReadAttribute(attributeName, context, component, address);
+        }
+    }
 }
@@ -24,8 +24,15 @@ package org.jboss.as.ejb3.subsystem.deployment;
 
 import org.jboss.as.controller.OperationContext;
 import org.jboss.as.controller.PathAddress;
+import org.jboss.as.ejb3.cache.CacheStatistics;
 import org.jboss.as.ejb3.component.stateful.StatefulSessionComponent;
 
+import static org.jboss.as.ejb3.subsystem.deployment.StatefulSessionBeanDeploymentResourceDefinition.AVERAGE_ACTIVATION_TIME;
+import static org.jboss.as.ejb3.subsystem.deployment.StatefulSessionBeanDeploymentResourceDefinition.AVERAGE_PASSIVATION_TIME;
+import static org.jboss.as.ejb3.subsystem.deployment.StatefulSessionBeanDeploymentResourceDefinition.CACHE_HIT_COUNT;
+import static org.jboss.as.ejb3.subsystem.deployment.StatefulSessionBeanDeploymentResourceDefinition.CACHE_MISS_COUNT;
+import static org.jboss.as.ejb3.subsystem.deployment.StatefulSessionBeanDeploymentResourceDefinition.PASSIVATION_COUNT;
+
 /**
  * Handles operations that provide runtime management of a {@link StatefulSessionComponent}.
  *
@@ -41,7 +48,19 @@ public class StatefulSessionBeanRuntimeHandler extends AbstractEJBComponentRunti
 
     @Override
     protected void executeReadAttribute(String attributeName, OperationContext context, StatefulSessionComponent component, PathAddress address) {
-        super.executeReadAttribute(attributeName, context, component, address);
-        //TODO expose the cache
+        final CacheStatistics statistics = component.getCache().getStatistics();
+        if (CACHE_HIT_COUNT.getName().equals(attributeName)) {
+            context.getResult().set(statistics.getHitCount());
+        } else if (CACHE_MISS_COUNT.getName().equals(attributeName)) {
+            context.getResult().set(statistics.getMissCount());
+        } else if (AVERAGE_ACTIVATION_TIME.getName().equals(attributeName)) {
+            context.getResult().set(statistics.getAverageActivationTime());
+        } else if (PASSIVATION_COUNT.getName().equals(attributeName)) {
+            context.getResult().set(statistics.getPassivationCount());
+        } else if (AVERAGE_PASSIVATION_TIME.getName().equals(attributeName)) {
+            context.getResult().set(statistics.getAveragePassivationTime());
+        } else {
+            super.executeReadAttribute(attributeName, context, component, address);
+        }
     }
 }
@@ -68,6 +68,8 @@ import org.jboss.as.ejb3.timerservice.persistence.TimeoutMethod;
 import org.jboss.as.ejb3.timerservice.persistence.TimerEntity;
 import org.jboss.as.ejb3.timerservice.persistence.TimerPersistence;
 import org.jboss.as.ejb3.timerservice.schedule.CalendarBasedTimeout;
+import org.jboss.as.ejb3.timerservice.scheduler.ScheduledTimeout;
+import org.jboss.as.ejb3.timerservice.scheduler.TimeoutScheduler;
 import org.jboss.as.ejb3.timerservice.spi.ScheduleTimer;
 import org.jboss.as.ejb3.timerservice.spi.TimedObjectInvoker;
 import org.jboss.as.ejb3.timerservice.task.TimerTask;
@@ -112,7 +114,7 @@ public class TimerServiceImpl implements TimerService, Service<TimerService> {
 
     private final InjectedValue<ExecutorService> executorServiceInjectedValue = new InjectedValue<ExecutorService>();
 
-    private final InjectedValue<java.util.Timer> timerInjectedValue = new InjectedValue<java.util.Timer>();
+    private final InjectedValue<TimeoutScheduler> timeoutSchedulerInjectedValue = new InjectedValue<TimeoutScheduler>();
 
     private final InjectedValue<TimedObjectInvoker> timedObjectInvoker = new InjectedValue<TimedObjectInvoker>();
 
@@ -142,9 +144,9 @@ public class TimerServiceImpl implements TimerService, Service<TimerService> {
     private final Map<String, TimerImpl> persistentWaitingOnTxCompletionTimers = Collections.synchronizedMap(new HashMap<String, TimerImpl>());
 
     /**
-     * Holds the {@link java.util.concurrent.Future} of each of the timer tasks that have been scheduled
+     * Holds the {@link ScheduledTimeout} of each of the timer tasks that have been scheduled
      */
-    private final Map<String, java.util.TimerTask> scheduledTimerFutures = new HashMap<String, java.util.TimerTask>();
+    private final Map<String, ScheduledTimeout> scheduledTimerFutures = new HashMap<String, ScheduledTimeout>();
 
     private TransactionManager transactionManager;
 
@@ -824,15 +826,15 @@ public class TimerServiceImpl implements TimerService, Service<TimerService> {
                 ROOT_LOGGER.debug("Scheduling timer " + timer + " at fixed rate, starting at " + delay
                         + " milli seconds from now with repeated interval=" + intervalDuration);
                 // schedule the task
-                this.timerInjectedValue.getValue().scheduleAtFixedRate(task, delay, intervalDuration);
+                final ScheduledTimeout scheduledTimeout = this.timeoutSchedulerInjectedValue.getValue().scheduleAtFixedRate(task, delay, intervalDuration);
                 // maintain it in timerservice for future use (like cancellation)
-                this.scheduledTimerFutures.put(timer.getId(), task);
+                this.scheduledTimerFutures.put(timer.getId(), scheduledTimeout);
             } else {
                 ROOT_LOGGER.debug("Scheduling a single action timer " + timer + " starting at " + delay + " milli seconds from now");
                 // schedule the task
-                this.timerInjectedValue.getValue().schedule(task, delay);
+                final ScheduledTimeout scheduledTimeout = this.timeoutSchedulerInjectedValue.getValue().schedule(task, delay);
                 // maintain it in timerservice for future use (like cancellation)
-                this.scheduledTimerFutures.put(timer.getId(), task);
+                this.scheduledTimerFutures.put(timer.getId(), scheduledTimeout);
 
             }
         }
@@ -845,13 +847,24 @@ public class TimerServiceImpl implements TimerService, Service<TimerService> {
      */
     protected void cancelTimeout(final TimerImpl timer) {
         synchronized (this.scheduledTimerFutures) {
-            java.util.TimerTask timerTask = this.scheduledTimerFutures.remove(timer.getId());
-            if (timerTask != null) {
-                timerTask.cancel();
+            ScheduledTimeout scheduledTimeout = this.scheduledTimerFutures.remove(timer.getId());
+            if (scheduledTimeout != null) {
+                scheduledTimeout.cancel();
             }
         }
     }
 
+    /**
+     * Returns the number of timeouts of this timed object which are currently scheduled
+     *
+     * @return the number of pending timeouts
+     */
+    public int getPendingTimeoutCount() {
+        synchronized (this.scheduledTimerFutures) {
+            return this.scheduledTimerFutures.size();
+        }
+    }
+
     private boolean isSingletonBeanInvocation() {
         return ejbComponentInjectedValue.getValue() instanceof SingletonComponent;
     }
@@ -1052,8 +1065,8 @@ public class TimerServiceImpl implements TimerService, Service<TimerService> {
         return executorServiceInjectedValue;
     }
 
-    public InjectedValue<java.util.Timer> getTimerInjectedValue() {
-        return timerInjectedValue;
+    public InjectedValue<TimeoutScheduler> getTimeoutSchedulerInjectedValue() {
+        return timeoutSchedulerInjectedValue;
     }
 
     public InjectedValue<TimerPersistence> getTimerPersistence() {
@@ -1151,7 +1164,11 @@ public class TimerServiceImpl implements TimerService, Service<TimerService> {
         }
     }
 
-    private class Task extends java.util.TimerTask {
+    /**
+     * Triggered by the {@link TimeoutScheduler}; hands the timeout invocation off to the timer service executor, so that
+     * the scheduler thread is never blocked by a timeout method.
+     */
+    private class Task implements Runnable {
 
         private final Runnable delegate;
 
@@ -0,0 +1,69 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2012, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.jboss.as.ejb3.timerservice.persistence;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * The available {@link TimerPersistence} implementations.
+ */
+public enum TimerPersistenceType {
+
+    /**
+     * One file per timer, see {@link org.jboss.as.ejb3.timerservice.persistence.filestore.FileTimerPersistence}
+     */
+    FILE("file"),
+    /**
+     * An append-only journal, see {@link org.jboss.as.ejb3.timerservice.persistence.journal.JournalTimerPersistence}
+     */
+    JOURNAL("journal");
+
+    private static final Map<String, TimerPersistenceType> MAP;
+
+    static {
+        final Map<String, TimerPersistenceType> map = new HashMap<String, TimerPersistenceType>();
+        for (TimerPersistenceType type : values()) {
+            map.put(type.name, type);
+        }
+        MAP = map;
+    }
+
+    private final String name;
+
+    TimerPersistenceType(final String name) {
+        this.name = name;
+    }
+
+    public static TimerPersistenceType forName(final String name) {
+        final TimerPersistenceType type = MAP.get(name);
+        if (type == null) {
+            throw new IllegalArgumentException(name);
+        }
+        return type;
+    }
+
+    @Override
+    public String toString() {
+        return name;
+    }
+}
@@ -0,0 +1,456 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2012, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.jboss.as.ejb3.timerservice.persistence.journal;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+
+import javax.transaction.Status;
+import javax.transaction.Synchronization;
+import javax.transaction.SystemException;
+import javax.transaction.TransactionManager;
+import javax.transaction.TransactionSynchronizationRegistry;
+
+import org.jboss.as.ejb3.component.stateful.CurrentSynchronizationCallback;
+import org.jboss.as.ejb3.timerservice.TimerState;
+import org.jboss.as.ejb3.timerservice.persistence.TimerEntity;
+import org.jboss.as.ejb3.timerservice.persistence.TimerPersistence;
+import org.jboss.marshalling.InputStreamByteInput;
+import org.jboss.marshalling.Marshaller;
+import org.jboss.marshalling.MarshallerFactory;
+import org.jboss.marshalling.MarshallingConfiguration;
+import org.jboss.marshalling.ModularClassResolver;
+import org.jboss.marshalling.OutputStreamByteOutput;
+import org.jboss.marshalling.Unmarshaller;
+import org.jboss.marshalling.river.RiverMarshallerFactory;
+import org.jboss.modules.ModuleLoader;
+import org.jboss.msc.service.Service;
+import org.jboss.msc.service.StartContext;
+import org.jboss.msc.service.StartException;
+import org.jboss.msc.service.StopContext;
+import org.jboss.msc.value.InjectedValue;
+
+import static org.jboss.as.ejb3.EjbLogger.ROOT_LOGGER;
+import static org.jboss.as.ejb3.EjbMessages.MESSAGES;
+
+/**
+ * Persistent timer store backed by a {@link TimerJournal}.
+ * <p/>
+ * Unlike {@link org.jboss.as.ejb3.timerservice.persistence.filestore.FileTimerPersistence}, which rewrites and syncs
+ * one file per timer on every change, all changes are appended to a shared journal. All timers persisted within one
+ * transaction are written with a single append and a single fsync when the transaction commits.
+ * <p/>
+ * The journal is replayed when the service starts, but the timers are only unmarshalled the first time their timed
+ * object asks for them, as the classes they reference are not visible before the deployment is installed.
+ */
+public class JournalTimerPersistence implements TimerPersistence, Service<JournalTimerPersistence> {
+
+    /**
+     * The name of the directory below the timer data store which holds the journal segments
+     */
+    public static final String JOURNAL_DIRECTORY = "journal";
+
+    static final long DEFAULT_MAX_SEGMENT_SIZE = 4 * 1024 * 1024;
+
+    private static final String GROUP_COMMIT_KEY = "org.jboss.as.ejb3.timerJournalTransactionKey";
+
+    private final boolean createIfNotExists;
+    private final long maxSegmentSize;
+    private MarshallerFactory factory;
+    private MarshallingConfiguration configuration;
+    private volatile TimerJournal journal;
+    private final InjectedValue<TransactionManager> transactionManager = new InjectedValue<TransactionManager>();
+    private final InjectedValue<TransactionSynchronizationRegistry> transactionSynchronizationRegistry = new InjectedValue<TransactionSynchronizationRegistry>();
+    private final InjectedValue<ModuleLoader> moduleLoader = new InjectedValue<ModuleLoader>();
+    private final InjectedValue<String> baseDir = new InjectedValue<String>();
+
+    /**
+     * map of timed object id : timer id : timer
+     */
+    private final ConcurrentMap<String, Map<String, TimerEntity>> timers = new ConcurrentHashMap<String, Map<String, TimerEntity>>();
+    private final ConcurrentMap<String, Lock> locks = new ConcurrentHashMap<String, Lock>();
+
+    public JournalTimerPersistence(final boolean createIfNotExists) {
+        this(createIfNotExists, DEFAULT_MAX_SEGMENT_SIZE);
+    }
+
+    JournalTimerPersistence(final boolean createIfNotExists, final long maxSegmentSize) {
+        this.createIfNotExists = createIfNotExists;
+        this.maxSegmentSize = maxSegmentSize;
+    }
+
+    @Override
+    public synchronized void start(final StartContext context) throws StartException {
+
+        final RiverMarshallerFactory factory = new RiverMarshallerFactory();
+        final MarshallingConfiguration configuration = new MarshallingConfiguration();
+        configuration.setClassResolver(ModularClassResolver.getInstance(moduleLoader.getValue()));
+
+        this.configuration = configuration;
+        this.factory = factory;
+        final File baseDir = new File(this.baseDir.getValue());
+        if (!baseDir.exists()) {
+            if (createIfNotExists) {
+                if (!baseDir.mkdirs()) {
+                    throw MESSAGES.failToCreateTimerFileStoreDir(baseDir);
+                }
+            } else {
+                throw MESSAGES.timerFileStoreDirNotExist(baseDir);
+            }
+        }
+        if (!baseDir.isDirectory()) {
+            throw MESSAGES.invalidTimerFileStoreDir(baseDir);
+        }
+        final File journalDir = new File(baseDir, JOURNAL_DIRECTORY);
+        if (!journalDir.isDirectory() && !journalDir.mkdirs()) {
+            throw MESSAGES.failToCreateTimerFileStoreDir(journalDir);
+        }
+        final TimerJournal journal = new TimerJournal(journalDir, maxSegmentSize);
+        try {
+            journal.open();
+        } catch (IOException e) {
+            journal.close();
+            throw MESSAGES.failToOpenTimerJournal(journalDir, e);
+        }
+        ROOT_LOGGER.debugf("Restored %d timers from timer journal %s", journal.getLiveRecordCount(), journalDir);
+        this.journal = journal;
+    }
+
+    @Override
+    public synchronized void stop(final StopContext context) {
+        journal.close();
+        journal = null;
+        timers.clear();
+        locks.clear();
+        factory = null;
+        configuration = null;
+    }
+
+    @Override
+    public JournalTimerPersistence getValue() throws IllegalStateException, IllegalArgumentException {
+        return this;
+    }
+
+    @Override
+    public void addTimer(final TimerEntity timerEntity) {
+        persistTimer(timerEntity, true);
+    }
+
+    @Override
+    public void persistTimer(final TimerEntity timerEntity) {
+        persistTimer(timerEntity, false);
+    }
+
+    private void persistTimer(final TimerEntity timerEntity, boolean newTimer) {
+        try {
+            final int status = transactionManager.getValue().getStatus();
+            if (status == Status.STATUS_MARKED_ROLLBACK || status == Status.STATUS_ROLLEDBACK ||
+                    status == Status.STATUS_ROLLING_BACK) {
+                //no need to persist anyway
+                return;
+            }
+
+            if (status == Status.STATUS_NO_TRANSACTION ||
+                    status == Status.STATUS_UNKNOWN || isBeforeCompletion()
+                    || status == Status.STATUS_COMMITTED) {
+                write(Collections.singletonMap(timerEntity, newTimer));
+            } else {
+                final TransactionSynchronizationRegistry registry = transactionSynchronizationRegistry.getValue();
+                GroupCommitSynchronization sync = (GroupCommitSynchronization) registry.getResource(GROUP_COMMIT_KEY);
+                if (sync == null) {
+                    sync = new GroupCommitSynchronization();
+                    registry.registerInterposedSynchronization(sync);
+                    registry.putResource(GROUP_COMMIT_KEY, sync);
+                }
+                final String key = timerTransactionKey(timerEntity);
+                sync.add(key, newTimer);
+                //update the most recent version of the timer to be persisted
+                registry.putResource(key, timerEntity);
+            }
+        } catch (SystemException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    private String timerTransactionKey(final TimerEntity timerEntity) {
+        return "org.jboss.as.ejb3.timerTransactionKey." + timerEntity.getId();
+    }
+
+    @Override
+    public void timerUndeployed(final String timedObjectId) {
+        final Lock lock = getLock(timedObjectId);
+        lock.lock();
+        try {
+            locks.remove(timedObjectId);
+            timers.remove(timedObjectId);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private boolean isBeforeCompletion() {
+        final CurrentSynchronizationCallback.CallbackType type = CurrentSynchronizationCallback.get();
+        if (type != null) {
+            return type == CurrentSynchronizationCallback.CallbackType.BEFORE_COMPLETION;
+        }
+        return false;
+    }
+
+    @Override
+    public TimerEntity loadTimer(final String id, final String timedObjectId) {
+        final Lock lock = getLock(timedObjectId);
+        lock.lock();
+        try {
+            final Map<String, TimerEntity> timers = getTimers(timedObjectId);
+            final TimerEntity timer = timers.get(id);
+            if (timer == null) {
+                return null;
+            }
+            return mostRecentEntityVersion(timer);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public List<TimerEntity> loadActiveTimers(final String timedObjectId, Object primaryKey) {
+        final Lock lock = getLock(timedObjectId);
+        lock.lock();
+        try {
+            final Map<String, TimerEntity> timers = getTimers(timedObjectId);
+
+            final List<TimerEntity> entities = new ArrayList<TimerEntity>();
+            for (Map.Entry<String, TimerEntity> entry : timers.entrySet()) {
+                if (primaryKey == null || primaryKey.equals(entry.getValue().getPrimaryKey())) {
+                    entities.add(mostRecentEntityVersion(entry.getValue()));
+                }
+            }
+            return entities;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public List<TimerEntity> loadActiveTimers(final String timedObjectId) {
+        return loadActiveTimers(timedObjectId, null);
+    }
+
+    /**
+     * Returns either the loaded entity or the most recent version of the entity that has
+     * been persisted in this transaction.
+     */
+    private TimerEntity mostRecentEntityVersion(final TimerEntity timerEntity) {
+        try {
+            final int status = transactionManager.getValue().getStatus();
+            if (status == Status.STATUS_UNKNOWN ||
+                    status == Status.STATUS_NO_TRANSACTION) {
+                return timerEntity;
+            }
+            final String key = timerTransactionKey(timerEntity);
+            TimerEntity existing = (TimerEntity) transactionSynchronizationRegistry.getValue().getResource(key);
+            return existing != null ? existing : timerEntity;
+        } catch (SystemException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    private Lock getLock(final String timedObjectId) {
+        Lock lock = locks.get(timedObjectId);
+        if (lock == null) {
+            final Lock addedLock = new ReentrantLock();
+            lock = locks.putIfAbsent(timedObjectId, addedLock);
+            if (lock == null) {
+                lock = addedLock;
+            }
+        }
+        return lock;
+    }
+
+    /**
+     * Gets the timer map, unmarshalling the journal records if necessary. Should be called under lock
+     *
+     * @param timedObjectId The timed object id
+     * @return The timers for the object
+     */
+    private Map<String, TimerEntity> getTimers(final String timedObjectId) {
+        Map<String, TimerEntity> map = timers.get(timedObjectId);
+        if (map == null) {
+            map = loadTimersFromJournal(timedObjectId);
+            timers.put(timedObjectId, map);
+        }
+        return map;
+    }
+
+    private Map<String, TimerEntity> loadTimersFromJournal(final String timedObjectId) {
+        final Map<String, TimerEntity> timers = new HashMap<String, TimerEntity>();
+        for (Map.Entry<String, byte[]> entry : journal.getTimers(timedObjectId).entrySet()) {
+            try {
+                final Unmarshaller unmarshaller = factory.createUnmarshaller(configuration);
+                unmarshaller.start(new InputStreamByteInput(new ByteArrayInputStream(entry.getValue())));
+                final TimerEntity entity = unmarshaller.readObject(TimerEntity.class);
+                unmarshaller.finish();
+                timers.put(entity.getId(), entity);
+            } catch (Exception e) {
+                ROOT_LOGGER.failToRestoreTimerFromJournal(entry.getKey(), timedObjectId, e);
+            }
+        }
+        return timers;
+    }
+
+    private byte[] marshall(final TimerEntity entity) {
+        try {
+            final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            final Marshaller marshaller = factory.createMarshaller(configuration);
+            marshaller.start(new OutputStreamByteOutput(bytes));
+            marshaller.writeObject(entity);
+            marshaller.finish();
+            return bytes.toByteArray();
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    private static boolean isFinished(final TimerEntity entity) {
+        return entity.getTimerState() == TimerState.CANCELED ||
+                entity.getTimerState() == TimerState.EXPIRED;
+    }
+
+    /**
+     * Applies the given timer changes to the in memory state and appends them to the journal as a single batch.
+     *
+     * @param updates the timers to write, mapped to whether they were newly created
+     */
+    private void write(final Map<TimerEntity, Boolean> updates) {
+        // marshall before taking any lock, the journal is shared by all timed objects
+        final Map<TimerEntity, byte[]> marshalled = new HashMap<TimerEntity, byte[]>();
+        for (TimerEntity entity : updates.keySet()) {
+            if (!isFinished(entity)) {
+                marshalled.put(entity, marshall(entity));
+            }
+        }
+        final TimerJournal journal = this.journal;
+        final List<TimerJournal.Record> records = new ArrayList<TimerJournal.Record>(updates.size());
+        // the journal lock is always taken before the timed object locks, never the other way round
+        synchronized (journal) {
+            for (Map.Entry<TimerEntity, Boolean> update : updates.entrySet()) {
+                final TimerEntity entity = update.getKey();
+                final Lock lock = getLock(entity.getTimedObjectId());
+                lock.lock();
+                try {
+                    final Map<String, TimerEntity> map = getTimers(entity.getTimedObjectId());
+                    if (isFinished(entity)) {
+                        if (map.remove(entity.getId()) != null) {
+                            records.add(new TimerJournal.Record(entity.getTimedObjectId(), entity.getId(), null));
+                        }
+                    } else if (update.getValue() || map.containsKey(entity.getId())) {
+                        //if it is not a new timer and is not in the map then it has
+                        //been removed by another thread.
+                        map.put(entity.getId(), entity);
+                        records.add(new TimerJournal.Record(entity.getTimedObjectId(), entity.getId(), marshalled.get(entity)));
+                    }
+                } finally {
+                    lock.unlock();
+                }
+            }
+            if (records.isEmpty()) {
+                return;
+            }
+            try {
+                journal.append(records);
+            } catch (IOException e) {
+                throw new RuntimeException(e);
+            }
+        }
+    }
+
+    /**
+     * Collects all timers persisted within one transaction, so they are written with a single journal append.
+     */
+    private final class GroupCommitSynchronization implements Synchronization {
+
+        /**
+         * transaction key of the timer : whether the timer was created in this transaction
+         */
+        private final Map<String, Boolean> keys = new LinkedHashMap<String, Boolean>();
+        private volatile Map<TimerEntity, Boolean> timers;
+
+        void add(final String transactionKey, final boolean newTimer) {
+            if (!keys.containsKey(transactionKey)) {
+                keys.put(transactionKey, newTimer);
+            }
+        }
+
+        @Override
+        public void beforeCompletion() {
+            //get the latest version of the entities
+            final TransactionSynchronizationRegistry registry = transactionSynchronizationRegistry.getValue();
+            final Map<TimerEntity, Boolean> timers = new LinkedHashMap<TimerEntity, Boolean>();
+            for (Map.Entry<String, Boolean> entry : keys.entrySet()) {
+                final TimerEntity timer = (TimerEntity) registry.getResource(entry.getKey());
+                if (timer != null) {
+                    timers.put(timer, entry.getValue());
+                }
+            }
+            this.timers = timers;
+        }
+
+        @Override
+        public void afterCompletion(final int status) {
+            final Map<TimerEntity, Boolean> timers = this.timers;
+            if (timers == null || timers.isEmpty()) {
+                return;
+            }
+            if (status == Status.STATUS_COMMITTED) {
+                write(timers);
+            }
+        }
+    }
+
+    public InjectedValue<TransactionManager> getTransactionManager() {
+        return transactionManager;
+    }
+
+    public InjectedValue<TransactionSynchronizationRegistry> getTransactionSynchronizationRegistry() {
+        return transactionSynchronizationRegistry;
+    }
+
+    public InjectedValue<ModuleLoader> getModuleLoader() {
+        return moduleLoader;
+    }
+
+    public InjectedValue<String> getBaseDir() {
+        return baseDir;
+    }
+}
@@ -0,0 +1,595 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2012, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.jboss.as.ejb3.timerservice.persistence.journal;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.zip.CRC32;
+
+import static org.jboss.as.ejb3.EjbLogger.ROOT_LOGGER;
+
+/**
+ * A segmented, append-only journal of timer records.
+ * <p/>
+ * Every record is either a <em>put</em>, carrying the marshalled state of a timer, or a <em>remove</em>. Records are
+ * written to the current segment file, a batch of records followed by a <em>commit</em> record with a single write and
+ * a single fsync. Once the current segment grows beyond the configured size a new one is started.
+ * <p/>
+ * The journal keeps the most recent put record of every live timer in memory. When more than half of the bytes on
+ * disk belong to superseded or removed records, the live records are copied into a fresh segment and the older
+ * segments are deleted, oldest first, so the journal size stays proportional to the number of live timers. If the
+ * compacted segment cannot be written the journal carries on with the existing segments.
+ * <p/>
+ * On {@link #open()} the segments are replayed in order and only the records that are still live are kept. The records
+ * of a batch are only applied once its commit record has been read. A record which is truncated or fails its checksum
+ * ends the replay of its segment, which is the expected state after a crash in the middle of a write. New records are
+ * appended to the last segment, after its last committed batch.
+ * <p/>
+ * Segment file layout: <code>magic (int), version (int)</code> followed by records of the form
+ * <code>length (int), type (byte), timedObjectId (UTF), timerId (UTF), data (length - header bytes), crc32 (int)</code>
+ * or <code>length (int), type (byte), record count (int), crc32 (int)</code> for commit records. Version 1 segments
+ * have no commit records, every record in them is applied on its own.
+ */
+final class TimerJournal {
+
+    static final String SEGMENT_PREFIX = "timers-";
+    static final String SEGMENT_SUFFIX = ".journal";
+
+    private static final int MAGIC = 0x454a544a;
+    private static final int VERSION = 2;
+    private static final int UNBATCHED_VERSION = 1;
+    private static final int HEADER_SIZE = 8;
+    /**
+     * Length and checksum of a record
+     */
+    private static final int RECORD_OVERHEAD = 8;
+
+    private static final byte PUT = 1;
+    private static final byte REMOVE = 2;
+    private static final byte COMMIT = 3;
+
+    /**
+     * The amount of dead bytes below which the journal is never compacted
+     */
+    private static final long MIN_COMPACTION_SIZE = 1024 * 1024;
+
+    private final File directory;
+    private final long maxSegmentSize;
+
+    /**
+     * timed object id : timer id : most recent put record
+     */
+    private final ConcurrentMap<String, ConcurrentMap<String, LiveRecord>> live = new ConcurrentHashMap<String, ConcurrentMap<String, LiveRecord>>();
+
+    /**
+     * The segments on disk, oldest first. The last one is the one records are appended to, unless {@link #current}
+     * is <code>null</code>, in which case the next append starts a new segment.
+     */
+    private final List<File> segments = new ArrayList<File>();
+    private long nextSegment;
+    private FileOutputStream current;
+    private long currentSize;
+
+    /**
+     * Size of all segments
+     */
+    private long totalBytes;
+    /**
+     * Size of the live records
+     */
+    private long liveBytes;
+    private int liveCount;
+    /**
+     * Size of the segments whose records were compacted into a newer segment, but which could not be deleted
+     */
+    private long obsoleteBytes;
+
+    TimerJournal(final File directory, final long maxSegmentSize) {
+        this.directory = directory;
+        this.maxSegmentSize = maxSegmentSize;
+    }
+
+    /**
+     * Replays the existing segments and opens the last one, or a new one, for writing.
+     */
+    synchronized void open() throws IOException {
+        final File[] files = directory.listFiles();
+        final Map<Long, File> existing = new HashMap<Long, File>();
+        if (files != null) {
+            for (File file : files) {
+                final long number = segmentNumber(file);
+                if (number >= 0) {
+                    existing.put(number, file);
+                }
+            }
+        }
+        final List<Long> numbers = new ArrayList<Long>(existing.keySet());
+        Collections.sort(numbers);
+        long committed = -1;
+        for (Long number : numbers) {
+            final File segment = existing.get(number);
+            committed = replay(segment);
+            segments.add(segment);
+            totalBytes += segment.length();
+            nextSegment = number + 1;
+        }
+        if (committed >= HEADER_SIZE && committed < maxSegmentSize) {
+            reopenSegment(segments.get(segments.size() - 1), committed);
+        } else {
+            startSegment();
+        }
+        compactIfNecessary();
+    }
+
+    synchronized void close() {
+        closeCurrent();
+        segments.clear();
+        live.clear();
+        totalBytes = 0;
+        liveBytes = 0;
+        liveCount = 0;
+        obsoleteBytes = 0;
+    }
+
+    /**
+     * Returns a snapshot of the marshalled timers of the given timed object.
+     *
+     * @param timedObjectId The timed object id
+     * @return timer id : marshalled timer
+     */
+    Map<String, byte[]> getTimers(final String timedObjectId) {
+        final Map<String, LiveRecord> records = live.get(timedObjectId);
+        if (records == null) {
+            return Collections.emptyMap();
+        }
+        final Map<String, byte[]> result = new HashMap<String, byte[]>();
+        for (Map.Entry<String, LiveRecord> entry : records.entrySet()) {
+            result.put(entry.getKey(), entry.getValue().data);
+        }
+        return result;
+    }
+
+    /**
+     * Writes the given records and their commit record with a single write and fsync. Once this method returns
+     * normally the records are durable; if it throws none of them will be replayed.
+     *
+     * @param records The records, in the order they should be applied
+     */
+    synchronized void append(final List<Record> records) throws IOException {
+        if (segments.isEmpty()) {
+            throw new IOException(directory + " is closed");
+        }
+        if (current == null) {
+            startSegment();
+        }
+        final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        final DataOutputStream out = new DataOutputStream(bytes);
+        final List<Integer> sizes = new ArrayList<Integer>(records.size());
+        for (Record record : records) {
+            sizes.add(writeRecord(out, record));
+        }
+        writeCommit(out, records.size());
+        out.flush();
+        try {
+            write(current, bytes.toByteArray());
+        } catch (IOException e) {
+            discardPartialWrite();
+            throw e;
+        }
+        currentSize += bytes.size();
+        totalBytes += bytes.size();
+        apply(records, sizes);
+
+        if (currentSize >= maxSegmentSize) {
+            // the next append starts a new segment
+            closeCurrent();
+        }
+        compactIfNecessary();
+    }
+
+    synchronized int getSegmentCount() {
+        return segments.size();
+    }
+
+    synchronized int getLiveRecordCount() {
+        return liveCount;
+    }
+
+    synchronized long getSize() {
+        return totalBytes;
+    }
+
+    /**
+     * @return the length of the committed part of the segment, or -1 if records must not be appended to it
+     */
+    private long replay(final File segment) throws IOException {
+        final long length = segment.length();
+        final DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(segment)));
+        final List<Record> batch = new ArrayList<Record>();
+        final List<Integer> batchSizes = new ArrayList<Integer>();
+        boolean batched = false;
+        long committed = 0;
+        try {
+            if (length < HEADER_SIZE || in.readInt() != MAGIC) {
+                ROOT_LOGGER.timerJournalSegmentCorrupt(segment, 0, length);
+                return -1;
+            }
+            final int version = in.readInt();
+            if (version != VERSION && version != UNBATCHED_VERSION) {
+                ROOT_LOGGER.timerJournalSegmentCorrupt(segment, 0, length);
+                return -1;
+            }
+            batched = version == VERSION;
+            long position = HEADER_SIZE;
+            committed = HEADER_SIZE;
+            final CRC32 crc = new CRC32();
+            while (position < length) {
+                final long remaining = length - position;
+                if (remaining < RECORD_OVERHEAD) {
+                    break;
+                }
+                final int size = in.readInt();
+                if (size <= 0 || size > remaining - RECORD_OVERHEAD) {
+                    break;
+                }
+                final byte[] body = new byte[size];
+                in.readFully(body);
+                crc.reset();
+                crc.update(body);
+                if (in.readInt() != (int) crc.getValue()) {
+                    break;
+                }
+                position += size + RECORD_OVERHEAD;
+                if (body[0] == COMMIT) {
+                    if (!batched || readCommitCount(body) != batch.size()) {
+                        break;
+                    }
+                    apply(batch, batchSizes);
+                    batch.clear();
+                    batchSizes.clear();
+                    committed = position;
+                    continue;
+                }
+                final Record record = readRecord(body);
+                if (record == null) {
+                    break;
+                }
+                batch.add(record);
+                batchSizes.add(size + RECORD_OVERHEAD);
+                if (!batched) {
+                    apply(batch, batchSizes);
+                    batch.clear();
+                    batchSizes.clear();
+                    committed = position;
+                }
+            }
+        } catch (EOFException e) {
+            // a truncated record, the uncommitted remainder is ignored below
+        } finally {
+            safeClose(in);
+        }
+        if (committed < length) {
+            // none of the records of an incomplete batch are applied
+            ROOT_LOGGER.timerJournalSegmentCorrupt(segment, committed, length - committed);
+        }
+        return batched ? committed : -1;
+    }
+
+    private void apply(final List<Record> records, final List<Integer> sizes) {
+        for (int i = 0; i < records.size(); ++i) {
+            final Record record = records.get(i);
+            if (record.data != null) {
+                putLive(record.timedObjectId, record.timerId, new LiveRecord(record.data, sizes.get(i)));
+            } else {
+                removeLive(record.timedObjectId, record.timerId);
+            }
+        }
+    }
+
+    private void putLive(final String timedObjectId, final String timerId, final LiveRecord record) {
+        ConcurrentMap<String, LiveRecord> records = live.get(timedObjectId);
+        if (records == null) {
+            records = new ConcurrentHashMap<String, LiveRecord>();
+            live.put(timedObjectId, records);
+        }
+        final LiveRecord previous = records.put(timerId, record);
+        if (previous != null) {
+            liveBytes -= previous.size;
+        } else {
+            ++liveCount;
+        }
+        liveBytes += record.size;
+    }
+
+    private void removeLive(final String timedObjectId, final String timerId) {
+        final ConcurrentMap<String, LiveRecord> records = live.get(timedObjectId);
+        if (records == null) {
+            return;
+        }
+        final LiveRecord previous = records.remove(timerId);
+        if (previous != null) {
+            liveBytes -= previous.size;
+            --liveCount;
+        }
+        if (records.isEmpty()) {
+            live.remove(timedObjectId);
+        }
+    }
+
+    /**
+     * Copies the live records into a new segment and deletes the older segments once the dead records
+     * outweigh the live ones.
+     */
+    private void compactIfNecessary() {
+        final long dead = totalBytes - obsoleteBytes - liveBytes;
+        if (segments.size() < 2 || dead < MIN_COMPACTION_SIZE || dead < liveBytes) {
+            return;
+        }
+        ROOT_LOGGER.debugf("Compacting timer journal %s: %d live records, %d of %d bytes are dead", directory, liveCount, dead, totalBytes);
+        final File segment = new File(directory, segmentName(nextSegment++));
+        final FileOutputStream out;
+        try {
+            out = new FileOutputStream(segment, false);
+        } catch (IOException e) {
+            ROOT_LOGGER.failToCompactTimerJournal(directory, e);
+            return;
+        }
+        long size = 0;
+        try {
+            final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            final DataOutputStream data = new DataOutputStream(bytes);
+            data.writeInt(MAGIC);
+            data.writeInt(VERSION);
+            int count = 0;
+            for (Map.Entry<String, ConcurrentMap<String, LiveRecord>> object : live.entrySet()) {
+                for (Map.Entry<String, LiveRecord> timer : object.getValue().entrySet()) {
+                    writeRecord(data, new Record(object.getKey(), timer.getKey(), timer.getValue().data));
+                    ++count;
+                    if (bytes.size() >= 64 * 1024) {
+                        data.flush();
+                        size += bytes.size();
+                        out.write(bytes.toByteArray());
+                        bytes.reset();
+                    }
+                }
+            }
+            // the whole compacted segment is a single batch, a crash before its commit leaves the old segments in charge
+            writeCommit(data, count);
+            data.flush();
+            size += bytes.size();
+            write(out, bytes.toByteArray());
+        } catch (IOException e) {
+            safeClose(out);
+            ROOT_LOGGER.failToCompactTimerJournal(directory, e);
+            if (!segment.delete()) {
+                ROOT_LOGGER.failToDeleteTimerJournalSegment(segment);
+            }
+            return;
+        }
+        closeCurrent();
+        current = out;
+        currentSize = size;
+
+        // delete oldest first and stop at the first failure: a newer segment may hold the remove record of a timer whose
+        // put record is in an older one, so only ever a prefix of the journal is deleted
+        final List<File> obsolete = new ArrayList<File>(segments);
+        segments.clear();
+        obsoleteBytes = 0;
+        boolean deleting = true;
+        for (File old : obsolete) {
+            if (deleting && !old.delete()) {
+                ROOT_LOGGER.failToDeleteTimerJournalSegment(old);
+                deleting = false;
+            }
+            if (!deleting) {
+                segments.add(old);
+                obsoleteBytes += old.length();
+            }
+        }
+        segments.add(segment);
+        totalBytes = obsoleteBytes + currentSize;
+    }
+
+    private void startSegment() throws IOException {
+        final File segment = new File(directory, segmentName(nextSegment++));
+        final FileOutputStream out = new FileOutputStream(segment, false);
+        final ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+        header.putInt(MAGIC).putInt(VERSION);
+        try {
+            write(out, header.array());
+        } catch (IOException e) {
+            safeClose(out);
+            throw e;
+        }
+        segments.add(segment);
+        current = out;
+        currentSize = HEADER_SIZE;
+        totalBytes += HEADER_SIZE;
+    }
+
+    /**
+     * Continues writing to a replayed segment, dropping an incomplete batch at its end.
+     */
+    private void reopenSegment(final File segment, final long committed) throws IOException {
+        final FileOutputStream out = new FileOutputStream(segment, true);
+        try {
+            final FileChannel channel = out.getChannel();
+            final long torn = channel.size() - committed;
+            if (torn > 0) {
+                channel.truncate(committed);
+                channel.force(false);
+                totalBytes -= torn;
+            }
+        } catch (IOException e) {
+            safeClose(out);
+            throw e;
+        }
+        current = out;
+        currentSize = committed;
+    }
+
+    /**
+     * Removes the bytes of a failed write from the current segment, so the next batch directly follows the last
+     * committed one. If that is not possible the next append starts a new segment.
+     */
+    private void discardPartialWrite() {
+        try {
+            current.getChannel().truncate(currentSize);
+        } catch (IOException e) {
+            closeCurrent();
+        }
+    }
+
+    private void closeCurrent() {
+        if (current != null) {
+            safeClose(current);
+            current = null;
+        }
+    }
+
+    private static void write(final FileOutputStream out, final byte[] bytes) throws IOException {
+        out.write(bytes);
+        final FileChannel channel = out.getChannel();
+        channel.force(false);
+    }
+
+    /**
+     * @return the number of bytes written
+     */
+    private static int writeRecord(final DataOutputStream out, final Record record) throws IOException {
+        final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        final DataOutputStream body = new DataOutputStream(bytes);
+        body.writeByte(record.data != null ? PUT : REMOVE);
+        body.writeUTF(record.timedObjectId);
+        body.writeUTF(record.timerId);
+        if (record.data != null) {
+            body.write(record.data);
+        }
+        body.flush();
+        return writeBody(out, bytes.toByteArray());
+    }
+
+    private static void writeCommit(final DataOutputStream out, final int count) throws IOException {
+        final ByteBuffer body = ByteBuffer.allocate(5);
+        body.put(COMMIT).putInt(count);
+        writeBody(out, body.array());
+    }
+
+    private static int writeBody(final DataOutputStream out, final byte[] data) throws IOException {
+        final CRC32 crc = new CRC32();
+        crc.update(data);
+        out.writeInt(data.length);
+        out.write(data);
+        out.writeInt((int) crc.getValue());
+        return data.length + RECORD_OVERHEAD;
+    }
+
+    private static Record readRecord(final byte[] body) throws IOException {
+        final ByteArrayInputStream bytes = new ByteArrayInputStream(body);
+        final DataInputStream in = new DataInputStream(bytes);
+        final byte type = in.readByte();
+        final String timedObjectId = in.readUTF();
+        final String timerId = in.readUTF();
+        if (type == REMOVE) {
+            return new Record(timedObjectId, timerId, null);
+        } else if (type == PUT) {
+            final byte[] data = new byte[bytes.available()];
+            in.readFully(data);
+            return new Record(timedObjectId, timerId, data);
+        }
+        return null;
+    }
+
+    private static int readCommitCount(final byte[] body) {
+        return body.length == 5 ? ByteBuffer.wrap(body, 1, 4).getInt() : -1;
+    }
+
+    static String segmentName(final long number) {
+        return SEGMENT_PREFIX + String.format("%016x", number) + SEGMENT_SUFFIX;
+    }
+
+    private static long segmentNumber(final File file) {
+        final String name = file.getName();
+        if (!file.isFile() || !name.startsWith(SEGMENT_PREFIX) || !name.endsWith(SEGMENT_SUFFIX)) {
+            return -1;
+        }
+        try {
+            return Long.parseLong(name.substring(SEGMENT_PREFIX.length(), name.length() - SEGMENT_SUFFIX.length()), 16);
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+
+    private static void safeClose(final Closeable closeable) {
+        try {
+            closeable.close();
+        } catch (IOException e) {
+            ROOT_LOGGER.failToCloseFile(e);
+        }
+    }
+
+    /**
+     * A journal record. A <code>null</code> data array denotes a remove.
+     */
+    static final class Record {
+        private final String timedObjectId;
+        private final String timerId;
+        private final byte[] data;
+
+        Record(final String timedObjectId, final String timerId, final byte[] data) {
+            this.timedObjectId = timedObjectId;
+            this.timerId = timerId;
+            this.data = data;
+        }
+    }
+
+    private static final class LiveRecord {
+        private final byte[] data;
+        /**
+         * Size of the record on disk
+         */
+        private final int size;
+
+        LiveRecord(final byte[] data, final int size) {
+            this.data = data;
+            this.size = size;
+        }
+    }
+}
@@ -0,0 +1,67 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2012, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.jboss.as.ejb3.timerservice.scheduler;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Keeps the statistics which are common to all {@link TimeoutScheduler} implementations.
+ */
+public abstract class AbstractTimeoutScheduler implements TimeoutScheduler {
+
+    protected final AtomicInteger pendingTimeouts = new AtomicInteger();
+    private final AtomicLong maxLag = new AtomicLong();
+    private final AtomicLong totalLag = new AtomicLong();
+    private final AtomicLong triggerCount = new AtomicLong();
+
+    /**
+     * Records that a task which was due at <code>scheduledTime</code> is being triggered now.
+     *
+     * @param scheduledTime the time, in ms since the epoch, the task was scheduled for
+     */
+    protected void recordLag(final long scheduledTime) {
+        final long lag = Math.max(0, System.currentTimeMillis() - scheduledTime);
+        totalLag.addAndGet(lag);
+        triggerCount.incrementAndGet();
+        long max = maxLag.get();
+        while (lag > max && !maxLag.compareAndSet(max, lag)) {
+            max = maxLag.get();
+        }
+    }
+
+    @Override
+    public int getPendingTimeoutCount() {
+        return pendingTimeouts.get();
+    }
+
+    @Override
+    public long getMaxTimeoutLag() {
+        return maxLag.get();
+    }
+
+    @Override
+    public long getAverageTimeoutLag() {
+        final long count = triggerCount.get();
+        return count == 0 ? 0 : totalLag.get() / count;
+    }
+}
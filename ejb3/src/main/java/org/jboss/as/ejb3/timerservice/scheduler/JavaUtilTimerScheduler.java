@@ -0,0 +1,85 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2012, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.jboss.as.ejb3.timerservice.scheduler;
+
+import java.util.Timer;
+import java.util.TimerTask;
+
+/**
+ * {@link TimeoutScheduler} backed by a single {@link Timer}. Schedule and cancel are O(log n) in the number of
+ * pending timeouts, and all timeouts are triggered from the timer's one thread.
+ */
+public class JavaUtilTimerScheduler extends AbstractTimeoutScheduler {
+
+    private final Timer timer = new Timer("EJB timer service", true);
+
+    @Override
+    public ScheduledTimeout schedule(final Runnable task, final long delay) {
+        final Task timerTask = new Task(task, false);
+        pendingTimeouts.incrementAndGet();
+        timer.schedule(timerTask, delay);
+        return timerTask;
+    }
+
+    @Override
+    public ScheduledTimeout scheduleAtFixedRate(final Runnable task, final long delay, final long period) {
+        final Task timerTask = new Task(task, true);
+        pendingTimeouts.incrementAndGet();
+        timer.scheduleAtFixedRate(timerTask, delay, period);
+        return timerTask;
+    }
+
+    @Override
+    public void shutdown() {
+        timer.cancel();
+    }
+
+    private class Task extends TimerTask implements ScheduledTimeout {
+
+        private final Runnable delegate;
+        private final boolean repeating;
+
+        Task(final Runnable delegate, final boolean repeating) {
+            this.delegate = delegate;
+            this.repeating = repeating;
+        }
+
+        @Override
+        public void run() {
+            recordLag(scheduledExecutionTime());
+            if (!repeating) {
+                pendingTimeouts.decrementAndGet();
+            }
+            delegate.run();
+        }
+
+        @Override
+        public boolean cancel() {
+            // TimerTask.cancel() only returns true once, and never for a single action task that has already run
+            final boolean cancelled = super.cancel();
+            if (cancelled) {
+                pendingTimeouts.decrementAndGet();
+            }
+            return cancelled;
+        }
+    }
+}
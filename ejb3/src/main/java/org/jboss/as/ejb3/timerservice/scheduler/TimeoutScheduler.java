@@ -0,0 +1,70 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2012, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.jboss.as.ejb3.timerservice.scheduler;
+
+/**
+ * Schedules the timeouts of the EJB timer service.
+ * <p/>
+ * Implementations only have to <em>trigger</em> the tasks they are given; the tasks themselves are expected to be
+ * cheap and to hand the actual timeout invocation off to an executor.
+ */
+public interface TimeoutScheduler {
+
+    /**
+     * Schedules a task which runs once, after the given delay.
+     *
+     * @param task  the task
+     * @param delay the delay in milliseconds
+     * @return a handle which can be used to cancel the task
+     */
+    ScheduledTimeout schedule(Runnable task, long delay);
+
+    /**
+     * Schedules a task which runs repeatedly at a fixed rate, starting after the given delay.
+     *
+     * @param task   the task
+     * @param delay  the delay in milliseconds before the first execution
+     * @param period the period in milliseconds between the scheduled starts of successive executions
+     * @return a handle which can be used to cancel the task
+     */
+    ScheduledTimeout scheduleAtFixedRate(Runnable task, long delay, long period);
+
+    /**
+     * @return the number of tasks which are scheduled and not yet cancelled or (for single action tasks) run
+     */
+    int getPendingTimeoutCount();
+
+    /**
+     * @return the largest delay in milliseconds between the time a task was scheduled for and the time it was run
+     */
+    long getMaxTimeoutLag();
+
+    /**
+     * @return the average delay in milliseconds between the time a task was scheduled for and the time it was run
+     */
+    long getAverageTimeoutLag();
+
+    /**
+     * Stops the scheduler. Pending tasks will not run.
+     */
+    void shutdown();
+}
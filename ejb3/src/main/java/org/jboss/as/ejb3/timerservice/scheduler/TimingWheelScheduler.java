@@ -0,0 +1,337 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2012, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.jboss.as.ejb3.timerservice.scheduler;
+
+import static org.jboss.as.ejb3.EjbLogger.ROOT_LOGGER;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link TimeoutScheduler} based on a hierarchical timing wheel.
+ * <p/>
+ * Time is divided into ticks of a fixed duration. The first level of the wheel has one bucket per tick for the
+ * next {@value #ROOT_SIZE} ticks, every further level has {@value #LEVEL_SIZE} buckets each covering a whole
+ * revolution of the level below it. Buckets are intrusive doubly linked lists, so both scheduling and cancelling
+ * a timeout are O(1). Whenever the first level wraps around, the due bucket of the next level is cascaded down,
+ * so every timeout is moved at most once per level before it expires.
+ * <p/>
+ * A single thread advances the wheel. It does nothing but hand the due tasks over (they are expected to submit
+ * the actual timeout invocation to an executor), so a slow timeout method cannot hold up other timers. The thread
+ * parks while no timeouts are pending.
+ */
+public class TimingWheelScheduler extends AbstractTimeoutScheduler {
+
+    public static final long DEFAULT_TICK_DURATION = 10;
+
+    private static final int ROOT_BITS = 8;
+    private static final int ROOT_SIZE = 1 << ROOT_BITS;
+    private static final int ROOT_MASK = ROOT_SIZE - 1;
+    private static final int LEVEL_BITS = 6;
+    private static final int LEVEL_SIZE = 1 << LEVEL_BITS;
+    private static final int LEVEL_MASK = LEVEL_SIZE - 1;
+    private static final int LEVELS = 4;
+    /**
+     * The furthest a timeout can be placed into the future, in ticks. Timeouts beyond that are parked in the last
+     * bucket of the highest level and re-inserted each time that bucket is cascaded.
+     */
+    private static final long MAX_TICKS = (1L << (ROOT_BITS + (LEVELS - 1) * LEVEL_BITS)) - 1;
+
+    private final long tickNanos;
+    private final long tickMillis;
+    /**
+     * buckets[0] has ROOT_SIZE entries, all other levels LEVEL_SIZE. Each entry is the sentinel of a circular list.
+     * Guarded by the scheduler's monitor, as are all the fields below.
+     */
+    private final WheelTimeout[][] buckets;
+    private final Thread worker;
+    private final long startNanos;
+    /**
+     * The next tick to be processed
+     */
+    private long currentTick;
+    private volatile boolean shutdown;
+
+    public TimingWheelScheduler() {
+        this(DEFAULT_TICK_DURATION, TimeUnit.MILLISECONDS);
+    }
+
+    public TimingWheelScheduler(final long tickDuration, final TimeUnit unit) {
+        this.tickNanos = unit.toNanos(tickDuration);
+        this.tickMillis = Math.max(1, unit.toMillis(tickDuration));
+        this.buckets = new WheelTimeout[LEVELS][];
+        for (int level = 0; level < LEVELS; level++) {
+            final WheelTimeout[] wheel = new WheelTimeout[level == 0 ? ROOT_SIZE : LEVEL_SIZE];
+            for (int i = 0; i < wheel.length; i++) {
+                wheel[i] = new WheelTimeout(null, 0, 0);
+            }
+            buckets[level] = wheel;
+        }
+        this.startNanos = System.nanoTime();
+        this.worker = new Thread(new Worker(), "EJB timer service timing wheel");
+        this.worker.setDaemon(true);
+        this.worker.start();
+    }
+
+    @Override
+    public ScheduledTimeout schedule(final Runnable task, final long delay) {
+        return add(task, delay, 0);
+    }
+
+    @Override
+    public ScheduledTimeout scheduleAtFixedRate(final Runnable task, final long delay, final long period) {
+        if (period <= 0) {
+            throw new IllegalArgumentException("period");
+        }
+        return add(task, delay, period);
+    }
+
+    @Override
+    public void shutdown() {
+        shutdown = true;
+        worker.interrupt();
+    }
+
+    private WheelTimeout add(final Runnable task, final long delay, final long period) {
+        if (shutdown) {
+            throw new IllegalStateException("Timer service scheduler has been shut down");
+        }
+        final WheelTimeout timeout = new WheelTimeout(task, System.currentTimeMillis() + Math.max(0, delay), period);
+        synchronized (this) {
+            if (pendingTimeouts.getAndIncrement() == 0) {
+                // the wheel is empty, so the worker may have been parked for a while; skip the ticks it missed
+                currentTick = Math.max(currentTick, elapsedTicks());
+            }
+            timeout.deadlineTick = deadlineTick(delay);
+            insert(timeout);
+            notify();
+        }
+        return timeout;
+    }
+
+    private long elapsedTicks() {
+        return (System.nanoTime() - startNanos) / tickNanos;
+    }
+
+    /**
+     * @return the absolute tick at which a timeout which is due after the given delay expires
+     */
+    private long deadlineTick(final long delayMillis) {
+        return elapsedTicks() + (Math.max(0, delayMillis) + tickMillis - 1) / tickMillis;
+    }
+
+    /**
+     * Places the timeout into the bucket which matches its deadline. Must be called with the monitor held.
+     */
+    private void insert(final WheelTimeout timeout) {
+        long deadline = timeout.deadlineTick;
+        if (deadline < currentTick) {
+            deadline = currentTick;
+        }
+        long ticks = deadline - currentTick;
+        if (ticks > MAX_TICKS) {
+            ticks = MAX_TICKS;
+        }
+        final long slotTick = currentTick + ticks;
+        final WheelTimeout bucket;
+        if (ticks < ROOT_SIZE) {
+            bucket = buckets[0][(int) (slotTick & ROOT_MASK)];
+        } else {
+            int level = 1;
+            int shift = ROOT_BITS;
+            while (level < LEVELS - 1 && ticks >= (1L << (shift + LEVEL_BITS))) {
+                level++;
+                shift += LEVEL_BITS;
+            }
+            bucket = buckets[level][(int) ((slotTick >>> shift) & LEVEL_MASK)];
+        }
+        timeout.bucket = bucket;
+        timeout.prev = bucket.prev;
+        timeout.next = bucket;
+        bucket.prev.next = timeout;
+        bucket.prev = timeout;
+    }
+
+    /**
+     * Unlinks the timeout from its bucket. Must be called with the monitor held.
+     */
+    private static void unlink(final WheelTimeout timeout) {
+        if (timeout.bucket != null) {
+            timeout.prev.next = timeout.next;
+            timeout.next.prev = timeout.prev;
+            timeout.prev = null;
+            timeout.next = null;
+            timeout.bucket = null;
+        }
+    }
+
+    /**
+     * Moves all timeouts of the given higher level bucket to the levels below. Must be called with the monitor held.
+     *
+     * @return the index of the cascaded bucket, which is 0 if the level has wrapped around as well
+     */
+    private int cascade(final int level, final int shift) {
+        final int index = (int) ((currentTick >>> shift) & LEVEL_MASK);
+        final WheelTimeout bucket = buckets[level][index];
+        WheelTimeout timeout = bucket.next;
+        bucket.next = bucket;
+        bucket.prev = bucket;
+        while (timeout != bucket) {
+            final WheelTimeout next = timeout.next;
+            timeout.bucket = null;
+            insert(timeout);
+            timeout = next;
+        }
+        return index;
+    }
+
+    /**
+     * Processes the current tick and returns the timeouts which are due as a singly linked list
+     * (via {@link WheelTimeout#nextExpired}). Must be called with the monitor held.
+     */
+    private WheelTimeout advance() {
+        final int index = (int) (currentTick & ROOT_MASK);
+        if (index == 0) {
+            int level = 1;
+            int shift = ROOT_BITS;
+            while (level < LEVELS && cascade(level, shift) == 0) {
+                level++;
+                shift += LEVEL_BITS;
+            }
+        }
+        final WheelTimeout bucket = buckets[0][index];
+        WheelTimeout expired = null;
+        WheelTimeout timeout = bucket.next;
+        while (timeout != bucket) {
+            final WheelTimeout next = timeout.next;
+            if (timeout.deadlineTick <= currentTick) {
+                unlink(timeout);
+                timeout.nextExpired = expired;
+                expired = timeout;
+            }
+            timeout = next;
+        }
+        currentTick++;
+        return expired;
+    }
+
+    private boolean isEmpty() {
+        return pendingTimeouts.get() == 0;
+    }
+
+    private void trigger(WheelTimeout expired) {
+        while (expired != null) {
+            final WheelTimeout timeout = expired;
+            expired = timeout.nextExpired;
+            timeout.nextExpired = null;
+            final long scheduledTime = timeout.deadline;
+            synchronized (this) {
+                if (timeout.cancelled) {
+                    continue;
+                }
+                if (timeout.period > 0) {
+                    // fixed rate: the next execution is relative to the scheduled, not the actual, time
+                    timeout.deadline += timeout.period;
+                    timeout.deadlineTick = deadlineTick(timeout.deadline - System.currentTimeMillis());
+                    insert(timeout);
+                } else {
+                    timeout.fired = true;
+                }
+            }
+            if (timeout.period <= 0) {
+                pendingTimeouts.decrementAndGet();
+            }
+            recordLag(scheduledTime);
+            try {
+                timeout.task.run();
+            } catch (Throwable t) {
+                ROOT_LOGGER.failedToTriggerTimeout(timeout.task, t);
+            }
+        }
+    }
+
+    private class Worker implements Runnable {
+
+        @Override
+        public void run() {
+            while (!shutdown) {
+                WheelTimeout expired = null;
+                try {
+                    synchronized (TimingWheelScheduler.this) {
+                        if (isEmpty()) {
+                            TimingWheelScheduler.this.wait();
+                            continue;
+                        }
+                        final long wait = startNanos + currentTick * tickNanos - System.nanoTime();
+                        if (wait > 0) {
+                            TimeUnit.NANOSECONDS.timedWait(TimingWheelScheduler.this, wait);
+                            continue;
+                        }
+                        expired = advance();
+                    }
+                } catch (InterruptedException e) {
+                    continue;
+                }
+                trigger(expired);
+            }
+        }
+    }
+
+    private final class WheelTimeout implements ScheduledTimeout {
+
+        final Runnable task;
+        final long period;
+        /**
+         * The time, in ms since the epoch, of the next execution. The fields below are guarded by the
+         * scheduler's monitor, except for the expired list which is only used by the worker.
+         */
+        long deadline;
+        long deadlineTick;
+        WheelTimeout bucket;
+        WheelTimeout prev;
+        WheelTimeout next;
+        WheelTimeout nextExpired;
+        boolean cancelled;
+        boolean fired;
+
+        WheelTimeout(final Runnable task, final long deadline, final long period) {
+            this.task = task;
+            this.deadline = deadline;
+            this.period = period;
+            // a new node is the sentinel of an empty list until it is linked into a bucket
+            this.prev = this;
+            this.next = this;
+        }
+
+        @Override
+        public boolean cancel() {
+            synchronized (TimingWheelScheduler.this) {
+                if (cancelled || fired) {
+                    return false;
+                }
+                cancelled = true;
+                unlink(this);
+            }
+            pendingTimeouts.decrementAndGet();
+            return true;
+        }
+    }
+}
@@ -0,0 +1,116 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2012, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.jboss.as.ejb3.cache.spi.impl;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Tests for {@link ExpirationTracker}.
+ */
+public class ExpirationTrackerTestCase {
+
+    private final List<String> expired = new CopyOnWriteArrayList<String>();
+    private final ExpirationTracker<String> tracker = new ExpirationTracker<String>(new ExpirationTracker.TaskFactory<String>() {
+        @Override
+        public Runnable createTask(final String id) {
+            return new Runnable() {
+                @Override
+                public void run() {
+                    expired.add(id);
+                }
+            };
+        }
+    });
+    private ScheduledExecutorService executor;
+
+    @Before
+    public void before() {
+        this.executor = Executors.newSingleThreadScheduledExecutor();
+        this.tracker.start(this.executor);
+    }
+
+    @After
+    public void after() {
+        this.tracker.stop();
+        this.executor.shutdownNow();
+    }
+
+    @Test
+    public void testExpireInOrder() throws Exception {
+        this.tracker.schedule("a", 50, TimeUnit.MILLISECONDS);
+        this.tracker.schedule("b", 50, TimeUnit.MILLISECONDS);
+        this.tracker.schedule("c", 50, TimeUnit.MILLISECONDS);
+        waitFor(3);
+        assertEquals("[a, b, c]", this.expired.toString());
+        assertEquals(0, this.tracker.size());
+    }
+
+    @Test
+    public void testCancel() throws Exception {
+        this.tracker.schedule("a", 50, TimeUnit.MILLISECONDS);
+        this.tracker.schedule("b", 50, TimeUnit.MILLISECONDS);
+        this.tracker.cancel("a");
+        waitFor(1);
+        Thread.sleep(100);
+        assertEquals("[b]", this.expired.toString());
+    }
+
+    @Test
+    public void testReschedule() throws Exception {
+        this.tracker.schedule("a", 100, TimeUnit.MILLISECONDS);
+        this.tracker.schedule("b", 100, TimeUnit.MILLISECONDS);
+        // moves a behind b
+        this.tracker.schedule("a", 100, TimeUnit.MILLISECONDS);
+        assertEquals(2, this.tracker.size());
+        waitFor(2);
+        assertEquals("[b, a]", this.expired.toString());
+    }
+
+    @Test
+    public void testExpireOnlyDue() {
+        this.tracker.stop();
+        this.tracker.schedule("a", 0, TimeUnit.MILLISECONDS);
+        this.tracker.schedule("b", 1, TimeUnit.HOURS);
+        this.tracker.expire();
+        assertEquals("[a]", this.expired.toString());
+        assertEquals(1, this.tracker.size());
+    }
+
+    private void waitFor(int count) throws InterruptedException {
+        final long deadline = System.currentTimeMillis() + 5000;
+        while (this.expired.size() < count && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        assertTrue(this.expired.size() >= count);
+    }
+}
@@ -0,0 +1,269 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2012, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.jboss.as.ejb3.cache.spi.impl;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.UUID;
+
+import org.jboss.as.ejb3.cache.Cacheable;
+import org.jboss.marshalling.MarshallingConfiguration;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Tests for {@link SegmentedPersistentObjectStore}.
+ */
+public class SegmentedPersistentObjectStoreTestCase {
+
+    private File directory;
+
+    @Before
+    public void before() {
+        this.directory = new File(System.getProperty("java.io.tmpdir"), "segmented-store-" + UUID.randomUUID());
+    }
+
+    @After
+    public void after() {
+        final File[] files = this.directory.listFiles();
+        if (files != null) {
+            for (File file : files) {
+                file.delete();
+            }
+        }
+        this.directory.delete();
+    }
+
+    @Test
+    public void testStoreAndLoad() throws IOException {
+        this.storeAndLoad(false);
+    }
+
+    @Test
+    public void testStoreAndLoadCompressed() throws IOException {
+        this.storeAndLoad(true);
+    }
+
+    private void storeAndLoad(boolean compress) throws IOException {
+        final SegmentedPersistentObjectStore<Integer, Bean> store = this.createStore(compress, 1024);
+        store.start();
+        try {
+            for (int i = 0; i < 100; i++) {
+                store.store(new Bean(i));
+                // ten beans fill a segment, whatever batches the writer thread makes of them
+                if (i % 10 == 9) {
+                    store.flush();
+                }
+            }
+            assertEquals(0, store.getQueuedBytes());
+            assertEquals(100, store.size());
+            // written to more than one segment
+            assertTrue(this.segments() > 1);
+
+            for (int i = 99; i >= 0; i--) {
+                final Bean bean = store.load(i);
+                assertNotNull(bean);
+                assertEquals(i, bean.getId().intValue());
+                assertEquals(Bean.state(i), bean.state);
+                assertNull(store.load(i));
+            }
+            assertEquals(0, store.size());
+        } finally {
+            store.stop();
+        }
+    }
+
+    @Test
+    public void testLoadBeforeWritten() throws IOException {
+        final SegmentedPersistentObjectStore<Integer, Bean> store = this.createStore(false, 1024);
+        store.start();
+        try {
+            store.store(new Bean(1));
+            final Bean bean = store.load(1);
+            assertNotNull(bean);
+            assertEquals(Bean.state(1), bean.state);
+            store.flush();
+            assertNull(store.load(1));
+        } finally {
+            store.stop();
+        }
+    }
+
+    /**
+     * Segments are deleted once all their objects were loaded, except for the current one.
+     */
+    @Test
+    public void testSegmentsDeleted() throws IOException {
+        final SegmentedPersistentObjectStore<Integer, Bean> store = this.createStore(false, 1024);
+        store.start();
+        try {
+            for (int i = 0; i < 100; i++) {
+                store.store(new Bean(i));
+                store.flush();
+            }
+            for (int i = 0; i < 100; i++) {
+                assertNotNull(store.load(i));
+            }
+            assertTrue(this.segments() <= 1);
+        } finally {
+            store.stop();
+        }
+        assertEquals(0, this.segments());
+    }
+
+    /**
+     * Stopping the store deletes all its segments, including those with objects which were never loaded again.
+     */
+    @Test
+    public void testSegmentsDeletedOnStop() throws IOException {
+        final SegmentedPersistentObjectStore<Integer, Bean> store = this.createStore(false, 1024);
+        store.start();
+        for (int i = 0; i < 100; i++) {
+            store.store(new Bean(i));
+            store.flush();
+        }
+        assertTrue(this.segments() > 1);
+        store.stop();
+        assertEquals(0, this.segments());
+    }
+
+    /**
+     * The storing thread flushes the queue itself once it's too large.
+     */
+    @Test
+    public void testQueueBounded() {
+        final SegmentedPersistentObjectStore<Integer, Bean> store = new SegmentedPersistentObjectStore<Integer, Bean>(new MarshallingConfiguration(), this.directory.getPath(), false, 1024, 1000);
+        // not started, so there's no writer thread
+        assertTrue(this.directory.mkdirs());
+        for (int i = 0; i < 100; i++) {
+            store.store(new Bean(i));
+            assertTrue(store.getQueuedBytes() <= 1000);
+        }
+        assertTrue(this.segments() > 0);
+        for (int i = 0; i < 100; i++) {
+            assertEquals(Bean.state(i), store.load(i).state);
+        }
+        store.stop();
+    }
+
+    /**
+     * Stores sharing a directory, like the stores of same-named beans in different deployments, don't touch each
+     * other's segments.
+     */
+    @Test
+    public void testStoresSharingDirectory() throws IOException {
+        final SegmentedPersistentObjectStore<Integer, Bean> first = this.createStore(false, 1024 * 1024);
+        final SegmentedPersistentObjectStore<Integer, Bean> second = this.createStore(false, 1024 * 1024);
+        first.start();
+        second.start();
+        try {
+            for (int i = 0; i < 10; i++) {
+                first.store(new Bean(i));
+                second.store(new Bean(i + 100));
+            }
+            first.flush();
+            second.flush();
+            assertEquals(2, this.segments());
+            first.stop();
+            assertEquals(1, this.segments());
+
+            for (int i = 0; i < 10; i++) {
+                assertEquals(Bean.state(i + 100), second.load(i + 100).state);
+            }
+        } finally {
+            first.stop();
+            second.stop();
+        }
+        assertEquals(0, this.segments());
+    }
+
+    /**
+     * Objects which could not be written stay queued, and are written by the next flush.
+     */
+    @Test
+    public void testFailedWriteRetried() throws IOException {
+        // not started, so the directory doesn't exist yet and there's no writer thread
+        final SegmentedPersistentObjectStore<Integer, Bean> store = this.createStore(false, 1024);
+        store.store(new Bean(1));
+        final long queued = store.getQueuedBytes();
+        try {
+            store.flush();
+            fail("the directory doesn't exist");
+        } catch (IOException expected) {
+        }
+        assertEquals(queued, store.getQueuedBytes());
+        assertEquals(1, store.size());
+
+        assertTrue(this.directory.mkdirs());
+        store.flush();
+        assertEquals(0, store.getQueuedBytes());
+        assertEquals(1, this.segments());
+        assertEquals(Bean.state(1), store.load(1).state);
+        store.stop();
+    }
+
+    private SegmentedPersistentObjectStore<Integer, Bean> createStore(boolean compress, long segmentSize) {
+        return new SegmentedPersistentObjectStore<Integer, Bean>(new MarshallingConfiguration(), this.directory.getPath(), compress, segmentSize, SegmentedPersistentObjectStore.DEFAULT_MAX_QUEUED_BYTES);
+    }
+
+    private int segments() {
+        final File[] files = this.directory.listFiles();
+        return (files != null) ? files.length : 0;
+    }
+
+    static class Bean implements Cacheable<Integer> {
+        private static final long serialVersionUID = 1L;
+
+        private final Integer id;
+        final String state;
+
+        Bean(int id) {
+            this.id = id;
+            this.state = state(id);
+        }
+
+        static String state(int id) {
+            final StringBuilder builder = new StringBuilder();
+            for (int i = 0; i < 10; i++) {
+                builder.append("state of bean ").append(id).append(' ');
+            }
+            return builder.toString();
+        }
+
+        @Override
+        public Integer getId() {
+            return this.id;
+        }
+
+        @Override
+        public boolean isModified() {
+            return true;
+        }
+    }
+}
@@ -0,0 +1,275 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2012, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.jboss.as.ejb3.concurrency;
+
+import org.jboss.logging.Logger;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import javax.ejb.IllegalLoopbackException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReadWriteLock;
+
+/**
+ * Tests the {@link StripedEJBReadWriteLock}. Mirrors {@link EJBReadWriteLockTest}, plus checks reentrancy, writer
+ * timeouts, and runs a read-mostly contention benchmark against both lock strategies.
+ */
+public class StripedEJBReadWriteLockTestCase {
+
+    private static final Logger logger = Logger.getLogger(StripedEJBReadWriteLockTestCase.class);
+
+    private StripedEJBReadWriteLock lock;
+
+    @Before
+    public void beforeTest() {
+        this.lock = new StripedEJBReadWriteLock(4);
+    }
+
+    @Test
+    public void testIllegalLoopBack() throws Exception {
+        Lock readLock = this.lock.readLock();
+        readLock.lock();
+        try {
+            this.lock.writeLock().tryLock(1, TimeUnit.SECONDS);
+            Assert.fail("Unexpected acquired write lock");
+        } catch (IllegalLoopbackException ilbe) {
+            // expected
+        } finally {
+            readLock.unlock();
+        }
+        // once the read lock is released, the write lock is available again
+        Assert.assertTrue(this.lock.writeLock().tryLock());
+        this.lock.writeLock().unlock();
+    }
+
+    /**
+     * A reader can't get in while another thread holds the write lock
+     */
+    @Test
+    public void testReadTimeout() throws Exception {
+        final CountDownLatch locked = new CountDownLatch(1);
+        final CountDownLatch release = new CountDownLatch(1);
+        Thread writer = new Thread(new ThreadHoldingLock(this.lock.writeLock(), locked, release));
+        writer.start();
+        locked.await();
+        try {
+            Assert.assertFalse("Unexpected obtained a read lock", this.lock.readLock().tryLock(200, TimeUnit.MILLISECONDS));
+            Assert.assertFalse(this.lock.readLock().tryLock());
+        } finally {
+            release.countDown();
+            writer.join();
+        }
+        Assert.assertTrue(this.lock.readLock().tryLock(1, TimeUnit.SECONDS));
+        this.lock.readLock().unlock();
+    }
+
+    /**
+     * A writer can't get in while another thread holds a read lock, and doesn't block new readers after it gave up
+     */
+    @Test
+    public void testWriteTimeout() throws Exception {
+        final CountDownLatch locked = new CountDownLatch(1);
+        final CountDownLatch release = new CountDownLatch(1);
+        Thread reader = new Thread(new ThreadHoldingLock(this.lock.readLock(), locked, release));
+        reader.start();
+        locked.await();
+        try {
+            Assert.assertFalse("Unexpected obtained a write lock", this.lock.writeLock().tryLock(200, TimeUnit.MILLISECONDS));
+            Assert.assertFalse(this.lock.writeLock().tryLock());
+            Assert.assertTrue(this.lock.readLock().tryLock());
+            this.lock.readLock().unlock();
+        } finally {
+            release.countDown();
+            reader.join();
+        }
+        Assert.assertTrue(this.lock.writeLock().tryLock(1, TimeUnit.SECONDS));
+        this.lock.writeLock().unlock();
+    }
+
+    @Test
+    public void testSameThreadCanGetWriteThenReadLock() throws Exception {
+        Lock writeLock = this.lock.writeLock();
+        writeLock.lock();
+        try {
+            // the write lock is reentrant too
+            Assert.assertTrue(writeLock.tryLock(1, TimeUnit.SECONDS));
+            writeLock.unlock();
+            boolean readLockAquired = this.lock.readLock().tryLock(1, TimeUnit.SECONDS);
+            if (readLockAquired) {
+                this.lock.readLock().unlock();
+            }
+            Assert.assertTrue("Could not obtain read lock when write lock was held by the same thread!", readLockAquired);
+        } finally {
+            writeLock.unlock();
+        }
+        // the write lock must be fully released
+        Thread other = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                Assert.assertTrue(lock.readLock().tryLock());
+                lock.readLock().unlock();
+            }
+        });
+        other.start();
+        other.join();
+    }
+
+    /**
+     * A thread which already holds a read lock gets another one, even if a writer is waiting
+     */
+    @Test
+    public void testReentrantReadWithWaitingWriter() throws Exception {
+        final Lock readLock = this.lock.readLock();
+        readLock.lock();
+        final CountDownLatch waiting = new CountDownLatch(1);
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            Future<Boolean> writer = executor.submit(new Callable<Boolean>() {
+                @Override
+                public Boolean call() throws Exception {
+                    waiting.countDown();
+                    boolean acquired = lock.writeLock().tryLock(5, TimeUnit.SECONDS);
+                    if (acquired) {
+                        lock.writeLock().unlock();
+                    }
+                    return acquired;
+                }
+            });
+            waiting.await();
+            Thread.sleep(100);
+            Assert.assertTrue(readLock.tryLock(1, TimeUnit.SECONDS));
+            readLock.unlock();
+            readLock.unlock();
+            Assert.assertTrue(writer.get(5, TimeUnit.SECONDS));
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test(expected = IllegalMonitorStateException.class)
+    public void testUnlockWithoutLock() {
+        this.lock.readLock().unlock();
+    }
+
+    /**
+     * Runs a read-mostly workload on both lock strategies, and checks that writers were exclusive
+     */
+    @Test
+    public void testContention() throws Exception {
+        for (ReadWriteLockStrategy strategy : ReadWriteLockStrategy.values()) {
+            final long millis = this.runContention(strategy.createLock(), 8, 20000);
+            logger.infof("%s lock: %d ms for %d read-mostly invocations on %d threads", strategy, millis, 8 * 20000, 8);
+        }
+    }
+
+    private long runContention(final ReadWriteLock readWriteLock, final int threads, final int invocations) throws Exception {
+        final AtomicInteger readers = new AtomicInteger();
+        final AtomicInteger writers = new AtomicInteger();
+        final AtomicInteger violations = new AtomicInteger();
+        final CountDownLatch start = new CountDownLatch(1);
+        final ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            final List<Future<?>> results = new ArrayList<Future<?>>();
+            for (int t = 0; t < threads; t++) {
+                results.add(executor.submit(new Callable<Void>() {
+                    @Override
+                    public Void call() throws Exception {
+                        start.await();
+                        for (int i = 0; i < invocations; i++) {
+                            // one write in a hundred invocations
+                            final boolean write = (i % 100 == 0);
+                            final Lock lock = write ? readWriteLock.writeLock() : readWriteLock.readLock();
+                            if (!lock.tryLock(10, TimeUnit.SECONDS)) {
+                                throw new IllegalStateException("Timed out");
+                            }
+                            try {
+                                if (write) {
+                                    if (writers.incrementAndGet() != 1 || readers.get() != 0) {
+                                        violations.incrementAndGet();
+                                    }
+                                    writers.decrementAndGet();
+                                } else {
+                                    readers.incrementAndGet();
+                                    if (writers.get() != 0) {
+                                        violations.incrementAndGet();
+                                    }
+                                    readers.decrementAndGet();
+                                }
+                            } finally {
+                                lock.unlock();
+                            }
+                        }
+                        return null;
+                    }
+                }));
+            }
+            final long begin = System.nanoTime();
+            start.countDown();
+            for (Future<?> result : results) {
+                result.get(60, TimeUnit.SECONDS);
+            }
+            final long millis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - begin);
+            Assert.assertEquals(0, violations.get());
+            return millis;
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * Obtains a lock, signals that it did, and holds the lock until released
+     */
+    private static class ThreadHoldingLock implements Runnable {
+        private final Lock lock;
+        private final CountDownLatch locked;
+        private final CountDownLatch release;
+
+        ThreadHoldingLock(Lock lock, CountDownLatch locked, CountDownLatch release) {
+            this.lock = lock;
+            this.locked = locked;
+            this.release = release;
+        }
+
+        @Override
+        public void run() {
+            this.lock.lock();
+            try {
+                this.locked.countDown();
+                this.release.await();
+            } catch (InterruptedException e) {
+                // ignore
+            } finally {
+                this.lock.unlock();
+            }
+        }
+    }
+}
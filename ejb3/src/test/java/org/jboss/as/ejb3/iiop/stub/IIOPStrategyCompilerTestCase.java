@@ -0,0 +1,312 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2012, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.jboss.as.ejb3.iiop.stub;
+
+import java.io.Serializable;
+import java.lang.reflect.Method;
+import java.rmi.Remote;
+import java.rmi.RemoteException;
+import java.util.Arrays;
+import java.util.Properties;
+
+import org.jboss.as.jacorb.rmi.marshal.CDRStream;
+import org.jboss.as.jacorb.rmi.marshal.strategy.SkeletonStrategy;
+import org.jboss.as.jacorb.rmi.marshal.strategy.StrategyCache;
+import org.jboss.as.jacorb.rmi.marshal.strategy.StubStrategy;
+import org.junit.After;
+import org.junit.AfterClass;
+import org.junit.Assert;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.omg.CORBA.ORB;
+import org.omg.CORBA.StructMember;
+import org.omg.CORBA.TCKind;
+import org.omg.CORBA.TypeCode;
+import org.omg.CORBA.portable.IDLEntity;
+import org.omg.CORBA_2_3.portable.InputStream;
+import org.omg.CORBA_2_3.portable.OutputStream;
+
+/**
+ * Checks that the strategies generated by {@link IIOPStrategyCompiler} marshal the parameters and return values of
+ * an operation exactly like the generic {@link SkeletonStrategy} and {@link StubStrategy}: every value written by one
+ * of them to a CDR stream is read back by each of the others.
+ */
+public class IIOPStrategyCompilerTestCase {
+
+    private static final String[] NO_EXCEPTIONS = new String[0];
+
+    private static ORB orb;
+
+    @BeforeClass
+    public static void initORB() {
+        final Properties properties = new Properties();
+        properties.setProperty("org.omg.CORBA.ORBClass", "org.jacorb.orb.ORB");
+        properties.setProperty("org.omg.CORBA.ORBSingletonClass", "org.jacorb.orb.ORBSingleton");
+        orb = ORB.init(new String[0], properties);
+    }
+
+    @AfterClass
+    public static void shutdownORB() {
+        orb.shutdown(false);
+    }
+
+    @After
+    public void evictStrategies() {
+        StrategyCache.evict(Operations.class.getClassLoader());
+    }
+
+    @Test
+    public void testPrimitives() throws Exception {
+        this.assertMarshalling("primitives", null, true, (byte) 1, 'x', (short) 2, 3, 4L, 5.0f, 6.0d);
+        this.assertMarshalling("primitives", null, false, Byte.MIN_VALUE, '\u20ac', Short.MAX_VALUE, Integer.MIN_VALUE, Long.MAX_VALUE, Float.NaN, Double.NEGATIVE_INFINITY);
+    }
+
+    @Test
+    public void testPrimitiveReturnValue() throws Exception {
+        this.assertMarshalling("average", 2.5d, 2.0f, 3.0d);
+    }
+
+    @Test
+    public void testString() throws Exception {
+        this.assertMarshalling("echo", "result", "parameter");
+        this.assertMarshalling("echo", null, new Object[] { null });
+    }
+
+    @Test
+    public void testValueType() throws Exception {
+        this.assertMarshalling("payload", new Payload("result", 2), new Payload("parameter", 1));
+        this.assertMarshalling("payload", null, new Object[] { null });
+    }
+
+    @Test
+    public void testIDLEntity() throws Exception {
+        this.assertMarshalling("struct", new IDLStruct("result", 2), new IDLStruct("parameter", 1));
+    }
+
+    @Test
+    public void testIDLInterface() throws Exception {
+        this.assertMarshalling("counter", null, new Object[] { null });
+    }
+
+    @Test
+    public void testRemote() throws Exception {
+        this.assertMarshalling("remote", null, new Object[] { null });
+    }
+
+    @Test
+    public void testArrays() throws Exception {
+        this.assertMarshalling("array", new int[] { 1, 2 }, new int[] { 3 }, new String[] { "a", null });
+    }
+
+    /**
+     * Generates the strategies of an operation of {@link Operations}, and checks that they and the generic strategies
+     * read each other's parameters and return values.
+     */
+    private void assertMarshalling(final String operation, final Object retval, final Object... params) throws Exception {
+        final Method method = method(operation);
+        final ClassLoader cl = Operations.class.getClassLoader();
+
+        final SkeletonStrategy genericSkeleton = new SkeletonStrategy(method);
+        final SkeletonStrategy generatedSkeleton = IIOPStrategyCompiler.skeletonStrategyFor(method, cl);
+        Assert.assertTrue("No skeleton strategy was generated for " + method, generatedSkeleton.getClass().getName().contains("$$IIOPSkeleton"));
+
+        final Class<?>[] types = method.getParameterTypes();
+        final String[] paramTypes = new String[types.length];
+        for (int i = 0; i < types.length; i++) {
+            paramTypes[i] = CDRStream.abbrevFor(types[i]);
+        }
+        final String retvalType = CDRStream.abbrevFor(method.getReturnType());
+        final StubStrategy genericStub = new StubStrategy(paramTypes, NO_EXCEPTIONS, NO_EXCEPTIONS, retvalType, cl) {
+        };
+        final StubStrategy generatedStub = IIOPStrategyCompiler.stubStrategyFor(paramTypes, NO_EXCEPTIONS, NO_EXCEPTIONS, retvalType, Operations.class);
+        Assert.assertTrue("No stub strategy was generated for " + method, generatedStub.getClass().getName().contains("$$IIOPStrategy"));
+
+        final SkeletonStrategy[] skeletons = { genericSkeleton, generatedSkeleton };
+        final StubStrategy[] stubs = { genericStub, generatedStub };
+        for (StubStrategy stub : stubs) {
+            for (SkeletonStrategy skeleton : skeletons) {
+                final OutputStream out = (OutputStream) orb.create_output_stream();
+                stub.writeParams(out, params);
+                final Object[] read = skeleton.readParams((InputStream) out.create_input_stream());
+                Assert.assertTrue(method + ": wrote " + Arrays.deepToString(params) + ", read " + Arrays.deepToString(read), Arrays.deepEquals(params, read));
+            }
+        }
+
+        Assert.assertEquals(genericSkeleton.isNonVoid(), generatedSkeleton.isNonVoid());
+        Assert.assertEquals(genericStub.isNonVoid(), generatedStub.isNonVoid());
+        Assert.assertEquals(method.getReturnType() != Void.TYPE, genericStub.isNonVoid());
+        if (genericSkeleton.isNonVoid()) {
+            for (SkeletonStrategy skeleton : skeletons) {
+                for (StubStrategy stub : stubs) {
+                    final OutputStream out = (OutputStream) orb.create_output_stream();
+                    skeleton.writeRetval(out, retval);
+                    final Object read = stub.readRetval((InputStream) out.create_input_stream());
+                    Assert.assertTrue(method + ": wrote " + retval + ", read " + read, Arrays.deepEquals(new Object[] { retval }, new Object[] { read }));
+                }
+            }
+        }
+    }
+
+    private static Method method(final String name) {
+        for (Method method : Operations.class.getMethods()) {
+            if (method.getName().equals(name)) {
+                return method;
+            }
+        }
+        throw new IllegalArgumentException(name);
+    }
+
+    public interface Operations extends Remote {
+
+        void primitives(boolean z, byte b, char c, short s, int i, long j, float f, double d) throws RemoteException;
+
+        double average(float f, double d) throws RemoteException;
+
+        String echo(String s) throws RemoteException;
+
+        Payload payload(Payload payload) throws RemoteException;
+
+        IDLStruct struct(IDLStruct struct) throws RemoteException;
+
+        Counter counter(Counter counter) throws RemoteException;
+
+        Operations remote(Operations operations) throws RemoteException;
+
+        int[] array(int[] values, String[] names) throws RemoteException;
+    }
+
+    public static class Payload implements Serializable {
+        private static final long serialVersionUID = 1L;
+
+        private final String name;
+        private final int value;
+
+        public Payload(final String name, final int value) {
+            this.name = name;
+            this.value = value;
+        }
+
+        @Override
+        public boolean equals(final Object object) {
+            if (!(object instanceof Payload)) {
+                return false;
+            }
+            final Payload payload = (Payload) object;
+            return this.name.equals(payload.name) && this.value == payload.value;
+        }
+
+        @Override
+        public int hashCode() {
+            return this.name.hashCode() ^ this.value;
+        }
+
+        @Override
+        public String toString() {
+            return this.name + '=' + this.value;
+        }
+    }
+
+    /**
+     * An IDL struct, marshalled by its helper
+     */
+    public static final class IDLStruct implements IDLEntity {
+        private static final long serialVersionUID = 1L;
+
+        public String name;
+        public int value;
+
+        public IDLStruct() {
+        }
+
+        public IDLStruct(final String name, final int value) {
+            this.name = name;
+            this.value = value;
+        }
+
+        @Override
+        public boolean equals(final Object object) {
+            if (!(object instanceof IDLStruct)) {
+                return false;
+            }
+            final IDLStruct struct = (IDLStruct) object;
+            return this.name.equals(struct.name) && this.value == struct.value;
+        }
+
+        @Override
+        public int hashCode() {
+            return this.name.hashCode() ^ this.value;
+        }
+
+        @Override
+        public String toString() {
+            return this.name + '=' + this.value;
+        }
+    }
+
+    public static final class IDLStructHelper {
+
+        public static String id() {
+            return "IDL:org/jboss/as/ejb3/iiop/stub/IDLStruct:1.0";
+        }
+
+        public static TypeCode type() {
+            final ORB orb = ORB.init();
+            return orb.create_struct_tc(id(), "IDLStruct", new StructMember[] {
+                    new StructMember("name", orb.get_primitive_tc(TCKind.tk_string), null),
+                    new StructMember("value", orb.get_primitive_tc(TCKind.tk_long), null)
+            });
+        }
+
+        public static IDLStruct read(final org.omg.CORBA.portable.InputStream in) {
+            final IDLStruct struct = new IDLStruct();
+            struct.name = in.read_string();
+            struct.value = in.read_long();
+            return struct;
+        }
+
+        public static void write(final org.omg.CORBA.portable.OutputStream out, final IDLStruct struct) {
+            out.write_string(struct.name);
+            out.write_long(struct.value);
+        }
+    }
+
+    /**
+     * An IDL interface, marshalled by its helper
+     */
+    public interface Counter extends org.omg.CORBA.Object, IDLEntity {
+    }
+
+    public static final class CounterHelper {
+
+        public static Counter read(final org.omg.CORBA.portable.InputStream in) {
+            final org.omg.CORBA.Object object = in.read_Object();
+            if (object != null && !(object instanceof Counter)) {
+                throw new org.omg.CORBA.BAD_PARAM();
+            }
+            return (Counter) object;
+        }
+
+        public static void write(final org.omg.CORBA.portable.OutputStream out, final Counter counter) {
+            out.write_Object(counter);
+        }
+    }
+}
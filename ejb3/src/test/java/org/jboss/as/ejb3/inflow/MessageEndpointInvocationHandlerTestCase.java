@@ -0,0 +1,348 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2012, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.jboss.as.ejb3.inflow;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import javax.transaction.HeuristicMixedException;
+import javax.transaction.HeuristicRollbackException;
+import javax.transaction.NotSupportedException;
+import javax.transaction.RollbackException;
+import javax.transaction.Status;
+import javax.transaction.Synchronization;
+import javax.transaction.SystemException;
+import javax.transaction.Transaction;
+import javax.transaction.TransactionManager;
+import javax.transaction.xa.XAResource;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Tests the batched delivery of {@link MessageEndpointInvocationHandler}.
+ */
+public class MessageEndpointInvocationHandlerTestCase {
+
+    private static final XAResource XA_RESOURCE = (XAResource) Proxy.newProxyInstance(XAResource.class.getClassLoader(),
+            new Class<?>[] { XAResource.class }, new java.lang.reflect.InvocationHandler() {
+                @Override
+                public Object invoke(Object proxy, Method method, Object[] args) {
+                    return null;
+                }
+            });
+
+    private MockTransactionManager tm;
+    private ScheduledExecutorService executor;
+    private Method onMessage;
+
+    @Before
+    public void beforeTest() throws Exception {
+        this.tm = new MockTransactionManager();
+        this.executor = Executors.newSingleThreadScheduledExecutor();
+        this.onMessage = Runnable.class.getMethod("run");
+    }
+
+    @After
+    public void afterTest() {
+        this.executor.shutdownNow();
+    }
+
+    @Test
+    public void testUnbatchedDelivery() throws Exception {
+        final TestService service = new TestService(1, 10000);
+        final MessageEndpointInvocationHandler handler = new MessageEndpointInvocationHandler(service, new Object(), XA_RESOURCE);
+        for (int i = 0; i < 3; i++) {
+            deliver(handler, false);
+        }
+        Assert.assertEquals(3, tm.transactions.size());
+        for (MockTransaction tx : tm.transactions) {
+            Assert.assertEquals(Status.STATUS_COMMITTED, tx.status);
+        }
+        Assert.assertEquals(3, service.statistics.getDeliveryCount());
+        Assert.assertEquals(3, service.statistics.getCommitCount());
+    }
+
+    /**
+     * Without an XAResource the acknowledgements are not part of the transaction, so deliveries must not be batched
+     */
+    @Test
+    public void testNoBatchingWithoutXAResource() throws Exception {
+        final TestService service = new TestService(10, 10000);
+        final MessageEndpointInvocationHandler handler = new MessageEndpointInvocationHandler(service, new Object(), null);
+        for (int i = 0; i < 3; i++) {
+            deliver(handler, false);
+        }
+        Assert.assertEquals(3, tm.transactions.size());
+        Assert.assertEquals(3, service.statistics.getCommitCount());
+    }
+
+    @Test
+    public void testBatchCommittedWhenFull() throws Exception {
+        final TestService service = new TestService(3, 10000);
+        final MessageEndpointInvocationHandler handler = new MessageEndpointInvocationHandler(service, new Object(), XA_RESOURCE);
+        deliver(handler, false);
+        deliver(handler, false);
+        Assert.assertEquals(1, tm.transactions.size());
+        final MockTransaction tx = tm.transactions.get(0);
+        Assert.assertEquals(Status.STATUS_ACTIVE, tx.status);
+        // the batch transaction must not stay associated with the thread of the resource adapter
+        Assert.assertNull(tm.getTransaction());
+
+        deliver(handler, false);
+        Assert.assertEquals(1, tm.transactions.size());
+        Assert.assertEquals(Status.STATUS_COMMITTED, tx.status);
+        Assert.assertEquals(1, tx.enlisted);
+        Assert.assertEquals(3, service.statistics.getDeliveryCount());
+        Assert.assertEquals(1, service.statistics.getCommitCount());
+
+        deliver(handler, false);
+        Assert.assertEquals(2, tm.transactions.size());
+    }
+
+    /**
+     * A failed delivery rolls back the whole batch, so that all its messages are redelivered
+     */
+    @Test
+    public void testBatchRolledBack() throws Exception {
+        final TestService service = new TestService(10, 10000);
+        final MessageEndpointInvocationHandler handler = new MessageEndpointInvocationHandler(service, new Object(), XA_RESOURCE);
+        deliver(handler, false);
+        deliver(handler, true);
+        Assert.assertEquals(1, tm.transactions.size());
+        Assert.assertEquals(Status.STATUS_ROLLEDBACK, tm.transactions.get(0).status);
+        Assert.assertEquals(1, service.statistics.getRollbackCount());
+        Assert.assertEquals(0, service.statistics.getCommitCount());
+
+        deliver(handler, false);
+        Assert.assertEquals(2, tm.transactions.size());
+        Assert.assertEquals(Status.STATUS_ACTIVE, tm.transactions.get(1).status);
+    }
+
+    @Test
+    public void testIdleBatchCommittedAfterWindow() throws Exception {
+        final TestService service = new TestService(10, 50);
+        final MessageEndpointInvocationHandler handler = new MessageEndpointInvocationHandler(service, new Object(), XA_RESOURCE);
+        deliver(handler, false);
+        final MockTransaction tx = tm.transactions.get(0);
+        final long deadline = System.currentTimeMillis() + 5000;
+        while (tx.status == Status.STATUS_ACTIVE && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        Assert.assertEquals(Status.STATUS_COMMITTED, tx.status);
+        Assert.assertEquals(1, service.statistics.getCommitCount());
+    }
+
+    @Test
+    public void testReleaseCompletesBatch() throws Exception {
+        final TestService service = new TestService(10, 10000);
+        final MessageEndpointInvocationHandler handler = new MessageEndpointInvocationHandler(service, new Object(), XA_RESOURCE);
+        deliver(handler, false);
+        deliver(handler, false);
+        handler.release();
+        Assert.assertEquals(Status.STATUS_COMMITTED, tm.transactions.get(0).status);
+        Assert.assertEquals(1, service.statistics.getCommitCount());
+    }
+
+    private void deliver(final MessageEndpointInvocationHandler handler, final boolean fail) throws Exception {
+        handler.beforeDelivery(onMessage);
+        if (fail) {
+            tm.getTransaction().setRollbackOnly();
+        }
+        handler.afterDelivery();
+    }
+
+    private class TestService implements MessageEndpointService<Object> {
+        private final int batchSize;
+        private final long batchWindow;
+        private final MessageDeliveryStatistics statistics = new MessageDeliveryStatistics();
+
+        TestService(final int batchSize, final long batchWindow) {
+            this.batchSize = batchSize;
+            this.batchWindow = batchWindow;
+        }
+
+        @Override
+        public Class<Object> getMessageListenerInterface() {
+            return Object.class;
+        }
+
+        @Override
+        public TransactionManager getTransactionManager() {
+            return tm;
+        }
+
+        @Override
+        public boolean isDeliveryTransacted(Method method) {
+            return true;
+        }
+
+        @Override
+        public Object obtain(long timeout, TimeUnit milliseconds) {
+            return new Object();
+        }
+
+        @Override
+        public void release(Object obj) {
+        }
+
+        @Override
+        public ClassLoader getClassLoader() {
+            return getClass().getClassLoader();
+        }
+
+        @Override
+        public int getDeliveryBatchSize() {
+            return batchSize;
+        }
+
+        @Override
+        public long getDeliveryBatchWindow() {
+            return batchWindow;
+        }
+
+        @Override
+        public ScheduledExecutorService getDeliveryBatchExecutor() {
+            return batchSize > 1 ? executor : null;
+        }
+
+        @Override
+        public MessageDeliveryStatistics getDeliveryStatistics() {
+            return statistics;
+        }
+    }
+
+    /**
+     * A transaction manager which only associates transactions with threads
+     */
+    private static class MockTransactionManager implements TransactionManager {
+        private final ThreadLocal<Transaction> current = new ThreadLocal<Transaction>();
+        private final List<MockTransaction> transactions = new ArrayList<MockTransaction>();
+
+        @Override
+        public void begin() throws NotSupportedException {
+            if (current.get() != null) {
+                throw new NotSupportedException("Nested tx are not supported");
+            }
+            final MockTransaction tx = new MockTransaction();
+            transactions.add(tx);
+            current.set(tx);
+        }
+
+        @Override
+        public void commit() throws RollbackException, HeuristicMixedException, HeuristicRollbackException, SystemException {
+            final Transaction tx = suspend();
+            tx.commit();
+        }
+
+        @Override
+        public void rollback() throws SystemException {
+            final Transaction tx = suspend();
+            tx.rollback();
+        }
+
+        @Override
+        public void setRollbackOnly() throws SystemException {
+            current.get().setRollbackOnly();
+        }
+
+        @Override
+        public int getStatus() throws SystemException {
+            final Transaction tx = current.get();
+            return tx == null ? Status.STATUS_NO_TRANSACTION : tx.getStatus();
+        }
+
+        @Override
+        public Transaction getTransaction() {
+            return current.get();
+        }
+
+        @Override
+        public void setTransactionTimeout(int seconds) {
+        }
+
+        @Override
+        public Transaction suspend() {
+            final Transaction tx = current.get();
+            current.set(null);
+            return tx;
+        }
+
+        @Override
+        public void resume(Transaction tobj) {
+            if (current.get() != null) {
+                throw new IllegalStateException("Thread is already associated with a transaction");
+            }
+            current.set(tobj);
+        }
+    }
+
+    private static class MockTransaction implements Transaction {
+        private volatile int status = Status.STATUS_ACTIVE;
+        private int enlisted;
+
+        @Override
+        public void commit() throws RollbackException {
+            if (status == Status.STATUS_MARKED_ROLLBACK) {
+                status = Status.STATUS_ROLLEDBACK;
+                throw new RollbackException();
+            }
+            status = Status.STATUS_COMMITTED;
+        }
+
+        @Override
+        public boolean delistResource(XAResource xaRes, int flag) {
+            return true;
+        }
+
+        @Override
+        public boolean enlistResource(XAResource xaRes) {
+            enlisted++;
+            return true;
+        }
+
+        @Override
+        public int getStatus() {
+            return status;
+        }
+
+        @Override
+        public void registerSynchronization(Synchronization sync) {
+        }
+
+        @Override
+        public void rollback() {
+            status = Status.STATUS_ROLLEDBACK;
+        }
+
+        @Override
+        public void setRollbackOnly() {
+            status = Status.STATUS_MARKED_ROLLBACK;
+        }
+    }
+}
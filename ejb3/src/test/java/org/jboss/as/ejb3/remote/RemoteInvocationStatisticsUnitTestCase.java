@@ -0,0 +1,79 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2012, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.jboss.as.ejb3.remote;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+
+/**
+ * Tests for {@link RemoteInvocationStatistics}.
+ */
+public class RemoteInvocationStatisticsUnitTestCase {
+
+    @Test
+    public void testChannelContributesToParent() throws Exception {
+        final RemoteInvocationStatistics total = new RemoteInvocationStatistics();
+        final RemoteInvocationStatistics channel = new RemoteInvocationStatistics(total);
+
+        final long first = channel.invocationStarted();
+        final long second = channel.invocationStarted();
+        assertEquals(2, channel.getInFlightCount());
+        assertEquals(2, total.getInFlightCount());
+        assertEquals(0, total.getAverageInvocationTime());
+
+        Thread.sleep(5);
+        channel.invocationFinished(first);
+        channel.invocationFinished(second);
+
+        assertEquals(0, channel.getInFlightCount());
+        assertEquals(0, total.getInFlightCount());
+        assertEquals(2, channel.getInvocationCount());
+        assertEquals(2, total.getInvocationCount());
+        assertTrue(total.getMaxInvocationTime() >= TimeUnit.MILLISECONDS.toMicros(5));
+        assertTrue(total.getAverageInvocationTime() <= total.getMaxInvocationTime());
+        assertEquals(channel.getMaxInvocationTime(), total.getMaxInvocationTime());
+    }
+
+    @Test
+    public void testParentCountsAllChannels() {
+        final RemoteInvocationStatistics total = new RemoteInvocationStatistics();
+        final RemoteInvocationStatistics one = new RemoteInvocationStatistics(total);
+        final RemoteInvocationStatistics two = new RemoteInvocationStatistics(total);
+
+        one.invocationFinished(one.invocationStarted());
+        final long start = two.invocationStarted();
+
+        assertEquals(1, one.getInvocationCount());
+        assertEquals(0, two.getInvocationCount());
+        assertEquals(1, two.getInFlightCount());
+        assertEquals(1, total.getInvocationCount());
+        assertEquals(1, total.getInFlightCount());
+
+        two.invocationFinished(start);
+        assertEquals(2, total.getInvocationCount());
+        assertEquals(0, total.getInFlightCount());
+    }
+}
@@ -26,8 +26,11 @@ import org.jboss.as.subsystem.test.AbstractSubsystemTest;
 import org.jboss.as.subsystem.test.AdditionalInitialization;
 import org.jboss.as.subsystem.test.KernelServices;
 import org.jboss.dmr.ModelNode;
+import org.junit.Assert;
 import org.junit.Test;
 
+import javax.xml.stream.XMLStreamException;
+
 /**
  * @author Emanuel Muckenhuber
  */
@@ -62,4 +65,24 @@ public class SubsystemParsingUnitTestCase extends AbstractSubsystemTest {
 
         assertRemoveSubsystemResources(servicesA);
     }
+
+    @Test
+    public void testRejectVersionedAttributesIn12Schema() throws Exception {
+        assertRejectedBy12Schema("<pools><bean-instance-pools><strict-max-pool name=\"slsb\" striped=\"true\"/></bean-instance-pools></pools>");
+        assertRejectedBy12Schema("<timer-service thread-pool-name=\"default\" scheduler=\"timing-wheel\"><data-store path=\"timers\"/></timer-service>");
+        assertRejectedBy12Schema("<timer-service thread-pool-name=\"default\"><data-store path=\"timers\" type=\"journal\"/></timer-service>");
+        assertRejectedBy12Schema("<passivation-stores><file-passivation-store name=\"file\" type=\"segmented\"/></passivation-stores>");
+        assertRejectedBy12Schema("<passivation-stores><file-passivation-store name=\"file\" compression=\"true\"/></passivation-stores>");
+        assertRejectedBy12Schema("<session-bean><singleton default-access-timeout=\"5000\" lock-strategy=\"striped\"/></session-bean>");
+    }
+
+    private void assertRejectedBy12Schema(final String content) throws Exception {
+        final String subsystemXml = "<subsystem xmlns=\"" + EJB3SubsystemNamespace.EJB3_1_2.getUriString() + "\">" + content + "</subsystem>";
+        try {
+            parse(subsystemXml);
+            Assert.fail("ejb3:1.2 accepted " + content);
+        } catch (XMLStreamException expected) {
+            // the attribute was only added in ejb3:1.3
+        }
+    }
 }
@@ -0,0 +1,200 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2012, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.jboss.as.ejb3.timerservice.persistence.journal;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Tests for {@link TimerJournal}
+ */
+public class TimerJournalTestCase {
+
+    private File directory;
+
+    @Before
+    public void createDirectory() throws IOException {
+        directory = File.createTempFile("timer-journal", "");
+        Assert.assertTrue(directory.delete());
+        Assert.assertTrue(directory.mkdirs());
+    }
+
+    @After
+    public void deleteDirectory() {
+        final File[] files = directory.listFiles();
+        if (files != null) {
+            for (File file : files) {
+                file.delete();
+            }
+        }
+        directory.delete();
+    }
+
+    @Test
+    public void testReplayKeepsLatestLiveRecords() throws IOException {
+        TimerJournal journal = new TimerJournal(directory, 1024 * 1024);
+        journal.open();
+        final List<TimerJournal.Record> batch = new ArrayList<TimerJournal.Record>();
+        batch.add(put("a", "1", 1));
+        batch.add(put("a", "2", 2));
+        batch.add(put("b", "3", 3));
+        journal.append(batch);
+        journal.append(Collections.singletonList(put("a", "1", 4)));
+        journal.append(Collections.singletonList(remove("a", "2")));
+        journal.close();
+
+        journal = new TimerJournal(directory, 1024 * 1024);
+        journal.open();
+        final Map<String, byte[]> a = journal.getTimers("a");
+        Assert.assertEquals(1, a.size());
+        Assert.assertEquals(4, a.get("1")[0]);
+        Assert.assertEquals(1, journal.getTimers("b").size());
+        Assert.assertTrue(journal.getTimers("c").isEmpty());
+        Assert.assertEquals(2, journal.getLiveRecordCount());
+        journal.close();
+    }
+
+    @Test
+    public void testTruncatedRecordIsIgnored() throws IOException {
+        TimerJournal journal = new TimerJournal(directory, 1024 * 1024);
+        journal.open();
+        journal.append(Collections.singletonList(put("a", "1", 1)));
+        journal.append(Collections.singletonList(put("a", "2", 2)));
+        journal.close();
+
+        // simulate a crash in the middle of the last write
+        final File segment = new File(directory, TimerJournal.segmentName(0));
+        final RandomAccessFile file = new RandomAccessFile(segment, "rw");
+        try {
+            file.setLength(file.length() - 3);
+        } finally {
+            file.close();
+        }
+
+        journal = new TimerJournal(directory, 1024 * 1024);
+        journal.open();
+        final Map<String, byte[]> a = journal.getTimers("a");
+        Assert.assertEquals(1, a.size());
+        Assert.assertTrue(a.containsKey("1"));
+
+        // new records replace the truncated one, and survive the next restart
+        journal.append(Collections.singletonList(put("a", "3", 3)));
+        journal.close();
+        journal = new TimerJournal(directory, 1024 * 1024);
+        journal.open();
+        Assert.assertEquals(2, journal.getTimers("a").size());
+        Assert.assertEquals(1, journal.getSegmentCount());
+        journal.close();
+    }
+
+    @Test
+    public void testIncompleteBatchIsIgnored() throws IOException {
+        TimerJournal journal = new TimerJournal(directory, 1024 * 1024);
+        journal.open();
+        journal.append(Collections.singletonList(put("a", "1", 1)));
+        final List<TimerJournal.Record> batch = new ArrayList<TimerJournal.Record>();
+        batch.add(remove("a", "1"));
+        batch.add(put("a", "2", 2));
+        journal.append(batch);
+        journal.close();
+
+        // simulate a crash after the records of the batch, but before its commit record, reached the disk
+        final File segment = new File(directory, TimerJournal.segmentName(0));
+        final RandomAccessFile file = new RandomAccessFile(segment, "rw");
+        try {
+            file.setLength(file.length() - 13);
+        } finally {
+            file.close();
+        }
+
+        journal = new TimerJournal(directory, 1024 * 1024);
+        journal.open();
+        final Map<String, byte[]> a = journal.getTimers("a");
+        Assert.assertEquals(1, a.size());
+        Assert.assertTrue(a.containsKey("1"));
+        journal.close();
+    }
+
+    @Test
+    public void testOpenContinuesLastSegment() throws IOException {
+        for (int i = 0; i < 3; ++i) {
+            final TimerJournal journal = new TimerJournal(directory, 1024 * 1024);
+            journal.open();
+            journal.append(Collections.singletonList(put("a", Integer.toString(i), i)));
+            journal.close();
+        }
+        Assert.assertEquals(1, countSegments());
+        final TimerJournal journal = new TimerJournal(directory, 1024 * 1024);
+        journal.open();
+        Assert.assertEquals(3, journal.getTimers("a").size());
+        journal.close();
+    }
+
+    @Test
+    public void testCompaction() throws IOException {
+        TimerJournal journal = new TimerJournal(directory, 64 * 1024);
+        journal.open();
+        // rewrite the same ten timers until the journal had to be compacted
+        for (int i = 0; i < 1000; ++i) {
+            journal.append(Collections.singletonList(new TimerJournal.Record("a", Integer.toString(i % 10), new byte[4096])));
+        }
+        Assert.assertTrue(journal.getSize() < 2 * 1024 * 1024);
+        Assert.assertTrue(journal.getSegmentCount() < 40);
+        Assert.assertEquals(10, journal.getLiveRecordCount());
+        journal.close();
+
+        Assert.assertEquals(directory.listFiles().length, countSegments());
+
+        journal = new TimerJournal(directory, 64 * 1024);
+        journal.open();
+        Assert.assertEquals(10, journal.getTimers("a").size());
+        journal.close();
+    }
+
+    private int countSegments() {
+        int count = 0;
+        for (String name : directory.list()) {
+            if (name.startsWith(TimerJournal.SEGMENT_PREFIX) && name.endsWith(TimerJournal.SEGMENT_SUFFIX)) {
+                ++count;
+            }
+        }
+        return count;
+    }
+
+    private static TimerJournal.Record put(final String timedObjectId, final String timerId, final int value) {
+        return new TimerJournal.Record(timedObjectId, timerId, new byte[]{(byte) value});
+    }
+
+    private static TimerJournal.Record remove(final String timedObjectId, final String timerId) {
+        return new TimerJournal.Record(timedObjectId, timerId, null);
+    }
+}
@@ -0,0 +1,106 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2012, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.jboss.as.ejb3.timerservice.scheduler;
+
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import junit.framework.Assert;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Tests for {@link TimingWheelScheduler}
+ */
+public class TimingWheelSchedulerTestCase {
+
+    private TimingWheelScheduler scheduler;
+
+    @Before
+    public void setUp() {
+        scheduler = new TimingWheelScheduler(1, TimeUnit.MILLISECONDS);
+    }
+
+    @After
+    public void tearDown() {
+        scheduler.shutdown();
+    }
+
+    @Test
+    public void testTimeoutsAreNeverEarly() throws Exception {
+        final int count = 2000;
+        final CountDownLatch latch = new CountDownLatch(count);
+        final AtomicInteger early = new AtomicInteger();
+        final Random random = new Random(42);
+        for (int i = 0; i < count; i++) {
+            // spread the delays over several revolutions of the first level
+            final long delay = random.nextInt(1500);
+            final long scheduled = System.currentTimeMillis();
+            scheduler.schedule(new Runnable() {
+                @Override
+                public void run() {
+                    if (System.currentTimeMillis() - scheduled < delay) {
+                        early.incrementAndGet();
+                    }
+                    latch.countDown();
+                }
+            }, delay);
+        }
+        Assert.assertTrue("Not all timeouts were triggered", latch.await(10, TimeUnit.SECONDS));
+        Assert.assertEquals(0, early.get());
+        Assert.assertEquals(0, scheduler.getPendingTimeoutCount());
+    }
+
+    @Test
+    public void testCancel() throws Exception {
+        final AtomicInteger runs = new AtomicInteger();
+        final ScheduledTimeout timeout = scheduler.schedule(new Runnable() {
+            @Override
+            public void run() {
+                runs.incrementAndGet();
+            }
+        }, 100);
+        Assert.assertEquals(1, scheduler.getPendingTimeoutCount());
+        Assert.assertTrue(timeout.cancel());
+        Assert.assertFalse(timeout.cancel());
+        Assert.assertEquals(0, scheduler.getPendingTimeoutCount());
+        Thread.sleep(300);
+        Assert.assertEquals(0, runs.get());
+    }
+
+    @Test
+    public void testFixedRate() throws Exception {
+        final CountDownLatch latch = new CountDownLatch(5);
+        final ScheduledTimeout timeout = scheduler.scheduleAtFixedRate(new Runnable() {
+            @Override
+            public void run() {
+                latch.countDown();
+            }
+        }, 0, 50);
+        Assert.assertTrue(latch.await(5, TimeUnit.SECONDS));
+        Assert.assertTrue(timeout.cancel());
+        Assert.assertEquals(0, scheduler.getPendingTimeoutCount());
+    }
+}
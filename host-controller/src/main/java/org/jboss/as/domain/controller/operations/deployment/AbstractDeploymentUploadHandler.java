@@ -26,6 +26,7 @@ import org.jboss.as.controller.OperationFailedException;
 import org.jboss.as.repository.ContentRepository;
 import org.jboss.dmr.ModelNode;
 
+import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
 
@@ -51,13 +52,19 @@ public abstract class AbstractDeploymentUploadHandler implements OperationStepHa
 
         if (contentRepository != null) {
             try {
-                InputStream is = getContentInputStream(context, operation);
-                try {
-                    byte[] hash = contentRepository.addContent(is);
+                final File file = getContentFile(operation);
+                if (file != null) {
+                    byte[] hash = contentRepository.addContent(file);
                     context.getResult().set(hash);
-                }
-                finally {
-                    safeClose(is);
+                } else {
+                    InputStream is = getContentInputStream(context, operation);
+                    try {
+                        byte[] hash = contentRepository.addContent(is);
+                        context.getResult().set(hash);
+                    }
+                    finally {
+                        safeClose(is);
+                    }
                 }
             }
             catch (IOException e) {
@@ -69,6 +76,16 @@ public abstract class AbstractDeploymentUploadHandler implements OperationStepHa
         context.completeStep();
     }
 
+    /**
+     * Gets the local file holding the content, if any, which allows the content to be added without streaming it.
+     *
+     * @param operation the operation
+     * @return the file, or {@code null} if the content must be read from {@link #getContentInputStream(OperationContext, ModelNode)}
+     */
+    protected File getContentFile(ModelNode operation) throws OperationFailedException {
+        return null;
+    }
+
     protected abstract InputStream getContentInputStream(OperationContext context, ModelNode operation) throws OperationFailedException;
 
     private static void safeClose(InputStream is) {
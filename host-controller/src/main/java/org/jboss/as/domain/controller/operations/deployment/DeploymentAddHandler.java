@@ -34,6 +34,7 @@ import static org.jboss.as.controller.operations.validation.ChainedParameterVali
 import static org.jboss.as.domain.controller.DomainControllerMessages.MESSAGES;
 
 import java.io.ByteArrayInputStream;
+import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
 import java.net.MalformedURLException;
@@ -160,16 +161,25 @@ public class DeploymentAddHandler implements OperationStepHandler, DescriptionPr
                 throw createFailureException(MESSAGES.slaveCannotAcceptUploads());
             }
 
-            InputStream in = getInputStream(context, contentItemNode);
-            try {
+            final File file = AbstractDeploymentHandler.getLocalFile(contentItemNode);
+            if (file != null) {
                 try {
-                    hash = contentRepository.addContent(in);
+                    hash = contentRepository.addContent(file);
                 } catch (IOException e) {
                     throw createFailureException(e.toString());
                 }
+            } else {
+                InputStream in = getInputStream(context, contentItemNode);
+                try {
+                    try {
+                        hash = contentRepository.addContent(in);
+                    } catch (IOException e) {
+                        throw createFailureException(e.toString());
+                    }
 
-            } finally {
-                StreamUtils.safeClose(in);
+                } finally {
+                    StreamUtils.safeClose(in);
+                }
             }
             contentItemNode.clear(); // AS7-1029
             contentItemNode.get(HASH).set(hash);
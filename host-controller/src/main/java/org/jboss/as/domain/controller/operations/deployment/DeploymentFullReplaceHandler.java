@@ -36,9 +36,11 @@ import static org.jboss.as.domain.controller.DomainControllerMessages.MESSAGES;
 import static org.jboss.as.domain.controller.operations.deployment.AbstractDeploymentHandler.CONTENT_ADDITION_PARAMETERS;
 import static org.jboss.as.domain.controller.operations.deployment.AbstractDeploymentHandler.createFailureException;
 import static org.jboss.as.domain.controller.operations.deployment.AbstractDeploymentHandler.getInputStream;
+import static org.jboss.as.domain.controller.operations.deployment.AbstractDeploymentHandler.getLocalFile;
 import static org.jboss.as.domain.controller.operations.deployment.AbstractDeploymentHandler.hasValidContentAdditionParameterDefined;
 import static org.jboss.as.domain.controller.operations.deployment.AbstractDeploymentHandler.validateOnePieceOfContent;
 
+import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
 import java.util.Locale;
@@ -156,16 +158,25 @@ public class DeploymentFullReplaceHandler implements OperationStepHandler, Descr
                 throw createFailureException(MESSAGES.slaveCannotAcceptUploads());
             }
 
-            InputStream in = getInputStream(context, contentItemNode);
-            try {
+            final File file = getLocalFile(contentItemNode);
+            if (file != null) {
                 try {
-                    hash = contentRepository.addContent(in);
+                    hash = contentRepository.addContent(file);
                 } catch (IOException e) {
                     throw createFailureException(e.toString());
                 }
+            } else {
+                InputStream in = getInputStream(context, contentItemNode);
+                try {
+                    try {
+                        hash = contentRepository.addContent(in);
+                    } catch (IOException e) {
+                        throw createFailureException(e.toString());
+                    }
 
-            } finally {
-                StreamUtils.safeClose(in);
+                } finally {
+                    StreamUtils.safeClose(in);
+                }
             }
             contentItemNode.clear(); // AS7-1029
             contentItemNode.get(HASH).set(hash);
@@ -27,6 +27,7 @@ import org.jboss.as.controller.operations.validation.StringLengthValidator;
 import org.jboss.as.repository.ContentRepository;
 import org.jboss.dmr.ModelNode;
 
+import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
 import java.net.MalformedURLException;
@@ -70,6 +71,15 @@ implements DescriptionProvider {
         return DeploymentDescription.getUploadDeploymentURLOperation(locale);
     }
 
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    protected File getContentFile(ModelNode operation) throws OperationFailedException {
+        urlValidator.validate(operation);
+        return AbstractDeploymentHandler.getLocalFile(operation);
+    }
+
     /**
      * {@inheritDoc}
      */
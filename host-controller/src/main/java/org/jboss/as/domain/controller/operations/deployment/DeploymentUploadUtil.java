@@ -10,6 +10,7 @@ import static org.jboss.as.controller.descriptions.ModelDescriptionConstants.URL
 import static org.jboss.as.domain.controller.DomainControllerMessages.MESSAGES;
 
 import java.io.ByteArrayInputStream;
+import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
 import java.net.MalformedURLException;
@@ -31,6 +32,12 @@ public class DeploymentUploadUtil {
     }
 
     public static byte[] storeDeploymentContent(OperationContext context, ModelNode operation, ContentRepository contentRepository) throws IOException, OperationFailedException {
+        if (operation.hasDefined(CONTENT)) {
+            final File file = AbstractDeploymentHandler.getLocalFile(operation.require(CONTENT).get(0));
+            if (file != null) {
+                return contentRepository.addContent(file);
+            }
+        }
         InputStream in = getContents(context, operation);
         return contentRepository.addContent(in);
     }
@@ -125,7 +125,7 @@ public class HostControllerConfigurationPersister implements ExtensibleConfigura
             }
         }
 
-        return new PersistenceResource() {
+        return new DeferredPersistenceResource() {
             @Override
             public void commit() {
                 if (delegates[0] != null) {
@@ -145,6 +145,15 @@ public class HostControllerConfigurationPersister implements ExtensibleConfigura
                     delegates[1].rollback();
                 }
             }
+
+            @Override
+            public void awaitPersisted() {
+                for (PersistenceResource delegate : delegates) {
+                    if (delegate instanceof DeferredPersistenceResource) {
+                        ((DeferredPersistenceResource) delegate).awaitPersisted();
+                    }
+                }
+            }
         };
     }
 
@@ -28,9 +28,13 @@ import java.lang.reflect.Method;
 import java.lang.reflect.Constructor;
 import java.lang.reflect.InvocationTargetException;
 
-import java.util.Map;
 import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.WeakHashMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.CopyOnWriteArrayList;
 
 import org.jboss.as.jacorb.JacORBMessages;
 
@@ -50,12 +54,25 @@ import org.jboss.as.jacorb.JacORBMessages;
  * When a thread re-enters the <code>getAnalysis()</code> method, an
  * unfinished analysis will be returned if the same thread is already
  * working on this analysis.
- *
- * TODO: this looks like a big class loader leak waiting to happen
+ * <p/>
+ * Finished analyses are kept in one concurrent segment per class loader,
+ * keyed by class name, so analyses of different deployments never contend.
+ * The segment of a class is found through a <code>ClassValue</code>, so a
+ * lookup of a finished analysis takes no lock at all; only the first lookup
+ * of a class synchronizes to find or create the segment of its class loader.
+ * The segments are weakly keyed by their class loader, and the analyses are
+ * only softly referenced, so the cache does not keep a class loader alive.
+ * {@link #purge(ClassLoader)} empties the segment of a deployment eagerly
+ * when it is undeployed.
  *
  * @author <a href="mailto:osh@sparre.dk">Ole Husgaard</a>
  */
-class WorkCacheManager {
+public class WorkCacheManager {
+
+    /**
+     * All work cache managers, so that a class loader can be purged from every one of them.
+     */
+    private static final List<WorkCacheManager> managers = new CopyOnWriteArrayList<WorkCacheManager>();
 
     /**
      * Create a new work cache manager.
@@ -71,8 +88,34 @@ class WorkCacheManager {
             throw JacORBMessages.MESSAGES.unexpectedException(ex);
         }
 
-        workDone = new WeakHashMap();
-        workInProgress = new HashMap();
+        workDone = new WeakHashMap<ClassLoader, ConcurrentMap<String, SoftReference<ContainerAnalysis>>>();
+        bootstrapWorkDone = new ConcurrentHashMap<String, SoftReference<ContainerAnalysis>>();
+        segments = new ClassValue<ConcurrentMap<String, SoftReference<ContainerAnalysis>>>() {
+            protected ConcurrentMap<String, SoftReference<ContainerAnalysis>> computeValue(final Class<?> type) {
+                return segmentFor(type.getClassLoader());
+            }
+        };
+        workInProgress = new ThreadLocal<Map<Class, ContainerAnalysis>>();
+        managers.add(this);
+    }
+
+    /**
+     * Discards the analyses of all classes loaded by the given class loader.
+     *
+     * @param cl the class loader of an undeployed deployment
+     */
+    public static void purge(final ClassLoader cl) {
+        if (cl != null) {
+            for (WorkCacheManager manager : managers) {
+                final ConcurrentMap<String, SoftReference<ContainerAnalysis>> segment;
+                synchronized (manager.workDone) {
+                    segment = manager.workDone.get(cl);
+                }
+                // the segment stays mapped, as the classes of the loader still refer to it
+                if (segment != null)
+                    segment.clear();
+            }
+        }
     }
 
     /**
@@ -81,35 +124,37 @@ class WorkCacheManager {
      * class, an unfinished analysis is returned.
      */
     ContainerAnalysis getAnalysis(final Class cls) throws RMIIIOPViolationException {
-        ContainerAnalysis ret;
+        final ConcurrentMap<String, SoftReference<ContainerAnalysis>> segment = segments.get(cls);
+        ContainerAnalysis ret = lookupDone(segment, cls);
+        if (ret != null)
+            return ret;
 
-        synchronized (this) {
-            ret = lookupDone(cls);
+        // is it work-in-progress of this thread?
+        Map<Class, ContainerAnalysis> inProgress = workInProgress.get();
+        if (inProgress != null) {
+            ret = inProgress.get(cls);
             if (ret != null)
-                return ret;
-
-            // is it work-in-progress?
-            final InProgress inProgress = (InProgress) workInProgress.get(cls);
-            if (inProgress != null) {
-                if (inProgress.thread == Thread.currentThread())
-                    return inProgress.analysis; // return unfinished
+                return ret; // return unfinished
+        } else {
+            inProgress = new HashMap<Class, ContainerAnalysis>();
+            workInProgress.set(inProgress);
+        }
 
-                // Do not wait for the other thread: We may deadlock
-                // Double work is better that deadlock...
-            }
+        // Work in progress of other threads is not waited for: We may
+        // deadlock. Double work is better that deadlock...
+        try {
+            ret = createWorkInProgress(cls, inProgress);
 
-            ret = createWorkInProgress(cls);
+            // Do the work
+            doTheWork(ret);
+        } finally {
+            inProgress.remove(cls);
+            if (inProgress.isEmpty())
+                workInProgress.remove(); // do not pin class loaders to the thread
         }
 
-        // Do the work
-        doTheWork(cls, ret);
-
         // We did it
-        synchronized (this) {
-            workInProgress.remove(cls);
-            workDone.put(cls, new SoftReference(ret));
-            notifyAll();
-        }
+        segment.put(cls.getName(), new SoftReference<ContainerAnalysis>(ret));
 
         return ret;
     }
@@ -127,34 +172,65 @@ class WorkCacheManager {
     private final Method initializer;
 
     /**
-     * This maps the classes of completely done analyses to soft
-     * references of their analysis.
+     * This weakly maps class loaders to the segment mapping the class names of
+     * completely done analyses to soft references of their analysis.
+     * A class loader keeps its segment until it is collected, so that the
+     * segments cached in {@link #segments} never go stale.
+     * Guarded by itself.
      */
-    private final Map workDone;
+    private final Map<ClassLoader, ConcurrentMap<String, SoftReference<ContainerAnalysis>>> workDone;
 
     /**
-     * This maps the classes of analyses in progress to their
-     * analysis.
+     * The segment of completely done analyses of classes loaded by the
+     * bootstrap class loader.
      */
-    private final Map workInProgress;
+    private final ConcurrentMap<String, SoftReference<ContainerAnalysis>> bootstrapWorkDone;
+
+    /**
+     * This maps the classes of analyses the current thread is working on
+     * to their analysis.
+     */
+    private final ThreadLocal<Map<Class, ContainerAnalysis>> workInProgress;
+
+    /**
+     * This caches the fully done segment of the class loader of a class with
+     * the class itself.
+     */
+    private final ClassValue<ConcurrentMap<String, SoftReference<ContainerAnalysis>>> segments;
+
+    /**
+     * Returns the fully done segment of a class loader, creating it if needed.
+     */
+    private ConcurrentMap<String, SoftReference<ContainerAnalysis>> segmentFor(final ClassLoader cl) {
+        if (cl == null)
+            return bootstrapWorkDone;
+        synchronized (workDone) {
+            ConcurrentMap<String, SoftReference<ContainerAnalysis>> segment = workDone.get(cl);
+            if (segment == null) {
+                segment = new ConcurrentHashMap<String, SoftReference<ContainerAnalysis>>();
+                workDone.put(cl, segment);
+            }
+            return segment;
+        }
+    }
 
     /**
      * Lookup an analysis in the fully done map.
      */
-    private ContainerAnalysis lookupDone(Class cls) {
-        SoftReference ref = (SoftReference) workDone.get(cls);
+    private ContainerAnalysis lookupDone(final ConcurrentMap<String, SoftReference<ContainerAnalysis>> segment, final Class cls) {
+        final SoftReference<ContainerAnalysis> ref = segment.get(cls.getName());
         if (ref == null)
             return null;
-        ContainerAnalysis ret = (ContainerAnalysis) ref.get();
+        final ContainerAnalysis ret = ref.get();
         if (ret == null)
-            workDone.remove(cls); // clear map entry if soft ref. was cleared.
+            segment.remove(cls.getName(), ref); // clear map entry if soft ref. was cleared.
         return ret;
     }
 
     /**
      * Create new work-in-progress.
      */
-    private ContainerAnalysis createWorkInProgress(final Class cls) {
+    private ContainerAnalysis createWorkInProgress(final Class cls, final Map<Class, ContainerAnalysis> inProgress) {
         final ContainerAnalysis analysis;
         try {
             analysis = (ContainerAnalysis) constructor.newInstance(cls);
@@ -166,19 +242,16 @@ class WorkCacheManager {
             throw new RuntimeException(ex.toString());
         }
 
-        workInProgress.put(cls, new InProgress(analysis, Thread.currentThread()));
+        inProgress.put(cls, analysis);
 
         return analysis;
     }
 
-    private void doTheWork(final Class cls, final ContainerAnalysis ret)
+    private void doTheWork(final ContainerAnalysis ret)
             throws RMIIIOPViolationException {
         try {
             initializer.invoke(ret);
         } catch (Throwable t) {
-            synchronized (this) {
-                workInProgress.remove(cls);
-            }
             if (t instanceof InvocationTargetException) // unwrap
                 t = ((InvocationTargetException) t).getTargetException();
 
@@ -191,18 +264,4 @@ class WorkCacheManager {
             throw new RuntimeException(t.toString());
         }
     }
-
-    /**
-     * A simple aggregate of work-in-progress, and the thread doing the work.
-     */
-    private static class InProgress {
-        ContainerAnalysis analysis;
-        Thread thread;
-
-        InProgress(final ContainerAnalysis analysis, final Thread thread) {
-            this.analysis = analysis;
-            this.thread = thread;
-        }
-    }
 }
-
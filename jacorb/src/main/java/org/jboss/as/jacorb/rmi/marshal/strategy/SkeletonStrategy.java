@@ -124,11 +124,22 @@ public class SkeletonStrategy {
         int len = paramReaders.length;
         Object[] params = new Object[len];
         for (int i = 0; i < len; i++) {
-            params[i] = paramReaders[i].read(in);
+            params[i] = readParam(i, in);
         }
         return params;
     }
 
+    /**
+     * Unmarshals a single method parameter from an input stream.
+     *
+     * @param index the index of the parameter
+     * @param in    a CDR input stream
+     * @return the parameter.
+     */
+    protected Object readParam(int index, InputStream in) {
+        return paramReaders[index].read(in);
+    }
+
     /**
      * Returns this <code>SkeletonStrategy</code>'s method.
      */
@@ -152,7 +163,17 @@ public class SkeletonStrategy {
      */
     public void writeRetval(OutputStream out, Object retVal) {
 
-        retvalWriter.write(out, RemoteObjectSubstitutionManager.writeReplaceRemote(retVal));
+        retvalWriter.write(out, replaceRetval(retVal));
+    }
+
+    /**
+     * Replaces a return value that is a remote object by the object to marshal in its place.
+     *
+     * @param retVal the return value
+     * @return the object to marshal.
+     */
+    protected static Object replaceRetval(Object retVal) {
+        return RemoteObjectSubstitutionManager.writeReplaceRemote(retVal);
     }
 
     /**
@@ -0,0 +1,205 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2012, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.jboss.as.jacorb.rmi.marshal.strategy;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Caches the <code>SkeletonStrategy</code> and <code>StubStrategy</code> instances built for
+ * RMI/IIOP operations, so that the readers and writers of an operation are resolved once per
+ * class loader instead of once per bean deployment or generated stub class.
+ * <p/>
+ * Callers that create specialised strategies, such as the generated strategies of the EJB IIOP
+ * subsystem, pass a {@link SkeletonStrategyFactory} or {@link StubStrategyFactory}; the cache then
+ * only keeps the first strategy created for an operation. A factory that returns <code>null</code> falls
+ * back to the generic strategy.
+ * <p/>
+ * Strategies are immutable once constructed and can be shared between threads. The cache holds
+ * strong references to the class loaders it is keyed on, so {@link #evict(ClassLoader)} must be
+ * called when a deployment is undeployed.
+ */
+public final class StrategyCache {
+
+    /**
+     * Maps the class loader of the declaring class to the skeleton strategies of its methods.
+     */
+    private static final ConcurrentMap<ClassLoader, ConcurrentMap<Method, SkeletonStrategy>> skeletonStrategies = new ConcurrentHashMap<ClassLoader, ConcurrentMap<Method, SkeletonStrategy>>();
+
+    /**
+     * Maps the class loader used to resolve value classes to the stub strategies keyed by operation signature.
+     */
+    private static final ConcurrentMap<ClassLoader, ConcurrentMap<String, StubStrategy>> stubStrategies = new ConcurrentHashMap<ClassLoader, ConcurrentMap<String, StubStrategy>>();
+
+    private static final SkeletonStrategyFactory DEFAULT_SKELETON_FACTORY = new SkeletonStrategyFactory() {
+        public SkeletonStrategy createSkeletonStrategy(final Method m, final ClassLoader cl) {
+            return new SkeletonStrategy(m);
+        }
+    };
+
+    private static final StubStrategyFactory DEFAULT_STUB_FACTORY = new StubStrategyFactory() {
+        public StubStrategy createStubStrategy(final String[] paramTypes, final String[] excepIds, final String[] excepTypes,
+                                               final String retvalType, final ClassLoader cl) {
+            return new StubStrategy(paramTypes, excepIds, excepTypes, retvalType, cl);
+        }
+    };
+
+    private StrategyCache() {
+    }
+
+    /**
+     * Returns the <code>SkeletonStrategy</code> for a given method, creating it on first use.
+     *
+     * @param m the method
+     * @return the skeleton strategy
+     */
+    public static SkeletonStrategy skeletonStrategyFor(final Method m) {
+        final ClassLoader cl = m.getDeclaringClass().getClassLoader();
+        if (cl == null) {
+            return new SkeletonStrategy(m);
+        }
+        return skeletonStrategyFor(m, cl, DEFAULT_SKELETON_FACTORY);
+    }
+
+    /**
+     * Returns the <code>SkeletonStrategy</code> for a given method, creating it with the given factory on
+     * first use. The strategy is cached for the given class loader.
+     *
+     * @param m       the method
+     * @param cl      the class loader the strategy belongs to
+     * @param factory the factory used to create the strategy
+     * @return the skeleton strategy
+     */
+    public static SkeletonStrategy skeletonStrategyFor(final Method m, final ClassLoader cl, final SkeletonStrategyFactory factory) {
+        if (cl == null) {
+            return new SkeletonStrategy(m);
+        }
+        final ConcurrentMap<Method, SkeletonStrategy> strategies = strategiesFor(skeletonStrategies, cl);
+        SkeletonStrategy strategy = strategies.get(m);
+        if (strategy == null) {
+            strategy = factory.createSkeletonStrategy(m, cl);
+            if (strategy == null) {
+                strategy = new SkeletonStrategy(m);
+            }
+            final SkeletonStrategy existing = strategies.putIfAbsent(m, strategy);
+            if (existing != null) {
+                strategy = existing;
+            }
+        }
+        return strategy;
+    }
+
+    /**
+     * Returns the <code>StubStrategy</code> for an operation, creating it on first use. The parameters
+     * are the same as for {@link StubStrategy#forMethod(String[], String[], String[], String, ClassLoader)}.
+     */
+    static StubStrategy stubStrategyFor(final String[] paramTypes, final String[] excepIds, final String[] excepTypes,
+                                        final String retvalType, final ClassLoader cl) {
+        return stubStrategyFor(paramTypes, excepIds, excepTypes, retvalType, cl, DEFAULT_STUB_FACTORY);
+    }
+
+    /**
+     * Returns the <code>StubStrategy</code> for an operation, creating it with the given factory on first use.
+     * The other parameters are the same as for
+     * {@link StubStrategy#forMethod(String[], String[], String[], String, ClassLoader)}.
+     */
+    public static StubStrategy stubStrategyFor(final String[] paramTypes, final String[] excepIds, final String[] excepTypes,
+                                               final String retvalType, ClassLoader cl, final StubStrategyFactory factory) {
+        if (cl == null) {
+            cl = Thread.currentThread().getContextClassLoader();
+            if (cl == null) {
+                return new StubStrategy(paramTypes, excepIds, excepTypes, retvalType, null);
+            }
+        }
+        final ConcurrentMap<String, StubStrategy> strategies = strategiesFor(stubStrategies, cl);
+        final String key = signature(paramTypes, excepIds, excepTypes, retvalType);
+        StubStrategy strategy = strategies.get(key);
+        if (strategy == null) {
+            strategy = factory.createStubStrategy(paramTypes, excepIds, excepTypes, retvalType, cl);
+            if (strategy == null) {
+                strategy = new StubStrategy(paramTypes, excepIds, excepTypes, retvalType, cl);
+            }
+            final StubStrategy existing = strategies.putIfAbsent(key, strategy);
+            if (existing != null) {
+                strategy = existing;
+            }
+        }
+        return strategy;
+    }
+
+    /**
+     * Discards all strategies cached for the given class loader.
+     *
+     * @param cl the class loader of an undeployed deployment
+     */
+    public static void evict(final ClassLoader cl) {
+        if (cl != null) {
+            skeletonStrategies.remove(cl);
+            stubStrategies.remove(cl);
+        }
+    }
+
+    /**
+     * Creates the <code>SkeletonStrategy</code> of a method that is not cached yet, or returns
+     * <code>null</code> to use the generic strategy.
+     */
+    public interface SkeletonStrategyFactory {
+
+        SkeletonStrategy createSkeletonStrategy(Method m, ClassLoader cl);
+    }
+
+    /**
+     * Creates the <code>StubStrategy</code> of an operation that is not cached yet, or returns
+     * <code>null</code> to use the generic strategy.
+     */
+    public interface StubStrategyFactory {
+
+        StubStrategy createStubStrategy(String[] paramTypes, String[] excepIds, String[] excepTypes, String retvalType,
+                                        ClassLoader cl);
+    }
+
+    private static <K, V> ConcurrentMap<K, V> strategiesFor(final ConcurrentMap<ClassLoader, ConcurrentMap<K, V>> cache, final ClassLoader cl) {
+        ConcurrentMap<K, V> strategies = cache.get(cl);
+        if (strategies == null) {
+            strategies = new ConcurrentHashMap<K, V>();
+            final ConcurrentMap<K, V> existing = cache.putIfAbsent(cl, strategies);
+            if (existing != null) {
+                strategies = existing;
+            }
+        }
+        return strategies;
+    }
+
+    private static String signature(final String[] paramTypes, final String[] excepIds, final String[] excepTypes,
+                                    final String retvalType) {
+        final StringBuilder sb = new StringBuilder(retvalType).append('(');
+        for (int i = 0; i < paramTypes.length; i++) {
+            sb.append(paramTypes[i]).append(';');
+        }
+        sb.append(')');
+        for (int i = 0; i < excepIds.length; i++) {
+            sb.append(excepIds[i]).append('=').append(excepTypes[i]).append(';');
+        }
+        return sb.toString();
+    }
+}
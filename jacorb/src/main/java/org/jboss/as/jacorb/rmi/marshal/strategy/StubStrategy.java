@@ -111,9 +111,10 @@ public class StubStrategy {
         // This "factory method" exists just because I have found it easier
         // to invoke a static method (rather than invoking operator new)
         // from a stub class dynamically assembled by an instance of
-        // org.jboss.proxy.ProxyAssembler.
+        // org.jboss.proxy.ProxyAssembler. Stubs that share an operation
+        // signature within a class loader also share its strategy.
 
-        return new StubStrategy(paramTypes, excepIds,
+        return StrategyCache.stubStrategyFor(paramTypes, excepIds,
                 excepTypes, retvalType, cl);
     }
 
@@ -137,7 +138,7 @@ public class StubStrategy {
      *                   will be used)
      * @see org.jboss.as.jacorb.rmi.marshal.CDRStream#abbrevFor(Class clz)
      */
-    private StubStrategy(String[] paramTypes, String[] excepIds,
+    protected StubStrategy(String[] paramTypes, String[] excepIds,
                          String[] excepTypes, String retvalType,
                          ClassLoader cl) {
         if (cl == null) {
@@ -187,22 +188,50 @@ public class StubStrategy {
      * @param params an object array with the parameters.
      */
     public void writeParams(OutputStream out, Object[] params) {
+        checkParams(params);
         int len = params.length;
+        for (int i = 0; i < len; i++) {
+            writeParam(out, i, params[i]);
+        }
+    }
 
-        if (len != paramWriters.length) {
+    /**
+     * Checks that the number of parameters matches the method.
+     *
+     * @param params an object array with the parameters.
+     */
+    protected void checkParams(Object[] params) {
+        if (params.length != paramWriters.length) {
             throw JacORBMessages.MESSAGES.errorMashalingParams();
         }
-        for (int i = 0; i < len; i++) {
-            Object param = params[i];
-            if (param instanceof PortableRemoteObject) {
-                try {
-                    param = PortableRemoteObject.toStub((Remote) param);
-                } catch (NoSuchObjectException e) {
-                    throw new RuntimeException(e);
-                }
+    }
+
+    /**
+     * Marshals a single method parameter into an output stream.
+     *
+     * @param out   a CDR output stream
+     * @param index the index of the parameter
+     * @param param the parameter
+     */
+    protected void writeParam(OutputStream out, int index, Object param) {
+        paramWriters[index].write(out, replaceParam(param));
+    }
+
+    /**
+     * Replaces a parameter that is an exported remote object by its stub.
+     *
+     * @param param the parameter
+     * @return the object to marshal in place of the parameter.
+     */
+    protected static Object replaceParam(Object param) {
+        if (param instanceof PortableRemoteObject) {
+            try {
+                param = PortableRemoteObject.toStub((Remote) param);
+            } catch (NoSuchObjectException e) {
+                throw new RuntimeException(e);
             }
-            paramWriters[i].write(out, RemoteObjectSubstitutionManager.writeReplaceRemote(param));
         }
+        return RemoteObjectSubstitutionManager.writeReplaceRemote(param);
     }
 
     /**
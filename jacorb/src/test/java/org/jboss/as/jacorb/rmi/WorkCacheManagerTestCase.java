@@ -0,0 +1,159 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2012, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.jboss.as.jacorb.rmi;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.jboss.logging.Logger;
+import org.junit.Assert;
+import org.junit.Assume;
+import org.junit.Test;
+
+/**
+ * Tests for the analysis cache of the RMI/IDL analyzers.
+ */
+public class WorkCacheManagerTestCase {
+
+    private static final Logger logger = Logger.getLogger(WorkCacheManagerTestCase.class);
+
+    private static final int THREADS = 16;
+
+    private static final int ITERATIONS = 2000;
+
+    @Test
+    public void testAnalysisIsCached() throws Exception {
+        final InterfaceAnalysis analysis = InterfaceAnalysis.getInterfaceAnalysis(Account.class);
+        Assert.assertSame(analysis, InterfaceAnalysis.getInterfaceAnalysis(Account.class));
+        Assert.assertSame(ValueAnalysis.getValueAnalysis(Transfer.class), ValueAnalysis.getValueAnalysis(Transfer.class));
+    }
+
+    @Test
+    public void testPurge() throws Exception {
+        final InterfaceAnalysis interfaceAnalysis = InterfaceAnalysis.getInterfaceAnalysis(Account.class);
+        final ValueAnalysis valueAnalysis = ValueAnalysis.getValueAnalysis(Transfer.class);
+
+        WorkCacheManager.purge(Account.class.getClassLoader());
+
+        Assert.assertNotSame(interfaceAnalysis, InterfaceAnalysis.getInterfaceAnalysis(Account.class));
+        Assert.assertNotSame(valueAnalysis, ValueAnalysis.getValueAnalysis(Transfer.class));
+    }
+
+    /**
+     * A value type that refers to itself re-enters the cache while its own analysis is in progress.
+     */
+    @Test
+    public void testCyclicValueAnalysis() throws Exception {
+        WorkCacheManager.purge(Transfer.class.getClassLoader());
+        final ValueAnalysis analysis = ValueAnalysis.getValueAnalysis(Transfer.class);
+        Assert.assertEquals(1, analysis.getMembers().length);
+        Assert.assertSame(analysis, ValueAnalysis.getValueAnalysis(Transfer.class));
+    }
+
+    /**
+     * Analyses the same interfaces from many threads while the cache is purged in between, like parallel
+     * deployments and redeployments do.
+     */
+    @Test
+    public void testParallelAnalysis() throws Exception {
+        final ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        try {
+            final CountDownLatch start = new CountDownLatch(1);
+            final List<Future<Void>> results = new ArrayList<Future<Void>>();
+            for (int i = 0; i < THREADS; i++) {
+                final boolean purging = i == 0;
+                results.add(executor.submit(new Callable<Void>() {
+                    public Void call() throws Exception {
+                        start.await();
+                        for (int j = 0; j < ITERATIONS; j++) {
+                            if (purging && j % 100 == 0) {
+                                WorkCacheManager.purge(Account.class.getClassLoader());
+                            }
+                            Assert.assertNotNull(InterfaceAnalysis.getInterfaceAnalysis(Account.class));
+                            Assert.assertNotNull(ValueAnalysis.getValueAnalysis(Transfer.class));
+                        }
+                        return null;
+                    }
+                }));
+            }
+            start.countDown();
+            for (Future<Void> result : results) {
+                result.get(60, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    /**
+     * Measures lookups of cached analyses on one thread and on many threads. Lookups of finished analyses take no
+     * lock, so the many threads should get through their lookups about as fast as the single one. Only runs with
+     * <code>-Djboss.as.benchmark=true</code>.
+     */
+    @Test
+    public void testLookupThroughput() throws Exception {
+        Assume.assumeTrue(Boolean.getBoolean("jboss.as.benchmark"));
+        final int iterations = 1000000;
+        // warm up
+        this.runLookups(THREADS, iterations / 10);
+        for (int threads : new int[] { 1, THREADS }) {
+            final long millis = this.runLookups(threads, iterations);
+            logger.infof("%d ms for %d cached analysis lookups on each of %d threads", millis, iterations, threads);
+        }
+    }
+
+    private long runLookups(final int threads, final int iterations) throws Exception {
+        InterfaceAnalysis.getInterfaceAnalysis(Account.class);
+        ValueAnalysis.getValueAnalysis(Transfer.class);
+        final ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            final CountDownLatch start = new CountDownLatch(1);
+            final List<Future<Void>> results = new ArrayList<Future<Void>>();
+            for (int i = 0; i < threads; i++) {
+                results.add(executor.submit(new Callable<Void>() {
+                    public Void call() throws Exception {
+                        start.await();
+                        for (int j = 0; j < iterations; j++) {
+                            Assert.assertNotNull(InterfaceAnalysis.getInterfaceAnalysis(Account.class));
+                            Assert.assertNotNull(ValueAnalysis.getValueAnalysis(Transfer.class));
+                        }
+                        return null;
+                    }
+                }));
+            }
+            final long begin = System.nanoTime();
+            start.countDown();
+            for (Future<Void> result : results) {
+                result.get(10, TimeUnit.MINUTES);
+            }
+            return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - begin);
+        } finally {
+            executor.shutdown();
+        }
+    }
+}
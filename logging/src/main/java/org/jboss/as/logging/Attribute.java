@@ -51,6 +51,7 @@ public enum Attribute {
     PATH(CommonAttributes.PATH),
     PATTERN(CommonAttributes.PATTERN),
     QUEUE_LENGTH(CommonAttributes.QUEUE_LENGTH),
+    QUEUE_TYPE(CommonAttributes.QUEUE_TYPE),
     RELATIVE_TO(CommonAttributes.RELATIVE_TO),
     REPLACEMENT(CommonAttributes.REPLACEMENT),
     REPLACE_ALL(CommonAttributes.REPLACE_ALL),
@@ -28,6 +28,7 @@ import org.jboss.as.controller.SimpleAttributeDefinitionBuilder;
 import org.jboss.as.controller.operations.validation.EnumValidator;
 import org.jboss.as.controller.operations.validation.IntRangeValidator;
 import org.jboss.as.controller.registry.AttributeAccess;
+import org.jboss.as.logging.handlers.async.QueueType;
 import org.jboss.as.logging.handlers.console.Target;
 import org.jboss.as.logging.validators.FileValidator;
 import org.jboss.as.logging.validators.LogLevelValidator;
@@ -161,6 +162,12 @@ public interface CommonAttributes {
             setValidator(new IntRangeValidator(1, false)).
             build();
 
+    SimpleAttributeDefinition QUEUE_TYPE = SimpleAttributeDefinitionBuilder.create("queue-type", ModelType.STRING, true).
+            setDefaultValue(new ModelNode().set(QueueType.BLOCKING.name())).
+            setFlags(AttributeAccess.Flag.RESTART_RESOURCE_SERVICES).
+            setValidator(EnumValidator.create(QueueType.class, true, false)).
+            build();
+
     SimpleAttributeDefinition RELATIVE_TO = SimpleAttributeDefinitionBuilder.create("relative-to", ModelType.STRING, true).build();
 
     SimpleAttributeDefinition REPLACEMENT = SimpleAttributeDefinitionBuilder.create("replacement", ModelType.STRING).build();
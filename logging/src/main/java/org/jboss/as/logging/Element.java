@@ -62,6 +62,7 @@ public enum Element {
     PROPERTIES(CommonAttributes.PROPERTIES),
     PROPERTY(CommonAttributes.PROPERTY),
     QUEUE_LENGTH(CommonAttributes.QUEUE_LENGTH),
+    QUEUE_TYPE(CommonAttributes.QUEUE_TYPE),
     REPLACE(CommonAttributes.REPLACE),
     ROOT_LOGGER(CommonAttributes.ROOT_LOGGER),
     ROTATE_SIZE(CommonAttributes.ROTATE_SIZE),
@@ -57,6 +57,7 @@ import static org.jboss.as.logging.CommonAttributes.OVERFLOW_ACTION;
 import static org.jboss.as.logging.CommonAttributes.PERIODIC_ROTATING_FILE_HANDLER;
 import static org.jboss.as.logging.CommonAttributes.PROPERTIES;
 import static org.jboss.as.logging.CommonAttributes.QUEUE_LENGTH;
+import static org.jboss.as.logging.CommonAttributes.QUEUE_TYPE;
 import static org.jboss.as.logging.CommonAttributes.ROOT_LOGGER;
 import static org.jboss.as.logging.CommonAttributes.ROOT_LOGGER_NAME;
 import static org.jboss.as.logging.CommonAttributes.ROTATE_SIZE;
@@ -141,6 +142,7 @@ public class LoggingDescribeHandler implements OperationStepHandler, Description
         copy(QUEUE_LENGTH, handler, add);
         copy(SUBHANDLERS, handler, add);
         copy(OVERFLOW_ACTION, handler, add);
+        copy(QUEUE_TYPE, handler, add);
 
         return add;
     }
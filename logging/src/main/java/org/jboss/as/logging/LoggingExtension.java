@@ -52,6 +52,7 @@ import org.jboss.as.logging.handlers.HandlerLevelChange;
 import org.jboss.as.logging.handlers.LoggerHandlerRemove;
 import org.jboss.as.logging.handlers.async.AsyncHandlerAdd;
 import org.jboss.as.logging.handlers.async.AsyncHandlerAssignSubhandler;
+import org.jboss.as.logging.handlers.async.AsyncHandlerMetricsHandler;
 import org.jboss.as.logging.handlers.async.AsyncHandlerUnassignSubhandler;
 import org.jboss.as.logging.handlers.async.AsyncHandlerUpdateProperties;
 import org.jboss.as.logging.handlers.async.AsyncHandlerWriteAttributeHandler;
@@ -149,6 +150,9 @@ public class LoggingExtension implements Extension {
         asyncHandler.registerOperationHandler(AsyncHandlerAssignSubhandler.OPERATION_NAME, AsyncHandlerAssignSubhandler.INSTANCE, LoggingSubsystemProviders.ASYNC_HANDLER_ASSIGN_SUBHANDLER, false);
         asyncHandler.registerOperationHandler(AsyncHandlerUnassignSubhandler.OPERATION_NAME, AsyncHandlerUnassignSubhandler.INSTANCE, LoggingSubsystemProviders.ASYNC_HANDLER_UNASSIGN_SUBHANDLER, false);
         addWriteAttributes(asyncHandler, AsyncHandlerWriteAttributeHandler.INSTANCE);
+        for (AsyncHandlerMetricsHandler.Metric metric : AsyncHandlerMetricsHandler.Metric.values()) {
+            asyncHandler.registerMetric(metric.getDefinition(), AsyncHandlerMetricsHandler.INSTANCE);
+        }
 
         //  Console handlers
         final ManagementResourceRegistration consoleHandler = registration.registerSubModel(consoleHandlersPath, LoggingSubsystemProviders.CONSOLE_HANDLER);
@@ -210,6 +214,7 @@ public class LoggingExtension implements Extension {
     public void initializeParsers(ExtensionParsingContext context) {
         context.setSubsystemXmlMapping(SUBSYSTEM_NAME, Namespace.LOGGING_1_0.getUriString(), LoggingSubsystemParser.INSTANCE);
         context.setSubsystemXmlMapping(SUBSYSTEM_NAME, Namespace.LOGGING_1_1.getUriString(), LoggingSubsystemParser.INSTANCE);
+        context.setSubsystemXmlMapping(SUBSYSTEM_NAME, Namespace.LOGGING_1_2.getUriString(), LoggingSubsystemParser.INSTANCE);
     }
 
     private void addWriteAttributes(final ManagementResourceRegistration handler, final AbstractLogHandlerWriteAttributeHandler<?> stepHandler) {
@@ -333,4 +333,14 @@ public interface LoggingMessages {
      */
     @Message(id = 11554, value = "The suffix (%s) is invalid. A suffix must be a valid date format and not contain seconds or milliseconds.")
     String invalidSuffix(String suffix);
+
+    /**
+     * A message indicating the metric is not known.
+     *
+     * @param metric the name of the metric.
+     *
+     * @return the message.
+     */
+    @Message(id = 11555, value = "Unknown metric '%s'.")
+    String unknownMetric(String metric);
 }
@@ -70,6 +70,7 @@ import static org.jboss.as.logging.CommonAttributes.PATTERN;
 import static org.jboss.as.logging.CommonAttributes.PERIODIC_ROTATING_FILE_HANDLER;
 import static org.jboss.as.logging.CommonAttributes.PROPERTIES;
 import static org.jboss.as.logging.CommonAttributes.QUEUE_LENGTH;
+import static org.jboss.as.logging.CommonAttributes.QUEUE_TYPE;
 import static org.jboss.as.logging.CommonAttributes.RELATIVE_TO;
 import static org.jboss.as.logging.CommonAttributes.REPLACE;
 import static org.jboss.as.logging.CommonAttributes.REPLACEMENT;
@@ -142,7 +143,8 @@ public class LoggingSubsystemParser implements XMLStreamConstants, XMLElementRea
         while (reader.hasNext() && reader.nextTag() != END_ELEMENT) {
             switch (Namespace.forUri(reader.getNamespaceURI())) {
                 case LOGGING_1_0:
-                case LOGGING_1_1: {
+                case LOGGING_1_1:
+                case LOGGING_1_2: {
                     final Element element = Element.forName(reader.getLocalName());
                     switch (element) {
                         case LOGGER: {
@@ -238,7 +240,8 @@ public class LoggingSubsystemParser implements XMLStreamConstants, XMLElementRea
         while (reader.hasNext() && reader.nextTag() != END_ELEMENT) {
             switch (Namespace.forUri(reader.getNamespaceURI())) {
                 case LOGGING_1_0:
-                case LOGGING_1_1: {
+                case LOGGING_1_1:
+                case LOGGING_1_2: {
                     final Element element = Element.forName(reader.getLocalName());
                     if (!encountered.add(element)) {
                         throw duplicateNamedElement(reader, reader.getLocalName());
@@ -333,6 +336,13 @@ public class LoggingSubsystemParser implements XMLStreamConstants, XMLElementRea
                     OVERFLOW_ACTION.parseAndSetParameter(readStringAttributeElement(reader, "value").toUpperCase(Locale.US), node, reader);
                     break;
                 }
+                case QUEUE_TYPE: {
+                    if (Namespace.forUri(reader.getNamespaceURI()) != Namespace.LOGGING_1_2) {
+                        throw unexpectedElement(reader);
+                    }
+                    QUEUE_TYPE.parseAndSetParameter(readStringAttributeElement(reader, "value").toUpperCase(Locale.US).replace('-', '_'), node, reader);
+                    break;
+                }
                 default: {
                     throw unexpectedElement(reader);
                 }
@@ -354,7 +364,8 @@ public class LoggingSubsystemParser implements XMLStreamConstants, XMLElementRea
         while (reader.hasNext() && reader.nextTag() != END_ELEMENT) {
             switch (Namespace.forUri(reader.getNamespaceURI())) {
                 case LOGGING_1_0:
-                case LOGGING_1_1: {
+                case LOGGING_1_1:
+                case LOGGING_1_2: {
                     final Element element = Element.forName(reader.getLocalName());
                     if (encountered.contains(element)) {
                         throw duplicateNamedElement(reader, reader.getLocalName());
@@ -822,7 +833,8 @@ public class LoggingSubsystemParser implements XMLStreamConstants, XMLElementRea
         }
         switch (Namespace.forUri(reader.getNamespaceURI())) {
             case LOGGING_1_0:
-            case LOGGING_1_1: {
+            case LOGGING_1_1:
+            case LOGGING_1_2: {
                 final Element element = Element.forName(reader.getLocalName());
                 switch (element) {
                     case PATTERN_FORMATTER: {
@@ -912,7 +924,8 @@ public class LoggingSubsystemParser implements XMLStreamConstants, XMLElementRea
         while (reader.hasNext() && reader.nextTag() != END_ELEMENT) {
             switch (Namespace.forUri(reader.getNamespaceURI())) {
                 case LOGGING_1_0:
-                case LOGGING_1_1: {
+                case LOGGING_1_1:
+                case LOGGING_1_2: {
                     final Element element = Element.forName(reader.getLocalName());
                     switch (element) {
                         case HANDLER: {
@@ -950,7 +963,8 @@ public class LoggingSubsystemParser implements XMLStreamConstants, XMLElementRea
         while (reader.hasNext() && reader.nextTag() != END_ELEMENT) {
             switch (Namespace.forUri(reader.getNamespaceURI())) {
                 case LOGGING_1_0:
-                case LOGGING_1_1: {
+                case LOGGING_1_1:
+                case LOGGING_1_2: {
                     final Element element = Element.forName(reader.getLocalName());
                     switch (element) {
                         case ACCEPT: {
@@ -1233,6 +1247,11 @@ public class LoggingSubsystemParser implements XMLStreamConstants, XMLElementRea
             writer.writeAttribute(Attribute.VALUE.getLocalName(), node.get(OVERFLOW_ACTION.getName()).asString().toLowerCase());
             writer.writeEndElement();
         }
+        if (QUEUE_TYPE.isMarshallable(node)) {
+            writer.writeStartElement(Element.QUEUE_TYPE.getLocalName());
+            writer.writeAttribute(Attribute.VALUE.getLocalName(), node.get(QUEUE_TYPE.getName()).asString().toLowerCase(Locale.US).replace('_', '-'));
+            writer.writeEndElement();
+        }
         if (SUBHANDLERS.isMarshallable(node)) {
             final ModelNode handlers = node.get(SUBHANDLERS.getName());
             writeHandlersContent(writer, Element.SUBHANDLERS, handlers);
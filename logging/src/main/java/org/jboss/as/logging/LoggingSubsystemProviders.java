@@ -57,6 +57,7 @@ import static org.jboss.as.logging.CommonAttributes.OVERFLOW_ACTION;
 import static org.jboss.as.logging.CommonAttributes.PATH;
 import static org.jboss.as.logging.CommonAttributes.PROPERTIES;
 import static org.jboss.as.logging.CommonAttributes.QUEUE_LENGTH;
+import static org.jboss.as.logging.CommonAttributes.QUEUE_TYPE;
 import static org.jboss.as.logging.CommonAttributes.RELATIVE_TO;
 import static org.jboss.as.logging.CommonAttributes.ROTATE_SIZE;
 import static org.jboss.as.logging.CommonAttributes.SUBHANDLERS;
@@ -73,6 +74,7 @@ import org.jboss.as.controller.descriptions.DescriptionProvider;
 import org.jboss.as.controller.descriptions.ModelDescriptionConstants;
 import org.jboss.as.logging.handlers.HandlerLevelChange;
 import org.jboss.as.logging.handlers.async.AsyncHandlerAssignSubhandler;
+import org.jboss.as.logging.handlers.async.AsyncHandlerMetricsHandler;
 import org.jboss.as.logging.handlers.async.AsyncHandlerUnassignSubhandler;
 import org.jboss.as.logging.handlers.async.AsyncHandlerUpdateProperties;
 import org.jboss.as.logging.handlers.console.ConsoleHandlerUpdateProperties;
@@ -432,7 +434,11 @@ class LoggingSubsystemProviders {
             FORMATTER.addResourceAttributeDescription(bundle, "handler", node);
             QUEUE_LENGTH.addResourceAttributeDescription(bundle, "async", node);
             OVERFLOW_ACTION.addResourceAttributeDescription(bundle, "async", node);
+            QUEUE_TYPE.addResourceAttributeDescription(bundle, "async", node);
             SUBHANDLERS.addResourceAttributeDescription(bundle, "async.handler", node);
+            for (AsyncHandlerMetricsHandler.Metric metric : AsyncHandlerMetricsHandler.Metric.values()) {
+                metric.getDefinition().addResourceAttributeDescription(bundle, "async", node);
+            }
 
             return node;
         }
@@ -453,6 +459,7 @@ class LoggingSubsystemProviders {
             FORMATTER.addOperationParameterDescription(bundle, "handler", operation);
             QUEUE_LENGTH.addOperationParameterDescription(bundle, "async", operation);
             OVERFLOW_ACTION.addOperationParameterDescription(bundle, "async", operation);
+            QUEUE_TYPE.addOperationParameterDescription(bundle, "async", operation);
             SUBHANDLERS.addOperationParameterDescription(bundle, "async.handler", operation);
 
             return operation;
@@ -474,6 +481,7 @@ class LoggingSubsystemProviders {
             FORMATTER.addOperationParameterDescription(bundle, "handler", operation);
             QUEUE_LENGTH.addOperationParameterDescription(bundle, "async", operation);
             OVERFLOW_ACTION.addOperationParameterDescription(bundle, "async", operation);
+            QUEUE_TYPE.addOperationParameterDescription(bundle, "async", operation);
             SUBHANDLERS.addOperationParameterDescription(bundle, "async.handler", operation);
 
             return operation;
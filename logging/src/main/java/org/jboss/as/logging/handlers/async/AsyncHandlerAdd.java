@@ -24,6 +24,7 @@ package org.jboss.as.logging.handlers.async;
 
 import static org.jboss.as.logging.CommonAttributes.OVERFLOW_ACTION;
 import static org.jboss.as.logging.CommonAttributes.QUEUE_LENGTH;
+import static org.jboss.as.logging.CommonAttributes.QUEUE_TYPE;
 import static org.jboss.as.logging.CommonAttributes.SUBHANDLERS;
 
 import java.util.ArrayList;
@@ -49,7 +50,7 @@ public class AsyncHandlerAdd extends HandlerAddProperties<AsyncHandlerService> {
     public static final AsyncHandlerAdd INSTANCE = new AsyncHandlerAdd();
 
     private AsyncHandlerAdd() {
-        super(Arrays.asList(SUBHANDLERS, QUEUE_LENGTH, OVERFLOW_ACTION));
+        super(Arrays.asList(SUBHANDLERS, QUEUE_LENGTH, OVERFLOW_ACTION, QUEUE_TYPE));
     }
 
     @Override
@@ -63,8 +64,10 @@ public class AsyncHandlerAdd extends HandlerAddProperties<AsyncHandlerService> {
                 list.add(injectedValue);
             }
         }
+        service.setName(name);
         service.addHandlers(list);
         service.setQueueLength(QUEUE_LENGTH.resolveModelAttribute(context, model).asInt());
+        service.setQueueType(QueueType.valueOf(QUEUE_TYPE.resolveModelAttribute(context, model).asString()));
         final ModelNode overflowAction = OVERFLOW_ACTION.resolveModelAttribute(context, model);
         if (overflowAction.isDefined()) {
             service.setOverflowAction(ModelParser.parseOverflowAction(overflowAction));
@@ -0,0 +1,124 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2012, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.jboss.as.logging.handlers.async;
+
+import static org.jboss.as.controller.descriptions.ModelDescriptionConstants.NAME;
+import static org.jboss.as.controller.descriptions.ModelDescriptionConstants.OP_ADDR;
+import static org.jboss.as.logging.LoggingMessages.MESSAGES;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.logging.Handler;
+
+import org.jboss.as.controller.AbstractRuntimeOnlyHandler;
+import org.jboss.as.controller.OperationContext;
+import org.jboss.as.controller.OperationFailedException;
+import org.jboss.as.controller.PathAddress;
+import org.jboss.as.controller.SimpleAttributeDefinition;
+import org.jboss.as.controller.SimpleAttributeDefinitionBuilder;
+import org.jboss.as.controller.client.helpers.MeasurementUnit;
+import org.jboss.as.logging.util.LogServices;
+import org.jboss.dmr.ModelNode;
+import org.jboss.dmr.ModelType;
+import org.jboss.msc.service.ServiceController;
+
+/**
+ * Reads the runtime metrics of an async handler. The metrics are only defined if the handler uses the
+ * {@link QueueType#RING_BUFFER ring buffer} queue.
+ */
+public class AsyncHandlerMetricsHandler extends AbstractRuntimeOnlyHandler {
+
+    public enum Metric {
+
+        QUEUE_OCCUPANCY("queue-occupancy", ModelType.INT, MeasurementUnit.NONE),
+        DROPPED_COUNT("dropped-count", ModelType.LONG, MeasurementUnit.NONE),
+        DRAINED_COUNT("drained-count", ModelType.LONG, MeasurementUnit.NONE),
+        AVERAGE_DRAIN_LATENCY("average-drain-latency", ModelType.LONG, MeasurementUnit.NANOSECONDS);
+
+        private static final Map<String, Metric> MAP = new HashMap<String, Metric>();
+
+        static {
+            for (Metric metric : values()) {
+                MAP.put(metric.toString(), metric);
+            }
+        }
+
+        private final SimpleAttributeDefinition definition;
+
+        private Metric(final String name, final ModelType type, final MeasurementUnit unit) {
+            this.definition = SimpleAttributeDefinitionBuilder.create(name, type, true)
+                    .setMeasurementUnit(unit)
+                    .setStorageRuntime()
+                    .build();
+        }
+
+        public SimpleAttributeDefinition getDefinition() {
+            return definition;
+        }
+
+        @Override
+        public final String toString() {
+            return definition.getName();
+        }
+
+        static Metric forName(final String name) {
+            return MAP.get(name);
+        }
+    }
+
+    public static final AsyncHandlerMetricsHandler INSTANCE = new AsyncHandlerMetricsHandler();
+
+    private AsyncHandlerMetricsHandler() {
+    }
+
+    @Override
+    protected void executeRuntimeStep(final OperationContext context, final ModelNode operation) throws OperationFailedException {
+        final String attributeName = operation.require(NAME).asString();
+        final Metric metric = Metric.forName(attributeName);
+        if (metric == null) {
+            context.getFailureDescription().set(MESSAGES.unknownMetric(attributeName));
+        } else {
+            final String handlerName = PathAddress.pathAddress(operation.require(OP_ADDR)).getLastElement().getValue();
+            final ServiceController<?> controller = context.getServiceRegistry(false).getService(LogServices.handlerName(handlerName));
+            final Handler handler = controller == null ? null : (Handler) controller.getValue();
+            if (handler instanceof RingBufferAsyncHandler) {
+                final RingBufferAsyncHandler ringBuffer = (RingBufferAsyncHandler) handler;
+                final ModelNode result = context.getResult();
+                switch (metric) {
+                    case QUEUE_OCCUPANCY:
+                        result.set(ringBuffer.getQueueOccupancy());
+                        break;
+                    case DROPPED_COUNT:
+                        result.set(ringBuffer.getDroppedCount());
+                        break;
+                    case DRAINED_COUNT:
+                        result.set(ringBuffer.getDrainedCount());
+                        break;
+                    case AVERAGE_DRAIN_LATENCY:
+                        result.set(ringBuffer.getAverageDrainLatency());
+                        break;
+                }
+            }
+        }
+        context.completeStep();
+    }
+}
@@ -25,12 +25,15 @@ package org.jboss.as.logging.handlers.async;
 import java.io.UnsupportedEncodingException;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.logging.Filter;
 import java.util.logging.Handler;
 import java.util.logging.Level;
 
 import org.jboss.as.logging.handlers.FormatterSpec;
 import org.jboss.as.logging.handlers.HandlerService;
+import org.jboss.logmanager.ExtHandler;
 import org.jboss.logmanager.handlers.AsyncHandler;
 import org.jboss.logmanager.handlers.AsyncHandler.OverflowAction;
 import org.jboss.msc.service.StartContext;
@@ -45,11 +48,15 @@ public final class AsyncHandlerService implements HandlerService {
 
     private final List<InjectedValue<Handler>> subhandlers = new ArrayList<InjectedValue<Handler>>();
 
+    private String name;
+
     private OverflowAction overflowAction;
 
     private int queueLength;
 
-    private AsyncHandler value;
+    private QueueType queueType = QueueType.BLOCKING;
+
+    private ExtHandler value;
 
     private Level level;
     private Filter filter;
@@ -58,10 +65,11 @@ public final class AsyncHandlerService implements HandlerService {
     private boolean autoflush;
 
     public synchronized void start(final StartContext context) throws StartException {
-        final AsyncHandler handler = new AsyncHandler(queueLength);
+        final ThreadFactory threadFactory = new HandlerThreadFactory(name);
+        final ExtHandler handler = queueType == QueueType.RING_BUFFER ? new RingBufferAsyncHandler(queueLength, threadFactory) : new AsyncHandler(queueLength, threadFactory);
         value = handler;
         formatterSpec.apply(handler);
-        handler.setOverflowAction(overflowAction);
+        setOverflowAction(handler, overflowAction);
         handler.setAutoFlush(autoflush);
         if (filter != null) handler.setFilter(filter);
         try {
@@ -78,7 +86,7 @@ public final class AsyncHandlerService implements HandlerService {
     }
 
     public synchronized void stop(final StopContext context) {
-        final AsyncHandler handler = value;
+        final ExtHandler handler = value;
         handler.close();
         handler.setLevel(Level.OFF);
         handler.clearHandlers();
@@ -91,9 +99,9 @@ public final class AsyncHandlerService implements HandlerService {
 
     public synchronized void setOverflowAction(final OverflowAction overflowAction) {
         this.overflowAction = overflowAction;
-        final AsyncHandler handler = value;
+        final ExtHandler handler = value;
         if (handler != null) {
-            handler.setOverflowAction(overflowAction);
+            setOverflowAction(handler, overflowAction);
         }
     }
 
@@ -101,9 +109,22 @@ public final class AsyncHandlerService implements HandlerService {
         this.queueLength = queueLength;
     }
 
+    /**
+     * Sets the name of the handler, which the thread passing records to the sub-handlers is named after.
+     *
+     * @param name the handler name
+     */
+    public synchronized void setName(final String name) {
+        this.name = name;
+    }
+
+    public synchronized void setQueueType(final QueueType queueType) {
+        this.queueType = queueType;
+    }
+
     public synchronized void setLevel(final Level level) {
         this.level = level;
-        final AsyncHandler handler = value;
+        final ExtHandler handler = value;
         if (handler != null) {
             handler.setLevel(level);
         }
@@ -112,7 +133,7 @@ public final class AsyncHandlerService implements HandlerService {
     @Override
     public synchronized void setEncoding(final String encoding) throws UnsupportedEncodingException {
         this.encoding = encoding;
-        final AsyncHandler handler = value;
+        final ExtHandler handler = value;
         if (handler != null) {
             handler.setEncoding(encoding);
         }
@@ -121,7 +142,7 @@ public final class AsyncHandlerService implements HandlerService {
     @Override
     public synchronized void setFormatterSpec(final FormatterSpec formatterSpec) {
         this.formatterSpec = formatterSpec;
-        final AsyncHandler handler = value;
+        final ExtHandler handler = value;
         if (handler != null) {
             formatterSpec.apply(handler);
         }
@@ -130,7 +151,7 @@ public final class AsyncHandlerService implements HandlerService {
     @Override
     public synchronized void setFilter(final Filter filter) {
         this.filter = filter;
-        final AsyncHandler handler = value;
+        final ExtHandler handler = value;
         if (handler != null) {
             handler.setFilter(filter);
         }
@@ -138,7 +159,7 @@ public final class AsyncHandlerService implements HandlerService {
 
     public synchronized void addHandlers(final List<InjectedValue<Handler>> list) {
         subhandlers.addAll(list);
-        final AsyncHandler handler = value;
+        final ExtHandler handler = value;
         if (handler != null) {
             for (InjectedValue<Handler> injectedHandler : list) {
                 handler.addHandler(injectedHandler.getValue());
@@ -148,7 +169,7 @@ public final class AsyncHandlerService implements HandlerService {
 
     public synchronized void addHandler(final InjectedValue<Handler> injectedHandler) {
         subhandlers.add(injectedHandler);
-        final AsyncHandler handler = value;
+        final ExtHandler handler = value;
         if (handler != null) {
             handler.addHandler(injectedHandler.getValue());
         }
@@ -163,10 +184,40 @@ public final class AsyncHandlerService implements HandlerService {
 
             subhandlers.remove(valueToRemove);
 
-            final AsyncHandler handler = value;
+            final ExtHandler handler = value;
             if (handler != null) {
                 handler.removeHandler(valueToRemove.getValue());
             }
         }
     }
+
+    /**
+     * Sets the overflow action of an async handler, whichever queue it uses.
+     *
+     * @param handler        the async handler
+     * @param overflowAction the overflow action
+     */
+    static void setOverflowAction(final Handler handler, final OverflowAction overflowAction) {
+        if (handler instanceof RingBufferAsyncHandler) {
+            ((RingBufferAsyncHandler) handler).setOverflowAction(overflowAction);
+        } else {
+            ((AsyncHandler) handler).setOverflowAction(overflowAction);
+        }
+    }
+
+    /**
+     * Names the threads which pass the records of an async handler to its sub-handlers after the handler.
+     */
+    static final class HandlerThreadFactory implements ThreadFactory {
+        private final String name;
+        private final AtomicInteger count = new AtomicInteger();
+
+        HandlerThreadFactory(final String name) {
+            this.name = name;
+        }
+
+        public Thread newThread(final Runnable runnable) {
+            return new Thread(runnable, "Async log handler " + name + " - " + count.incrementAndGet());
+        }
+    }
 }
@@ -0,0 +1,338 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2012, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.jboss.as.logging.handlers.async;
+
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.locks.LockSupport;
+import java.util.logging.ErrorManager;
+import java.util.logging.Handler;
+import java.util.logging.Level;
+
+import org.jboss.logmanager.ExtHandler;
+import org.jboss.logmanager.ExtLogRecord;
+import org.jboss.logmanager.handlers.AsyncHandler.OverflowAction;
+
+/**
+ * An asynchronous handler which hands records to its sub-handlers through a pre-allocated, bounded ring buffer
+ * instead of a blocking queue.
+ * <p/>
+ * Any number of threads may publish concurrently: a producer claims a sequence number with a single CAS and
+ * publishes the record into the slot of that sequence. A single consumer thread drains all published records in
+ * one batch, frees their slots for reuse and flushes the sub-handlers once per batch if auto-flush is enabled.
+ * Producers never take a lock. If the buffer is full, the {@link OverflowAction} decides whether the producer waits
+ * for a free slot or the record is dropped.
+ * <p/>
+ * The handler keeps counters for the current queue occupancy, the number of dropped records and the time records
+ * spend in the buffer before they are drained.
+ */
+public class RingBufferAsyncHandler extends ExtHandler {
+
+    private static final int NEW = 0;
+    private static final int RUNNING = 1;
+    private static final int CLOSED = 2;
+
+    /**
+     * How long the consumer sleeps at most when the buffer is empty.
+     */
+    private static final long PARK_NANOS = 100000000L;
+
+    /**
+     * Publishing the records of a long batch periodically releases their slots before the batch ends.
+     */
+    private static final int RELEASE_INTERVAL = 64;
+
+    /**
+     * Published in place of a record whose slot was claimed after the handler closed, so that the consumer does
+     * not wait for it.
+     */
+    private static final ExtLogRecord CLOSED_SLOT = new ExtLogRecord(Level.OFF, null, RingBufferAsyncHandler.class.getName());
+
+    private final AtomicReferenceArray<ExtLogRecord> slots;
+    /**
+     * The {@link System#nanoTime()} at which the record of a slot was published. Written before and read after
+     * the slot itself, so the slot reference orders the accesses.
+     */
+    private final long[] publishTimes;
+    private final int mask;
+
+    /**
+     * The next sequence number to be claimed by a producer.
+     */
+    private final AtomicLong tail = new AtomicLong();
+    /**
+     * The next sequence number to be drained. Only written by the consumer.
+     */
+    private final AtomicLong head = new AtomicLong();
+
+    private final AtomicInteger state = new AtomicInteger(NEW);
+    private final ThreadFactory threadFactory;
+    private volatile Thread consumer;
+    private volatile boolean consumerParked;
+
+    private volatile OverflowAction overflowAction = OverflowAction.BLOCK;
+
+    private final AtomicLong droppedCount = new AtomicLong();
+    // only written by the consumer thread
+    private volatile long drainedCount;
+    private volatile long drainLatency;
+
+    /**
+     * Construct a new instance.
+     *
+     * @param queueLength   the minimum number of records the buffer can hold; rounded up to a power of two
+     * @param threadFactory the factory of the consumer thread
+     */
+    public RingBufferAsyncHandler(final int queueLength, final ThreadFactory threadFactory) {
+        if (queueLength < 1) {
+            throw new IllegalArgumentException("queueLength must be at least 1");
+        }
+        final int capacity = queueLength > (1 << 30) ? 1 << 30 : Integer.highestOneBit(queueLength - 1) << 1;
+        this.slots = new AtomicReferenceArray<ExtLogRecord>(Math.max(1, capacity));
+        this.publishTimes = new long[slots.length()];
+        this.mask = slots.length() - 1;
+        this.threadFactory = threadFactory;
+    }
+
+    public OverflowAction getOverflowAction() {
+        return overflowAction;
+    }
+
+    /**
+     * Sets the action taken when the buffer is full; {@code null} selects {@link OverflowAction#BLOCK}.
+     *
+     * @param overflowAction the overflow action
+     */
+    public void setOverflowAction(final OverflowAction overflowAction) {
+        this.overflowAction = overflowAction == null ? OverflowAction.BLOCK : overflowAction;
+    }
+
+    /**
+     * Returns the number of records the buffer can hold.
+     */
+    public int getQueueCapacity() {
+        return slots.length();
+    }
+
+    /**
+     * Returns the number of records which have been published but not yet drained.
+     */
+    public int getQueueOccupancy() {
+        final long occupancy = tail.get() - head.get();
+        return (int) Math.max(0L, Math.min(occupancy, slots.length()));
+    }
+
+    /**
+     * Returns the number of records which were dropped because the buffer was full or the handler closed.
+     */
+    public long getDroppedCount() {
+        return droppedCount.get();
+    }
+
+    /**
+     * Returns the number of records which have been handed to the sub-handlers.
+     */
+    public long getDrainedCount() {
+        return drainedCount;
+    }
+
+    /**
+     * Returns the average time in nanoseconds a record spent in the buffer before it was drained.
+     */
+    public long getAverageDrainLatency() {
+        final long drained = drainedCount;
+        return drained == 0 ? 0L : drainLatency / drained;
+    }
+
+    @Override
+    protected void doPublish(final ExtLogRecord record) {
+        int state = this.state.get();
+        if (state == NEW) {
+            start();
+            state = this.state.get();
+        }
+        if (state == CLOSED) {
+            droppedCount.incrementAndGet();
+            return;
+        }
+        // the record leaves the calling thread, so capture everything which is resolved lazily
+        record.copyAll();
+        if (!offer(record)) {
+            droppedCount.incrementAndGet();
+        }
+    }
+
+    @Override
+    public void flush() {
+        final Handler[] handlers = this.handlers;
+        for (Handler handler : handlers) {
+            try {
+                handler.flush();
+            } catch (Exception e) {
+                reportError("Failed to flush sub-handler", e, ErrorManager.FLUSH_FAILURE);
+            }
+        }
+    }
+
+    /**
+     * Drains the records still in the buffer and stops the consumer thread. The sub-handlers are not closed.
+     */
+    @Override
+    public void close() throws SecurityException {
+        final int previous = state.getAndSet(CLOSED);
+        if (previous == CLOSED) {
+            return;
+        }
+        Thread consumer = this.consumer;
+        // a producer which started the handler may not have assigned the consumer thread yet
+        while (previous == RUNNING && consumer == null) {
+            Thread.yield();
+            consumer = this.consumer;
+        }
+        if (consumer != null && consumer != Thread.currentThread()) {
+            LockSupport.unpark(consumer);
+            boolean interrupted = false;
+            try {
+                while (consumer.isAlive()) {
+                    try {
+                        consumer.join();
+                    } catch (InterruptedException e) {
+                        interrupted = true;
+                    }
+                }
+            } finally {
+                if (interrupted) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        }
+    }
+
+    private void start() {
+        if (state.compareAndSet(NEW, RUNNING)) {
+            final Thread thread = threadFactory.newThread(new Runnable() {
+                public void run() {
+                    drain();
+                }
+            });
+            thread.setDaemon(true);
+            // only published once started, so that close() can join it
+            thread.start();
+            consumer = thread;
+        }
+    }
+
+    private boolean offer(final ExtLogRecord record) {
+        final int capacity = slots.length();
+        int attempts = 0;
+        for (;;) {
+            final long sequence = tail.get();
+            if (sequence - head.get() >= capacity) {
+                if (overflowAction == OverflowAction.DISCARD || state.get() == CLOSED) {
+                    return false;
+                }
+                backOff(attempts++);
+                continue;
+            }
+            if (tail.compareAndSet(sequence, sequence + 1)) {
+                final int index = (int) sequence & mask;
+                // The consumer only exits once it has seen the handler closed and no claimed slot left. If the
+                // handler closed after the slot was claimed the consumer may be gone, so the record is dropped.
+                final boolean closed = state.get() == CLOSED;
+                publishTimes[index] = System.nanoTime();
+                slots.set(index, closed ? CLOSED_SLOT : record);
+                if (consumerParked) {
+                    LockSupport.unpark(consumer);
+                }
+                return !closed;
+            }
+        }
+    }
+
+    private static void backOff(final int attempts) {
+        if (attempts < 64) {
+            Thread.yield();
+        } else {
+            LockSupport.parkNanos(Math.min(1L << Math.min(attempts - 64, 20), 1000000L));
+        }
+    }
+
+    private void drain() {
+        long next = head.get();
+        for (;;) {
+            final long batchStart = System.nanoTime();
+            final Handler[] handlers = this.handlers;
+            long latency = 0L;
+            int drained = 0;
+            ExtLogRecord record;
+            while ((record = slots.get((int) next & mask)) != null) {
+                final int index = (int) next & mask;
+                if (record == CLOSED_SLOT) {
+                    slots.lazySet(index, null);
+                    next++;
+                    continue;
+                }
+                final long waited = batchStart - publishTimes[index];
+                if (waited > 0L) {
+                    latency += waited;
+                }
+                slots.lazySet(index, null);
+                next++;
+                if (++drained % RELEASE_INTERVAL == 0) {
+                    head.lazySet(next);
+                }
+                publishToHandlers(handlers, record);
+            }
+            if (head.get() != next) {
+                head.set(next);
+            }
+            if (drained > 0) {
+                drainedCount += drained;
+                drainLatency += latency;
+                if (isAutoFlush()) {
+                    flush();
+                }
+                continue;
+            }
+            if (state.get() == CLOSED && tail.get() == next) {
+                return;
+            }
+            consumerParked = true;
+            if (slots.get((int) next & mask) == null && state.get() != CLOSED) {
+                LockSupport.parkNanos(this, PARK_NANOS);
+            }
+            consumerParked = false;
+        }
+    }
+
+    private void publishToHandlers(final Handler[] handlers, final ExtLogRecord record) {
+        for (Handler handler : handlers) {
+            try {
+                handler.publish(record);
+            } catch (Exception e) {
+                reportError("Failed to publish to sub-handler", e, ErrorManager.WRITE_FAILURE);
+            }
+        }
+    }
+}
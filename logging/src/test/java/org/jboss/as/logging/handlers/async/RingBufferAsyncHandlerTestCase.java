@@ -0,0 +1,286 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2012, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.jboss.as.logging.handlers.async;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Handler;
+import java.util.logging.Level;
+import java.util.logging.LogRecord;
+
+import org.jboss.logmanager.ExtHandler;
+import org.jboss.logging.Logger;
+import org.jboss.logmanager.ExtLogRecord;
+import org.jboss.logmanager.handlers.AsyncHandler;
+import org.jboss.logmanager.handlers.AsyncHandler.OverflowAction;
+import org.junit.Assume;
+import org.junit.Test;
+
+/**
+ * Tests for {@link RingBufferAsyncHandler}, plus a throughput comparison with the jboss-logmanager
+ * {@link AsyncHandler} that only runs on request.
+ */
+public class RingBufferAsyncHandlerTestCase {
+
+    private static final Logger logger = Logger.getLogger(RingBufferAsyncHandlerTestCase.class);
+
+    private static final ThreadFactory THREAD_FACTORY = new AsyncHandlerService.HandlerThreadFactory("test");
+
+    private static final int PRODUCERS = 32;
+
+    private static final int RECORDS_PER_PRODUCER = 20000;
+
+    @Test
+    public void testDeliversAllRecords() throws Exception {
+        final CountingHandler counter = new CountingHandler(null);
+        final RingBufferAsyncHandler handler = new RingBufferAsyncHandler(64, THREAD_FACTORY);
+        handler.addHandler(counter);
+
+        publishConcurrently(handler, 8, 5000);
+        handler.close();
+
+        assertEquals(8 * 5000, counter.getCount());
+        assertEquals(8 * 5000, handler.getDrainedCount());
+        assertEquals(0, handler.getDroppedCount());
+        assertEquals(0, handler.getQueueOccupancy());
+    }
+
+    @Test
+    public void testDiscardWhenFull() throws Exception {
+        final CountDownLatch release = new CountDownLatch(1);
+        final CountingHandler counter = new CountingHandler(release);
+        final RingBufferAsyncHandler handler = new RingBufferAsyncHandler(4, THREAD_FACTORY);
+        handler.setOverflowAction(OverflowAction.DISCARD);
+        handler.addHandler(counter);
+
+        for (int i = 0; i < 100; i++) {
+            handler.publish(newRecord(i));
+        }
+        assertTrue(handler.getDroppedCount() > 0);
+
+        release.countDown();
+        handler.close();
+
+        assertEquals(100, counter.getCount() + handler.getDroppedCount());
+        assertEquals(counter.getCount(), handler.getDrainedCount());
+    }
+
+    @Test
+    public void testBlockWhenFull() throws Exception {
+        final CountingHandler counter = new CountingHandler(null);
+        final RingBufferAsyncHandler handler = new RingBufferAsyncHandler(2, THREAD_FACTORY);
+        handler.setOverflowAction(OverflowAction.BLOCK);
+        handler.addHandler(counter);
+
+        publishConcurrently(handler, 4, 2000);
+        handler.close();
+
+        assertEquals(4 * 2000, counter.getCount());
+        assertEquals(0, handler.getDroppedCount());
+    }
+
+    @Test
+    public void testPublishAfterCloseIsDropped() throws Exception {
+        final CountingHandler counter = new CountingHandler(null);
+        final RingBufferAsyncHandler handler = new RingBufferAsyncHandler(16, THREAD_FACTORY);
+        handler.addHandler(counter);
+        handler.publish(newRecord(0));
+        handler.close();
+        handler.publish(newRecord(1));
+
+        assertEquals(1, counter.getCount());
+        assertEquals(1, handler.getDroppedCount());
+    }
+
+    /**
+     * Closes the handler while producers are still publishing; every record is either delivered or counted as
+     * dropped.
+     */
+    @Test
+    public void testCloseWhilePublishing() throws Exception {
+        for (int run = 0; run < 20; run++) {
+            final CountingHandler counter = new CountingHandler(null);
+            final RingBufferAsyncHandler handler = new RingBufferAsyncHandler(16, THREAD_FACTORY);
+            handler.addHandler(counter);
+            final ExecutorService executor = Executors.newFixedThreadPool(4);
+            try {
+                final CountDownLatch start = new CountDownLatch(1);
+                final List<Future<Void>> results = new ArrayList<Future<Void>>();
+                for (int i = 0; i < 4; i++) {
+                    results.add(executor.submit(new Callable<Void>() {
+                        public Void call() throws Exception {
+                            start.await();
+                            for (int j = 0; j < 1000; j++) {
+                                handler.publish(newRecord(j));
+                            }
+                            return null;
+                        }
+                    }));
+                }
+                start.countDown();
+                Thread.sleep(1);
+                handler.close();
+                for (Future<Void> result : results) {
+                    result.get(60, TimeUnit.SECONDS);
+                }
+            } finally {
+                executor.shutdown();
+            }
+            assertEquals(4 * 1000, counter.getCount() + handler.getDroppedCount());
+            assertEquals(counter.getCount(), handler.getDrainedCount());
+        }
+    }
+
+    @Test
+    public void testConsumerThreadNamed() throws Exception {
+        final List<String> threadNames = new ArrayList<String>();
+        final RingBufferAsyncHandler handler = new RingBufferAsyncHandler(16, THREAD_FACTORY);
+        handler.addHandler(new Handler() {
+            @Override
+            public void publish(final LogRecord record) {
+                synchronized (threadNames) {
+                    threadNames.add(Thread.currentThread().getName());
+                }
+            }
+
+            @Override
+            public void flush() {
+            }
+
+            @Override
+            public void close() {
+            }
+        });
+        handler.publish(newRecord(0));
+        handler.close();
+
+        assertEquals(1, threadNames.size());
+        assertTrue(threadNames.get(0), threadNames.get(0).startsWith("Async log handler test - "));
+    }
+
+    /**
+     * Compares the throughput of both async handler implementations with {@value #PRODUCERS} producer threads.
+     * Only runs with <code>-Djboss.as.benchmark=true</code>.
+     */
+    @Test
+    public void testThroughputComparedToAsyncHandler() throws Exception {
+        Assume.assumeTrue(Boolean.getBoolean("jboss.as.benchmark"));
+        final long total = (long) PRODUCERS * RECORDS_PER_PRODUCER;
+
+        final CountingHandler ringCounter = new CountingHandler(null);
+        final RingBufferAsyncHandler ringBuffer = new RingBufferAsyncHandler(1024, THREAD_FACTORY);
+        ringBuffer.addHandler(ringCounter);
+        final long ringNanos = publishConcurrently(ringBuffer, PRODUCERS, RECORDS_PER_PRODUCER);
+        ringBuffer.close();
+        assertEquals(total, ringCounter.getCount());
+
+        final CountingHandler queueCounter = new CountingHandler(null);
+        final AsyncHandler queue = new AsyncHandler(1024, THREAD_FACTORY);
+        queue.setOverflowAction(OverflowAction.BLOCK);
+        queue.addHandler(queueCounter);
+        final long queueNanos = publishConcurrently(queue, PRODUCERS, RECORDS_PER_PRODUCER);
+        queue.close();
+
+        logger.infof("%d producers: ring-buffer %d records/ms (average drain latency %d ns), blocking queue %d records/ms",
+                PRODUCERS, total * 1000000L / Math.max(1L, ringNanos), ringBuffer.getAverageDrainLatency(),
+                total * 1000000L / Math.max(1L, queueNanos));
+    }
+
+    /**
+     * @return the time in nanoseconds until every producer has published all its records
+     */
+    private static long publishConcurrently(final ExtHandler handler, final int producers, final int records) throws Exception {
+        final ExecutorService executor = Executors.newFixedThreadPool(producers);
+        try {
+            final CountDownLatch start = new CountDownLatch(1);
+            final List<Future<Void>> results = new ArrayList<Future<Void>>();
+            for (int i = 0; i < producers; i++) {
+                results.add(executor.submit(new Callable<Void>() {
+                    public Void call() throws Exception {
+                        start.await();
+                        for (int j = 0; j < records; j++) {
+                            handler.publish(newRecord(j));
+                        }
+                        return null;
+                    }
+                }));
+            }
+            final long begin = System.nanoTime();
+            start.countDown();
+            for (Future<Void> result : results) {
+                result.get(60, TimeUnit.SECONDS);
+            }
+            return System.nanoTime() - begin;
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    private static ExtLogRecord newRecord(final int i) {
+        return new ExtLogRecord(Level.INFO, "record " + i, RingBufferAsyncHandlerTestCase.class.getName());
+    }
+
+    private static class CountingHandler extends Handler {
+
+        private final AtomicLong count = new AtomicLong();
+        private final CountDownLatch release;
+
+        CountingHandler(final CountDownLatch release) {
+            this.release = release;
+        }
+
+        @Override
+        public void publish(final LogRecord record) {
+            if (release != null) {
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+            count.incrementAndGet();
+        }
+
+        @Override
+        public void flush() {
+        }
+
+        @Override
+        public void close() {
+        }
+
+        long getCount() {
+            return count.get();
+        }
+    }
+}
@@ -85,8 +85,14 @@ public abstract class AbstractQueueControlHandler<T> extends AbstractRuntimeOnly
     public static final String NEW_PRIORITY = "new-priority";
     public static final String OTHER_QUEUE_NAME = "other-queue-name";
     public static final String REJECT_DUPLICATES = "reject-duplicates";
+    public static final String OFFSET = "offset";
+    public static final String LIMIT = "limit";
+    public static final String MESSAGES = "messages";
+    public static final String HAS_MORE = "has-more";
+    public static final String NEXT_OFFSET = "next-offset";
 
     private final ParametersValidator singleOptionalFilterValidator = new ParametersValidator();
+    private final ParametersValidator listMessagesValidator = new ParametersValidator();
     private final ParametersValidator singleMessageIdValidator = new ParametersValidator();
     private final ParametersValidator changeMessagePriorityValidator = new ParametersValidator();
     private final ParametersValidator changeMessagesPriorityValidator = new ParametersValidator();
@@ -102,6 +108,9 @@ public abstract class AbstractQueueControlHandler<T> extends AbstractRuntimeOnly
         final ParameterValidator priorityValidator = new IntRangeValidator(0, 9, false, false);
 
         singleOptionalFilterValidator.registerValidator(FILTER.getName(), filterValidator);
+        listMessagesValidator.registerValidator(FILTER.getName(), filterValidator);
+        listMessagesValidator.registerValidator(OFFSET, new IntRangeValidator(0, true));
+        listMessagesValidator.registerValidator(LIMIT, new IntRangeValidator(1, QueueMessageBrowser.MAX_LIMIT, true, false));
         singleMessageIdValidator.registerValidator(MESSAGE_ID, messageIdValidator);
         changeMessagePriorityValidator.registerValidator(MESSAGE_ID, messageIdValidator);
         changeMessagePriorityValidator.registerValidator(NEW_PRIORITY, priorityValidator);
@@ -289,14 +298,17 @@ public abstract class AbstractQueueControlHandler<T> extends AbstractRuntimeOnly
         Object handback = null;
         try {
             if (LIST_MESSAGES.equals(operationName)) {
-                singleOptionalFilterValidator.validate(operation);
+                listMessagesValidator.validate(operation);
                 String filter = operation.hasDefined(FILTER.getName()) ? operation.get(FILTER.getName()).asString() : null;
-                String json = control.listMessagesAsJSON(filter);
-                context.getResult().set(ModelNode.fromJSONString(json));
+                int offset = operation.hasDefined(OFFSET) ? operation.get(OFFSET).asInt() : 0;
+                int limit = operation.hasDefined(LIMIT) ? operation.get(LIMIT).asInt() : QueueMessageBrowser.DEFAULT_LIMIT;
+                context.getResult().set(control.listMessages(filter, offset, limit));
             } else if (LIST_MESSAGES_AS_JSON.equals(operationName)) {
-                singleOptionalFilterValidator.validate(operation);
+                listMessagesValidator.validate(operation);
                 String filter = operation.hasDefined(FILTER.getName()) ? operation.get(FILTER.getName()).asString() : null;
-                context.getResult().set(control.listMessagesAsJSON(filter));
+                int offset = operation.hasDefined(OFFSET) ? operation.get(OFFSET).asInt() : 0;
+                int limit = operation.hasDefined(LIMIT) ? operation.get(LIMIT).asInt() : QueueMessageBrowser.DEFAULT_LIMIT;
+                context.getResult().set(control.listMessages(filter, offset, limit).toJSONString(true));
             } else if (COUNT_MESSAGES.equals(operationName)) {
                 singleOptionalFilterValidator.validate(operation);
                 String filter = operation.hasDefined(FILTER.getName()) ? operation.get(FILTER.getName()).asString() : null;
@@ -427,7 +439,12 @@ public abstract class AbstractQueueControlHandler<T> extends AbstractRuntimeOnly
 
         T getDelegate();
 
-        String listMessagesAsJSON(String filter) throws Exception;
+        /**
+         * Lists a page of the messages matching the filter, without materializing the rest of the queue.
+         *
+         * @see QueueMessageBrowser#listMessages(String, int, int)
+         */
+        ModelNode listMessages(String filter, int offset, int limit) throws Exception;
 
         long countMessages(String filter) throws Exception;
 
@@ -26,6 +26,7 @@ import static org.jboss.as.controller.descriptions.ModelDescriptionConstants.ADD
 import static org.jboss.as.controller.descriptions.ModelDescriptionConstants.ALLOWED;
 import static org.jboss.as.controller.descriptions.ModelDescriptionConstants.ATTRIBUTES;
 import static org.jboss.as.controller.descriptions.ModelDescriptionConstants.CHILDREN;
+import static org.jboss.as.controller.descriptions.ModelDescriptionConstants.DEFAULT;
 import static org.jboss.as.controller.descriptions.ModelDescriptionConstants.DESCRIPTION;
 import static org.jboss.as.controller.descriptions.ModelDescriptionConstants.MAX;
 import static org.jboss.as.controller.descriptions.ModelDescriptionConstants.MIN;
@@ -229,17 +230,49 @@ public class MessagingDescriptions {
 
         populateFilterParam(bundle, result.get(REQUEST_PROPERTIES, FILTER.getName()));
 
+        final ModelNode offset = result.get(REQUEST_PROPERTIES, AbstractQueueControlHandler.OFFSET);
+        offset.get(DESCRIPTION).set(bundle.getString("queue.list-messages.offset"));
+        offset.get(TYPE).set(ModelType.INT);
+        offset.get(REQUIRED).set(false);
+        offset.get(NILLABLE).set(true);
+        offset.get(MIN).set(0);
+        offset.get(DEFAULT).set(0);
+
+        final ModelNode limit = result.get(REQUEST_PROPERTIES, AbstractQueueControlHandler.LIMIT);
+        limit.get(DESCRIPTION).set(bundle.getString("queue.list-messages.limit"));
+        limit.get(TYPE).set(ModelType.INT);
+        limit.get(REQUIRED).set(false);
+        limit.get(NILLABLE).set(true);
+        limit.get(MIN).set(1);
+        limit.get(MAX).set(QueueMessageBrowser.MAX_LIMIT);
+        limit.get(DEFAULT).set(QueueMessageBrowser.DEFAULT_LIMIT);
+
         final ModelNode repProps = result.get(REPLY_PROPERTIES);
         repProps.get(DESCRIPTION).set(bundle.getString("queue.list-messages.reply"));
         if (json) {
             repProps.get(TYPE).set(ModelType.STRING);
         } else {
-            repProps.get(TYPE).set(ModelType.LIST);
+            repProps.get(TYPE).set(ModelType.OBJECT);
+
+            final ModelNode messages = repProps.get(VALUE_TYPE, AbstractQueueControlHandler.MESSAGES);
+            messages.get(DESCRIPTION).set(bundle.getString("queue.list-messages.reply.messages"));
+            messages.get(TYPE).set(ModelType.LIST);
+            messages.get(NILLABLE).set(false);
             if (forJMS) {
-                populateJMSMessageDescription(bundle, repProps.get(VALUE_TYPE));
+                populateJMSMessageDescription(bundle, messages.get(VALUE_TYPE));
             } else {
-                populateCoreMessageDescription(bundle, repProps.get(VALUE_TYPE));
+                populateCoreMessageDescription(bundle, messages.get(VALUE_TYPE));
             }
+
+            final ModelNode hasMore = repProps.get(VALUE_TYPE, AbstractQueueControlHandler.HAS_MORE);
+            hasMore.get(DESCRIPTION).set(bundle.getString("queue.list-messages.reply.has-more"));
+            hasMore.get(TYPE).set(ModelType.BOOLEAN);
+            hasMore.get(NILLABLE).set(false);
+
+            final ModelNode nextOffset = repProps.get(VALUE_TYPE, AbstractQueueControlHandler.NEXT_OFFSET);
+            nextOffset.get(DESCRIPTION).set(bundle.getString("queue.list-messages.reply.next-offset"));
+            nextOffset.get(TYPE).set(ModelType.INT);
+            nextOffset.get(NILLABLE).set(true);
         }
 
         return result;
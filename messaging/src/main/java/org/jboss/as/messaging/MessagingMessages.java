@@ -460,4 +460,14 @@ public interface MessagingMessages {
 
     @Message(id = 11669, value = "SecurityDomainContext has not been set")
     IllegalStateException securityDomainContextNotSet();
+
+    /**
+     * Creates an exception indicating there is no queue with the given name.
+     *
+     * @param name the name of the queue.
+     *
+     * @return an {@link OperationFailedException} for the error.
+     */
+    @Message(id = 11670, value = "No queue is available under name %s")
+    OperationFailedException queueNotFound(String name);
 }
@@ -108,7 +108,7 @@ public class QueueControlHandler extends AbstractQueueControlHandler<QueueContro
     }
 
     @Override
-    protected DelegatingQueueControl<QueueControl> getQueueControl(HornetQServer hqServer, String queueName) {
+    protected DelegatingQueueControl<QueueControl> getQueueControl(final HornetQServer hqServer, final String queueName) {
         final QueueControl control = QueueControl.class.cast(hqServer.getManagementService().getResource(ResourceNames.CORE_QUEUE + queueName));
         return new DelegatingQueueControl<QueueControl>() {
 
@@ -116,8 +116,8 @@ public class QueueControlHandler extends AbstractQueueControlHandler<QueueContro
                 return control;
             }
             @Override
-            public String listMessagesAsJSON(String filter) throws Exception {
-                return control.listMessagesAsJSON(filter);
+            public ModelNode listMessages(String filter, int offset, int limit) throws Exception {
+                return QueueMessageBrowser.forCoreQueue(hqServer, queueName).listMessages(filter, offset, limit);
             }
 
             @Override
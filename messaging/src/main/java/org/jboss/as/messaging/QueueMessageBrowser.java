@@ -0,0 +1,171 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2012, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.jboss.as.messaging;
+
+import static org.jboss.as.messaging.MessagingMessages.MESSAGES;
+
+import java.util.Map;
+
+import org.hornetq.api.core.SimpleString;
+import org.hornetq.api.core.management.ResourceNames;
+import org.hornetq.core.filter.Filter;
+import org.hornetq.core.filter.impl.FilterImpl;
+import org.hornetq.core.postoffice.Binding;
+import org.hornetq.core.postoffice.QueueBinding;
+import org.hornetq.core.server.HornetQServer;
+import org.hornetq.core.server.MessageReference;
+import org.hornetq.core.server.Queue;
+import org.hornetq.core.server.ServerMessage;
+import org.hornetq.jms.client.HornetQMessage;
+import org.hornetq.jms.client.SelectorTranslator;
+import org.hornetq.utils.LinkedListIterator;
+import org.jboss.dmr.ModelNode;
+
+/**
+ * Lists the messages of a HornetQ queue one page at a time.
+ * <p/>
+ * The {@link org.hornetq.api.core.management.QueueControl} management API copies every matching message of the
+ * queue into a single array (and then into a single JSON string) before returning. This browser walks the queue
+ * with its own iterator instead, skips the first <code>offset</code> matching messages and stops as soon as
+ * <code>limit</code> messages have been collected, so memory use is bounded by the page size rather than by the
+ * depth of the queue.
+ * <p/>
+ * There is no cursor kept between two pages: every page walks the queue from its head again, and the skipped messages
+ * are matched against the filter once more. Reading a deep queue page by page therefore costs time proportional to the
+ * offset of each page, and messages which are added or removed between two pages may shift the following pages.
+ */
+public class QueueMessageBrowser {
+
+    /**
+     * The number of messages returned when the caller does not specify a limit
+     */
+    public static final int DEFAULT_LIMIT = 1000;
+    /**
+     * The largest number of messages returned in a single page
+     */
+    public static final int MAX_LIMIT = 10000;
+
+    private final Queue queue;
+    private final boolean jms;
+
+    private QueueMessageBrowser(final Queue queue, final boolean jms) {
+        this.queue = queue;
+        this.jms = jms;
+    }
+
+    /**
+     * Creates a browser for the core queue with the given name. Filters are HornetQ filter expressions.
+     */
+    public static QueueMessageBrowser forCoreQueue(final HornetQServer server, final String queueName) throws Exception {
+        return new QueueMessageBrowser(locateQueue(server, queueName), false);
+    }
+
+    /**
+     * Creates a browser for the JMS queue with the given name. Filters are JMS selectors, and the messages are
+     * described with their JMS properties.
+     */
+    public static QueueMessageBrowser forJMSQueue(final HornetQServer server, final String queueName) throws Exception {
+        return new QueueMessageBrowser(locateQueue(server, ResourceNames.JMS_QUEUE + queueName), true);
+    }
+
+    /**
+     * Lists a page of the messages matching the filter.
+     *
+     * @param filter the filter, or <code>null</code> to match all messages
+     * @param offset the number of matching messages to skip
+     * @param limit  the maximum number of messages to return
+     * @return an object with the {@link AbstractQueueControlHandler#MESSAGES list of messages} of the page, whether
+     *         {@link AbstractQueueControlHandler#HAS_MORE more messages} match the filter, and if so, the
+     *         {@link AbstractQueueControlHandler#NEXT_OFFSET offset of the next page}
+     */
+    public ModelNode listMessages(final String filter, final int offset, final int limit) throws Exception {
+        final Filter coreFilter = FilterImpl.createFilter(jms ? SelectorTranslator.convertToHornetQFilterString(filter) : filter);
+        final ModelNode messages = new ModelNode();
+        messages.setEmptyList();
+        int skipped = 0;
+        int listed = 0;
+        boolean hasMore = false;
+        final LinkedListIterator<MessageReference> iterator = queue.totalIterator();
+        try {
+            while (iterator.hasNext()) {
+                final ServerMessage message = iterator.next().getMessage();
+                if (coreFilter != null && !coreFilter.match(message)) {
+                    continue;
+                }
+                if (skipped < offset) {
+                    skipped++;
+                    continue;
+                }
+                if (listed == limit) {
+                    // one more matching message is all we need to know
+                    hasMore = true;
+                    break;
+                }
+                final Map<String, Object> map = jms ? HornetQMessage.coreMaptoJMSMap(message.toMap()) : message.toMap();
+                messages.add(toModelNode(map));
+                listed++;
+            }
+        } finally {
+            iterator.close();
+        }
+        final ModelNode result = new ModelNode();
+        result.get(AbstractQueueControlHandler.MESSAGES).set(messages);
+        result.get(AbstractQueueControlHandler.HAS_MORE).set(hasMore);
+        if (hasMore) {
+            result.get(AbstractQueueControlHandler.NEXT_OFFSET).set(offset + listed);
+        }
+        return result;
+    }
+
+    private static Queue locateQueue(final HornetQServer server, final String queueName) throws Exception {
+        final Binding binding = server.getPostOffice().getBinding(new SimpleString(queueName));
+        if (!(binding instanceof QueueBinding)) {
+            throw MESSAGES.queueNotFound(queueName);
+        }
+        return ((QueueBinding) binding).getQueue();
+    }
+
+    private static ModelNode toModelNode(final Map<String, Object> map) {
+        final ModelNode node = new ModelNode();
+        for (Map.Entry<String, Object> entry : map.entrySet()) {
+            final Object value = entry.getValue();
+            final ModelNode property = node.get(entry.getKey());
+            if (value == null) {
+                continue;
+            } else if (value instanceof Long) {
+                property.set((Long) value);
+            } else if (value instanceof Integer || value instanceof Short || value instanceof Byte) {
+                property.set(((Number) value).intValue());
+            } else if (value instanceof Double || value instanceof Float) {
+                property.set(((Number) value).doubleValue());
+            } else if (value instanceof Boolean) {
+                property.set((Boolean) value);
+            } else if (value instanceof byte[]) {
+                property.set((byte[]) value);
+            } else {
+                property.set(value.toString());
+            }
+        }
+        return node;
+    }
+}
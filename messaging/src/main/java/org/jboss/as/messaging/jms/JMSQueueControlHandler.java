@@ -29,6 +29,7 @@ import org.jboss.as.controller.OperationContext;
 import org.jboss.as.controller.OperationFailedException;
 import org.jboss.as.controller.operations.validation.StringLengthValidator;
 import org.jboss.as.messaging.AbstractQueueControlHandler;
+import org.jboss.as.messaging.QueueMessageBrowser;
 import org.jboss.dmr.ModelNode;
 
 /**
@@ -49,7 +50,7 @@ public class JMSQueueControlHandler extends AbstractQueueControlHandler<JMSQueue
         return true;
     }
 
-    protected AbstractQueueControlHandler.DelegatingQueueControl<JMSQueueControl> getQueueControl(HornetQServer hqServer, String queueName){
+    protected AbstractQueueControlHandler.DelegatingQueueControl<JMSQueueControl> getQueueControl(final HornetQServer hqServer, final String queueName){
         final JMSQueueControl control = JMSQueueControl.class.cast(hqServer.getManagementService().getResource(ResourceNames.JMS_QUEUE + queueName));
         return new AbstractQueueControlHandler.DelegatingQueueControl<JMSQueueControl>() {
 
@@ -59,8 +60,8 @@ public class JMSQueueControlHandler extends AbstractQueueControlHandler<JMSQueue
             }
 
             @Override
-            public String listMessagesAsJSON(String filter) throws Exception {
-                return control.listMessagesAsJSON(filter);
+            public ModelNode listMessages(String filter, int offset, int limit) throws Exception {
+                return QueueMessageBrowser.forJMSQueue(hqServer, queueName).listMessages(filter, offset, limit);
             }
 
             @Override
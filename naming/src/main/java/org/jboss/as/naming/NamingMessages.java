@@ -373,4 +373,14 @@ public interface NamingMessages {
 
     @Message(id = 11863, value = "Invalid name for context binding %s")
     DeploymentUnitProcessingException invalidNameForContextBinding(String name);
+
+    /**
+     * Creates an exception indicating an unknown attribute.
+     *
+     * @param attributeName the name of the attribute.
+     *
+     * @return an {@link IllegalStateException} for the error.
+     */
+    @Message(id = 11864, value = "Unknown attribute %s")
+    IllegalStateException unknownAttribute(String attributeName);
 }
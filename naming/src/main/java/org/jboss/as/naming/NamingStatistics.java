@@ -0,0 +1,69 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2012, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.jboss.as.naming;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Lookup statistics of all {@link ServiceBasedNamingStore}s.
+ */
+public final class NamingStatistics {
+
+    public static final NamingStatistics INSTANCE = new NamingStatistics();
+
+    private final AtomicLong lookups = new AtomicLong();
+    private final AtomicLong cacheHits = new AtomicLong();
+    private final AtomicLong lookupTime = new AtomicLong();
+
+    private NamingStatistics() {
+    }
+
+    void lookupCompleted(final long nanos, final boolean cacheHit) {
+        lookups.incrementAndGet();
+        lookupTime.addAndGet(nanos);
+        if (cacheHit) {
+            cacheHits.incrementAndGet();
+        }
+    }
+
+    /**
+     * @return the number of lookups, successful or not
+     */
+    public long getLookupCount() {
+        return lookups.get();
+    }
+
+    /**
+     * @return the number of lookups which were resolved from the lookup cache
+     */
+    public long getCacheHitCount() {
+        return cacheHits.get();
+    }
+
+    /**
+     * @return the average time of a lookup, in nanoseconds
+     */
+    public long getAverageLookupTime() {
+        final long count = lookups.get();
+        return count == 0 ? 0 : lookupTime.get() / count;
+    }
+}
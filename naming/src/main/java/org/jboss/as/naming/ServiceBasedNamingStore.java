@@ -28,7 +28,10 @@ import java.util.HashSet;
 import java.util.List;
 import java.util.NavigableSet;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import javax.naming.Binding;
 import javax.naming.CannotProceedException;
@@ -54,6 +57,11 @@ import static org.jboss.as.naming.NamingMessages.MESSAGES;
  * @author Jason T. Greene
  */
 public class ServiceBasedNamingStore implements NamingStore {
+    /**
+     * Upper bound on the number of names kept in the lookup cache
+     */
+    private static final int MAX_CACHED_LOOKUPS = 4096;
+
     private final Name EMPTY_NAME = new CompositeName();
 
     private final ServiceRegistry serviceRegistry;
@@ -61,6 +69,17 @@ public class ServiceBasedNamingStore implements NamingStore {
 
     private ConcurrentSkipListSet<ServiceName> boundServices = new ConcurrentSkipListSet<ServiceName>();
 
+    /**
+     * The controllers of the services which names have been directly resolved to, so that repeated lookups skip
+     * building the service name and probing the registry. Cleared whenever the bound services change.
+     */
+    private final ConcurrentMap<Name, ServiceController<?>> lookupCache = new ConcurrentHashMap<Name, ServiceController<?>>();
+    /**
+     * Incremented whenever the bound services change, so that a lookup racing with the change does not leave a stale
+     * entry in the cache
+     */
+    private final AtomicInteger bindingsVersion = new AtomicInteger();
+
     public ServiceBasedNamingStore(final ServiceRegistry serviceRegistry, final ServiceName serviceNameBase) {
         this.serviceRegistry = serviceRegistry;
         this.serviceNameBase = serviceNameBase;
@@ -70,13 +89,37 @@ public class ServiceBasedNamingStore implements NamingStore {
         if (name.isEmpty()) {
             return new NamingContext(EMPTY_NAME, this, null);
         }
+        final long start = System.nanoTime();
+        boolean cacheHit = false;
+        try {
+            final ServiceController<?> cached = lookupCache.get(name);
+            if (cached != null && cached.getState() != ServiceController.State.REMOVED) {
+                final Object obj = getValue(name, cached);
+                if (obj != null) {
+                    cacheHit = true;
+                    return obj;
+                }
+            }
+            return lookupUncached(name);
+        } finally {
+            NamingStatistics.INSTANCE.lookupCompleted(System.nanoTime() - start, cacheHit);
+        }
+    }
+
+    private Object lookupUncached(final Name name) throws NamingException {
         final ServiceName lookupName = buildServiceName(name);
-        Object obj = lookup(name.toString(), lookupName);
+        Object obj = null;
+        final int version = bindingsVersion.get();
+        final ServiceController<?> controller = serviceRegistry.getService(lookupName);
+        if (controller != null) {
+            cache(name, controller, version);
+            obj = getValue(name, controller);
+        }
         if (obj == null) {
             final ServiceName lower = boundServices.lower(lookupName);
             if (lower != null && lower.isParentOf(lookupName)) {
                 // Parent might be a reference or a link
-                obj = lookup(name.toString(), lower);
+                obj = lookup(name, lower);
                 //if the lower is a context that has been explicitly bound then
                 //we do not return a resolve result, as this will result in an
                 //infinite loop
@@ -115,19 +158,38 @@ public class ServiceBasedNamingStore implements NamingStore {
         return cpe;
     }
 
-    private Object lookup(final String name, final ServiceName lookupName) throws NamingException {
-        final ServiceController<?> controller = serviceRegistry.getService(lookupName);
-        final Object object;
-        if (controller != null) {
-            try {
-                object = controller.getValue();
-            } catch (IllegalStateException e) {
-                //occurs if the service is not actually up
-                throw new NameNotFoundException("Error looking up " + name + ", service " + lookupName + " is not started");
+    private void cache(final Name name, final ServiceController<?> controller, final int version) {
+        if (lookupCache.size() < MAX_CACHED_LOOKUPS) {
+            final Name key = (Name) name.clone();
+            lookupCache.put(key, controller);
+            if (bindingsVersion.get() != version) {
+                // the bindings changed while we were resolving the name
+                lookupCache.remove(key);
             }
-        } else {
+        }
+    }
+
+    private void invalidateLookupCache() {
+        bindingsVersion.incrementAndGet();
+        lookupCache.clear();
+    }
+
+    private Object lookup(final Name name, final ServiceName lookupName) throws NamingException {
+        final ServiceController<?> controller = serviceRegistry.getService(lookupName);
+        if (controller == null) {
             return null;
         }
+        return getValue(name, controller);
+    }
+
+    private Object getValue(final Name name, final ServiceController<?> controller) throws NamingException {
+        final Object object;
+        try {
+            object = controller.getValue();
+        } catch (IllegalStateException e) {
+            //occurs if the service is not actually up
+            throw new NameNotFoundException("Error looking up " + name + ", service " + controller.getName() + " is not started");
+        }
         if (object instanceof ManagedReferenceFactory) {
             try {
                 return ManagedReferenceFactory.class.cast(object).getReference().getInstance();
@@ -145,7 +207,7 @@ public class ServiceBasedNamingStore implements NamingStore {
         final ServiceName floor = boundServices.floor(lookupName);
         if (floor != null && floor.isParentOf(lookupName)) {
             // Parent might be a reference or a link
-            Object obj = lookup(name.toString(), floor);
+            Object obj = lookup(name, floor);
             if (obj != null)
                 throw new RequireResolveException(convert(floor));
         }
@@ -159,7 +221,7 @@ public class ServiceBasedNamingStore implements NamingStore {
             if (childParts.length > lookupParts.length + 1) {
                 childContexts.add(childParts[lookupParts.length]);
             } else {
-                final Object binding = lookup(name.toString(), child);
+                final Object binding = lookup(name, child);
                 results.add(new NameClassPair(childParts[childParts.length - 1], binding.getClass().getName()));
             }
         }
@@ -174,7 +236,7 @@ public class ServiceBasedNamingStore implements NamingStore {
         final ServiceName floor = boundServices.floor(lookupName);
         if (floor != null && floor.isParentOf(lookupName)) {
             // Parent might be a reference or a link
-            Object obj = lookup(name.toString(), floor);
+            Object obj = lookup(name, floor);
             if (obj != null)
                 throw new RequireResolveException(convert(floor));
         }
@@ -187,7 +249,7 @@ public class ServiceBasedNamingStore implements NamingStore {
             if (childParts.length > lookupParts.length + 1) {
                 childContexts.add(childParts[lookupParts.length]);
             } else {
-                final Object binding = lookup(name.toString(), child);
+                final Object binding = lookup(name, child);
                 results.add(new Binding(childParts[childParts.length - 1], binding));
             }
         }
@@ -216,6 +278,7 @@ public class ServiceBasedNamingStore implements NamingStore {
 
     public void close() throws NamingException {
         boundServices.clear();
+        invalidateLookupCache();
     }
 
     public void addNamingListener(Name target, int scope, NamingListener listener) {
@@ -230,10 +293,12 @@ public class ServiceBasedNamingStore implements NamingStore {
             throw MESSAGES.serviceAlreadyBound(serviceName);
         }
         boundServices.add(serviceName);
+        invalidateLookupCache();
     }
 
     public void remove(final ServiceName serviceName) {
         boundServices.remove(serviceName);
+        invalidateLookupCache();
     }
 
     protected ServiceName buildServiceName(final Name name) {
@@ -76,6 +76,7 @@ public class NamingExtension implements Extension {
 
         if (context.isRuntimeOnlyRegistrationValid()) {
             registration.registerOperationHandler(JndiViewOperation.OPERATION_NAME, JndiViewOperation.INSTANCE, NamingSubsystemRootResourceDefinition.JNDI_VIEW, false, EnumSet.of(Flag.RUNTIME_ONLY));
+            NamingMetricsHandler.INSTANCE.registerMetrics(registration);
         }
 
         subsystem.registerXMLElementWriter(NamingSubsystem11Parser.INSTANCE);
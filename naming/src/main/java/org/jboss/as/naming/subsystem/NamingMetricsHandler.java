@@ -0,0 +1,87 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2012, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.jboss.as.naming.subsystem;
+
+import static org.jboss.as.naming.NamingMessages.MESSAGES;
+
+import org.jboss.as.controller.AbstractRuntimeOnlyHandler;
+import org.jboss.as.controller.OperationContext;
+import org.jboss.as.controller.OperationFailedException;
+import org.jboss.as.controller.SimpleAttributeDefinition;
+import org.jboss.as.controller.SimpleAttributeDefinitionBuilder;
+import org.jboss.as.controller.client.helpers.MeasurementUnit;
+import org.jboss.as.controller.descriptions.ModelDescriptionConstants;
+import org.jboss.as.controller.registry.AttributeAccess;
+import org.jboss.as.controller.registry.ManagementResourceRegistration;
+import org.jboss.as.naming.NamingStatistics;
+import org.jboss.dmr.ModelNode;
+import org.jboss.dmr.ModelType;
+
+/**
+ * Handler for the lookup metrics of the naming subsystem.
+ */
+public class NamingMetricsHandler extends AbstractRuntimeOnlyHandler {
+
+    public static final SimpleAttributeDefinition LOOKUP_COUNT =
+            new SimpleAttributeDefinitionBuilder(NamingSubsystemModel.LOOKUP_COUNT, ModelType.LONG, true)
+                    .setFlags(AttributeAccess.Flag.STORAGE_RUNTIME)
+                    .build();
+
+    public static final SimpleAttributeDefinition LOOKUP_CACHE_HIT_COUNT =
+            new SimpleAttributeDefinitionBuilder(NamingSubsystemModel.LOOKUP_CACHE_HIT_COUNT, ModelType.LONG, true)
+                    .setFlags(AttributeAccess.Flag.STORAGE_RUNTIME)
+                    .build();
+
+    public static final SimpleAttributeDefinition AVERAGE_LOOKUP_TIME =
+            new SimpleAttributeDefinitionBuilder(NamingSubsystemModel.AVERAGE_LOOKUP_TIME, ModelType.LONG, true)
+                    .setMeasurementUnit(MeasurementUnit.NANOSECONDS)
+                    .setFlags(AttributeAccess.Flag.STORAGE_RUNTIME)
+                    .build();
+
+    public static final NamingMetricsHandler INSTANCE = new NamingMetricsHandler();
+
+    private NamingMetricsHandler() {
+    }
+
+    @Override
+    protected void executeRuntimeStep(OperationContext context, ModelNode operation) throws OperationFailedException {
+        final String attributeName = operation.require(ModelDescriptionConstants.NAME).asString();
+        final NamingStatistics statistics = NamingStatistics.INSTANCE;
+        if (LOOKUP_COUNT.getName().equals(attributeName)) {
+            context.getResult().set(statistics.getLookupCount());
+        } else if (LOOKUP_CACHE_HIT_COUNT.getName().equals(attributeName)) {
+            context.getResult().set(statistics.getCacheHitCount());
+        } else if (AVERAGE_LOOKUP_TIME.getName().equals(attributeName)) {
+            context.getResult().set(statistics.getAverageLookupTime());
+        } else {
+            // Bug; we were registered for an attribute but there is no code for handling it
+            throw MESSAGES.unknownAttribute(attributeName);
+        }
+        context.completeStep();
+    }
+
+    void registerMetrics(final ManagementResourceRegistration resourceRegistration) {
+        resourceRegistration.registerMetric(LOOKUP_COUNT, this);
+        resourceRegistration.registerMetric(LOOKUP_CACHE_HIT_COUNT, this);
+        resourceRegistration.registerMetric(AVERAGE_LOOKUP_TIME, this);
+    }
+}
@@ -36,6 +36,12 @@ public interface NamingSubsystemModel {
 
     String LOOKUP = "lookup";
 
+    String LOOKUP_COUNT = "lookup-count";
+
+    String LOOKUP_CACHE_HIT_COUNT = "lookup-cache-hit-count";
+
+    String AVERAGE_LOOKUP_TIME = "average-lookup-time";
+
     String OBJECT_FACTORY = "object-factory";
 
     String MODULE ="module";
@@ -31,12 +31,14 @@ import javax.naming.CompositeName;
 import javax.naming.Context;
 import javax.naming.Name;
 import javax.naming.NameClassPair;
+import javax.naming.NameNotFoundException;
 import javax.naming.NameParser;
 import javax.naming.NamingEnumeration;
 import javax.naming.NamingException;
 
 import org.jboss.msc.service.Service;
 import org.jboss.msc.service.ServiceContainer;
+import org.jboss.msc.service.ServiceController;
 import org.jboss.msc.service.ServiceName;
 import org.jboss.msc.service.StartContext;
 import org.jboss.msc.service.StartException;
@@ -98,6 +100,43 @@ public class ServiceBasedNamingStoreTestCase {
         assertEquals(value, obj);
     }
 
+    @Test
+    public void testLookupCache() throws Exception {
+        final ServiceName bindingName = ServiceName.JBOSS.append("cached", "bar");
+        final Object value = new Object();
+        final CountDownLatch started = new CountDownLatch(1);
+        final CountDownLatch removed = new CountDownLatch(1);
+        final ServiceController<?> controller = container.addService(bindingName, new Service<ManagedReferenceFactory>() {
+            public void start(StartContext context) throws StartException {
+                store.add(bindingName);
+                started.countDown();
+            }
+
+            public void stop(StopContext context) {
+                store.remove(bindingName);
+                removed.countDown();
+            }
+
+            public ManagedReferenceFactory getValue() throws IllegalStateException, IllegalArgumentException {
+                return new ValueManagedReferenceFactory(Values.immediateValue(value));
+            }
+        }).install();
+        started.await();
+
+        final long hits = NamingStatistics.INSTANCE.getCacheHitCount();
+        assertEquals(value, store.lookup(new CompositeName("cached/bar")));
+        assertEquals(value, store.lookup(new CompositeName("cached/bar")));
+        assertEquals(hits + 1, NamingStatistics.INSTANCE.getCacheHitCount());
+
+        controller.setMode(ServiceController.Mode.REMOVE);
+        removed.await();
+        try {
+            store.lookup(new CompositeName("cached/bar"));
+            fail("Expected NameNotFoundException");
+        } catch (NameNotFoundException expected) {
+        }
+    }
+
     @Test
     public void testLookupParentContext() throws Exception {
         final ServiceName bindingName = ServiceName.JBOSS.append("foo", "bar");
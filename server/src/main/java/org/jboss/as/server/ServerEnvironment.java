@@ -221,6 +221,12 @@ public class ServerEnvironment extends ProcessEnvironment implements Serializabl
      */
     public static final String BOOTSTRAP_MAX_THREADS = "org.jboss.server.bootstrap.maxThreads";
 
+    /**
+     * Constant that holds the name of the system property for specifying the maximum size in bytes of the
+     * annotation index cache. A value of {@code 0} disables the cache.
+     */
+    public static final String ANNOTATION_INDEX_CACHE_MAX_SIZE = "org.jboss.server.annotation.indexCache.maxSize";
+
     /**
      * The default system property used to store bind address information from the command-line (-b).
      */
@@ -915,6 +921,25 @@ public class ServerEnvironment extends ProcessEnvironment implements Serializabl
         return defaultThreads;
     }
 
+    /**
+     * Determine the maximum size of the annotation index cache. This reads the
+     * {@link #ANNOTATION_INDEX_CACHE_MAX_SIZE} system property and if not set, defaults to 128 MB.
+     *
+     * @return the maximum size in bytes of the annotation index cache, {@code 0} if the cache is disabled
+     */
+    public static long getAnnotationIndexCacheMaxSize() {
+        long maxSize = 128L * 1024 * 1024;
+        String value = SecurityActions.getSystemProperty(ANNOTATION_INDEX_CACHE_MAX_SIZE);
+        if (value != null && value.length() > 0) {
+            try {
+                maxSize = Math.max(Long.decode(value), 0);
+            } catch(NumberFormatException ex) {
+                ServerLogger.ROOT_LOGGER.failedToParseCommandLineInteger(ANNOTATION_INDEX_CACHE_MAX_SIZE, value);
+            }
+        }
+        return maxSize;
+    }
+
     @Override
     protected String getProcessName() {
         return serverName;
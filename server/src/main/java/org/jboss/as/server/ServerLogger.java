@@ -26,6 +26,7 @@ import static org.jboss.logging.Logger.Level.ERROR;
 import static org.jboss.logging.Logger.Level.INFO;
 import static org.jboss.logging.Logger.Level.WARN;
 
+import java.io.File;
 import java.net.URISyntaxException;
 import java.util.jar.Attributes;
 
@@ -353,5 +354,25 @@ public interface ServerLogger extends BasicLogger {
     @Message(id = 15958, value = "No deployment content with hash %s is available in the deployment content repository for deployment %s. Because this Host Controller is booting in ADMIN-ONLY mode, boot will be allowed to proceed to provide administrators an opportunity to correct this problem. If this Host Controller were not in ADMIN-ONLY mode this would be a fatal boot failure.")
     void reportAdminOnlyMissingDeploymentContent(String contentHash, String deploymentName);
 
+    /**
+     * Logs a warning message indicating an annotation index could not be read from the annotation index cache.
+     *
+     * @param file  the cached index file.
+     * @param cause the cause of the error.
+     */
+    @LogMessage(level = WARN)
+    @Message(id = 15959, value = "Could not read cached annotation index %s, the resource root will be indexed again")
+    void cannotReadCachedAnnotationIndex(File file, @Cause Throwable cause);
+
+    /**
+     * Logs a warning message indicating an annotation index could not be stored in the annotation index cache.
+     *
+     * @param file  the cached index file.
+     * @param cause the cause of the error.
+     */
+    @LogMessage(level = WARN)
+    @Message(id = 15960, value = "Could not store annotation index in cache file %s")
+    void cannotStoreCachedAnnotationIndex(File file, @Cause Throwable cause);
+
     // NOTE
 }
@@ -28,7 +28,10 @@ import java.security.AccessController;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
+import java.util.concurrent.Executor;
 import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinWorkerThread;
 import java.util.concurrent.SynchronousQueue;
 import java.util.concurrent.ThreadFactory;
 import java.util.concurrent.ThreadPoolExecutor;
@@ -68,6 +71,7 @@ import org.jboss.as.server.deployment.DeploymentUnitProcessor;
 import org.jboss.as.server.deployment.Phase;
 import org.jboss.as.server.deployment.ServiceLoaderProcessor;
 import org.jboss.as.server.deployment.SubDeploymentProcessor;
+import org.jboss.as.server.deployment.annotation.AnnotationIndexCache;
 import org.jboss.as.server.deployment.annotation.AnnotationIndexProcessor;
 import org.jboss.as.server.deployment.annotation.CompositeIndexProcessor;
 import org.jboss.as.server.deployment.integration.Seam2Processor;
@@ -208,6 +212,21 @@ public final class ServerService extends AbstractControllerService {
         }
     }
 
+    /**
+     * Creates the pool which indexes the resource roots of deployments in parallel, with one worker per CPU. Its
+     * daemon workers terminate when no deployment is being indexed, so the pool does not need to be shut down.
+     */
+    private static Executor createAnnotationIndexExecutor() {
+        final ForkJoinPool.ForkJoinWorkerThreadFactory threadFactory = new ForkJoinPool.ForkJoinWorkerThreadFactory() {
+            public ForkJoinWorkerThread newThread(final ForkJoinPool pool) {
+                final ForkJoinWorkerThread thread = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(pool);
+                thread.setName("Annotation Indexer -- " + thread.getPoolIndex());
+                return thread;
+            }
+        };
+        return new ForkJoinPool(Runtime.getRuntime().availableProcessors(), threadFactory, null, false);
+    }
+
     protected void boot(final BootContext context) throws ConfigurationPersistenceException {
         boolean ok;
         try {
@@ -242,7 +261,9 @@ public final class ServerService extends AbstractControllerService {
             DeployerChainAddHandler.addDeploymentProcessor(Phase.STRUCTURE, Phase.STRUCTURE_ADDITIONAL_MANIFEST, new ManifestAttachmentProcessor());
             DeployerChainAddHandler.addDeploymentProcessor(Phase.STRUCTURE, Phase.STRUCTURE_SUB_DEPLOYMENT, new SubDeploymentProcessor());
             DeployerChainAddHandler.addDeploymentProcessor(Phase.STRUCTURE, Phase.STRUCTURE_MODULE_IDENTIFIERS, new ModuleIdentifierProcessor());
-            DeployerChainAddHandler.addDeploymentProcessor(Phase.STRUCTURE, Phase.STRUCTURE_ANNOTATION_INDEX, new AnnotationIndexProcessor());
+            final long indexCacheMaxSize = ServerEnvironment.getAnnotationIndexCacheMaxSize();
+            final AnnotationIndexCache indexCache = indexCacheMaxSize > 0 ? new AnnotationIndexCache(new File(serverEnvironment.getServerDataDir(), "annotation-index"), indexCacheMaxSize) : null;
+            DeployerChainAddHandler.addDeploymentProcessor(Phase.STRUCTURE, Phase.STRUCTURE_ANNOTATION_INDEX, new AnnotationIndexProcessor(indexCache, createAnnotationIndexExecutor()));
             DeployerChainAddHandler.addDeploymentProcessor(Phase.STRUCTURE, Phase.STRUCTURE_JBOSS_DEPLOYMENT_STRUCTURE_DESCRIPTOR, new DeploymentStructureDescriptorParser());
             DeployerChainAddHandler.addDeploymentProcessor(Phase.STRUCTURE, Phase.STRUCTURE_CLASS_PATH, new ManifestClassPathProcessor());
             DeployerChainAddHandler.addDeploymentProcessor(Phase.PARSE, Phase.PARSE_DEPENDENCIES_MANIFEST, new ManifestDependencyProcessor());
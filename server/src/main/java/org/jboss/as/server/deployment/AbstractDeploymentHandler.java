@@ -30,9 +30,11 @@ import static org.jboss.as.controller.descriptions.ModelDescriptionConstants.REL
 import static org.jboss.as.controller.descriptions.ModelDescriptionConstants.URL;
 
 import java.io.ByteArrayInputStream;
+import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
 import java.net.MalformedURLException;
+import java.net.URISyntaxException;
 import java.net.URL;
 import java.util.Arrays;
 import java.util.List;
@@ -109,6 +111,34 @@ abstract class AbstractDeploymentHandler {
         return in;
     }
 
+    /**
+     * Gets the local file named by the {@code url} content addition parameter, so that its content can be added to the
+     * repository without streaming it.
+     *
+     * @param operation the operation
+     *
+     * @return the file, or {@code null} if the content is not provided by a {@code file:} URL
+     */
+    protected static File getLocalFile(ModelNode operation) {
+        if (operation.hasDefined(INPUT_STREAM_INDEX) || operation.hasDefined(BYTES) || !operation.hasDefined(URL)) {
+            return null;
+        }
+        try {
+            final URL url = new URL(operation.get(URL).asString());
+            if ("file".equals(url.getProtocol())) {
+                final File file = new File(url.toURI());
+                return file.isFile() ? file : null;
+            }
+        } catch (MalformedURLException e) {
+            // let getInputStream() report it
+        } catch (URISyntaxException e) {
+            // not representable as a file, fall back to the stream
+        } catch (IllegalArgumentException e) {
+            // not representable as a file, fall back to the stream
+        }
+        return null;
+    }
+
     /**
      * Checks to see if a valid deployment parameter has been defined.
      *
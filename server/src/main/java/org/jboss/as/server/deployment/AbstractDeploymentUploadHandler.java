@@ -18,6 +18,7 @@
  */
 package org.jboss.as.server.deployment;
 
+import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
 
@@ -53,13 +54,19 @@ public abstract class AbstractDeploymentUploadHandler implements OperationStepHa
         try {
             validator.validate(operation);
 
-            InputStream is = getContentInputStream(context, operation);
-            try {
-                byte[] hash = contentRepository.addContent(is);
+            final File file = getContentFile(operation);
+            if (file != null) {
+                byte[] hash = contentRepository.addContent(file);
                 context.getResult().set(hash);
-            }
-            finally {
-                safeClose(is);
+            } else {
+                InputStream is = getContentInputStream(context, operation);
+                try {
+                    byte[] hash = contentRepository.addContent(is);
+                    context.getResult().set(hash);
+                }
+                finally {
+                    safeClose(is);
+                }
             }
         }
         catch (IOException e) {
@@ -69,6 +76,16 @@ public abstract class AbstractDeploymentUploadHandler implements OperationStepHa
         context.completeStep(OperationContext.RollbackHandler.NOOP_ROLLBACK_HANDLER);
     }
 
+    /**
+     * Gets the local file holding the content, if any, which allows the content to be added without streaming it.
+     *
+     * @param operation the operation
+     * @return the file, or {@code null} if the content must be read from {@link #getContentInputStream(OperationContext, ModelNode)}
+     */
+    protected File getContentFile(ModelNode operation) throws OperationFailedException {
+        return null;
+    }
+
     protected abstract InputStream getContentInputStream(OperationContext context, ModelNode operation) throws IOException, OperationFailedException;
 
     private static void safeClose(InputStream is) {
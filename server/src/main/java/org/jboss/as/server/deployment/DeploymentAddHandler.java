@@ -37,9 +37,11 @@ import static org.jboss.as.server.ServerMessages.MESSAGES;
 import static org.jboss.as.server.deployment.AbstractDeploymentHandler.asString;
 import static org.jboss.as.server.deployment.AbstractDeploymentHandler.createFailureException;
 import static org.jboss.as.server.deployment.AbstractDeploymentHandler.getInputStream;
+import static org.jboss.as.server.deployment.AbstractDeploymentHandler.getLocalFile;
 import static org.jboss.as.server.deployment.AbstractDeploymentHandler.hasValidContentAdditionParameterDefined;
 import static org.jboss.as.server.deployment.AbstractDeploymentHandler.validateOnePieceOfContent;
 
+import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
 import java.util.Locale;
@@ -185,16 +187,25 @@ public class DeploymentAddHandler implements OperationStepHandler, DescriptionPr
 
     DeploymentHandlerUtil.ContentItem addFromContentAdditionParameter(OperationContext context, ModelNode contentItemNode) throws OperationFailedException {
         byte[] hash;
-        InputStream in = getInputStream(context, contentItemNode);
-        try {
+        final File file = getLocalFile(contentItemNode);
+        if (file != null) {
             try {
-                hash = contentRepository.addContent(in);
+                hash = contentRepository.addContent(file);
             } catch (IOException e) {
                 throw createFailureException(e.toString());
             }
+        } else {
+            InputStream in = getInputStream(context, contentItemNode);
+            try {
+                try {
+                    hash = contentRepository.addContent(in);
+                } catch (IOException e) {
+                    throw createFailureException(e.toString());
+                }
 
-        } finally {
-            StreamUtils.safeClose(in);
+            } finally {
+                StreamUtils.safeClose(in);
+            }
         }
         contentItemNode.clear(); // AS7-1029
         contentItemNode.get(HASH).set(hash);
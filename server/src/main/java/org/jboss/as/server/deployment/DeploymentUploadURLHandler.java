@@ -28,6 +28,7 @@ import org.jboss.as.repository.ContentRepository;
 import org.jboss.as.server.ServerMessages;
 import org.jboss.dmr.ModelNode;
 
+import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
 import java.net.MalformedURLException;
@@ -60,6 +61,15 @@ public class DeploymentUploadURLHandler
         return DeploymentDescription.getUploadDeploymentURLOperation(locale);
     }
 
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    protected File getContentFile(ModelNode operation) throws OperationFailedException {
+        urlValidator.validate(operation);
+        return AbstractDeploymentHandler.getLocalFile(operation);
+    }
+
     /**
      * {@inheritDoc}
      */
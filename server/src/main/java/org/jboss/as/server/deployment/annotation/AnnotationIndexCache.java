@@ -0,0 +1,266 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2012, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.jboss.as.server.deployment.annotation;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.jboss.as.server.ServerLogger;
+import org.jboss.jandex.Index;
+import org.jboss.jandex.IndexReader;
+import org.jboss.jandex.IndexWriter;
+import org.jboss.vfs.VFSUtils;
+
+/**
+ * A persistent cache of the annotation indexes computed for resource roots, shared by all deployments.
+ * <p/>
+ * Indexes are stored under a directory, one file per index, named after a SHA-1 {@link Fingerprint} of the paths
+ * and contents of the class files which were indexed. Computing it is much cheaper than indexing the classes, and is
+ * done on the bytes which are then passed to the indexer, so a class file is read once whether the index is cached or
+ * not. A library jar which is deployed again, whether by a redeploy, in another deployment or after a restart, is
+ * therefore only indexed once.
+ * <p/>
+ * The total size of the cached indexes is bounded; once it is exceeded the least recently used indexes are
+ * deleted. Using an index touches its file, so the order survives a restart.
+ */
+public final class AnnotationIndexCache {
+
+    private static final String SUFFIX = ".idx";
+    private static final String TEMP_SUFFIX = ".tmp";
+    private static final char[] HEX = "0123456789abcdef".toCharArray();
+    /**
+     * Changes if the fingerprint changes meaning, so old entries are not matched.
+     */
+    private static final byte FINGERPRINT_VERSION = 2;
+
+    private final File directory;
+    private final long maxSize;
+    /**
+     * Cached entries and their sizes, in access order. Guarded by this.
+     */
+    private final LinkedHashMap<String, Long> entries = new LinkedHashMap<String, Long>(16, 0.75f, true);
+    private long size;
+
+    /**
+     * Creates a cache in the given directory, picking up the indexes stored there by a previous run.
+     *
+     * @param directory the directory to store the indexes in
+     * @param maxSize the maximum total size in bytes of the cached indexes
+     */
+    public AnnotationIndexCache(final File directory, final long maxSize) {
+        this.directory = directory;
+        this.maxSize = maxSize;
+        directory.mkdirs();
+        final File[] files = directory.listFiles();
+        if (files != null) {
+            Arrays.sort(files, new Comparator<File>() {
+                public int compare(final File o1, final File o2) {
+                    final long m1 = o1.lastModified();
+                    final long m2 = o2.lastModified();
+                    return m1 < m2 ? -1 : (m1 == m2 ? 0 : 1);
+                }
+            });
+            for (File file : files) {
+                final String name = file.getName();
+                if (name.endsWith(SUFFIX)) {
+                    final long length = file.length();
+                    entries.put(name.substring(0, name.length() - SUFFIX.length()), Long.valueOf(length));
+                    size += length;
+                } else if (name.endsWith(TEMP_SUFFIX)) {
+                    // left over by an interrupted store
+                    file.delete();
+                }
+            }
+            evict();
+        }
+    }
+
+    /**
+     * Computes the key of a group of class files from the relative path and the contents of each of them.
+     * Sizes and modification times are not enough, a class may be rebuilt with the same size within the
+     * granularity of the timestamp, and archives are often built with fixed entry timestamps.
+     * <p/>
+     * The class files have to be added in a stable order, e.g. sorted by path.
+     */
+    public static final class Fingerprint {
+        private final MessageDigest digest;
+        private final byte[] buffer = new byte[8];
+
+        public Fingerprint() {
+            try {
+                digest = MessageDigest.getInstance("SHA-1");
+            } catch (NoSuchAlgorithmException e) {
+                throw new IllegalStateException(e);
+            }
+            digest.update(FINGERPRINT_VERSION);
+        }
+
+        /**
+         * Adds a class file.
+         *
+         * @param path the path of the class file, relative to the resource root
+         * @param contents the contents of the class file
+         */
+        public void add(final String path, final byte[] contents) {
+            for (int i = 0; i < path.length(); i++) {
+                final char c = path.charAt(i);
+                digest.update((byte) (c >> 8));
+                digest.update((byte) c);
+            }
+            digest.update(contents);
+            // separates the contents of one class file from the path of the next
+            putLong(buffer, 0, contents.length);
+            digest.update(buffer, 0, 8);
+        }
+
+        /**
+         * @return the fingerprint of the class files added so far, as a hex string
+         */
+        public String getKey() {
+            final byte[] hash = digest.digest();
+            final char[] chars = new char[hash.length * 2];
+            for (int i = 0; i < hash.length; i++) {
+                chars[2 * i] = HEX[(hash[i] >> 4) & 0xf];
+                chars[2 * i + 1] = HEX[hash[i] & 0xf];
+            }
+            return new String(chars);
+        }
+    }
+
+    /**
+     * Gets a cached index.
+     *
+     * @param key the fingerprint of the resource root
+     * @return the index, or {@code null} if it is not cached
+     */
+    public Index get(final String key) {
+        synchronized (this) {
+            if (entries.get(key) == null) {
+                return null;
+            }
+        }
+        final File file = getFile(key);
+        FileInputStream in = null;
+        try {
+            in = new FileInputStream(file);
+            final Index index = new IndexReader(new BufferedInputStream(in)).read();
+            file.setLastModified(System.currentTimeMillis());
+            return index;
+        } catch (IOException e) {
+            ServerLogger.DEPLOYMENT_LOGGER.cannotReadCachedAnnotationIndex(file, e);
+            remove(key);
+            return null;
+        } finally {
+            VFSUtils.safeClose(in);
+        }
+    }
+
+    /**
+     * Stores an index in the cache, evicting the least recently used indexes if the cache becomes too large.
+     *
+     * @param key the fingerprint of the resource root
+     * @param index the index
+     */
+    public void put(final String key, final Index index) {
+        final File file = getFile(key);
+        // unique per thread, the same root may be indexed by two deployments at the same time
+        final File temp = new File(directory, key + "-" + Thread.currentThread().getId() + TEMP_SUFFIX);
+        FileOutputStream out = null;
+        try {
+            out = new FileOutputStream(temp);
+            final BufferedOutputStream output = new BufferedOutputStream(out);
+            new IndexWriter(output).write(index);
+            output.flush();
+            out.close();
+            out = null;
+            if (!temp.renameTo(file)) {
+                file.delete();
+                if (!temp.renameTo(file)) {
+                    throw new IOException("Could not rename " + temp + " to " + file);
+                }
+            }
+        } catch (IOException e) {
+            ServerLogger.DEPLOYMENT_LOGGER.cannotStoreCachedAnnotationIndex(file, e);
+            temp.delete();
+            return;
+        } finally {
+            VFSUtils.safeClose(out);
+        }
+        final long length = file.length();
+        synchronized (this) {
+            final Long previous = entries.put(key, Long.valueOf(length));
+            if (previous != null) {
+                size -= previous.longValue();
+            }
+            size += length;
+            evict();
+        }
+    }
+
+    synchronized long getSize() {
+        return size;
+    }
+
+    synchronized int getEntryCount() {
+        return entries.size();
+    }
+
+    private synchronized void remove(final String key) {
+        final Long length = entries.remove(key);
+        if (length != null) {
+            size -= length.longValue();
+            getFile(key).delete();
+        }
+    }
+
+    private synchronized void evict() {
+        final Iterator<Map.Entry<String, Long>> iterator = entries.entrySet().iterator();
+        // always keep the most recent index, even if it alone exceeds the limit
+        while (size > maxSize && entries.size() > 1) {
+            final Map.Entry<String, Long> eldest = iterator.next();
+            iterator.remove();
+            size -= eldest.getValue().longValue();
+            getFile(eldest.getKey()).delete();
+        }
+    }
+
+    private File getFile(final String key) {
+        return new File(directory, key + SUFFIX);
+    }
+
+    private static void putLong(final byte[] buffer, final int offset, final long value) {
+        for (int i = 0; i < 8; i++) {
+            buffer[offset + i] = (byte) (value >>> (56 - 8 * i));
+        }
+    }
+}
@@ -1,15 +1,32 @@
 package org.jboss.as.server.deployment.annotation;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
 import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
 
 import org.jboss.as.server.ServerLogger;
 import org.jboss.as.server.deployment.Attachments;
 import org.jboss.as.server.deployment.DeploymentUnitProcessingException;
 import org.jboss.as.server.deployment.module.ResourceRoot;
 import org.jboss.as.server.moduleservice.ModuleIndexBuilder;
+import org.jboss.jandex.AnnotationInstance;
+import org.jboss.jandex.ClassInfo;
+import org.jboss.jandex.DotName;
 import org.jboss.jandex.Index;
 import org.jboss.jandex.IndexReader;
 import org.jboss.jandex.Indexer;
@@ -24,21 +41,112 @@ import org.jboss.vfs.util.SuffixMatchFilter;
  */
 public class ResourceRootIndexer {
 
+    /**
+     * The number of class files indexed by a single task. Larger resource roots are split into several tasks
+     * whose partial indexes are merged. Each partial index is cached on its own.
+     */
+    static final int CHUNK_SIZE = 512;
+
     /**
      * Creates and attaches the annotation index to a resource root, if it has not already been attached
      */
     public static void indexResourceRoot(final ResourceRoot resourceRoot) throws DeploymentUnitProcessingException {
-        if (resourceRoot.getAttachment(Attachments.ANNOTATION_INDEX) != null) {
+        indexResourceRoot(resourceRoot, null);
+    }
+
+    /**
+     * Creates and attaches the annotation index to a resource root, if it has not already been attached.
+     * The index is taken from the cache if the resource root has been indexed before, and stored in it otherwise.
+     *
+     * @param resourceRoot the resource root
+     * @param cache the annotation index cache, or {@code null} to always index the resource root
+     */
+    public static void indexResourceRoot(final ResourceRoot resourceRoot, final AnnotationIndexCache cache) throws DeploymentUnitProcessingException {
+        indexResourceRoots(Collections.singletonList(resourceRoot), cache, null);
+    }
+
+    /**
+     * Creates and attaches the annotation indexes to resource roots which do not have one attached yet.
+     * <p/>
+     * The class files are indexed by tasks of at most {@link #CHUNK_SIZE} classes each, which are run by the
+     * given executor while the calling thread waits. Roots which provide their own index are handled by the calling
+     * thread. If a cache is given each task looks up and stores the index of its own classes.
+     *
+     * @param resourceRoots the resource roots
+     * @param cache the annotation index cache, or {@code null} to always index the resource roots
+     * @param executor the executor to index with, or {@code null} to index on the calling thread
+     */
+    public static void indexResourceRoots(final Collection<ResourceRoot> resourceRoots, final AnnotationIndexCache cache, final Executor executor) throws DeploymentUnitProcessingException {
+        final List<PendingRoot> pending = new ArrayList<PendingRoot>();
+        for (ResourceRoot resourceRoot : resourceRoots) {
+            final PendingRoot root = prepare(resourceRoot, cache);
+            if (root != null) {
+                pending.add(root);
+            }
+        }
+        if (pending.isEmpty()) {
             return;
         }
 
+        final List<FutureTask<Index>> tasks = new ArrayList<FutureTask<Index>>();
+        for (PendingRoot root : pending) {
+            final List<VirtualFile> classFiles = root.classFiles;
+            for (int start = 0; start < classFiles.size() || start == 0; start += CHUNK_SIZE) {
+                final FutureTask<Index> task = new FutureTask<Index>(new ChunkIndexer(root.virtualFile, classFiles.subList(start, Math.min(start + CHUNK_SIZE, classFiles.size())), cache));
+                root.chunks.add(task);
+                tasks.add(task);
+            }
+        }
+        try {
+            if (executor == null || tasks.size() == 1) {
+                for (FutureTask<Index> task : tasks) {
+                    task.run();
+                }
+            } else {
+                for (FutureTask<Index> task : tasks) {
+                    executor.execute(task);
+                }
+            }
+
+            for (PendingRoot root : pending) {
+                final List<Index> indexes = new ArrayList<Index>(root.chunks.size());
+                for (Future<Index> chunk : root.chunks) {
+                    indexes.add(chunk.get());
+                }
+                final Index index = indexes.size() == 1 ? indexes.get(0) : merge(indexes);
+                root.resourceRoot.putAttachment(Attachments.ANNOTATION_INDEX, index);
+                ServerLogger.DEPLOYMENT_LOGGER.tracef("Generated index for archive %s", root.virtualFile);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new DeploymentUnitProcessingException("Failed to index deployment root for annotations", e);
+        } catch (ExecutionException e) {
+            throw new DeploymentUnitProcessingException("Failed to index deployment root for annotations", e.getCause());
+        } finally {
+            // nothing left to wait for if we failed
+            for (FutureTask<Index> task : tasks) {
+                task.cancel(false);
+            }
+        }
+    }
+
+    /**
+     * Attaches the index of a resource root if it is provided by the root.
+     *
+     * @return the class files to index, or {@code null} if nothing is left to do for the resource root
+     */
+    private static PendingRoot prepare(final ResourceRoot resourceRoot, final AnnotationIndexCache cache) throws DeploymentUnitProcessingException {
+        if (resourceRoot.getAttachment(Attachments.ANNOTATION_INDEX) != null) {
+            return null;
+        }
+
         VirtualFile indexFile = resourceRoot.getRoot().getChild(ModuleIndexBuilder.INDEX_LOCATION);
         if (indexFile.exists()) {
             try {
                 IndexReader reader = new IndexReader(indexFile.openStream());
                 resourceRoot.putAttachment(Attachments.ANNOTATION_INDEX, reader.read());
                 ServerLogger.DEPLOYMENT_LOGGER.tracef("Found and read index at: %s", indexFile);
-                return;
+                return null;
             } catch (Exception e) {
                 ServerLogger.DEPLOYMENT_LOGGER.cannotLoadAnnotationIndex(indexFile.getPathName());
             }
@@ -47,7 +155,7 @@ public class ResourceRootIndexer {
         // if this flag is present and set to false then do not index the resource
         Boolean shouldIndexResource = resourceRoot.getAttachment(Attachments.INDEX_RESOURCE_ROOT);
         if (shouldIndexResource != null && !shouldIndexResource) {
-            return;
+            return null;
         }
 
         final List<String> indexIgnorePathList = resourceRoot.getAttachment(Attachments.INDEX_IGNORE_PATHS);
@@ -59,7 +167,6 @@ public class ResourceRootIndexer {
         }
 
         final VirtualFile virtualFile = resourceRoot.getRoot();
-        final Indexer indexer = new Indexer();
         try {
             final VisitorAttributes visitorAttributes = new VisitorAttributes();
             visitorAttributes.setLeavesOnly(true);
@@ -70,22 +177,142 @@ public class ResourceRootIndexer {
             });
 
             final List<VirtualFile> classChildren = virtualFile.getChildren(new SuffixMatchFilter(".class", visitorAttributes));
-            for (VirtualFile classFile : classChildren) {
+            if (cache != null) {
+                // the chunks, and so the cache keys, must not depend on the order in which the children are listed
+                Collections.sort(classChildren, new Comparator<VirtualFile>() {
+                    public int compare(final VirtualFile o1, final VirtualFile o2) {
+                        return o1.getPathNameRelativeTo(virtualFile).compareTo(o2.getPathNameRelativeTo(virtualFile));
+                    }
+                });
+            }
+            return new PendingRoot(resourceRoot, virtualFile, classChildren);
+        } catch (Throwable t) {
+            throw new DeploymentUnitProcessingException("Failed to index deployment root for annotations", t);
+        }
+    }
+
+    /**
+     * Merges the partial indexes of a single resource root. The classes of the partial indexes are disjoint,
+     * so the result is the same as indexing all of them with a single {@link Indexer}.
+     */
+    static Index merge(final List<Index> indexes) {
+        final Map<DotName, List<AnnotationInstance>> annotations = new HashMap<DotName, List<AnnotationInstance>>();
+        final Map<DotName, List<ClassInfo>> subclasses = new HashMap<DotName, List<ClassInfo>>();
+        final Map<DotName, List<ClassInfo>> implementors = new HashMap<DotName, List<ClassInfo>>();
+        final Map<DotName, ClassInfo> classes = new HashMap<DotName, ClassInfo>();
+        for (Index index : indexes) {
+            for (ClassInfo clazz : index.getKnownClasses()) {
+                classes.put(clazz.name(), clazz);
+                if (clazz.superName() != null) {
+                    add(subclasses, clazz.superName(), Collections.singletonList(clazz));
+                }
+                for (DotName iface : clazz.interfaces()) {
+                    add(implementors, iface, Collections.singletonList(clazz));
+                }
+                for (Map.Entry<DotName, List<AnnotationInstance>> entry : clazz.annotations().entrySet()) {
+                    add(annotations, entry.getKey(), entry.getValue());
+                }
+            }
+        }
+        return Index.create(annotations, subclasses, implementors, classes);
+    }
+
+    private static <T> void add(final Map<DotName, List<T>> map, final DotName key, final List<T> values) {
+        List<T> list = map.get(key);
+        if (list == null) {
+            list = new ArrayList<T>();
+            map.put(key, list);
+        }
+        list.addAll(values);
+    }
+
+    private static final class PendingRoot {
+        private final ResourceRoot resourceRoot;
+        private final VirtualFile virtualFile;
+        private final List<VirtualFile> classFiles;
+        private final List<Future<Index>> chunks = new ArrayList<Future<Index>>();
+
+        private PendingRoot(final ResourceRoot resourceRoot, final VirtualFile virtualFile, final List<VirtualFile> classFiles) {
+            this.resourceRoot = resourceRoot;
+            this.virtualFile = virtualFile;
+            this.classFiles = classFiles;
+        }
+    }
+
+    private static final class ChunkIndexer implements Callable<Index> {
+        private final VirtualFile virtualFile;
+        private final List<VirtualFile> classFiles;
+        private final AnnotationIndexCache cache;
+
+        private ChunkIndexer(final VirtualFile virtualFile, final List<VirtualFile> classFiles, final AnnotationIndexCache cache) {
+            this.virtualFile = virtualFile;
+            this.classFiles = classFiles;
+            this.cache = cache;
+        }
+
+        public Index call() {
+            // with a cache the class files are read up front, to compute the key from the bytes which are then indexed
+            final byte[][] contents = new byte[classFiles.size()][];
+            String key = null;
+            if (cache != null) {
+                final AnnotationIndexCache.Fingerprint fingerprint = new AnnotationIndexCache.Fingerprint();
+                boolean readable = true;
+                for (int i = 0; i < contents.length && readable; i++) {
+                    final VirtualFile classFile = classFiles.get(i);
+                    try {
+                        contents[i] = read(classFile);
+                        fingerprint.add(classFile.getPathNameRelativeTo(virtualFile), contents[i]);
+                    } catch (IOException e) {
+                        // reported when the class is indexed below; a chunk with an unreadable class is not cached
+                        readable = false;
+                    }
+                }
+                if (readable) {
+                    key = fingerprint.getKey();
+                    final Index cached = cache.get(key);
+                    if (cached != null) {
+                        ServerLogger.DEPLOYMENT_LOGGER.tracef("Found cached index %s for archive %s", key, virtualFile);
+                        return cached;
+                    }
+                }
+            }
+
+            final Indexer indexer = new Indexer();
+            boolean complete = true;
+            for (int i = 0; i < contents.length; i++) {
+                final VirtualFile classFile = classFiles.get(i);
                 InputStream inputStream = null;
                 try {
-                    inputStream = classFile.openStream();
+                    inputStream = contents[i] != null ? new ByteArrayInputStream(contents[i]) : classFile.openStream();
                     indexer.index(inputStream);
                 } catch (Exception e) {
                     ServerLogger.DEPLOYMENT_LOGGER.cannotIndexClass(classFile.getPathNameRelativeTo(virtualFile), virtualFile.getPathName(), e);
+                    complete = false;
                 } finally {
                     VFSUtils.safeClose(inputStream);
                 }
             }
             final Index index = indexer.complete();
-            resourceRoot.putAttachment(Attachments.ANNOTATION_INDEX, index);
-            ServerLogger.DEPLOYMENT_LOGGER.tracef("Generated index for archive %s", virtualFile);
-        } catch (Throwable t) {
-            throw new DeploymentUnitProcessingException("Failed to index deployment root for annotations", t);
+            // don't cache a partial index, so the failure is reported again next time
+            if (key != null && complete) {
+                cache.put(key, index);
+            }
+            return index;
+        }
+
+        private static byte[] read(final VirtualFile classFile) throws IOException {
+            final ByteArrayOutputStream bytes = new ByteArrayOutputStream((int) Math.max(classFile.getSize(), 32));
+            final InputStream in = classFile.openStream();
+            try {
+                final byte[] buffer = new byte[8192];
+                int read;
+                while ((read = in.read(buffer)) != -1) {
+                    bytes.write(buffer, 0, read);
+                }
+            } finally {
+                VFSUtils.safeClose(in);
+            }
+            return bytes.toByteArray();
         }
     }
-}
\ No newline at end of file
+}
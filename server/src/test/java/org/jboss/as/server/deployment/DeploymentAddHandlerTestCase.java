@@ -21,6 +21,7 @@
  */
 package org.jboss.as.server.deployment;
 
+import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
 
@@ -121,5 +122,10 @@ public class DeploymentAddHandlerTestCase {
         public byte[] addContent(InputStream stream) throws IOException {
             return null;
         }
+
+        @Override
+        public byte[] addContent(File file) throws IOException {
+            return null;
+        }
     };
 }
@@ -0,0 +1,140 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2012, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.jboss.as.server.deployment.annotation;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+
+import org.jboss.jandex.DotName;
+import org.jboss.jandex.Index;
+import org.jboss.jandex.Indexer;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Tests of the persistent {@link AnnotationIndexCache}.
+ */
+public class AnnotationIndexCacheTestCase {
+
+    private static final DotName TEST_CLASS = DotName.createSimple(AnnotationIndexCacheTestCase.class.getName());
+
+    private File directory;
+
+    @Before
+    public void setUp() throws IOException {
+        directory = File.createTempFile("annotation-index", "");
+        directory.delete();
+    }
+
+    @After
+    public void tearDown() {
+        final File[] files = directory.listFiles();
+        if (files != null) {
+            for (File file : files) {
+                file.delete();
+            }
+        }
+        directory.delete();
+    }
+
+    @Test
+    public void testStoredIndexIsReadBack() throws IOException {
+        final AnnotationIndexCache cache = new AnnotationIndexCache(directory, Long.MAX_VALUE);
+        assertNull(cache.get("a"));
+        cache.put("a", createIndex());
+
+        final Index index = cache.get("a");
+        assertNotNull(index);
+        assertNotNull(index.getClassByName(TEST_CLASS));
+
+        // a new cache over the same directory, as after a restart
+        final AnnotationIndexCache restarted = new AnnotationIndexCache(directory, Long.MAX_VALUE);
+        assertEquals(1, restarted.getEntryCount());
+        assertEquals(cache.getSize(), restarted.getSize());
+        assertNotNull(restarted.get("a").getClassByName(TEST_CLASS));
+    }
+
+    @Test
+    public void testLeastRecentlyUsedIndexIsEvicted() throws IOException {
+        final Index index = createIndex();
+        final AnnotationIndexCache sizing = new AnnotationIndexCache(directory, Long.MAX_VALUE);
+        sizing.put("size", index);
+        final long entrySize = sizing.getSize();
+        new File(directory, "size.idx").delete();
+
+        final AnnotationIndexCache cache = new AnnotationIndexCache(directory, entrySize * 2);
+        cache.put("a", index);
+        cache.put("b", index);
+        assertNotNull(cache.get("a"));
+        cache.put("c", index);
+
+        assertEquals(2, cache.getEntryCount());
+        assertNotNull(cache.get("a"));
+        assertNull(cache.get("b"));
+        assertNotNull(cache.get("c"));
+        assertEquals(2, directory.listFiles().length);
+    }
+
+    @Test
+    public void testFingerprintDependsOnClassContents() {
+        final String before = fingerprint("A.class", new byte[] { 1, 2, 3, 4 });
+        assertEquals(before, fingerprint("A.class", new byte[] { 1, 2, 3, 4 }));
+        // same size, different bytecode
+        assertFalse(before.equals(fingerprint("A.class", new byte[] { 1, 2, 3, 5 })));
+        assertFalse(before.equals(fingerprint("B.class", new byte[] { 1, 2, 3, 4 })));
+    }
+
+    @Test
+    public void testFingerprintSeparatesClassFiles() {
+        final AnnotationIndexCache.Fingerprint first = new AnnotationIndexCache.Fingerprint();
+        first.add("A.class", new byte[] { 1, 2 });
+        first.add("B.class", new byte[] { 3 });
+        final AnnotationIndexCache.Fingerprint second = new AnnotationIndexCache.Fingerprint();
+        second.add("A.class", new byte[] { 1 });
+        second.add("B.class", new byte[] { 2, 3 });
+        assertFalse(first.getKey().equals(second.getKey()));
+    }
+
+    private static String fingerprint(final String path, final byte[] contents) {
+        final AnnotationIndexCache.Fingerprint fingerprint = new AnnotationIndexCache.Fingerprint();
+        fingerprint.add(path, contents);
+        return fingerprint.getKey();
+    }
+
+    private static Index createIndex() throws IOException {
+        final Indexer indexer = new Indexer();
+        final InputStream in = AnnotationIndexCacheTestCase.class.getResourceAsStream(AnnotationIndexCacheTestCase.class.getSimpleName() + ".class");
+        try {
+            indexer.index(in);
+        } finally {
+            in.close();
+        }
+        return indexer.complete();
+    }
+}
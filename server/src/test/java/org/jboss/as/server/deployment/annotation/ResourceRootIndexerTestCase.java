@@ -0,0 +1,261 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2012, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.jboss.as.server.deployment.annotation;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import org.jboss.as.server.deployment.Attachments;
+import org.jboss.as.server.deployment.module.ResourceRoot;
+import org.jboss.jandex.AnnotationInstance;
+import org.jboss.jandex.ClassInfo;
+import org.jboss.jandex.DotName;
+import org.jboss.jandex.Index;
+import org.jboss.jandex.Indexer;
+import org.jboss.vfs.VFS;
+import org.jboss.vfs.VirtualFile;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Tests that indexing a resource root in chunks, and merging the partial indexes, gives the same index as
+ * indexing all of its classes at once.
+ */
+public class ResourceRootIndexerTestCase {
+
+    private static final String PACKAGE = "org/jboss/as/server/deployment/annotation/generated";
+    private static final DotName MARKER = DotName.createSimple("org.jboss.as.server.deployment.annotation.generated.Marker");
+    private static final DotName BASE = DotName.createSimple("org.jboss.as.server.deployment.annotation.generated.Base");
+    private static final DotName LISTENER = DotName.createSimple("org.jboss.as.server.deployment.annotation.generated.Listener");
+
+    private File directory;
+    private ExecutorService executor;
+
+    @Before
+    public void setUp() throws IOException {
+        directory = File.createTempFile("resource-root", "");
+        directory.delete();
+        directory.mkdirs();
+        executor = Executors.newFixedThreadPool(4);
+    }
+
+    @After
+    public void tearDown() {
+        executor.shutdownNow();
+        delete(directory);
+    }
+
+    @Test
+    public void testEmptyRoot() throws Exception {
+        final Index index = index(createRoot("empty", 0), null);
+        assertEquals(0, index.getKnownClasses().size());
+        assertEquals(0, index.getAnnotations(MARKER).size());
+    }
+
+    @Test
+    public void testSingleChunk() throws Exception {
+        assertIndexed(ResourceRootIndexer.CHUNK_SIZE, null);
+    }
+
+    @Test
+    public void testChunkBoundary() throws Exception {
+        assertIndexed(ResourceRootIndexer.CHUNK_SIZE + 1, null);
+    }
+
+    @Test
+    public void testAnnotationsAcrossManyChunks() throws Exception {
+        assertIndexed(ResourceRootIndexer.CHUNK_SIZE * 3 + 7, null);
+    }
+
+    @Test
+    public void testChunksAreCached() throws Exception {
+        final AnnotationIndexCache cache = new AnnotationIndexCache(new File(directory, "cache"), Long.MAX_VALUE);
+        final VirtualFile root = createRoot("cached", ResourceRootIndexer.CHUNK_SIZE + 1);
+        assertIndexed(root, ResourceRootIndexer.CHUNK_SIZE + 1, cache);
+        assertEquals(2, cache.getEntryCount());
+        // the second deployment of the same classes is built from the cached partial indexes
+        assertIndexed(root, ResourceRootIndexer.CHUNK_SIZE + 1, cache);
+        assertEquals(2, cache.getEntryCount());
+    }
+
+    @Test
+    public void testMerge() throws Exception {
+        final List<Index> partial = new ArrayList<Index>();
+        // the partial indexes of a root never share classes
+        partial.add(indexAtOnce(createRoot("a", 0, 3)));
+        partial.add(indexAtOnce(createRoot("b", 3, 2)));
+        final Index merged = ResourceRootIndexer.merge(partial);
+        assertEquals(5, merged.getKnownClasses().size());
+        assertEquals(5, merged.getAnnotations(MARKER).size());
+        assertEquals(5, merged.getKnownDirectSubclasses(BASE).size());
+        assertEquals(5, merged.getKnownDirectImplementors(LISTENER).size());
+        for (ClassInfo clazz : merged.getKnownClasses()) {
+            assertEquals(1, clazz.annotations().get(MARKER).size());
+        }
+    }
+
+    private void assertIndexed(final int classes, final AnnotationIndexCache cache) throws Exception {
+        assertIndexed(createRoot("root" + classes, classes), classes, cache);
+    }
+
+    /**
+     * Indexes the root with a single indexer and in parallel chunks, and compares the results
+     */
+    private void assertIndexed(final VirtualFile root, final int classes, final AnnotationIndexCache cache) throws Exception {
+        final Index whole = indexAtOnce(root);
+        final Index chunked = index(root, cache);
+        for (Index index : new Index[] { whole, chunked }) {
+            assertEquals(classes, index.getKnownClasses().size());
+            assertEquals(classes, index.getAnnotations(MARKER).size());
+            assertEquals(classes, index.getKnownDirectSubclasses(BASE).size());
+            assertEquals(classes, index.getKnownDirectImplementors(LISTENER).size());
+        }
+        assertEquals(annotatedClasses(whole), annotatedClasses(chunked));
+        for (int i = 0; i < classes; i++) {
+            assertNotNull(chunked.getClassByName(DotName.createSimple(className(i).replace('/', '.'))));
+        }
+    }
+
+    private Index index(final VirtualFile root, final AnnotationIndexCache cache) throws Exception {
+        final ResourceRoot resourceRoot = new ResourceRoot(root, null);
+        ResourceRootIndexer.indexResourceRoots(Collections.singletonList(resourceRoot), cache, executor);
+        final Index index = resourceRoot.getAttachment(Attachments.ANNOTATION_INDEX);
+        assertNotNull(index);
+        return index;
+    }
+
+    private static Index indexAtOnce(final VirtualFile root) throws IOException {
+        final Indexer indexer = new Indexer();
+        for (VirtualFile classFile : root.getChild(PACKAGE).getChildren()) {
+            final InputStream in = classFile.openStream();
+            try {
+                indexer.index(in);
+            } finally {
+                in.close();
+            }
+        }
+        return indexer.complete();
+    }
+
+    private static Set<String> annotatedClasses(final Index index) {
+        final Set<String> names = new HashSet<String>();
+        for (AnnotationInstance annotation : index.getAnnotations(MARKER)) {
+            names.add(((ClassInfo) annotation.target()).name().toString());
+        }
+        return names;
+    }
+
+    private VirtualFile createRoot(final String name, final int classes) throws IOException {
+        return createRoot(name, 0, classes);
+    }
+
+    private VirtualFile createRoot(final String name, final int first, final int classes) throws IOException {
+        final File root = new File(directory, name);
+        final File classDirectory = new File(root, PACKAGE);
+        classDirectory.mkdirs();
+        for (int i = first; i < first + classes; i++) {
+            writeClass(new File(root, className(i) + ".class"), className(i));
+        }
+        return VFS.getChild(root.getAbsolutePath());
+    }
+
+    private static String className(final int i) {
+        return PACKAGE + "/C" + i;
+    }
+
+    /**
+     * Writes a class file for <code>@Marker public class name extends Base implements Listener {}</code>, without
+     * constructor, which is all the indexer needs.
+     */
+    private static void writeClass(final File file, final String name) throws IOException {
+        final DataOutputStream out = new DataOutputStream(new FileOutputStream(file));
+        try {
+            out.writeInt(0xCAFEBABE);
+            out.writeShort(0);
+            out.writeShort(50);
+            // constant pool
+            out.writeShort(9);
+            writeUtf8(out, name);                                                   // 1
+            writeClassRef(out, 1);                                                  // 2
+            writeUtf8(out, BASE.toString().replace('.', '/'));                      // 3
+            writeClassRef(out, 3);                                                  // 4
+            writeUtf8(out, LISTENER.toString().replace('.', '/'));                  // 5
+            writeClassRef(out, 5);                                                  // 6
+            writeUtf8(out, "RuntimeVisibleAnnotations");                            // 7
+            writeUtf8(out, "L" + MARKER.toString().replace('.', '/') + ";");        // 8
+            // public super
+            out.writeShort(0x21);
+            out.writeShort(2);
+            out.writeShort(4);
+            // interfaces
+            out.writeShort(1);
+            out.writeShort(6);
+            // fields, methods
+            out.writeShort(0);
+            out.writeShort(0);
+            // attributes
+            out.writeShort(1);
+            out.writeShort(7);
+            out.writeInt(6);
+            out.writeShort(1);
+            out.writeShort(8);
+            out.writeShort(0);
+        } finally {
+            out.close();
+        }
+    }
+
+    private static void writeUtf8(final DataOutputStream out, final String value) throws IOException {
+        out.writeByte(1);
+        out.writeUTF(value);
+    }
+
+    private static void writeClassRef(final DataOutputStream out, final int nameIndex) throws IOException {
+        out.writeByte(7);
+        out.writeShort(nameIndex);
+    }
+
+    private static void delete(final File file) {
+        final File[] children = file.listFiles();
+        if (children != null) {
+            for (File child : children) {
+                delete(child);
+            }
+        }
+        file.delete();
+    }
+}
@@ -389,6 +389,11 @@ public class ServerControllerUnitTestCase {
             return null;
         }
 
+        @Override
+        public byte[] addContent(File file) throws IOException {
+            return null;
+        }
+
         @Override
         public VirtualFile getContent(byte[] hash) {
             return null;
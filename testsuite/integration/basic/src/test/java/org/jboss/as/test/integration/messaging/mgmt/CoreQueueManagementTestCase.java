@@ -126,7 +126,7 @@ public class CoreQueueManagementTestCase {
         producer.send(session.createMessage(ClientMessage.TEXT_TYPE, false));
         producer.send(session.createMessage(ClientMessage.TEXT_TYPE, false));
 
-        ModelNode result = execute(getQueueOperation("list-messages"), true);
+        ModelNode result = execute(getQueueOperation("list-messages"), true).get("messages");
         Assert.assertTrue(result.isDefined());
         Assert.assertEquals(2, result.asList().size());
 
@@ -135,6 +135,36 @@ public class CoreQueueManagementTestCase {
         Assert.assertEquals(2, result.asInt());
     }
 
+    @Test
+    public void testListMessagesPaged() throws Exception {
+
+        ClientProducer producer = session.createProducer(getQueueName());
+        for (int i = 0; i < 5; i++) {
+            producer.send(session.createMessage(ClientMessage.TEXT_TYPE, false));
+        }
+
+        ModelNode op = getQueueOperation("list-messages");
+        op.get("limit").set(2);
+        ModelNode result = execute(op, true);
+        Assert.assertEquals(2, result.get("messages").asList().size());
+        Assert.assertTrue(result.get("has-more").asBoolean());
+        Assert.assertEquals(2, result.get("next-offset").asInt());
+
+        op.get("offset").set(4);
+        result = execute(op, true);
+        Assert.assertEquals(1, result.get("messages").asList().size());
+        Assert.assertFalse(result.get("has-more").asBoolean());
+        Assert.assertFalse(result.hasDefined("next-offset"));
+
+        op.get("offset").set(5);
+        result = execute(op, true);
+        Assert.assertEquals(0, result.get("messages").asList().size());
+        Assert.assertFalse(result.get("has-more").asBoolean());
+
+        op.get("limit").set(0);
+        execute(op, false);
+    }
+
     @Test
     public void testMessageCounters() throws Exception {
 
@@ -224,7 +254,7 @@ public class CoreQueueManagementTestCase {
     }
 
     private long findMessageID() throws Exception {
-        final ModelNode result = execute(getQueueOperation("list-messages"), true);
+        final ModelNode result = execute(getQueueOperation("list-messages"), true).get("messages");
         return result.get(0).get("messageID").asLong();
     }
 
@@ -274,7 +304,7 @@ public class CoreQueueManagementTestCase {
         producer.send(session.createMessage(ClientMessage.TEXT_TYPE, false));
 
         Set<Integer> priorities = new HashSet<Integer>();
-        ModelNode result = execute(getQueueOperation("list-messages"), true);
+        ModelNode result = execute(getQueueOperation("list-messages"), true).get("messages");
         Assert.assertEquals(3, result.asInt());
         for (ModelNode node : result.asList()) {
             priorities.add(node.get("priority").asInt());
@@ -296,7 +326,7 @@ public class CoreQueueManagementTestCase {
         Assert.assertTrue(result.isDefined());
         Assert.assertTrue(result.asBoolean());
 
-        result = execute(getQueueOperation("list-messages"), true);
+        result = execute(getQueueOperation("list-messages"), true).get("messages");
         boolean found = false;
         for (ModelNode node : result.asList()) {
             if (id == node.get("messageID").asLong()) {
@@ -314,7 +344,7 @@ public class CoreQueueManagementTestCase {
         Assert.assertTrue(result.isDefined());
         Assert.assertTrue(result.asInt() > 1 && result.asInt() < 4);
 
-        result = execute(getQueueOperation("list-messages"), true);
+        result = execute(getQueueOperation("list-messages"), true).get("messages");
         for (ModelNode node : result.asList()) {
             Assert.assertEquals(newPriority, node.get("priority").asInt());
         }
@@ -154,7 +154,7 @@ public class JMSQueueManagementTestCase {
         producer.send(session.createTextMessage("A"));
         producer.send(session.createTextMessage("B"));
 
-        ModelNode result = execute(getQueueOperation("list-messages"), true);
+        ModelNode result = execute(getQueueOperation("list-messages"), true).get("messages");
         Assert.assertTrue(result.isDefined());
         Assert.assertEquals(2, result.asList().size());
 
@@ -296,7 +296,7 @@ public class JMSQueueManagementTestCase {
         producer.send(session.createTextMessage("C"));
 
         Set<Integer> priorities = new HashSet<Integer>();
-        ModelNode result = execute(getQueueOperation("list-messages"), true);
+        ModelNode result = execute(getQueueOperation("list-messages"), true).get("messages");
         Assert.assertEquals(3, result.asInt());
         for (ModelNode node : result.asList()) {
             priorities.add(node.get("JMSPriority").asInt());
@@ -317,7 +317,7 @@ public class JMSQueueManagementTestCase {
         Assert.assertTrue(result.isDefined());
         Assert.assertTrue(result.asBoolean());
 
-        result = execute(getQueueOperation("list-messages"), true);
+        result = execute(getQueueOperation("list-messages"), true).get("messages");
         boolean found = false;
         for (ModelNode node : result.asList()) {
             if (msgA.getJMSMessageID().equals(node.get("JMSMessageID").asString())) {
@@ -335,7 +335,7 @@ public class JMSQueueManagementTestCase {
         Assert.assertTrue(result.isDefined());
         Assert.assertTrue(result.asInt() > 1 && result.asInt() < 4);
 
-        result = execute(getQueueOperation("list-messages"), true);
+        result = execute(getQueueOperation("list-messages"), true).get("messages");
         for (ModelNode node : result.asList()) {
             Assert.assertEquals(newPriority, node.get("JMSPriority").asInt());
         }
@@ -786,6 +786,11 @@ public class ParseAndMarshalModelsTestCase {
             return null;
         }
 
+        @Override
+        public byte[] addContent(File file) throws IOException {
+            return null;
+        }
+
         @Override
         public VirtualFile getContent(byte[] hash) {
             return null;
@@ -695,6 +695,11 @@ public class ParseAndMarshalModelsTestCase {
             return null;
         }
 
+        @Override
+        public byte[] addContent(File file) throws IOException {
+            return null;
+        }
+
         @Override
         public VirtualFile getContent(byte[] hash) {
             throw new RuntimeException("NYI: org.jboss.as.test.surefire.xml.ParseAndMarshalModelsTestCase.MockContentRepository.getContent");
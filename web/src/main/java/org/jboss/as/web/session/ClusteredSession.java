@@ -1058,6 +1058,15 @@ public abstract class ClusteredSession<O extends OutgoingDistributableSessionDat
         }
     }
 
+    /**
+     * Marks the session for full replication again, since the batch within which it was last replicated was rolled back.
+     */
+    public synchronized void replicationRolledBack() {
+        sessionAttributesDirty = true;
+        sessionMetadataDirty = true;
+        requireFullReplication();
+    }
+
     /**
      * Remove myself from the distributed cache.
      */
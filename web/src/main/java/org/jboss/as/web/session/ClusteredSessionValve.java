@@ -26,6 +26,7 @@ import static org.jboss.as.web.WebMessages.MESSAGES;
 import java.io.IOException;
 import java.util.Iterator;
 import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
 
 import javax.servlet.ServletException;
 
@@ -38,12 +39,17 @@ import org.apache.catalina.connector.Response;
 import org.apache.catalina.util.LifecycleSupport;
 import org.apache.catalina.valves.ValveBase;
 import org.jboss.as.clustering.web.BatchingManager;
+import org.jboss.as.clustering.web.OutgoingDistributableSessionData;
 import org.jboss.servlet.http.HttpEvent;
 
 /**
  * This Valve detects all sessions that were used in a request. All sessions are given to a snapshot manager that handles the
  * distribution of modified sessions.
  * <p/>
+ * If the read-only fast path is enabled, sessions which the request neither modified nor needs to replicate the timestamp
+ * of are not handed to the snapshot manager at all, so such requests do not contend for the session's monitor in
+ * {@link SessionManager#storeSession(org.apache.catalina.Session)}.
+ * <p/>
  * TOMCAT 4.1.12 UPDATE: Added findLifecycleListeners() to comply with the latest Lifecycle interface.
  *
  * @author Thomas Peuss <jboss@peuss.de>
@@ -61,14 +67,36 @@ public class ClusteredSessionValve extends ValveBase implements Lifecycle {
 
     private final BatchingManager tm;
 
+    private final boolean readOnlyFastPath;
+
+    // Number of sessions which were not snapshot, since the request did not modify them
+    private final AtomicLong readOnlyCount = new AtomicLong();
+
     /**
      * Create a new Valve.
      */
     public ClusteredSessionValve(Manager manager, BatchingManager tm) {
+        this(manager, tm, false);
+    }
+
+    /**
+     * Create a new Valve.
+     *
+     * @param readOnlyFastPath whether to skip the snapshot of sessions which were not modified by the request
+     */
+    public ClusteredSessionValve(Manager manager, BatchingManager tm, boolean readOnlyFastPath) {
         assert manager != null : MESSAGES.nullManager();
 
         this.manager = manager;
         this.tm = tm;
+        this.readOnlyFastPath = readOnlyFastPath;
+    }
+
+    /**
+     * Returns the number of sessions which were not handed to the snapshot manager, since the request did not modify them.
+     */
+    public long getReadOnlyCount() {
+        return this.readOnlyCount.get();
     }
 
     /**
@@ -130,7 +158,7 @@ public class ClusteredSessionValve extends ValveBase implements Lifecycle {
                 SessionReplicationContext ctx = SessionReplicationContext.exitWebapp();
 
                 if (ctx.getSoleSnapshotManager() != null) {
-                    ctx.getSoleSnapshotManager().snapshot(ctx.getSoleSession());
+                    snapshot(ctx.getSoleSnapshotManager(), ctx.getSoleSession());
                 } else {
                     // Cross-context request touched multiple sessions;
                     // need to replicate them all
@@ -209,9 +237,20 @@ public class ClusteredSessionValve extends ValveBase implements Lifecycle {
         if (sessions != null && sessions.size() > 0) {
             for (Iterator it = sessions.entrySet().iterator(); it.hasNext();) {
                 Map.Entry entry = (Map.Entry) it.next();
-                ((SnapshotManager) entry.getValue()).snapshot((ClusteredSession) entry.getKey());
+                snapshot((SnapshotManager) entry.getValue(), (ClusteredSession) entry.getKey());
             }
         }
     }
 
+    private void snapshot(SnapshotManager snapshotManager, ClusteredSession<? extends OutgoingDistributableSessionData> session) {
+        // The request thread itself marks the session dirty, so this check cannot miss a modification made by this request.
+        // An access timestamp which is not yet due for replication is replicated by a later request, or along with the
+        // next modification.
+        if (this.readOnlyFastPath && (session != null) && !session.isSessionDirty() && !session.getMustReplicateTimestamp()) {
+            this.readOnlyCount.incrementAndGet();
+            return;
+        }
+        snapshotManager.snapshot(session);
+    }
+
 }
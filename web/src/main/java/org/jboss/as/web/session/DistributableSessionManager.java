@@ -29,13 +29,10 @@ import java.util.AbstractMap;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
-import java.util.HashSet;
 import java.util.Iterator;
 import java.util.List;
-import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Random;
-import java.util.Set;
 import java.util.TreeSet;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
@@ -65,6 +62,8 @@ import org.jboss.as.clustering.web.LocalDistributableSessionManager;
 import org.jboss.as.clustering.web.OutgoingAttributeGranularitySessionData;
 import org.jboss.as.clustering.web.OutgoingDistributableSessionData;
 import org.jboss.as.clustering.web.OutgoingSessionGranularitySessionData;
+import org.jboss.as.clustering.web.SessionMetadataVisitor;
+import org.jboss.as.clustering.web.SessionReplicationStatistics;
 import org.jboss.as.web.WebLogger;
 import org.jboss.as.web.session.notification.ClusteredSessionNotificationCapability;
 import org.jboss.as.web.session.notification.ClusteredSessionNotificationCause;
@@ -87,12 +86,19 @@ public class DistributableSessionManager<O extends OutgoingDistributableSessionD
 
     private static final int TOTAL_PERMITS = Integer.MAX_VALUE;
 
+    /**
+     * Context parameter which enables the read-only fast path of the {@link ClusteredSessionValve} for a web application.
+     * Defaults to the value of the "jboss.web.clustered.session.read-only-fast-path" system property.
+     */
+    public static final String READ_ONLY_FAST_PATH = "org.jboss.as.web.session.READ_ONLY_FAST_PATH";
+
     private final String name;
     private final String hostName;
     private final String contextName;
     private final DistributedCacheManager<O> distributedCacheManager;
 
-    private SnapshotManager snapshotManager;
+    private volatile SnapshotManager snapshotManager;
+    private volatile ClusteredSessionValve sessionValve;
 
     private final ReplicationConfig replicationConfig;
     private final ClassResolver resolver;
@@ -124,7 +130,7 @@ public class DistributableSessionManager<O extends OutgoingDistributableSessionD
     private volatile int maxUnreplicatedInterval;
 
     /** Id/timestamp of sessions in distributedcache that we haven't loaded locally */
-    private final Map<String, OwnedSessionUpdate> unloadedSessions = new ConcurrentHashMap<String, OwnedSessionUpdate>();
+    private final UnloadedSessionIndex unloadedSessions = new UnloadedSessionIndex();
     /** Sessions that have been created but not yet loaded. Used to ensure concurrent threads trying to load the same session */
     private final ConcurrentMap<String, ClusteredSession<O>> embryonicSessions = new ConcurrentHashMap<String, ClusteredSession<O>>();
 
@@ -250,9 +256,23 @@ public class DistributableSessionManager<O extends OutgoingDistributableSessionD
         }
 
         // Add clustered session valve
-        ClusteredSessionValve valve = new ClusteredSessionValve(this, null);
+        ClusteredSessionValve valve = new ClusteredSessionValve(this, null, this.isReadOnlyFastPathEnabled());
         log.debug("Adding ClusteredSessionValve");
         this.installContextValve(valve);
+        this.sessionValve = valve;
+    }
+
+    private boolean isReadOnlyFastPathEnabled() {
+        String value = (this.container instanceof Context) ? ((Context) this.container).findParameter(READ_ONLY_FAST_PATH) : null;
+        if (value == null) {
+            value = AccessController.doPrivileged(new PrivilegedAction<String>() {
+                @Override
+                public String run() {
+                    return System.getProperty("jboss.web.clustered.session.read-only-fast-path", "false");
+                }
+            });
+        }
+        return Boolean.parseBoolean(value.trim());
     }
 
     private void installContextValve(Valve valve) {
@@ -270,7 +290,7 @@ public class DistributableSessionManager<O extends OutgoingDistributableSessionD
             case INTERVAL: {
                 int interval = this.getSnapshotInterval();
                 if (interval > 0) {
-                    return new IntervalSnapshotManager(this, ctxPath, interval);
+                    return new IntervalSnapshotManager(this, ctxPath, interval, this.distributedCacheManager.getBatchingManager());
                 }
                 WebLogger.WEB_SESSION_LOGGER.invalidSnapshotInterval();
             }
@@ -288,63 +308,47 @@ public class DistributableSessionManager<O extends OutgoingDistributableSessionD
      * lastAccessedTime and their maxInactiveInterval. Passivates overage or excess sessions.
      */
     protected void initializeUnloadedSessions() {
-        Map<String, String> sessions = this.distributedCacheManager.getSessionIds();
-        if (sessions != null) {
-            boolean passivate = isPassivationEnabled();
+        final int maxInactive = getMaxInactiveInterval();
+        // Stream the metadata of the sessions into the index, rather than reading each session separately
+        this.distributedCacheManager.visitSessions(new SessionMetadataVisitor() {
+            @Override
+            public void visit(String realId, String owner, long timestamp, DistributableSessionMetadata metadata) {
+                // If the metadata could not be read, e.g. due to a lock conflict if the session is being
+                // updated remotely, use default values for timestamp and maxInactive
+                long lastMod = timestamp == -1 ? System.currentTimeMillis() : timestamp;
+                int maxLife = metadata == null ? maxInactive : metadata.getMaxInactiveInterval();
+
+                unloadedSessions.put(realId, owner, lastMod, maxLife, false);
+            }
+        });
 
-            long passivationMax = passivationMaxIdleTime * 1000L;
-            long passivationMin = passivationMinIdleTime * 1000L;
+        boolean passivate = isPassivationEnabled();
 
-            for (Map.Entry<String, String> entry : sessions.entrySet()) {
-                String realId = entry.getKey();
-                String owner = entry.getValue();
+        long passivationMax = passivationMaxIdleTime * 1000L;
+        long passivationMin = passivationMinIdleTime * 1000L;
 
-                long ts = -1;
-                DistributableSessionMetadata md = null;
+        if (passivate) {
+            UnloadedSessionIndex.Cursor cursor = unloadedSessions.cursor();
+            while (cursor.next()) {
+                String realId = cursor.getId();
                 try {
-                    IncomingDistributableSessionData sessionData = this.distributedCacheManager.getSessionData(realId, owner, false);
-                    if (sessionData == null) {
-                        log.debugf("Metadata unavailable for unloaded session %s", realId);
-                        continue;
+                    long elapsed = System.currentTimeMillis() - cursor.getUpdateTime();
+                    // if maxIdle time configured, means that we need to passivate sessions that have
+                    // exceeded the max allowed idle time
+                    if (passivationMax >= 0 && elapsed > passivationMax) {
+                        log.tracef("Elapsed time of %d for session %s exceeds max of %d; passivating", elapsed, realId, passivationMax);
+                        processUnloadedSessionPassivation(realId, cursor.getOwner());
                     }
-                    ts = sessionData.getTimestamp();
-                    md = sessionData.getMetadata();
-                } catch (Exception e) {
-                    // most likely a lock conflict if the session is being updated remotely;
-                    // ignore it and use default values for timestamp and maxInactive
-                    log.debug("Problem reading metadata for session " + realId + " -- " + e.toString(), e);
-                }
-
-                long lastMod = ts == -1 ? System.currentTimeMillis() : ts;
-                int maxLife = md == null ? getMaxInactiveInterval() : md.getMaxInactiveInterval();
-
-                OwnedSessionUpdate osu = new OwnedSessionUpdate(owner, lastMod, maxLife, false);
-                unloadedSessions.put(realId, osu);
-            }
-
-            if (passivate) {
-                for (Map.Entry<String, OwnedSessionUpdate> entry : unloadedSessions.entrySet()) {
-                    String realId = entry.getKey();
-                    OwnedSessionUpdate osu = entry.getValue();
-                    try {
-                        long elapsed = System.currentTimeMillis() - osu.getUpdateTime();
-                        // if maxIdle time configured, means that we need to passivate sessions that have
-                        // exceeded the max allowed idle time
-                        if (passivationMax >= 0 && elapsed > passivationMax) {
-                            log.tracef("Elapsed time of %d for session %s exceeds max of %d; passivating", elapsed, realId, passivationMax);
-                            processUnloadedSessionPassivation(realId, osu);
-                        }
-                        // If the session didn't exceed the passivationMaxIdleTime_, see
-                        // if the number of sessions managed by this manager greater than the max allowed
-                        // active sessions, passivate the session if it exceed passivationMinIdleTime_
-                        else if ((maxActiveAllowed > 0) && (passivationMin >= 0) && (calcActiveSessions() > maxActiveAllowed) && (elapsed >= passivationMin)) {
-                            log.tracef("Elapsed time of %d for session %s exceeds min of %d; passivating", elapsed, realId, passivationMin);
-                            processUnloadedSessionPassivation(realId, osu);
-                        }
-                    } catch (Exception e) {
-                        // most likely a lock conflict if the session is being updated remotely; ignore it
-                        log.debugf("Problem passivating session %s -- %s", realId, e);
+                    // If the session didn't exceed the passivationMaxIdleTime_, see
+                    // if the number of sessions managed by this manager greater than the max allowed
+                    // active sessions, passivate the session if it exceed passivationMinIdleTime_
+                    else if ((maxActiveAllowed > 0) && (passivationMin >= 0) && (calcActiveSessions() > maxActiveAllowed) && (elapsed >= passivationMin)) {
+                        log.tracef("Elapsed time of %d for session %s exceeds min of %d; passivating", elapsed, realId, passivationMin);
+                        processUnloadedSessionPassivation(realId, cursor.getOwner());
                     }
+                } catch (Exception e) {
+                    // most likely a lock conflict if the session is being updated remotely; ignore it
+                    log.debugf("Problem passivating session %s -- %s", realId, e);
                 }
             }
         }
@@ -355,11 +359,11 @@ public class DistributableSessionManager<O extends OutgoingDistributableSessionD
      *
      * @param realId the session id, minus any jvmRoute
      */
-    private void processUnloadedSessionPassivation(String realId, OwnedSessionUpdate osu) {
+    private void processUnloadedSessionPassivation(String realId, String owner) {
         log.tracef("Passivating session with id: %s", realId);
 
-        this.distributedCacheManager.evictSession(realId, osu.getOwner());
-        osu.setPassivated(true);
+        this.distributedCacheManager.evictSession(realId, owner);
+        unloadedSessions.setPassivated(realId);
         sessionPassivated();
     }
 
@@ -492,16 +496,14 @@ public class DistributableSessionManager<O extends OutgoingDistributableSessionD
             }
         }
 
-        Set<Map.Entry<String, OwnedSessionUpdate>> unloaded = unloadedSessions.entrySet();
-        for (Iterator<Map.Entry<String, OwnedSessionUpdate>> it = unloaded.iterator(); it.hasNext();) {
-            Map.Entry<String, OwnedSessionUpdate> entry = it.next();
-            String realId = entry.getKey();
+        UnloadedSessionIndex.Cursor cursor = unloadedSessions.cursor();
+        while (cursor.next()) {
+            String realId = cursor.getId();
             try {
                 if (passivation) {
-                    OwnedSessionUpdate osu = entry.getValue();
                     // Ignore the marker entries for our passivated sessions
-                    if (!osu.isPassivated()) {
-                        this.distributedCacheManager.evictSession(realId, osu.getOwner());
+                    if (!cursor.isPassivated()) {
+                        this.distributedCacheManager.evictSession(realId, cursor.getOwner());
                     }
                 } else {
                     this.distributedCacheManager.removeSessionLocal(realId);
@@ -510,7 +512,7 @@ public class DistributableSessionManager<O extends OutgoingDistributableSessionD
                 // Not as big a problem; we don't own the session
                 log.debugf("Problem %s session %s -- %s", passivation ? "evicting" : "removing", realId, e);
             }
-            it.remove();
+            unloadedSessions.remove(realId);
         }
     }
 
@@ -534,8 +536,7 @@ public class DistributableSessionManager<O extends OutgoingDistributableSessionD
 
                 // Put the session in the unloadedSessions map. This will
                 // expose the session to regular invalidation.
-                Object obj = unloadedSessions.put(realId, new OwnedSessionUpdate(null, session.getLastAccessedTimeInternal(), session.getMaxInactiveInterval(), true));
-                if (obj == null) {
+                if (unloadedSessions.put(realId, null, session.getLastAccessedTimeInternal(), session.getMaxInactiveInterval(), true)) {
                     log.tracef("New session %s added to unloaded session map", realId);
                 } else {
                     log.tracef("Updated timestamp for unloaded session %s", realId);
@@ -732,7 +733,7 @@ public class DistributableSessionManager<O extends OutgoingDistributableSessionD
                     // Need to load all the unloaded sessions
                     if (unloadedSessions.size() > 0) {
                         // Make a thread-safe copy of the new id list to work with
-                        Set<String> ids = new HashSet<String>(unloadedSessions.keySet());
+                        List<String> ids = unloadedSessions.ids();
 
                         log.tracef("findSessions: loading sessions from distributed cache: %s", ids);
 
@@ -1012,6 +1013,54 @@ public class DistributableSessionManager<O extends OutgoingDistributableSessionD
         return this.passivationMinIdleTime;
     }
 
+    @Override
+    public long getFullReplicationCount() {
+        SessionReplicationStatistics statistics = this.distributedCacheManager.getReplicationStatistics();
+        return (statistics != null) ? statistics.getFullReplicationCount() : -1;
+    }
+
+    @Override
+    public long getDeltaReplicationCount() {
+        SessionReplicationStatistics statistics = this.distributedCacheManager.getReplicationStatistics();
+        return (statistics != null) ? statistics.getDeltaReplicationCount() : -1;
+    }
+
+    @Override
+    public long getMarshalledAttributeBytes() {
+        SessionReplicationStatistics statistics = this.distributedCacheManager.getReplicationStatistics();
+        return (statistics != null) ? statistics.getMarshalledBytes() : -1;
+    }
+
+    @Override
+    public long getReplicatedAttributeBytes() {
+        SessionReplicationStatistics statistics = this.distributedCacheManager.getReplicationStatistics();
+        return (statistics != null) ? statistics.getReplicatedBytes() : -1;
+    }
+
+    @Override
+    public int getReplicationQueueDepth() {
+        SnapshotManager manager = this.snapshotManager;
+        return (manager instanceof IntervalSnapshotManager) ? ((IntervalSnapshotManager) manager).getQueueDepth() : 0;
+    }
+
+    @Override
+    public long getCoalescedReplicationCount() {
+        SnapshotManager manager = this.snapshotManager;
+        return (manager instanceof IntervalSnapshotManager) ? ((IntervalSnapshotManager) manager).getCoalescedCount() : 0;
+    }
+
+    @Override
+    public long getThrottledReplicationCount() {
+        SnapshotManager manager = this.snapshotManager;
+        return (manager instanceof IntervalSnapshotManager) ? ((IntervalSnapshotManager) manager).getThrottledCount() : 0;
+    }
+
+    @Override
+    public long getReadOnlyRequestCount() {
+        ClusteredSessionValve valve = this.sessionValve;
+        return (valve != null) ? valve.getReadOnlyCount() : 0;
+    }
+
     @Override
     public int getMaxUnreplicatedInterval() {
         return this.maxUnreplicatedInterval;
@@ -1067,7 +1116,7 @@ public class DistributableSessionManager<O extends OutgoingDistributableSessionD
         if (session == null) {
             // We weren't managing the session anyway. But remove it
             // from the list of cached sessions we haven't loaded
-            if (unloadedSessions.remove(realId) != null) {
+            if (unloadedSessions.remove(realId)) {
                 log.tracef("Removed entry for session %s from unloaded session map", realId);
             }
 
@@ -1142,8 +1191,7 @@ public class DistributableSessionManager<O extends OutgoingDistributableSessionD
         } else {
             int maxLife = metadata == null ? getMaxInactiveInterval() : metadata.getMaxInactiveInterval();
 
-            Object existing = unloadedSessions.put(realId, new OwnedSessionUpdate(dataOwner, timestamp, maxLife, false));
-            if (existing == null) {
+            if (unloadedSessions.put(realId, dataOwner, timestamp, maxLife, false)) {
                 calcActiveSessions();
                 log.tracef("New session %s added to unloaded session map", realId);
             } else {
@@ -1247,20 +1295,20 @@ public class DistributableSessionManager<O extends OutgoingDistributableSessionD
             // and permanently losing part of its node structure in JBoss Cache.
             long maxUnrep = maxUnreplicatedInterval < 0 ? 60 : maxUnreplicatedInterval;
 
-            for (Map.Entry<String, OwnedSessionUpdate> entry : this.unloadedSessions.entrySet()) {
+            UnloadedSessionIndex.Cursor cursor = this.unloadedSessions.cursor();
+            while (cursor.next()) {
                 if (!this.started) return;
 
-                String realId = entry.getKey();
-                OwnedSessionUpdate osu = entry.getValue();
+                String realId = cursor.getId();
                 boolean likelyExpired = false;
 
                 long now = System.currentTimeMillis();
-                long elapsed = (now - osu.getUpdateTime());
+                long elapsed = (now - cursor.getUpdateTime());
                 try {
-                    likelyExpired = expire && osu.getMaxInactive() >= 1 && elapsed >= (osu.getMaxInactive() + maxUnrep) * 1000L;
+                    likelyExpired = expire && cursor.getMaxInactive() >= 1 && elapsed >= (cursor.getMaxInactive() + maxUnrep) * 1000L;
                     if (likelyExpired) {
                         // if (osu.passivated && osu.owner == null)
-                        if (osu.isPassivated()) {
+                        if (cursor.isPassivated()) {
                             // Passivated session needs to be expired. A call to
                             // findSession will bring it out of passivation
                             Session session = findSession(realId);
@@ -1273,14 +1321,14 @@ public class DistributableSessionManager<O extends OutgoingDistributableSessionD
                         // If we get here either !osu.passivated, or we don't own
                         // the session or the session couldn't be reactivated (invalidated by user).
                         // Either way, do a cleanup
-                        this.distributedCacheManager.removeSessionLocal(realId, osu.getOwner());
+                        this.distributedCacheManager.removeSessionLocal(realId, cursor.getOwner());
                         unloadedSessions.remove(realId);
                         this.getReplicationStatistics().removeStats(realId);
 
-                    } else if (passivate && !osu.isPassivated()) {
+                    } else if (passivate && !cursor.isPassivated()) {
                         // we now have a valid session; store it so we can check later
                         // if we need to passivate it
-                        passivationChecks.add(new PassivationCheck(realId, osu));
+                        passivationChecks.add(new PassivationCheck(realId, cursor.toUpdate()));
                     }
                 } catch (Exception e) {
                     // JBAS-7397 Don't try forever
@@ -1375,8 +1423,7 @@ public class DistributableSessionManager<O extends OutgoingDistributableSessionD
                             session = embryo;
                         }
 
-                        OwnedSessionUpdate osu = unloadedSessions.get(realId);
-                        passivated = (osu != null && osu.isPassivated());
+                        passivated = unloadedSessions.isPassivated(realId);
                     }
 
                     synchronized (session) {
@@ -1571,7 +1618,7 @@ public class DistributableSessionManager<O extends OutgoingDistributableSessionD
             if (osu == null) {
                 DistributableSessionManager.this.processSessionPassivation(realId);
             } else {
-                DistributableSessionManager.this.processUnloadedSessionPassivation(realId, osu);
+                DistributableSessionManager.this.processUnloadedSessionPassivation(realId, osu.getOwner());
             }
         }
 
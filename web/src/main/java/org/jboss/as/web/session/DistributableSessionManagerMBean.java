@@ -183,6 +183,60 @@ public interface DistributableSessionManagerMBean extends SessionManagerMBean {
      */
     long getPassivationMinIdleTime();
 
+    /**
+     * Gets the number of times the complete attribute state of a session was replicated.
+     *
+     * @return the number of replications, or <code>-1</code> if the replication mode does not track replication statistics
+     */
+    long getFullReplicationCount();
+
+    /**
+     * Gets the number of times only the difference to the previously replicated attribute state of a session was replicated.
+     *
+     * @return the number of replications, or <code>-1</code> if the replication mode does not track replication statistics
+     */
+    long getDeltaReplicationCount();
+
+    /**
+     * Gets the total size of the marshalled session attribute state, i.e. the number of bytes that would have been replicated
+     * without delta replication.
+     *
+     * @return the number of bytes, or <code>-1</code> if the replication mode does not track replication statistics
+     */
+    long getMarshalledAttributeBytes();
+
+    /**
+     * Gets the total number of bytes of session attribute state replicated by this manager.
+     *
+     * @return the number of bytes, or <code>-1</code> if the replication mode does not track replication statistics
+     */
+    long getReplicatedAttributeBytes();
+
+    /**
+     * Gets the number of modified sessions awaiting replication if "interval" snapshot mode is used.
+     *
+     * @return the number of sessions, always <code>0</code> in "instant" snapshot mode
+     */
+    int getReplicationQueueDepth();
+
+    /**
+     * Gets the number of session modifications which were coalesced with an already pending replication of the same session
+     * if "interval" snapshot mode is used.
+     */
+    long getCoalescedReplicationCount();
+
+    /**
+     * Gets the number of sessions which were replicated by the request thread instead of the shared distributor threads,
+     * because too many sessions were awaiting replication, if "interval" snapshot mode is used.
+     */
+    long getThrottledReplicationCount();
+
+    /**
+     * Gets the number of sessions which were not replicated at the end of a request, because the request did not modify them,
+     * if the read-only fast path is enabled.
+     */
+    long getReadOnlyRequestCount();
+
     /**
      * Gets the number of duplicated session ids generated.
      */
@@ -23,15 +23,33 @@ package org.jboss.as.web.session;
 
 import static org.jboss.as.web.WebMessages.MESSAGES;
 
-import java.util.HashSet;
-import java.util.LinkedHashSet;
-import java.util.Set;
+import java.security.AccessController;
+import java.security.PrivilegedAction;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 
+import org.jboss.as.clustering.web.BatchingManager;
 import org.jboss.as.clustering.web.OutgoingDistributableSessionData;
 import org.jboss.logging.Logger;
+import org.jboss.threads.JBossThreadFactory;
 
 /**
  * A snapshot manager that collects all modified sessions over a given period of time and distributes them en bloc.
+ * <p/>
+ * The sessions of all contexts are distributed by a shared, bounded pool of threads; repeated modifications of a session
+ * within an interval are coalesced into a single replication, and the sessions collected within an interval are replicated
+ * in batches of up to {@value #BATCH_SIZE}. If more than the configured maximum number of sessions await replication, the
+ * thread that modified a session replicates it itself.
  *
  * @author Thomas Peuss <jboss@peuss.de>
  * @author Brian Stansberry
@@ -40,28 +58,54 @@ import org.jboss.logging.Logger;
 public class IntervalSnapshotManager extends SnapshotManager implements Runnable {
     static Logger log = Logger.getLogger(IntervalSnapshotManager.class);
 
+    /**
+     * System property specifying the number of threads distributing the sessions of all contexts.
+     */
+    public static final String DISTRIBUTOR_THREADS = "jboss.web.clustered.session.snapshot.threads";
+
+    /**
+     * System property specifying the maximum number of sessions per context awaiting replication, beyond which sessions are
+     * replicated by the thread that modified them.
+     */
+    public static final String MAX_QUEUE_DEPTH = "jboss.web.clustered.session.snapshot.max-queue-depth";
+
+    static final int BATCH_SIZE = 100;
+
     // the interval in ms
     private int interval = 1000;
 
+    private final BatchingManager batchingManager;
+    private final int maxQueueDepth;
+
     // the modified sessions
-    private Set<ClusteredSession<? extends OutgoingDistributableSessionData>> sessions = new LinkedHashSet<ClusteredSession<? extends OutgoingDistributableSessionData>>();
+    private final ConcurrentMap<ClusteredSession<? extends OutgoingDistributableSessionData>, Boolean> sessions = new ConcurrentHashMap<ClusteredSession<? extends OutgoingDistributableSessionData>, Boolean>();
+    private final AtomicInteger queueDepth = new AtomicInteger();
+    private final AtomicLong coalescedCount = new AtomicLong();
+    private final AtomicLong throttledCount = new AtomicLong();
 
-    // the distribute thread
-    private Thread thread = null;
+    // the scheduled distribution
+    private ScheduledFuture<?> future = null;
 
     // Is session processing allowed?
-    private boolean processingAllowed = false;
-
-    // has the thread finished?
-    private boolean threadDone = false;
+    private volatile boolean processingAllowed = false;
 
     public IntervalSnapshotManager(SessionManager manager, String path) {
-        super(manager, path);
+        this(manager, path, 1000, null);
     }
 
     public IntervalSnapshotManager(SessionManager manager, String path, int interval) {
+        this(manager, path, interval, null);
+    }
+
+    public IntervalSnapshotManager(SessionManager manager, String path, int interval, BatchingManager batchingManager) {
+        this(manager, path, interval, batchingManager, Integer.getInteger(MAX_QUEUE_DEPTH, 10000).intValue());
+    }
+
+    IntervalSnapshotManager(SessionManager manager, String path, int interval, BatchingManager batchingManager, int maxQueueDepth) {
         super(manager, path);
         this.interval = interval;
+        this.batchingManager = batchingManager;
+        this.maxQueueDepth = maxQueueDepth;
     }
 
     /**
@@ -70,9 +114,19 @@ public class IntervalSnapshotManager extends SnapshotManager implements Runnable
     @Override
     public void snapshot(ClusteredSession<? extends OutgoingDistributableSessionData> session) {
         try {
-            // Don't hold a ref to the session for a long time
-            synchronized (sessions) {
-                sessions.add(session);
+            if (sessions.putIfAbsent(session, Boolean.TRUE) != null) {
+                // Already awaiting replication
+                coalescedCount.incrementAndGet();
+                return;
+            }
+            if (queueDepth.incrementAndGet() > maxQueueDepth) {
+                // The distributor threads are falling behind, so replicate on the calling thread.
+                // If the session is no longer queued, it was replicated in the meantime.
+                if (sessions.remove(session) != null) {
+                    queueDepth.decrementAndGet();
+                    throttledCount.incrementAndGet();
+                    getManager().storeSession(session);
+                }
             }
         } catch (Exception e) {
             log.error(MESSAGES.failedQueueingSessionReplication(session), e);
@@ -83,33 +137,131 @@ public class IntervalSnapshotManager extends SnapshotManager implements Runnable
      * Distribute all modified sessions
      */
     protected void processSessions() {
-        Set<ClusteredSession<? extends OutgoingDistributableSessionData>> toProcess = null;
-        synchronized (sessions) {
-            toProcess = new HashSet<ClusteredSession<? extends OutgoingDistributableSessionData>>(sessions);
-            sessions.clear();
+        List<ClusteredSession<? extends OutgoingDistributableSessionData>> batch = new ArrayList<ClusteredSession<? extends OutgoingDistributableSessionData>>(BATCH_SIZE);
+        Iterator<ClusteredSession<? extends OutgoingDistributableSessionData>> toProcess = sessions.keySet().iterator();
+        // Sessions queued after we started are left for the next interval
+        int remaining = queueDepth.get();
+        while (toProcess.hasNext() && (remaining > 0) && processingAllowed) {
+            ClusteredSession<? extends OutgoingDistributableSessionData> session = toProcess.next();
+            if (sessions.remove(session) != null) {
+                queueDepth.decrementAndGet();
+                remaining -= 1;
+                batch.add(session);
+                if (batch.size() == BATCH_SIZE) {
+                    storeSessions(batch);
+                    batch.clear();
+                }
+            }
         }
+        if (!batch.isEmpty()) {
+            storeSessions(batch);
+        }
+    }
 
-        SessionManager mgr = getManager();
-        for (ClusteredSession<? extends OutgoingDistributableSessionData> session : toProcess) {
-            // Confirm we haven't been stopped
-            if (!processingAllowed)
-                break;
-
+    /**
+     * Replicates the given sessions within a single batch. If the batch is rolled back, e.g. since the replication of one
+     * of the sessions failed, the sessions are replicated again, each within its own batch.
+     */
+    private void storeSessions(List<ClusteredSession<? extends OutgoingDistributableSessionData>> batch) {
+        boolean endBatch = false;
+        if (batchingManager != null) {
             try {
-                mgr.storeSession(session);
+                if (!batchingManager.isBatchInProgress()) {
+                    batchingManager.startBatch();
+                    endBatch = true;
+                }
             } catch (Exception e) {
-                getLog().error(MESSAGES.failedToStoreSession(session.getRealId()), e);
+                // Replicate each session within its own batch
+                getLog().debug("storeSessions(): failed to start batch", e);
+            }
+        }
+        if (!endBatch) {
+            for (ClusteredSession<? extends OutgoingDistributableSessionData> session : batch) {
+                // Confirm we haven't been stopped
+                if (!processingAllowed)
+                    break;
+
+                storeSession(session);
+            }
+            return;
+        }
+        List<ClusteredSession<? extends OutgoingDistributableSessionData>> stored = new ArrayList<ClusteredSession<? extends OutgoingDistributableSessionData>>(batch.size());
+        boolean committed = false;
+        try {
+            for (ClusteredSession<? extends OutgoingDistributableSessionData> session : batch) {
+                if (!processingAllowed)
+                    break;
+
+                if (storeSession(session)) {
+                    stored.add(session);
+                }
+            }
+        } finally {
+            try {
+                committed = batchingManager.endBatch();
+            } catch (RuntimeException e) {
+                getLog().debug("storeSessions(): failed to end batch", e);
+            }
+        }
+        if (!committed) {
+            // The replicated state of these sessions was discarded along with the batch
+            for (ClusteredSession<? extends OutgoingDistributableSessionData> session : stored) {
+                session.replicationRolledBack();
+            }
+            for (ClusteredSession<? extends OutgoingDistributableSessionData> session : stored) {
+                if (!processingAllowed)
+                    break;
+
+                storeSession(session);
             }
         }
     }
 
+    /**
+     * Replicates the given session, within the current batch if there is one.
+     *
+     * @return whether the session needed replication
+     */
+    private boolean storeSession(ClusteredSession<? extends OutgoingDistributableSessionData> session) {
+        try {
+            return getManager().storeSession(session);
+        } catch (Exception e) {
+            getLog().error(MESSAGES.failedToStoreSession(session.getRealId()), e);
+            return false;
+        }
+    }
+
+    /**
+     * Gets the number of modified sessions awaiting replication.
+     */
+    public int getQueueDepth() {
+        return Math.max(queueDepth.get(), 0);
+    }
+
+    /**
+     * Gets the number of modifications which were coalesced with a pending replication of the same session.
+     */
+    public long getCoalescedCount() {
+        return coalescedCount.get();
+    }
+
+    /**
+     * Gets the number of sessions which were replicated by the thread that modified them, since too many sessions were
+     * awaiting replication.
+     */
+    public long getThrottledCount() {
+        return throttledCount.get();
+    }
+
     /**
      * Start the snapshot manager
      */
     @Override
-    public void start() {
+    public synchronized void start() {
         processingAllowed = true;
-        startThread();
+        if (future == null) {
+            future = Distributor.EXECUTOR.scheduleWithFixedDelay(this, interval, interval, TimeUnit.MILLISECONDS);
+        }
     }
 
     /**
@@ -118,72 +270,65 @@ public class IntervalSnapshotManager extends SnapshotManager implements Runnable
     @Override
     public void stop() {
         processingAllowed = false;
-        stopThread();
+        synchronized (this) {
+            if (future != null) {
+                future.cancel(false);
+                future = null;
+            }
+        }
+        // Wait for a distribution in progress
         synchronized (sessions) {
             sessions.clear();
+            queueDepth.set(0);
         }
     }
 
     /**
-     * Start the distributor thread
+     * Distributes the sessions modified during the last interval
      */
-    protected void startThread() {
-        if (thread != null) {
-            return;
-        }
-
-        thread = new Thread(this, "ClusteredSessionDistributor[" + getContextPath() + "]");
-        thread.setDaemon(true);
-        thread.setContextClassLoader(getManager().getContainer().getLoader().getClassLoader());
-        threadDone = false;
-        thread.start();
-    }
-
-    /**
-     * Stop the distributor thread
-     */
-    protected void stopThread() {
-        boolean intr = false;
-        try {
-            if (thread == null) {
+    @Override
+    public void run() {
+        synchronized (sessions) {
+            if (!processingAllowed)
                 return;
-            }
-            threadDone = true;
-            thread.interrupt();
+
+            Thread thread = Thread.currentThread();
+            ClassLoader loader = thread.getContextClassLoader();
+            thread.setContextClassLoader(getManager().getContainer().getLoader().getClassLoader());
             try {
-                thread.join();
-            } catch (InterruptedException e) {
-                intr = true;
+                processSessions();
+            } catch (Exception e) {
+                getLog().error(MESSAGES.exceptionProcessingSessions(), e);
+            } finally {
+                thread.setContextClassLoader(loader);
             }
-            thread = null;
-        } finally {
-            if (intr)
-                Thread.currentThread().interrupt();
         }
     }
 
     /**
-     * Thread-loop
+     * Lazily creates the threads shared by the interval snapshot managers of all contexts.
      */
-    @Override
-    public void run() {
-        boolean intr = false;
-        try {
-            while (!threadDone) {
-                try {
-                    Thread.sleep(interval);
-                    processSessions();
-                } catch (InterruptedException ie) {
-                    Thread.currentThread().interrupt();
-                    if (!threadDone)
-                        getLog().error(MESSAGES.exceptionProcessingSessions(), ie);
-                } catch (Exception e) {
-                    getLog().error(MESSAGES.exceptionProcessingSessions(), e);
+    private static class Distributor {
+        static final ScheduledExecutorService EXECUTOR = createExecutor();
+
+        private static ScheduledExecutorService createExecutor() {
+            int threads = Integer.getInteger(DISTRIBUTOR_THREADS, Runtime.getRuntime().availableProcessors()).intValue();
+            final ThreadFactory factory = new JBossThreadFactory(new ThreadGroup("ClusteredSessionDistributor"), Boolean.TRUE, null, "%G - %t", null, null, AccessController.getContext());
+            ThreadFactory distributorFactory = new ThreadFactory() {
+                @Override
+                public Thread newThread(final Runnable task) {
+                    // Threads are created on demand by whichever context schedules a distribution, so they must not retain its class loader
+                    return AccessController.doPrivileged(new PrivilegedAction<Thread>() {
+                        @Override
+                        public Thread run() {
+                            Thread thread = factory.newThread(task);
+                            thread.setContextClassLoader(null);
+                            return thread;
+                        }
+                    });
                 }
-            }
-        } finally {
-            if (intr)
-                Thread.currentThread().interrupt();
+            };
+            return new ScheduledThreadPoolExecutor(Math.max(threads, 1), distributorFactory);
         }
     }
 }
@@ -0,0 +1,316 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2012, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.jboss.as.web.session;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Index of the sessions which are stored in the distributed cache, but are not loaded by this node.
+ * <p/>
+ * Instead of an {@link OwnedSessionUpdate} per session, the metadata is kept in parallel primitive arrays, addressed
+ * by open addressing with linear probing on the session id. Removed entries leave a marker in their slot, so the
+ * position of the remaining entries only changes when the arrays are reallocated. Data owners are interned, since
+ * there are only as many distinct owners as there are nodes in the cluster.
+ * <p/>
+ * All access is synchronized on the index. A {@link Cursor} copies the entries in small batches, so a sweep over
+ * all sessions never holds the lock for long, and is weakly consistent like the iterators of the concurrent collections.
+ */
+class UnloadedSessionIndex {
+    /** Marks the slot of a removed entry */
+    private static final String REMOVED = new String("<removed>");
+    private static final int MIN_CAPACITY = 16;
+    private static final int PASSIVATED = 1;
+    private static final int OWNER_SHIFT = 1;
+    static final int BATCH_SIZE = 128;
+
+    private final List<String> owners = new ArrayList<String>();
+    private final Map<String, Integer> ownerIndexes = new HashMap<String, Integer>();
+
+    private String[] ids;
+    private long[] updateTimes;
+    private int[] maxInactives;
+    private int[] flags;
+    private int size;
+    // live and removed slots
+    private int occupied;
+
+    UnloadedSessionIndex() {
+        this.owners.add(null);
+        this.allocate(MIN_CAPACITY);
+    }
+
+    /**
+     * Adds or replaces the metadata of the specified session.
+     * @return <code>true</code> if the session was not yet in the index
+     */
+    synchronized boolean put(String realId, String owner, long updateTime, int maxInactive, boolean passivated) {
+        int index = this.indexOf(realId);
+        boolean added = (index < 0);
+        if (added) {
+            if ((this.occupied + 1) * 4 > this.ids.length * 3) {
+                this.rehash();
+            }
+            index = this.freeSlot(realId);
+            if (this.ids[index] == null) {
+                this.occupied += 1;
+            }
+            this.ids[index] = realId;
+            this.size += 1;
+        }
+        this.updateTimes[index] = updateTime;
+        this.maxInactives[index] = maxInactive;
+        this.flags[index] = (this.internOwner(owner) << OWNER_SHIFT) | (passivated ? PASSIVATED : 0);
+        return added;
+    }
+
+    /**
+     * Returns a copy of the metadata of the specified session, or <code>null</code> if the session is not in the index.
+     */
+    synchronized OwnedSessionUpdate get(String realId) {
+        int index = this.indexOf(realId);
+        return (index >= 0) ? new OwnedSessionUpdate(this.owners.get(this.flags[index] >>> OWNER_SHIFT), this.updateTimes[index], this.maxInactives[index], (this.flags[index] & PASSIVATED) != 0) : null;
+    }
+
+    synchronized boolean isPassivated(String realId) {
+        int index = this.indexOf(realId);
+        return (index >= 0) && ((this.flags[index] & PASSIVATED) != 0);
+    }
+
+    /**
+     * Marks the specified session as passivated by this node.
+     * @return <code>false</code> if the session is not in the index
+     */
+    synchronized boolean setPassivated(String realId) {
+        int index = this.indexOf(realId);
+        if (index < 0) return false;
+        this.flags[index] |= PASSIVATED;
+        return true;
+    }
+
+    /**
+     * @return <code>true</code> if the session was in the index
+     */
+    synchronized boolean remove(String realId) {
+        int index = this.indexOf(realId);
+        if (index < 0) return false;
+        this.ids[index] = REMOVED;
+        this.size -= 1;
+        return true;
+    }
+
+    synchronized int size() {
+        return this.size;
+    }
+
+    synchronized void clear() {
+        // Allocate new arrays, instead of clearing the current ones, which may still be traversed by a cursor
+        this.allocate(MIN_CAPACITY);
+        this.size = 0;
+        this.occupied = 0;
+    }
+
+    /**
+     * Returns a snapshot of the ids of all sessions in the index.
+     */
+    synchronized List<String> ids() {
+        List<String> result = new ArrayList<String>(this.size);
+        for (String id : this.ids) {
+            if (id != null && id != REMOVED) {
+                result.add(id);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Returns a new cursor positioned before the first entry of the index.
+     */
+    Cursor cursor() {
+        return new Cursor();
+    }
+
+    private int indexOf(String realId) {
+        String[] ids = this.ids;
+        int mask = ids.length - 1;
+        for (int index = hash(realId) & mask; ; index = (index + 1) & mask) {
+            String id = ids[index];
+            if (id == null) return -1;
+            if (id != REMOVED && id.equals(realId)) return index;
+        }
+    }
+
+    private int freeSlot(String realId) {
+        String[] ids = this.ids;
+        int mask = ids.length - 1;
+        int index = hash(realId) & mask;
+        while (ids[index] != null && ids[index] != REMOVED) {
+            index = (index + 1) & mask;
+        }
+        return index;
+    }
+
+    private void rehash() {
+        String[] ids = this.ids;
+        long[] updateTimes = this.updateTimes;
+        int[] maxInactives = this.maxInactives;
+        int[] flags = this.flags;
+        // Keep the load factor of the new arrays at or below 1/2; this only reclaims removed slots if there are enough
+        int capacity = ids.length;
+        while (this.size * 2 >= capacity) {
+            capacity <<= 1;
+        }
+        this.allocate(capacity);
+        this.occupied = this.size;
+        for (int i = 0; i < ids.length; ++i) {
+            String id = ids[i];
+            if (id != null && id != REMOVED) {
+                int index = this.freeSlot(id);
+                this.ids[index] = id;
+                this.updateTimes[index] = updateTimes[i];
+                this.maxInactives[index] = maxInactives[i];
+                this.flags[index] = flags[i];
+            }
+        }
+    }
+
+    private void allocate(int capacity) {
+        this.ids = new String[capacity];
+        this.updateTimes = new long[capacity];
+        this.maxInactives = new int[capacity];
+        this.flags = new int[capacity];
+    }
+
+    private int internOwner(String owner) {
+        if (owner == null) return 0;
+        Integer index = this.ownerIndexes.get(owner);
+        if (index == null) {
+            index = Integer.valueOf(this.owners.size());
+            this.owners.add(owner);
+            this.ownerIndexes.put(owner, index);
+        }
+        return index.intValue();
+    }
+
+    private static int hash(String realId) {
+        // Session ids are random, but spread the bits anyway, since only the low bits are used
+        int h = realId.hashCode();
+        h ^= (h >>> 16);
+        h *= 0x85ebca6b;
+        h ^= (h >>> 13);
+        return h;
+    }
+
+    /**
+     * Forward-only view of the entries of the index. Entries added or removed while the cursor is in use may or may not
+     * be seen. A cursor must not be shared between threads.
+     */
+    class Cursor {
+        private final String[] batchIds = new String[BATCH_SIZE];
+        private final long[] batchUpdateTimes = new long[BATCH_SIZE];
+        private final int[] batchMaxInactives = new int[BATCH_SIZE];
+        private final String[] batchOwners = new String[BATCH_SIZE];
+        private final boolean[] batchPassivated = new boolean[BATCH_SIZE];
+        private String[] table;
+        private int slot;
+        private int count;
+        private int position = -1;
+
+        Cursor() {
+            synchronized (UnloadedSessionIndex.this) {
+                this.table = UnloadedSessionIndex.this.ids;
+            }
+        }
+
+        /**
+         * Moves the cursor to the next entry.
+         * @return <code>false</code> if there are no more entries
+         */
+        boolean next() {
+            if (this.position + 1 < this.count) {
+                this.position += 1;
+                return true;
+            }
+            this.fetch();
+            this.position = 0;
+            return this.count > 0;
+        }
+
+        String getId() {
+            return this.batchIds[this.position];
+        }
+
+        String getOwner() {
+            return this.batchOwners[this.position];
+        }
+
+        long getUpdateTime() {
+            return this.batchUpdateTimes[this.position];
+        }
+
+        int getMaxInactive() {
+            return this.batchMaxInactives[this.position];
+        }
+
+        boolean isPassivated() {
+            return this.batchPassivated[this.position];
+        }
+
+        /**
+         * Returns a copy of the current entry.
+         */
+        OwnedSessionUpdate toUpdate() {
+            return new OwnedSessionUpdate(this.getOwner(), this.getUpdateTime(), this.getMaxInactive(), this.isPassivated());
+        }
+
+        private void fetch() {
+            Arrays.fill(this.batchIds, 0, this.count, null);
+            Arrays.fill(this.batchOwners, 0, this.count, null);
+            this.count = 0;
+            synchronized (UnloadedSessionIndex.this) {
+                UnloadedSessionIndex index = UnloadedSessionIndex.this;
+                // If the arrays were reallocated since the cursor was created, the cursor keeps traversing the old ones,
+                // which are no longer modified, and looks up the current metadata of each session
+                boolean current = (this.table == index.ids);
+                while (this.slot < this.table.length && this.count < BATCH_SIZE) {
+                    String id = this.table[this.slot];
+                    int i = current ? this.slot : -1;
+                    this.slot += 1;
+                    if (id == null || id == REMOVED) continue;
+                    if (!current) {
+                        i = index.indexOf(id);
+                        if (i < 0) continue;
+                    }
+                    this.batchIds[this.count] = id;
+                    this.batchUpdateTimes[this.count] = index.updateTimes[i];
+                    this.batchMaxInactives[this.count] = index.maxInactives[i];
+                    this.batchOwners[this.count] = index.owners.get(index.flags[i] >>> OWNER_SHIFT);
+                    this.batchPassivated[this.count] = (index.flags[i] & PASSIVATED) != 0;
+                    this.count += 1;
+                }
+            }
+        }
+    }
+}
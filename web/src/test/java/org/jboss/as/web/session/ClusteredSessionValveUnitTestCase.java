@@ -0,0 +1,92 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2012, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.jboss.as.web.session;
+
+import static org.junit.Assert.assertEquals;
+import static org.mockito.Mockito.*;
+
+import org.apache.catalina.Manager;
+import org.apache.catalina.Valve;
+import org.apache.catalina.connector.Request;
+import org.apache.catalina.connector.Response;
+import org.jboss.as.clustering.web.OutgoingDistributableSessionData;
+import org.junit.Test;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.stubbing.Answer;
+
+/**
+ * Tests the read-only fast path of {@link ClusteredSessionValve}.
+ */
+public class ClusteredSessionValveUnitTestCase {
+    private final Manager manager = mock(Manager.class);
+    private final SnapshotManager snapshotManager = mock(SnapshotManager.class);
+    @SuppressWarnings("unchecked")
+    private final ClusteredSession<OutgoingDistributableSessionData> session = mock(ClusteredSession.class);
+    private final Valve next = mock(Valve.class);
+    private final Request request = mock(Request.class);
+    private final Response response = mock(Response.class);
+
+    @Test
+    public void readOnlyFastPath() throws Exception {
+        ClusteredSessionValve valve = this.createValve(true);
+
+        // Neither modified, nor timestamp due
+        valve.invoke(this.request, this.response);
+        verify(this.snapshotManager, never()).snapshot(this.session);
+        assertEquals(1, valve.getReadOnlyCount());
+
+        when(this.session.getMustReplicateTimestamp()).thenReturn(true);
+        valve.invoke(this.request, this.response);
+        verify(this.snapshotManager, times(1)).snapshot(this.session);
+
+        when(this.session.getMustReplicateTimestamp()).thenReturn(false);
+        when(this.session.isSessionDirty()).thenReturn(true);
+        valve.invoke(this.request, this.response);
+        verify(this.snapshotManager, times(2)).snapshot(this.session);
+        assertEquals(1, valve.getReadOnlyCount());
+    }
+
+    @Test
+    public void disabled() throws Exception {
+        ClusteredSessionValve valve = this.createValve(false);
+
+        valve.invoke(this.request, this.response);
+        verify(this.snapshotManager).snapshot(this.session);
+        assertEquals(0, valve.getReadOnlyCount());
+    }
+
+    private ClusteredSessionValve createValve(boolean readOnlyFastPath) throws Exception {
+        ClusteredSessionValve valve = new ClusteredSessionValve(this.manager, null, readOnlyFastPath);
+        valve.setNext(this.next);
+
+        doAnswer(new Answer<Void>() {
+            @Override
+            public Void answer(InvocationOnMock invocation) {
+                SessionReplicationContext.bindSession(ClusteredSessionValveUnitTestCase.this.session, ClusteredSessionValveUnitTestCase.this.snapshotManager);
+                return null;
+            }
+        }).when(this.next).invoke(this.request, this.response);
+
+        return valve;
+    }
+}
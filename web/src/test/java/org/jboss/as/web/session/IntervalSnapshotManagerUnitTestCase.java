@@ -0,0 +1,160 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2012, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.jboss.as.web.session;
+
+import static org.junit.Assert.assertEquals;
+import static org.mockito.Mockito.*;
+
+import org.apache.catalina.Container;
+import org.apache.catalina.Loader;
+import org.jboss.as.clustering.web.BatchingManager;
+import org.jboss.as.clustering.web.OutgoingDistributableSessionData;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.stubbing.Answer;
+
+/**
+ * Tests coalescing, batching and back-pressure of {@link IntervalSnapshotManager}.
+ */
+public class IntervalSnapshotManagerUnitTestCase {
+    private final SessionManager manager = mock(SessionManager.class);
+    private final BatchingManager batchingManager = mock(BatchingManager.class);
+    private IntervalSnapshotManager snapshotManager;
+
+    @Before
+    public void setUp() {
+        when(this.batchingManager.endBatch()).thenReturn(true);
+        Container container = mock(Container.class);
+        Loader loader = mock(Loader.class);
+        when(this.manager.getContainer()).thenReturn(container);
+        when(container.getLoader()).thenReturn(loader);
+        when(loader.getClassLoader()).thenReturn(this.getClass().getClassLoader());
+    }
+
+    @After
+    public void tearDown() {
+        if (this.snapshotManager != null) {
+            this.snapshotManager.stop();
+        }
+    }
+
+    @Test
+    public void testCoalesce() throws Exception {
+        this.snapshotManager = this.createSnapshotManager(100);
+        ClusteredSession<? extends OutgoingDistributableSessionData> session = createSession();
+
+        this.snapshotManager.snapshot(session);
+        this.snapshotManager.snapshot(session);
+        this.snapshotManager.snapshot(session);
+
+        assertEquals(1, this.snapshotManager.getQueueDepth());
+        assertEquals(2, this.snapshotManager.getCoalescedCount());
+        verify(this.manager, never()).storeSession(session);
+
+        this.snapshotManager.run();
+
+        assertEquals(0, this.snapshotManager.getQueueDepth());
+        verify(this.manager, times(1)).storeSession(session);
+        verify(this.batchingManager, times(1)).startBatch();
+        verify(this.batchingManager, times(1)).endBatch();
+    }
+
+    @Test
+    public void testBatches() throws Exception {
+        this.snapshotManager = this.createSnapshotManager(1000);
+        int count = IntervalSnapshotManager.BATCH_SIZE + 1;
+        for (int i = 0; i < count; ++i) {
+            this.snapshotManager.snapshot(createSession());
+        }
+
+        assertEquals(count, this.snapshotManager.getQueueDepth());
+
+        this.snapshotManager.run();
+
+        assertEquals(0, this.snapshotManager.getQueueDepth());
+        verify(this.manager, times(count)).storeSession(any(ClusteredSession.class));
+        verify(this.batchingManager, times(2)).startBatch();
+        verify(this.batchingManager, times(2)).endBatch();
+    }
+
+    @Test
+    public void testBackPressure() throws Exception {
+        this.snapshotManager = this.createSnapshotManager(1);
+        ClusteredSession<? extends OutgoingDistributableSessionData> queued = createSession();
+        ClusteredSession<? extends OutgoingDistributableSessionData> throttled = createSession();
+
+        this.snapshotManager.snapshot(queued);
+        this.snapshotManager.snapshot(throttled);
+
+        assertEquals(1, this.snapshotManager.getQueueDepth());
+        assertEquals(1, this.snapshotManager.getThrottledCount());
+        verify(this.manager, never()).storeSession(queued);
+        verify(this.manager, times(1)).storeSession(throttled);
+
+        this.snapshotManager.run();
+
+        verify(this.manager, times(1)).storeSession(queued);
+    }
+
+    @Test
+    public void testRollback() throws Exception {
+        this.snapshotManager = this.createSnapshotManager(100);
+        ClusteredSession<? extends OutgoingDistributableSessionData> session = createSession();
+        ClusteredSession<? extends OutgoingDistributableSessionData> failing = createSession();
+        when(this.manager.storeSession(session)).thenReturn(true);
+        // Like DistributableSessionManager, mark the batch rollback only if the replication fails
+        when(this.manager.storeSession(failing)).thenAnswer(new Answer<Boolean>() {
+            @Override
+            public Boolean answer(InvocationOnMock invocation) throws Throwable {
+                IntervalSnapshotManagerUnitTestCase.this.batchingManager.setBatchRollbackOnly();
+                return true;
+            }
+        });
+        when(this.batchingManager.endBatch()).thenReturn(false);
+
+        this.snapshotManager.snapshot(session);
+        this.snapshotManager.snapshot(failing);
+        this.snapshotManager.run();
+
+        verify(this.batchingManager, times(1)).startBatch();
+        verify(this.batchingManager, times(1)).endBatch();
+        // Both are replicated again, each outside the rolled back batch
+        verify(session).replicationRolledBack();
+        verify(failing).replicationRolledBack();
+        verify(this.manager, times(2)).storeSession(session);
+        verify(this.manager, times(2)).storeSession(failing);
+    }
+
+    private IntervalSnapshotManager createSnapshotManager(int maxQueueDepth) {
+        IntervalSnapshotManager snapshotManager = new IntervalSnapshotManager(this.manager, "/test", Integer.MAX_VALUE, this.batchingManager, maxQueueDepth);
+        snapshotManager.start();
+        return snapshotManager;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static ClusteredSession<? extends OutgoingDistributableSessionData> createSession() {
+        return mock(ClusteredSession.class);
+    }
+}
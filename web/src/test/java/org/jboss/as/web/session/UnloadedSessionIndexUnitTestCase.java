@@ -0,0 +1,148 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2012, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.jboss.as.web.session;
+
+import static org.junit.Assert.*;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+import org.junit.Test;
+
+/**
+ * Tests {@link UnloadedSessionIndex}.
+ */
+public class UnloadedSessionIndexUnitTestCase {
+    private final UnloadedSessionIndex index = new UnloadedSessionIndex();
+
+    @Test
+    public void putGetRemove() {
+        assertNull(this.index.get("abc"));
+        assertTrue(this.index.put("abc", "owner", 100L, 30, false));
+        assertEquals(1, this.index.size());
+
+        OwnedSessionUpdate osu = this.index.get("abc");
+        assertEquals("owner", osu.getOwner());
+        assertEquals(100L, osu.getUpdateTime());
+        assertEquals(30, osu.getMaxInactive());
+        assertFalse(osu.isPassivated());
+
+        assertFalse(this.index.put("abc", null, 200L, 60, false));
+        assertEquals(1, this.index.size());
+        osu = this.index.get("abc");
+        assertNull(osu.getOwner());
+        assertEquals(200L, osu.getUpdateTime());
+        assertEquals(60, osu.getMaxInactive());
+
+        assertTrue(this.index.setPassivated("abc"));
+        assertTrue(this.index.isPassivated("abc"));
+        assertFalse(this.index.setPassivated("xyz"));
+        assertFalse(this.index.isPassivated("xyz"));
+
+        assertTrue(this.index.remove("abc"));
+        assertFalse(this.index.remove("abc"));
+        assertNull(this.index.get("abc"));
+        assertEquals(0, this.index.size());
+    }
+
+    @Test
+    public void growAndReuseRemovedSlots() {
+        int count = 10000;
+        for (int i = 0; i < count; ++i) {
+            this.index.put(String.valueOf(i), (i % 2 == 0) ? null : "owner" + (i % 3), i, i % 60, i % 5 == 0);
+        }
+        assertEquals(count, this.index.size());
+        for (int i = 0; i < count; i += 2) {
+            assertTrue(this.index.remove(String.valueOf(i)));
+        }
+        // Repeatedly removing and adding must not grow the index without bounds
+        for (int round = 0; round < 10; ++round) {
+            for (int i = 0; i < count; i += 2) {
+                this.index.put("x" + i, null, i, 0, false);
+            }
+            for (int i = 0; i < count; i += 2) {
+                this.index.remove("x" + i);
+            }
+        }
+        assertEquals(count / 2, this.index.size());
+        assertEquals(count / 2, this.index.ids().size());
+        for (int i = 1; i < count; i += 2) {
+            OwnedSessionUpdate osu = this.index.get(String.valueOf(i));
+            assertNotNull(osu);
+            assertEquals("owner" + (i % 3), osu.getOwner());
+            assertEquals(i, osu.getUpdateTime());
+            assertEquals(i % 60, osu.getMaxInactive());
+            assertEquals(i % 5 == 0, osu.isPassivated());
+        }
+    }
+
+    @Test
+    public void cursor() {
+        Map<String, Long> expected = new HashMap<String, Long>();
+        for (int i = 0; i < 1000; ++i) {
+            this.index.put(String.valueOf(i), null, i, 30, false);
+            expected.put(String.valueOf(i), Long.valueOf(i));
+        }
+
+        Set<String> visited = new HashSet<String>();
+        UnloadedSessionIndex.Cursor cursor = this.index.cursor();
+        while (cursor.next()) {
+            String id = cursor.getId();
+            assertTrue(visited.add(id));
+            assertEquals(expected.get(id).longValue(), cursor.getUpdateTime());
+            assertEquals(30, cursor.getMaxInactive());
+            // Removing the current entry must not disturb the cursor
+            this.index.remove(id);
+        }
+        assertEquals(expected.keySet(), visited);
+        assertEquals(0, this.index.size());
+        assertFalse(this.index.cursor().next());
+    }
+
+    @Test
+    public void cursorAcrossRehash() {
+        for (int i = 0; i < 100; ++i) {
+            this.index.put(String.valueOf(i), null, i, 30, false);
+        }
+
+        Set<String> visited = new HashSet<String>();
+        UnloadedSessionIndex.Cursor cursor = this.index.cursor();
+        // Force the arrays to be reallocated while the cursor is in use
+        for (int i = 100; i < 10000; ++i) {
+            this.index.put(String.valueOf(i), null, i, 30, false);
+        }
+        this.index.setPassivated("50");
+        this.index.remove("51");
+        while (cursor.next()) {
+            String id = cursor.getId();
+            assertTrue(visited.add(id));
+            assertEquals(id.equals("50"), cursor.isPassivated());
+        }
+        // All entries which existed when the cursor was created, and were not removed since, are visited
+        for (int i = 0; i < 100; ++i) {
+            assertEquals(i != 51, visited.contains(String.valueOf(i)));
+        }
+    }
+}
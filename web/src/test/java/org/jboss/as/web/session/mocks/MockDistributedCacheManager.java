@@ -30,7 +30,9 @@ import org.jboss.as.clustering.web.BatchingManager;
 import org.jboss.as.clustering.web.DistributedCacheManager;
 import org.jboss.as.clustering.web.IncomingDistributableSessionData;
 import org.jboss.as.clustering.web.OutgoingDistributableSessionData;
+import org.jboss.as.clustering.web.SessionMetadataVisitor;
 import org.jboss.as.clustering.web.SessionOwnershipSupport;
+import org.jboss.as.clustering.web.SessionReplicationStatistics;
 
 /**
  * @author Brian Stansberry
@@ -75,6 +77,10 @@ public class MockDistributedCacheManager implements DistributedCacheManager<Outg
         return Collections.emptyMap();
     }
 
+    public void visitSessions(SessionMetadataVisitor visitor) {
+        // no-op
+    }
+
     public boolean isPassivationEnabled() {
         return false;
     }
@@ -152,12 +158,17 @@ public class MockDistributedCacheManager implements DistributedCacheManager<Outg
         return null;
     }
 
+    @Override
+    public SessionReplicationStatistics getReplicationStatistics() {
+        return null;
+    }
+
     private static class MockBatchingManager implements BatchingManager {
         private static final MockBatchingManager INSTANCE = new MockBatchingManager();
 
-        public void endBatch() {
+        public boolean endBatch() {
             // TODO Auto-generated method stub
-
+            return true;
         }
 
         public boolean isBatchInProgress() throws Exception {